@@ -16,6 +16,7 @@ import jbse.mem.State;
 import jbse.rules.TriggerRulesRepo;
 import jbse.tree.DecisionAlternative;
 import jbse.tree.DecisionAlternativeComparators;
+import jbse.tree.SearchStrategy;
 import jbse.tree.StateTree;
 import jbse.tree.StateTree.BreadthMode;
 import jbse.tree.StateTree.StateIdentificationMode;
@@ -59,13 +60,13 @@ public final class ExecutionContext {
     private final DecisionAlternativeComparators comparators;
     
     /** The {@link DispatcherBytecodeAlgorithm}. */
-    public final DispatcherBytecodeAlgorithm dispatcher = new DispatcherBytecodeAlgorithm();
+    public final DispatcherBytecodeAlgorithm dispatcher;
     
     /** 
      * The {@link DispatcherMeta} for handling methods with 
      * meta-level implementation. 
      */
-    public final DispatcherMeta dispatcherMeta = new DispatcherMeta();
+    public final DispatcherMeta dispatcherMeta;
 	
 	/** The symbolic execution's {@link DecisionProcedureAlgorithms}. */
 	public final DecisionProcedureAlgorithms decisionProcedure;
@@ -99,6 +100,8 @@ public final class ExecutionContext {
 	 * @param decisionProcedure a {@link DecisionProcedureAlgorithms}.
 	 * @param stateIdentificationMode a {@link StateIdentificationMode}.
 	 * @param breadthMode a {@link BreadthMode}.
+	 * @param searchStrategy a {@link SearchStrategy}, which will 
+	 *        choose the pending branch to resume at backtrack.
 	 * @param classFileFactoryClass a {@link Class}{@code <? extends }{@link ClassFileFactory}{@code >}
 	 *        that will be instantiated by the engine to retrieve classfiles. It must 
 	 *        provide a parameterless public constructor.
@@ -121,6 +124,7 @@ public final class ExecutionContext {
     		DecisionProcedureAlgorithms decisionProcedure,
     		StateIdentificationMode stateIdentificationMode,
     		BreadthMode breadthMode,
+    		SearchStrategy searchStrategy,
     		Class<? extends ClassFileFactory> classFileFactoryClass, 
     		Map<String, Set<String>> expansionBackdoor,
     		TriggerRulesRepo rulesTrigger,
@@ -131,12 +135,55 @@ public final class ExecutionContext {
 		this.rootMethodSignature = rootMethodSignature;
     	this.calc = calc;
 		this.decisionProcedure = decisionProcedure;
-		this.stateTree = new StateTree(stateIdentificationMode, breadthMode);
+		this.stateTree = new StateTree(stateIdentificationMode, breadthMode, searchStrategy);
 		this.classFileFactoryClass = classFileFactoryClass;
 		this.expansionBackdoor = new HashMap<>(expansionBackdoor);      //safety copy
 		this.triggerManager = new TriggerManager(rulesTrigger.clone()); //safety copy
 		this.comparators = comparators;
 		this.nativeInvoker = nativeInvoker;
+		this.dispatcher = new DispatcherBytecodeAlgorithm();
+		this.dispatcherMeta = new DispatcherMeta();
+    }
+    
+    /**
+     * Constructor. Creates an execution context that shares 
+     * with another one everything but the initial state and
+     * the state tree, so it needs not to rebuild the algorithms,
+     * the meta-level directives and the trigger rules. The 
+     * two contexts must not be used at the same time.
+     * 
+     * @param warm the {@link ExecutionContext} whose components
+     *        are shared. 
+     * @param initialState the initial {@code State}, or {@code null} 
+     *        if no initial state. It must be coherent with {@code warm}.
+	 *        It will not be modified, but it shall not be modified externally.
+	 * @param rootMethodSignature the {@link Signature} of the root method
+	 *        of the symbolic execution.
+	 * @param stateIdentificationMode a {@link StateIdentificationMode}.
+	 * @param breadthMode a {@link BreadthMode}.
+	 * @param searchStrategy a {@link SearchStrategy}, which will 
+	 *        choose the pending branch to resume at backtrack.
+     */
+    public ExecutionContext(
+    		ExecutionContext warm, 
+    		State initialState,
+    		Signature rootMethodSignature,
+    		StateIdentificationMode stateIdentificationMode,
+    		BreadthMode breadthMode,
+    		SearchStrategy searchStrategy) {
+    	this.initialState = initialState;
+    	this.classpath = warm.classpath;
+    	this.rootMethodSignature = rootMethodSignature;
+    	this.calc = warm.calc;
+    	this.decisionProcedure = warm.decisionProcedure;
+    	this.stateTree = new StateTree(stateIdentificationMode, breadthMode, searchStrategy);
+    	this.classFileFactoryClass = warm.classFileFactoryClass;
+    	this.expansionBackdoor = warm.expansionBackdoor;
+    	this.triggerManager = warm.triggerManager;
+    	this.comparators = warm.comparators;
+    	this.nativeInvoker = warm.nativeInvoker;
+    	this.dispatcher = warm.dispatcher;
+    	this.dispatcherMeta = warm.dispatcherMeta;
     }
     
     /**
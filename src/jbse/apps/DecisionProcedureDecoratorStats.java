@@ -1,6 +1,9 @@
 package jbse.apps;
 
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 import jbse.bc.ClassHierarchy;
 import jbse.dec.DecisionProcedure;
@@ -10,124 +13,245 @@ import jbse.dec.exc.InvalidInputException;
 import jbse.mem.Clause;
 import jbse.mem.Objekt;
 import jbse.val.Expression;
+import jbse.val.PrimitiveSymbolic;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
 
 /**
- * A {@link DecisionProcedureDecorator} that logs the time spent 
- * by each method invocation for its component.
+ * A {@link DecisionProcedureDecorator} that collects, for each kind
+ * of operation, the number of invocations of its component and a 
+ * {@link LatencyHistogram} of their latencies. It can be safely 
+ * read while the component is in use.
  *  
  * @author Pietro Braione
  */
 public class DecisionProcedureDecoratorStats extends DecisionProcedureDecorator {
-	private long start;
-	
-	private void startTimer() {
-		this.start = System.currentTimeMillis();
-	}
-
-	private long elapsed() {
-		final long elapsed = System.currentTimeMillis() - this.start;
-		return elapsed;
+	/**
+	 * The kinds of the operations of a {@link DecisionProcedure}.
+	 * 
+	 * @author Pietro Braione
+	 */
+	public enum Operation {
+		PUSH, CLEAR, ADD_ASSUMPTIONS, SET_ASSUMPTIONS, GET_ASSUMPTIONS, 
+		IS_SAT, IS_SAT_NULL, IS_SAT_ALIASES, IS_SAT_EXPANDS, 
+		IS_SAT_INITIALIZED, IS_SAT_NOT_INITIALIZED, GET_MODEL
 	}
+	
+	/** The header of the summary produced by {@link #summary(List)}. */
+	public static final String SUMMARY_HEADER = "member\toperation\tcount\ttotal_ns\tself_ns\tp50_ns\tp90_ns\tp99_ns\tmax_ns";
+	
+	private final String name;
+	private final EnumMap<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
 
-	public DecisionProcedureDecoratorStats(DecisionProcedure component) {
+	/**
+	 * Constructor.
+	 * 
+	 * @param component the decorated {@link DecisionProcedure}.
+	 * @param name a {@link String}, the name of {@code component}
+	 *        in the summaries.
+	 */
+	public DecisionProcedureDecoratorStats(DecisionProcedure component, String name) {
 		super(component);
+		this.name = name;
+		for (Operation operation : Operation.values()) {
+			this.latencies.put(operation, new LatencyHistogram());
+		}
+	}
+	
+	/**
+	 * Returns the name of the decorated {@link DecisionProcedure}.
+	 * 
+	 * @return a {@link String}.
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Returns the latencies of an operation.
+	 * 
+	 * @param operation an {@link Operation}.
+	 * @return the {@link LatencyHistogram} of {@code operation}.
+	 */
+	public LatencyHistogram getLatencies(Operation operation) {
+		return this.latencies.get(operation);
+	}
+	
+	/**
+	 * Produces a tab-separated summary of the statistics of 
+	 * the members of a chain of decision procedures, with 
+	 * header {@link #SUMMARY_HEADER} and a row for each 
+	 * member and invoked operation. Since every member 
+	 * delegates to the next ones, the time spent in a member
+	 * includes the time spent in the next ones, the self 
+	 * time excludes it. 
+	 * 
+	 * @param chain a {@link List}{@code <}{@link DecisionProcedureDecoratorStats}{@code >}, 
+	 *        the decorators of the members of the chain, from
+	 *        the outermost to the innermost one.
+	 * @return a {@link String}.
+	 */
+	public static String summary(List<DecisionProcedureDecoratorStats> chain) {
+		final StringBuilder retVal = new StringBuilder(SUMMARY_HEADER);
+		retVal.append('\n');
+		for (int i = 0; i < chain.size(); ++i) {
+			final DecisionProcedureDecoratorStats member = chain.get(i);
+			final DecisionProcedureDecoratorStats next = (i + 1 < chain.size() ? chain.get(i + 1) : null);
+			for (Map.Entry<Operation, LatencyHistogram> entry : member.latencies.entrySet()) {
+				final LatencyHistogram latencies = entry.getValue();
+				final long count = latencies.getCount();
+				if (count == 0) {
+					continue;
+				}
+				final long total = latencies.getTotal();
+				final long self = (next == null ? total : Math.max(0, total - next.getLatencies(entry.getKey()).getTotal()));
+				retVal.append(member.name).append('\t')
+				.append(entry.getKey()).append('\t')
+				.append(count).append('\t')
+				.append(total).append('\t')
+				.append(self).append('\t')
+				.append(latencies.getPercentile(50)).append('\t')
+				.append(latencies.getPercentile(90)).append('\t')
+				.append(latencies.getPercentile(99)).append('\t')
+				.append(latencies.getMax()).append('\n');
+			}
+		}
+		return retVal.toString();
+	}
+	
+	private void record(Operation operation, long start) {
+		this.latencies.get(operation).record(System.nanoTime() - start);
 	}
 	
 	@Override
 	public void pushAssumption(Clause c) 
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		super.pushAssumption(c);
-		final long elapsed = this.elapsed();
-		System.err.println("PUSH\t" + c + "\t\t" + elapsed);
+		final long start = System.nanoTime();
+		try {
+			super.pushAssumption(c);
+		} finally {
+			record(Operation.PUSH, start);
+		}
 	}
 	
 	@Override
 	public void clearAssumptions() 
 	throws DecisionException {
-		this.startTimer();
-		super.clearAssumptions();
-		final long elapsed = this.elapsed();
-		System.err.println("CLEAR\t\t\t" + elapsed);
+		final long start = System.nanoTime();
+		try {
+			super.clearAssumptions();
+		} finally {
+			record(Operation.CLEAR, start);
+		}
+	}
+	
+	@Override
+	public void addAssumptions(Iterable<Clause> assumptionsToAdd) 
+	throws InvalidInputException, DecisionException {
+		final long start = System.nanoTime();
+		try {
+			super.addAssumptions(assumptionsToAdd);
+		} finally {
+			record(Operation.ADD_ASSUMPTIONS, start);
+		}
 	}
 	
 	@Override
 	public void setAssumptions(Collection<Clause> newAssumptions) 
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		super.setAssumptions(newAssumptions);
-		final long elapsed = this.elapsed();
-		System.err.println("SETASSUMPTIONS\t\t\t" + elapsed);
+		final long start = System.nanoTime();
+		try {
+			super.setAssumptions(newAssumptions);
+		} finally {
+			record(Operation.SET_ASSUMPTIONS, start);
+		}
 	}
 
 	@Override
 	public Collection<Clause> getAssumptions() 
 	throws DecisionException {
-		this.startTimer();
-		final Collection<Clause> result = super.getAssumptions();
-		final long elapsed = this.elapsed();
-		System.err.println("GETASSUMPTIONS\t\t" + result + "\t" + elapsed);
-		return result;
+		final long start = System.nanoTime();
+		try {
+			return super.getAssumptions();
+		} finally {
+			record(Operation.GET_ASSUMPTIONS, start);
+		}
 	}
 
 	@Override
 	public boolean isSat(ClassHierarchy hier, Expression exp) 
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		final boolean result = super.isSat(hier, exp);
-		final long elapsed = this.elapsed();
-		System.err.println("ISSAT\t" + exp + "\t" + result + "\t" + elapsed);
-        return result;
+		final long start = System.nanoTime();
+		try {
+			return super.isSat(hier, exp);
+		} finally {
+			record(Operation.IS_SAT, start);
+		}
 	}
 	
 	@Override
-	public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
+	public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		final boolean result = super.isSatAliases(hier, r, heapPos, o);
-		final long elapsed = this.elapsed();
-		System.err.println("ISSATALIASES\t" + r + "\t" + heapPos + "\t" + o + "\t" + result + "\t" + elapsed);
-        return result;
+		final long start = System.nanoTime();
+		try {
+			return super.isSatNull(hier, r);
+		} finally {
+			record(Operation.IS_SAT_NULL, start);
+		}
 	}
 	
 	@Override
-	public boolean isSatExpands(ClassHierarchy hier, ReferenceSymbolic r, String className)
+	public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		final boolean result = super.isSatExpands(hier, r, className);
-		final long elapsed = this.elapsed();
-		System.err.println("ISSATEXPANDS\t" + r + "\t" + className + "\t" + result + "\t" + elapsed);
-        return result;
+		final long start = System.nanoTime();
+		try {
+			return super.isSatAliases(hier, r, heapPos, o);
+		} finally {
+			record(Operation.IS_SAT_ALIASES, start);
+		}
 	}
 	
 	@Override
-	public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
+	public boolean isSatExpands(ClassHierarchy hier, ReferenceSymbolic r, String className)
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		final boolean result = super.isSatNull(hier, r);
-		final long elapsed = this.elapsed();
-		System.err.println("ISSATNULL\t" + r + "\t" + result + "\t" + elapsed);
-        return result;
+		final long start = System.nanoTime();
+		try {
+			return super.isSatExpands(hier, r, className);
+		} finally {
+			record(Operation.IS_SAT_EXPANDS, start);
+		}
 	}
 	
 	@Override
 	public boolean isSatInitialized(ClassHierarchy hier, String className) 
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		final boolean result = super.isSatInitialized(hier, className);
-		final long elapsed = this.elapsed();
-		System.err.println("ISSATINITIALIZED\t" + className + "\t" + result + "\t" + elapsed);
-        return result;
+		final long start = System.nanoTime();
+		try {
+			return super.isSatInitialized(hier, className);
+		} finally {
+			record(Operation.IS_SAT_INITIALIZED, start);
+		}
 	}
 	
 	@Override
 	public boolean isSatNotInitialized(ClassHierarchy hier, String className)
 	throws InvalidInputException, DecisionException {
-		this.startTimer();
-		final boolean result = super.isSatInitialized(hier, className);
-		final long elapsed = this.elapsed();
-		System.err.println("ISSATNOTINITIALIZED\t" + className + "\t" + result + "\t" + elapsed);
-        return result;
+		final long start = System.nanoTime();
+		try {
+			return super.isSatNotInitialized(hier, className);
+		} finally {
+			record(Operation.IS_SAT_NOT_INITIALIZED, start);
+		}
+	}
+	
+	@Override
+	public Map<PrimitiveSymbolic, Simplex> getModel() 
+	throws DecisionException {
+		final long start = System.nanoTime();
+		try {
+			return super.getModel();
+		} finally {
+			record(Operation.GET_MODEL, start);
+		}
 	}
 }
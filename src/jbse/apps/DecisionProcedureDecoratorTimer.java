@@ -19,15 +19,16 @@ import jbse.val.ReferenceSymbolic;
  * @author Pietro Braione
  */
 public class DecisionProcedureDecoratorTimer extends DecisionProcedureDecorator implements Timer {
+	/** The accounted time in nanoseconds. */
 	private long time;
 	private long start;
 	
 	private void startTimer() {
-		this.start = System.currentTimeMillis();
+		this.start = System.nanoTime();
 	}
 
 	private void stopTimer() {
-        this.time += System.currentTimeMillis() - start;
+        this.time += System.nanoTime() - start;
 	}
 
 	public DecisionProcedureDecoratorTimer(DecisionProcedure component) {
@@ -37,7 +38,7 @@ public class DecisionProcedureDecoratorTimer extends DecisionProcedureDecorator
 
 	@Override
 	public long getTime() {
-		return this.time;
+		return this.time / 1_000_000L;
 	}
 	
 	@Override
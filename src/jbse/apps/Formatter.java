@@ -30,6 +30,23 @@ public interface Formatter {
 	 */
 	String emit();
 	
+	/**
+	 * Returns the progress of the formatting, i.e., a counter 
+	 * that must be preserved when an execution is resumed from
+	 * a checkpoint. By default it is {@code 0}.
+	 * 
+	 * @return a {@code long}.
+	 */
+	default long getProgress() { return 0L; }
+	
+	/**
+	 * Restores the progress of the formatting, as returned by 
+	 * {@link #getProgress()}. By default does nothing.
+	 * 
+	 * @param progress a {@code long}.
+	 */
+	default void setProgress(long progress) { }
+	
 	/**
 	 * Cleans the current formatting. Must be invoked
 	 * before invocations of {@link #formatPrologue()} or 
@@ -0,0 +1,304 @@
+package jbse.apps;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * Writes the test cases emitted by a {@link StateFormatterJUnitTestSuite}
+ * to a directory, as they are emitted, sharding them into several
+ * test suite classes, each in its own file. A new class is started
+ * when the current one has reached a maximum number of test cases,
+ * or a maximum size. Test cases that are identical to a previously
+ * written one but for their names and comments, i.e., that have the
+ * same concrete inputs and the same expected outcome, are dropped.
+ * Only the digests of the written test cases are kept in memory.
+ * Texts with no code, as the comments emitted in place of the test 
+ * cases that could not be generated, are written but not counted 
+ * as test cases, nor deduplicated.
+ * The existing files in the directory are never overwritten.
+ * Like a {@link java.io.PrintStream}, this writer does not throw
+ * {@link IOException}s, but records the first one, that can be
+ * queried with {@link #getError()}.
+ *
+ * @author Pietro Braione
+ */
+public final class JUnitTestSuiteWriter implements Closeable {
+    /** The directory of the test suite classes. */
+    private final Path directory;
+
+    /** The maximum number of test cases in a class. */
+    private final int maxTests;
+
+    /** The maximum size of a class, in characters. */
+    private final long maxSize;
+
+    /** The digests of the written test cases, or {@code null} if they are not deduplicated. */
+    private final HashSet<ByteBuffer> digests;
+
+    /** The current class, or {@code null} if there is no current class. */
+    private Writer current = null;
+
+    /** The index of the current (or next) class. */
+    private int classIndex = 0;
+
+    /** The number of test cases in the current class. */
+    private int testsInClass = 0;
+
+    /** The size of the current class, in characters. */
+    private long sizeOfClass = 0;
+
+    /** The number of written classes. */
+    private int classes = 0;
+
+    /** The number of written test cases. */
+    private long tests = 0;
+
+    /** The number of dropped test cases. */
+    private long duplicates = 0;
+
+    /** The first {@link IOException} raised while writing. */
+    private IOException error = null;
+
+    /**
+     * Constructor.
+     *
+     * @param directory the {@link Path} of the directory where
+     *        the test suite classes are written. It is created
+     *        if it does not exist.
+     * @param maxTests a positive {@code int}, the maximum number
+     *        of test cases in a test suite class.
+     * @param maxSize a positive {@code long}, the maximum size
+     *        of a test suite class, in characters. A class
+     *        exceeds it only if it contains a single test case.
+     * @param deduplicate {@code true} iff the test cases that
+     *        are identical to a previously written one must be
+     *        dropped.
+     * @throws IllegalArgumentException if {@code maxTests <= 0}
+     *         or {@code maxSize <= 0}.
+     */
+    public JUnitTestSuiteWriter(Path directory, int maxTests, long maxSize, boolean deduplicate) {
+        if (maxTests <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.directory = directory;
+        this.maxTests = maxTests;
+        this.maxSize = maxSize;
+        this.digests = (deduplicate ? new HashSet<>() : null);
+    }
+
+    /**
+     * Writes a test case.
+     *
+     * @param testCase a {@link String}, the text of one
+     *        or more test case methods, as emitted by a
+     *        {@link StateFormatterJUnitTestSuite}.
+     */
+    public void write(String testCase) {
+        if (this.error != null || testCase.isEmpty()) {
+            return;
+        }
+        final String code = code(testCase);
+        final boolean isTest = !code.isEmpty();
+        if (isTest && this.digests != null && !this.digests.add(digest(code))) {
+            ++this.duplicates;
+            return;
+        }
+        try {
+            if (this.current != null &&
+                ((isTest && this.testsInClass >= this.maxTests) || this.sizeOfClass + testCase.length() > this.maxSize)) {
+                closeClass();
+            }
+            if (this.current == null) {
+                openClass();
+            }
+            this.current.write(testCase);
+            if (isTest) {
+                ++this.testsInClass;
+                ++this.tests;
+            }
+            this.sizeOfClass += testCase.length();
+        } catch (IOException e) {
+            this.error = e;
+        }
+    }
+
+    /**
+     * Returns the number of written test suite classes.
+     *
+     * @return an {@code int}.
+     */
+    public int getClasses() {
+        return this.classes;
+    }
+
+    /**
+     * Returns the number of written test cases.
+     *
+     * @return a {@code long}.
+     */
+    public long getTests() {
+        return this.tests;
+    }
+
+    /**
+     * Returns the number of test cases that were dropped
+     * because identical to a previously written one.
+     *
+     * @return a {@code long}.
+     */
+    public long getDuplicates() {
+        return this.duplicates;
+    }
+
+    /**
+     * Returns the first error raised while writing.
+     *
+     * @return an {@link IOException}, or {@code null} if
+     *         no error was raised.
+     */
+    public IOException getError() {
+        return this.error;
+    }
+
+    /**
+     * Ends the current test suite class. Subsequently
+     * written test cases start a new class.
+     */
+    @Override
+    public void close() {
+        if (this.current != null) {
+            try {
+                closeClass();
+            } catch (IOException e) {
+                if (this.error == null) {
+                    this.error = e;
+                }
+            }
+        }
+    }
+
+    private void openClass() throws IOException {
+        Files.createDirectories(this.directory);
+        String className;
+        do {
+            className = className(this.classIndex++);
+            try {
+                this.current = Files.newBufferedWriter(this.directory.resolve(className + ".java"), StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+            } catch (FileAlreadyExistsException e) {
+                //tries the next one
+            }
+        } while (this.current == null);
+        final String prologue = StateFormatterJUnitTestSuite.prologue(className);
+        this.current.write(prologue);
+        this.testsInClass = 0;
+        this.sizeOfClass = prologue.length();
+        ++this.classes;
+    }
+
+    private void closeClass() throws IOException {
+        try {
+            this.current.write(StateFormatterJUnitTestSuite.EPILOGUE);
+        } finally {
+            this.current.close();
+            this.current = null;
+        }
+    }
+
+    private static String className(int index) {
+        return StateFormatterJUnitTestSuite.DEFAULT_CLASS_NAME + "_" + index;
+    }
+
+    /**
+     * Returns the code of a test case, that does not depend
+     * on the names of the test methods and on the comments.
+     * The comments are recognized lexically, so the string
+     * and character literals are kept as they are, even if
+     * they contain comment delimiters.
+     *
+     * @param testCase a {@link String}, the text of a test case.
+     * @return a {@link String}, the lines of {@code testCase}
+     *         without comments, trimmed, with the names of the
+     *         test methods replaced by the same name, and
+     *         without the empty lines. It is empty iff 
+     *         {@code testCase} contains only comments.
+     */
+    private static String code(String testCase) {
+        //removes the comments
+        final int n = testCase.length();
+        final StringBuilder noComments = new StringBuilder(n);
+        int i = 0;
+        while (i < n) {
+            final char c = testCase.charAt(i);
+            if (c == '"' || c == '\'') {
+                //a literal, up to its closing quote or to the end of the line
+                int j = i + 1;
+                while (j < n) {
+                    final char d = testCase.charAt(j++);
+                    if (d == '\\' && j < n) {
+                        ++j;
+                    } else if (d == c || d == '\n') {
+                        break;
+                    }
+                }
+                noComments.append(testCase, i, j);
+                i = j;
+            } else if (testCase.startsWith("//", i)) {
+                final int end = testCase.indexOf('\n', i);
+                i = (end < 0 ? n : end);
+            } else if (testCase.startsWith("/*", i)) {
+                final int end = testCase.indexOf("*/", i + 2);
+                noComments.append(' ');
+                i = (end < 0 ? n : end + 2);
+            } else {
+                noComments.append(c);
+                ++i;
+            }
+        }
+        
+        //normalizes the lines
+        final StringBuilder retVal = new StringBuilder(noComments.length());
+        for (String line : noComments.toString().split("\n")) {
+            final String stripped = line.trim();
+            if (stripped.isEmpty()) {
+                continue;
+            }
+            if (stripped.startsWith("public void test") && stripped.endsWith("() {")) {
+                retVal.append("public void test() {");
+            } else {
+                retVal.append(stripped);
+            }
+            retVal.append('\n');
+        }
+        return retVal.toString();
+    }
+
+    /**
+     * Returns the digest of the code of a test case.
+     *
+     * @param code a {@link String}, as returned by {@link #code(String)}.
+     * @return a {@link ByteBuffer} wrapping the first 16 bytes
+     *         of the digest.
+     */
+    private static ByteBuffer digest(String code) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            //this should never happen, SHA-256 is mandatory
+            throw new UnexpectedInternalException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package jbse.apps;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds. Latencies
+ * are recorded in log-linear buckets, each power of two split
+ * in {@link #SUB_BUCKETS} linear sub-buckets, so every value is
+ * recorded with a relative error of at most about 3%, with
+ * a fixed footprint and no allocation.
+ *
+ * @author Pietro Braione
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/** The number of sub-buckets each power of two is split in. */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos a {@code long}, the latency in nanoseconds;
+	 *        negative values are recorded as {@code 0}.
+	 */
+	public void record(long nanos) {
+		final long value = (nanos < 0 ? 0 : nanos);
+		this.buckets.incrementAndGet(index(value));
+		this.count.increment();
+		this.total.add(value);
+		long currentMax;
+		while ((currentMax = this.max.get()) < value && !this.max.compareAndSet(currentMax, value)) {
+			//retries
+		}
+	}
+
+	/**
+	 * Returns the number of recorded latencies.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Returns the sum of the recorded latencies.
+	 *
+	 * @return a {@code long}, in nanoseconds.
+	 */
+	public long getTotal() {
+		return this.total.sum();
+	}
+
+	/**
+	 * Returns the maximum recorded latency.
+	 *
+	 * @return a {@code long}, in nanoseconds.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Returns a percentile of the recorded latencies.
+	 *
+	 * @param percentile a {@code double} between {@code 0} and {@code 100}.
+	 * @return a {@code long}, the highest latency in the bucket where
+	 *         the percentile falls, but not greater than {@link #getMax()},
+	 *         in nanoseconds; {@code 0} if no latency was recorded.
+	 */
+	public long getPercentile(double percentile) {
+		long seen = 0;
+		final long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; ++i) {
+			snapshot[i] = this.buckets.get(i);
+			seen += snapshot[i];
+		}
+		if (seen == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(seen * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+		long cumulated = 0;
+		for (int i = 0; i < BUCKETS; ++i) {
+			cumulated += snapshot[i];
+			if (cumulated >= rank) {
+				return Math.min(highestValue(i), getMax());
+			}
+		}
+		return getMax(); //unreachable
+	}
+
+	private static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	private static long highestValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		final int shift = index / SUB_BUCKETS - 1;
+		final long lowest = ((long) (SUB_BUCKETS + index % SUB_BUCKETS)) << shift;
+		final long highest = lowest + (1L << shift) - 1;
+		return (highest < lowest ? Long.MAX_VALUE : highest);
+	}
+}
@@ -0,0 +1,201 @@
+package jbse.apps;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import jbse.mem.State;
+import jbse.tree.StateSerializer;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.Simplex;
+
+/**
+ * A {@link Formatter} that writes the states to a compact binary
+ * trace file, rather than rendering them as text, so they can be
+ * read back by a {@link StateTraceReader} and rendered offline by
+ * any other {@link Formatter}. The trace file starts with a magic
+ * number, followed by a compressed stream of serialized objects:
+ * the initial state, and then each state with the model of its
+ * path condition if it is stuck. Since all the states are written
+ * to the same stream, the objects they share (e.g., the clauses
+ * of their path conditions, strings and types) are written only
+ * once, and subsequently referred, and the compression exploits
+ * the similarity of consecutive states. The stream is reset whenever
+ * a given amount of bytes is written since the last reset, so the
+ * written states are not kept in memory, whatever their size.
+ * Like a {@link java.io.PrintStream}, this formatter does not
+ * throw {@link IOException}s, but records the first one, that can
+ * be queried with {@link #getError()}. {@link #emit()} always
+ * returns the empty string.
+ *
+ * @author Pietro Braione
+ */
+public final class StateFormatterBinary implements Formatter, Closeable {
+	/** The magic number at the start of a trace file. */
+	static final byte[] MAGIC = "JBSETRC1".getBytes(StandardCharsets.US_ASCII);
+
+	/** Record: the initial state. */
+	static final int RECORD_INITIAL = 0;
+
+	/** Record: a state and its model. */
+	static final int RECORD_STATE = 1;
+
+	/** Record: the end of the trace. */
+	static final int RECORD_END = 2;
+
+	/** How many (uncompressed) bytes are written between two resets of the stream. */
+	private static final long RESET_BYTES = 1 << 23;
+
+	/** The size of the buffers. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Supplier<State> initialStateSupplier;
+	private final Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier;
+	private final StateSerializer serializer = new StateSerializer();
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	private final CountingOutputStream counter;
+	private ObjectOutputStream out;
+	private boolean initialStateWritten = false;
+	private long resetCount = 0;
+	private IOException error = null;
+
+	/**
+	 * Counts the bytes written to the underlying stream.
+	 */
+	private static final class CountingOutputStream extends FilterOutputStream {
+		long count = 0;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			++this.count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			this.count += len;
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file the {@link Path} of the trace file. If it
+	 *        exists it is overwritten.
+	 * @param initialStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+	 *        for the initial state, or {@code null} if the initial state
+	 *        must not be written.
+	 * @param modelSupplier a {@link Supplier}{@code <}{@link Map}{@code <}{@link PrimitiveSymbolic}{@code ,}{@link Simplex}{@code >>}
+	 *        for the model of the current state, or {@code null} if the models
+	 *        must not be written.
+	 * @throws IOException if the trace file cannot be created.
+	 */
+	public StateFormatterBinary(Path file, Supplier<State> initialStateSupplier,
+	                            Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier) throws IOException {
+		this.initialStateSupplier = initialStateSupplier;
+		this.modelSupplier = modelSupplier;
+		final OutputStream raw =
+		    Channels.newOutputStream(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+		raw.write(MAGIC);
+		this.counter = new CountingOutputStream(
+		    new BufferedOutputStream(new DeflaterOutputStream(raw, this.deflater, BUFFER_SIZE), BUFFER_SIZE));
+		this.out = this.serializer.newOutputStream(this.counter);
+	}
+
+	@Override
+	public void formatState(State s) {
+		if (this.out == null || this.error != null) {
+			return;
+		}
+		try {
+			if (!this.initialStateWritten) {
+				this.serializer.setSharedObjects(s.getCalculator(), s.getClassHierarchy());
+				this.out.writeByte(RECORD_INITIAL);
+				this.out.writeObject(this.initialStateSupplier == null ? null : this.initialStateSupplier.get());
+				this.initialStateWritten = true;
+			}
+			final Map<PrimitiveSymbolic, Simplex> model =
+			    (s.isStuck() && this.modelSupplier != null ? this.modelSupplier.get() : null);
+			this.out.writeByte(RECORD_STATE);
+			this.out.writeObject(s.clone()); //the shared parts of s are immutable
+			this.out.writeObject(model == null ? null : new HashMap<>(model));
+			//the stream keeps the written states until it is reset
+			if (this.counter.count - this.resetCount >= RESET_BYTES) {
+				this.out.reset();
+				this.resetCount = this.counter.count;
+			}
+		} catch (IOException e) {
+			this.error = e;
+		}
+	}
+
+	/**
+	 * Ends the trace and closes the trace file.
+	 */
+	@Override
+	public void formatEpilogue() {
+		close();
+	}
+
+	@Override
+	public String emit() {
+		return "";
+	}
+
+	@Override
+	public void cleanup() {
+		//nothing to do
+	}
+
+	/**
+	 * Returns the first error raised while writing.
+	 *
+	 * @return an {@link IOException}, or {@code null} if
+	 *         no error was raised.
+	 */
+	public IOException getError() {
+		return this.error;
+	}
+
+	/**
+	 * Ends the trace and closes the trace file.
+	 * Subsequently formatted states are ignored.
+	 */
+	@Override
+	public void close() {
+		if (this.out == null) {
+			return;
+		}
+		try {
+			if (this.error == null) {
+				this.out.writeByte(RECORD_END);
+			}
+			this.out.close();
+		} catch (IOException e) {
+			if (this.error == null) {
+				this.error = e;
+			}
+		} finally {
+			this.out = null;
+			this.deflater.end();
+		}
+	}
+}
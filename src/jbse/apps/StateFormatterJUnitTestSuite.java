@@ -66,7 +66,7 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
 
     @Override
     public void formatPrologue() {
-        this.output.append(PROLOGUE);
+        this.output.append(prologue(DEFAULT_CLASS_NAME));
     }
 
     @Override
@@ -74,9 +74,19 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         new JUnitTestCase(this.output, this.initialStateSupplier.get(), state, this.modelSupplier.get(), this.testCounter++);
     }
     
+    @Override
+    public long getProgress() {
+        return this.testCounter;
+    }
+    
+    @Override
+    public void setProgress(long progress) {
+        this.testCounter = (int) progress;
+    }
+    
     @Override
     public void formatEpilogue() {
-        this.output.append("}\n");
+        this.output.append(EPILOGUE);
     }
     
     @Override
@@ -89,7 +99,24 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         this.output = new StringBuilder();
     }
     
-    private static final String PROLOGUE =
+    /** The name of the test suite class. */
+    public static final String DEFAULT_CLASS_NAME = "TestSuite";
+    
+    /**
+     * Returns the prologue of a test suite class, i.e., 
+     * everything that precedes the test cases.
+     * 
+     * @param className a {@link String}, the name of the class.
+     * @return a {@link String}.
+     */
+    public static String prologue(String className) {
+        return PROLOGUE_IMPORTS + "public class " + className + " {\n" + PROLOGUE_MEMBERS;
+    }
+    
+    /** The epilogue of a test suite class. */
+    public static final String EPILOGUE = "}\n";
+
+    private static final String PROLOGUE_IMPORTS =
         "import static java.lang.System.identityHashCode;\n" +
         "import static org.junit.Assert.*;\n" +
         "\n" +
@@ -99,8 +126,9 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         "import sun.misc.Unsafe;\n" +
         "\n" +
         "import org.junit.Test;\n" +
-        "\n" +
-        "public class TestSuite {\n" +
+        "\n";
+    
+    private static final String PROLOGUE_MEMBERS =
         "    private static class AccessibleObject {\n" +
         "        private final Object target;\n" +
         "        AccessibleObject(Object o) {\n" +
@@ -62,7 +62,20 @@ public class StateFormatterText implements Formatter {
 		this.output = "";
 	}
 	
-	private static String formatState(State state, List<String> srcPath, boolean breakLines, String indentTxt, String indentCurrent) {
+	static String formatState(State state, List<String> srcPath, boolean breakLines, String indentTxt, String indentCurrent) {
+		final String lineSep = (breakLines ? LINE_SEP : "");
+		String s = formatHeader(state, srcPath, breakLines);
+        s += "Path condition: " + formatPathCondition(state, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep;
+        s += "Static store: {" + lineSep + formatStaticMethodArea(state, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep + "}" + lineSep;
+        s += "Heap: {" + lineSep + formatHeap(state, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep + "}" + lineSep;
+        if (state.getStackSize() > 0) {
+        	s += "Stack: {" + lineSep + formatStack(state, srcPath, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep + "}";
+        }
+        s += lineSep;
+        return s;
+	}
+	
+	static String formatHeader(State state, List<String> srcPath, boolean breakLines) {
 		final String lineSep = (breakLines ? LINE_SEP : "");
 		String s = state.getIdentifier() + "[" + state.getSequenceNumber() + "] " + lineSep;
         if (state.isStuck()) {
@@ -87,23 +100,21 @@ public class StateFormatterText implements Formatter {
 				//not completely ready to run
 			}
         }
-        s += "Path condition: " + formatPathCondition(state, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep;
-        s += "Static store: {" + lineSep + formatStaticMethodArea(state, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep + "}" + lineSep;
-        s += "Heap: {" + lineSep + formatHeap(state, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep + "}" + lineSep;
-        if (state.getStackSize() > 0) {
-        	s += "Stack: {" + lineSep + formatStack(state, srcPath, breakLines, indentTxt, indentCurrent + indentTxt) + lineSep + "}";
-        }
-        s += lineSep;
         return s;
 	}
+	
 	private static String formatPathCondition(State s, boolean breakLines, String indentTxt, String indentCurrent) {
+		return formatPathCondition(s, s.getPathCondition(), breakLines, indentTxt, indentCurrent);
+	}
+	
+	static String formatPathCondition(State s, Iterable<Clause> clauses, boolean breakLines, String indentTxt, String indentCurrent) {
 		final String lineSep = (breakLines ? LINE_SEP : "");
 		String expression = "";
 		String where = "";
     	boolean doneFirstExpression = false;
     	boolean doneFirstWhere = false;
 		HashSet<String> doneSymbols = new HashSet<String>();
-		for (Clause c : s.getPathCondition()) {
+		for (Clause c : clauses) {
    			expression += (doneFirstExpression ? (" &&" + lineSep) : "") + indentCurrent;
    			doneFirstExpression = true;
     		if (c instanceof ClauseAssume) {
@@ -245,7 +256,7 @@ public class StateFormatterText implements Formatter {
         return retVal;
 	}
 
-	private static String formatObject(State s, Objekt o, boolean breakLines, String indentTxt, String indentCurrent) {
+	static String formatObject(State s, Objekt o, boolean breakLines, String indentTxt, String indentCurrent) {
 		final String lineSep = (breakLines ? LINE_SEP : "");
 		String str = "";
 		if (o.getOrigin() != null) {
@@ -374,7 +385,7 @@ public class StateFormatterText implements Formatter {
     }
 	
 	
-	private static String formatVariable(State s, Variable v) {
+	static String formatVariable(State s, Variable v) {
         String tmp;
         Value val = v.getValue(); 
         if (val == null) {
@@ -420,7 +431,7 @@ public class StateFormatterText implements Formatter {
         return tmpRet;
 	}
 
-	private static String formatFrame(State s, Frame f, List<String> srcPath, boolean breakLines, String indentTxt, String indentCurrent) {
+	static String formatFrame(State s, Frame f, List<String> srcPath, boolean breakLines, String indentTxt, String indentCurrent) {
 		final String lineSep = (breakLines ? LINE_SEP : "");
 		String tmp = "";
         tmp += indentCurrent + "Method signature: " + f.getCurrentMethodSignature().toString() + lineSep;
@@ -436,7 +447,7 @@ public class StateFormatterText implements Formatter {
         return tmp;
 	}
 	
-	private static String formatOperandStack(State s, Frame f, boolean breakLines, String indentTxt, String indentCurrent) {
+	static String formatOperandStack(State s, Frame f, boolean breakLines, String indentTxt, String indentCurrent) {
         final StringBuilder buf = new StringBuilder();
         buf.append(indentCurrent);
         final String lineSep = (breakLines ? LINE_SEP : "");
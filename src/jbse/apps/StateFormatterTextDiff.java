@@ -0,0 +1,353 @@
+package jbse.apps;
+
+import static jbse.apps.Util.LINE_SEP;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jbse.mem.Array;
+import jbse.mem.Clause;
+import jbse.mem.Frame;
+import jbse.mem.Klass;
+import jbse.mem.Objekt;
+import jbse.mem.State;
+import jbse.mem.Variable;
+import jbse.tree.StateTree;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Value;
+
+/**
+ * A {@link Formatter} which renders the first {@link State} of
+ * a trace as {@link StateFormatterText} does, and each subsequent
+ * state of the same trace by rendering only what changed since
+ * the previously rendered state: the new path condition clauses,
+ * the new, modified and removed heap objects and classes, the
+ * pushed and popped frames, and the changed operand stacks and
+ * local variables of the other frames. A state continues the
+ * trace of the previously rendered one when its identifier
+ * extends the previous identifier and its path condition extends
+ * the previous path condition; otherwise it is rendered completely.
+ * An object or frame is rendered again only if the values it is
+ * rendered from are not the same as the previous time.
+ *
+ * @author Pietro Braione
+ */
+public class StateFormatterTextDiff implements Formatter {
+	private static final String INDENT_TXT = "\t";
+	private static final String INDENT_ENTRY = INDENT_TXT;
+	private static final String INDENT_BODY = INDENT_ENTRY + INDENT_TXT;
+
+	/**
+	 * The renditions of the previously rendered state,
+	 * possibly shared with another formatter.
+	 */
+	private static final class Baseline {
+		/** The identifier of the state, or {@code null} if there is no previous state. */
+		String identifier = null;
+
+		/** The number of path condition clauses. */
+		int pathConditionSize = 0;
+
+		/** The last path condition clause. */
+		Clause lastClause = null;
+
+		/** The renditions of the classes in the static store. */
+		Map<String, ObjectRendition> staticStore = Collections.emptyMap();
+
+		/** The renditions of the heap objects. */
+		Map<Long, ObjectRendition> heap = Collections.emptyMap();
+
+		/** The renditions of the frames. */
+		List<FrameRendition> stack = Collections.emptyList();
+	}
+
+	/** The rendition of a heap object or of a class. */
+	private static final class ObjectRendition {
+		/** The values the rendition is made from. */
+		final Object[] values;
+		final String text;
+
+		private ObjectRendition(Object[] values, String text) {
+			this.values = values;
+			this.text = text;
+		}
+
+		/**
+		 * Renders an object.
+		 *
+		 * @param s the {@link State} of {@code o}.
+		 * @param o the {@link Objekt} to render.
+		 * @param previous the previous {@link ObjectRendition}
+		 *        of the object at the same position, or {@code null}.
+		 * @return {@code previous} if {@code o} has the same values,
+		 *         otherwise a new {@link ObjectRendition}.
+		 */
+		static ObjectRendition render(State s, Objekt o, ObjectRendition previous) {
+			final ArrayList<Object> values = new ArrayList<>();
+			values.add(o.getType());
+			values.add(o.getOrigin());
+			if (o instanceof Array) {
+				final Array a = (Array) o;
+				values.add(a.hasSimpleRep());
+				addValue(values, s, a.getLength());
+				for (Array.AccessOutcomeIn e : a.values()) {
+					addValue(values, s, e.getAccessCondition());
+					addValue(values, s, e.getValue());
+				}
+			} else {
+				for (Variable v : o.fields().values()) {
+					values.add(v.getName());
+					addValue(values, s, v.getValue());
+				}
+			}
+			final Object[] valuesArray = values.toArray();
+			if (previous != null && same(previous.values, valuesArray)) {
+				return previous;
+			}
+			return new ObjectRendition(valuesArray, StateFormatterText.formatObject(s, o, true, INDENT_TXT, INDENT_BODY));
+		}
+	}
+
+	/** The rendition of a frame, but for its program counter. */
+	private static final class FrameRendition {
+		final String method;
+		/** The values the rendition is made from. */
+		final Object[] values;
+		final String operandStack;
+		final Map<Integer, String> localVariables;
+
+		private FrameRendition(String method, Object[] values, State s, Frame f) {
+			this.method = method;
+			this.values = values;
+			this.operandStack = StateFormatterText.formatOperandStack(s, f, true, INDENT_TXT, INDENT_BODY + INDENT_TXT);
+			this.localVariables = new TreeMap<>();
+			for (Map.Entry<Integer, Variable> e : f.localVariables().entrySet()) {
+				this.localVariables.put(e.getKey(), StateFormatterText.formatVariable(s, e.getValue()));
+			}
+		}
+
+		/**
+		 * Renders a frame.
+		 *
+		 * @param s the {@link State} of {@code f}.
+		 * @param f the {@link Frame} to render.
+		 * @param previous the previous {@link FrameRendition}
+		 *        of the frame at the same depth, or {@code null}.
+		 * @return {@code previous} if {@code f} is a frame of the
+		 *         same method and has the same values, otherwise
+		 *         a new {@link FrameRendition}.
+		 */
+		static FrameRendition render(State s, Frame f, FrameRendition previous) {
+			final String method = f.getCurrentMethodSignature().toString() + "@" + f.getReturnProgramCounter();
+			final ArrayList<Object> values = new ArrayList<>();
+			for (Value v : f.values()) {
+				addValue(values, s, v);
+			}
+			for (Map.Entry<Integer, Variable> e : f.localVariables().entrySet()) {
+				values.add(e.getKey());
+				values.add(e.getValue().getName());
+				addValue(values, s, e.getValue().getValue());
+			}
+			final Object[] valuesArray = values.toArray();
+			if (previous != null && previous.method.equals(method) && same(previous.values, valuesArray)) {
+				return previous;
+			}
+			return new FrameRendition(method, valuesArray, s, f);
+		}
+	}
+
+	/**
+	 * Adds a {@link Value} to the values a rendition is made from,
+	 * followed by its resolution if it is a symbolic reference,
+	 * since it is rendered too.
+	 */
+	private static void addValue(List<Object> values, State s, Value v) {
+		values.add(v);
+		if (v instanceof ReferenceSymbolic) {
+			final ReferenceSymbolic ref = (ReferenceSymbolic) v;
+			values.add(!s.resolved(ref) ? "unresolved" : s.isNull(ref) ? "null" : Long.valueOf(s.getResolution(ref)));
+		}
+	}
+
+	/**
+	 * Checks whether a rendition can be reused; {@link Value}s,
+	 * being immutable, are compared by identity, the rest by
+	 * equality.
+	 */
+	private static boolean same(Object[] previous, Object[] current) {
+		if (previous.length != current.length) {
+			return false;
+		}
+		for (int i = 0; i < current.length; ++i) {
+			if (previous[i] != current[i] &&
+			    (previous[i] == null || previous[i] instanceof Value || !previous[i].equals(current[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	protected List<String> srcPath;
+	protected String output = "";
+	private final Baseline baseline;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param srcPath a {@link List}{@code <}{@link String}{@code >},
+	 *        the source path.
+	 */
+	public StateFormatterTextDiff(List<String> srcPath) {
+		this(srcPath, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param srcPath a {@link List}{@code <}{@link String}{@code >},
+	 *        the source path.
+	 * @param sibling a {@link StateFormatterTextDiff} with which
+	 *        {@code this} shares the previously rendered state,
+	 *        so the states of a trace can be rendered alternately
+	 *        by the two, or {@code null}.
+	 */
+	public StateFormatterTextDiff(List<String> srcPath, StateFormatterTextDiff sibling) {
+		this.srcPath = Collections.unmodifiableList(srcPath);
+		this.baseline = (sibling == null ? new Baseline() : sibling.baseline);
+	}
+
+	@Override
+	public void formatState(State s) {
+		final Baseline b = this.baseline;
+		final ArrayList<Clause> pathCondition = new ArrayList<>(s.getPathCondition());
+		final TreeMap<String, ObjectRendition> staticStore = new TreeMap<>();
+		for (Map.Entry<String, Klass> e : s.getStaticMethodArea().entrySet()) {
+			if (e.getValue().getFieldSignatures().size() > 0) {
+				staticStore.put(e.getKey(), ObjectRendition.render(s, e.getValue(), b.staticStore.get(e.getKey())));
+			}
+		}
+		final TreeMap<Long, ObjectRendition> heap = new TreeMap<>();
+		for (Map.Entry<Long, Objekt> e : s.getHeap().entrySet()) {
+			heap.put(e.getKey(), ObjectRendition.render(s, e.getValue(), b.heap.get(e.getKey())));
+		}
+		final ArrayList<FrameRendition> stack = new ArrayList<>();
+		for (Frame f : s.getStack()) {
+			final int j = stack.size();
+			stack.add(FrameRendition.render(s, f, (j < b.stack.size() ? b.stack.get(j) : null)));
+		}
+
+		final boolean continues =
+		    (b.identifier != null && StateTree.isIdentifierPrefix(b.identifier, s.getIdentifier()) &&
+		     pathCondition.size() >= b.pathConditionSize &&
+		     (b.pathConditionSize == 0 || pathCondition.get(b.pathConditionSize - 1) == b.lastClause));
+		if (continues) {
+			final StringBuilder buf = new StringBuilder();
+			buf.append(StateFormatterText.formatHeader(s, this.srcPath, true));
+			if (pathCondition.size() > b.pathConditionSize) {
+				final List<Clause> newClauses = pathCondition.subList(b.pathConditionSize, pathCondition.size());
+				buf.append("Path condition (new clauses): ");
+				buf.append(StateFormatterText.formatPathCondition(s, newClauses, true, INDENT_TXT, INDENT_ENTRY));
+				buf.append(LINE_SEP);
+			}
+			buf.append(diff("Static store (changed)", "Class", b.staticStore, staticStore));
+			buf.append(diff("Heap (changed)", "Object", b.heap, heap));
+			buf.append(diffStack(s, b.stack, stack));
+			buf.append(LINE_SEP);
+			this.output += buf.toString();
+		} else {
+			this.output += StateFormatterText.formatState(s, this.srcPath, true, INDENT_TXT, "");
+		}
+
+		b.identifier = s.getIdentifier();
+		b.pathConditionSize = pathCondition.size();
+		b.lastClause = (pathCondition.isEmpty() ? null : pathCondition.get(pathCondition.size() - 1));
+		b.staticStore = staticStore;
+		b.heap = heap;
+		b.stack = stack;
+	}
+
+	@Override
+	public String emit() {
+		return this.output;
+	}
+
+	@Override
+	public void cleanup() {
+		this.output = "";
+	}
+
+	private static <K> String diff(String title, String label, Map<K, ObjectRendition> previous, Map<K, ObjectRendition> current) {
+		final StringBuilder buf = new StringBuilder();
+		for (Map.Entry<K, ObjectRendition> e : current.entrySet()) {
+			final ObjectRendition previousRendition = previous.get(e.getKey());
+			if (e.getValue() != previousRendition && 
+			    (previousRendition == null || !e.getValue().text.equals(previousRendition.text))) {
+				buf.append(INDENT_ENTRY);
+				buf.append(label);
+				buf.append("[");
+				buf.append(e.getKey());
+				buf.append("]");
+				buf.append(previousRendition == null ? " (new)" : "");
+				buf.append(": {");
+				buf.append(LINE_SEP);
+				buf.append(e.getValue().text);
+				buf.append(LINE_SEP);
+				buf.append(INDENT_ENTRY);
+				buf.append("}");
+				buf.append(LINE_SEP);
+			}
+		}
+		for (K key : previous.keySet()) {
+			if (!current.containsKey(key)) {
+				buf.append(INDENT_ENTRY);
+				buf.append(label);
+				buf.append("[");
+				buf.append(key);
+				buf.append("]: removed");
+				buf.append(LINE_SEP);
+			}
+		}
+		return (buf.length() == 0 ? "" : (title + ": {" + LINE_SEP + buf.toString() + "}" + LINE_SEP));
+	}
+
+	private String diffStack(State s, List<FrameRendition> previous, List<FrameRendition> current) {
+		final StringBuilder buf = new StringBuilder();
+		final List<Frame> frames = s.getStack();
+		for (int j = 0; j < Math.max(previous.size(), current.size()); ++j) {
+			if (j >= current.size()) {
+				buf.append(INDENT_ENTRY + "Frame[" + j + "]: popped" + LINE_SEP);
+			} else if (j >= previous.size() || !previous.get(j).method.equals(current.get(j).method)) {
+				if (j < previous.size()) {
+					buf.append(INDENT_ENTRY + "Frame[" + j + "]: popped" + LINE_SEP);
+				}
+				buf.append(INDENT_ENTRY + "Frame[" + j + "] (pushed): {" + LINE_SEP);
+				buf.append(StateFormatterText.formatFrame(s, frames.get(j), this.srcPath, true, INDENT_TXT, INDENT_BODY));
+				buf.append(LINE_SEP + INDENT_ENTRY + "}" + LINE_SEP);
+			} else if (previous.get(j) != current.get(j)) {
+				final FrameRendition p = previous.get(j);
+				final FrameRendition c = current.get(j);
+				final StringBuilder changes = new StringBuilder();
+				if (!p.operandStack.equals(c.operandStack)) {
+					changes.append(INDENT_BODY + "Operand Stack: {" + LINE_SEP + c.operandStack + LINE_SEP + INDENT_BODY + "}" + LINE_SEP);
+				}
+				for (Map.Entry<Integer, String> e : c.localVariables.entrySet()) {
+					if (!e.getValue().equals(p.localVariables.get(e.getKey()))) {
+						changes.append(INDENT_BODY + "Variable[" + e.getKey() + "]: " + e.getValue() + LINE_SEP);
+					}
+				}
+				for (int slot : p.localVariables.keySet()) {
+					if (!c.localVariables.containsKey(slot)) {
+						changes.append(INDENT_BODY + "Variable[" + slot + "]: out of scope" + LINE_SEP);
+					}
+				}
+				if (changes.length() > 0) {
+					buf.append(INDENT_ENTRY + "Frame[" + j + "]: {" + LINE_SEP + changes.toString() + INDENT_ENTRY + "}" + LINE_SEP);
+				}
+			}
+		}
+		return (buf.length() == 0 ? "" : ("Stack (changed): {" + LINE_SEP + buf.toString() + "}" + LINE_SEP));
+	}
+}
@@ -0,0 +1,234 @@
+package jbse.apps;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.tree.StateSerializer;
+import jbse.val.Calculator;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.Simplex;
+
+/**
+ * Reads a binary trace file written by a {@link StateFormatterBinary},
+ * and possibly renders it with another {@link Formatter}. A trace
+ * file that was not completely written (e.g., because the symbolic
+ * execution crashed) is read up to its last complete state.
+ *
+ * @author Pietro Braione
+ */
+public final class StateTraceReader implements Closeable {
+	/** The size of the buffers. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Inflater inflater = new Inflater();
+	private final ObjectInputStream in;
+	private State initialState = null;
+	private State state = null;
+	private Map<PrimitiveSymbolic, Simplex> model = null;
+	private boolean ended = false;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file the {@link Path} of the trace file.
+	 * @param calc the {@link Calculator} of the read states.
+	 * @param classHierarchy the {@link ClassHierarchy} of the
+	 *        read states.
+	 * @throws IOException if the trace file cannot be read, or
+	 *         is not a trace file.
+	 */
+	public StateTraceReader(Path file, Calculator calc, ClassHierarchy classHierarchy) throws IOException {
+		final InputStream raw =
+		    new BufferedInputStream(Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)), BUFFER_SIZE);
+		final byte[] magic = new byte[StateFormatterBinary.MAGIC.length];
+		int read = 0;
+		for (int n = 0; read < magic.length && n >= 0; read += n) {
+			n = raw.read(magic, read, magic.length - read);
+		}
+		if (!Arrays.equals(magic, StateFormatterBinary.MAGIC)) {
+			raw.close();
+			throw new IOException(file + " is not a trace file.");
+		}
+		final StateSerializer serializer = new StateSerializer();
+		serializer.setSharedObjects(calc, classHierarchy);
+		ObjectInputStream in = null;
+		try {
+			in = serializer.newInputStream(new InflaterInputStream(raw, this.inflater, BUFFER_SIZE));
+		} catch (EOFException e) {
+			//truncated trace
+			raw.close();
+			this.ended = true;
+		}
+		this.in = in;
+	}
+
+	/**
+	 * Advances to the next state of the trace.
+	 *
+	 * @return {@code true} iff there is a next state, that
+	 *         becomes the current state.
+	 * @throws IOException if the trace file cannot be read,
+	 *         or is corrupted.
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean next() throws IOException {
+		try {
+			while (!this.ended) {
+				final int record = this.in.readByte();
+				if (record == StateFormatterBinary.RECORD_INITIAL) {
+					this.initialState = (State) this.in.readObject();
+				} else if (record == StateFormatterBinary.RECORD_STATE) {
+					this.state = (State) this.in.readObject();
+					this.model = (Map<PrimitiveSymbolic, Simplex>) this.in.readObject();
+					return true;
+				} else if (record == StateFormatterBinary.RECORD_END) {
+					this.ended = true;
+				} else {
+					throw new IOException("Corrupted trace file, unexpected record " + record + ".");
+				}
+			}
+		} catch (EOFException e) {
+			//truncated trace, the last state is incomplete
+			this.ended = true;
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException(e);
+		}
+		this.state = null;
+		this.model = null;
+		return false;
+	}
+
+	/**
+	 * Returns the initial state of the trace.
+	 *
+	 * @return a copy of the initial {@link State}, or {@code null}
+	 *         if no state was read or the initial state was not written.
+	 */
+	public State getInitialState() {
+		return (this.initialState == null ? null : this.initialState.clone());
+	}
+
+	/**
+	 * Returns the current state of the trace.
+	 *
+	 * @return the current {@link State}, or {@code null} if
+	 *         {@link #next()} was not invoked or returned {@code false}.
+	 */
+	public State getState() {
+		return this.state;
+	}
+
+	/**
+	 * Returns the model of the path condition of the current state.
+	 *
+	 * @return a {@link Map}{@code <}{@link PrimitiveSymbolic}{@code ,}{@link Simplex}{@code >},
+	 *         or {@code null} if the current state is not stuck or its model
+	 *         was not written.
+	 */
+	public Map<PrimitiveSymbolic, Simplex> getModel() {
+		return this.model;
+	}
+
+	/**
+	 * Renders the states of the trace not yet read.
+	 *
+	 * @param f the {@link Formatter} that renders the states.
+	 *        For the formatters that need the initial state and the
+	 *        models (as {@link StateFormatterJUnitTestSuite}) use
+	 *        {@link #getInitialState()} and {@link #getModel()}.
+	 * @param out the {@link Appendable} where the rendered
+	 *        states are appended.
+	 * @throws IOException if the trace file cannot be read, or
+	 *         is corrupted, or {@code out} cannot be appended.
+	 */
+	public void render(Formatter f, Appendable out) throws IOException {
+		f.cleanup();
+		f.formatPrologue();
+		out.append(f.emit());
+		while (next()) {
+			f.cleanup();
+			f.formatState(this.state);
+			out.append(f.emit());
+		}
+		f.cleanup();
+		f.formatEpilogue();
+		out.append(f.emit());
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (this.in != null) {
+				this.in.close();
+			}
+		} finally {
+			this.inflater.end();
+		}
+	}
+
+	/**
+	 * Renders a trace file on the standard output.
+	 *
+	 * @param args the pathname of the trace file, the rendering
+	 *        ({@code text}, {@code graphviz}, {@code trace} or
+	 *        {@code junit}), and then the classpath of the symbolic
+	 *        execution that wrote the trace file, one entry per argument.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: StateTraceReader <trace file> text|graphviz|trace|junit <classpath entry>...");
+			System.exit(1);
+		}
+		try {
+			final CalculatorRewriting calc = new CalculatorRewriting();
+			calc.addRewriter(new RewriterOperationOnSimplex());
+			final ClassHierarchy hier =
+			    new ClassHierarchy(new Classpath(Arrays.copyOfRange(args, 2, args.length)), ClassFileFactoryJavassist.class, new HashMap<>());
+			try (final StateTraceReader r = new StateTraceReader(Paths.get(args[0]), calc, hier)) {
+				final Formatter f;
+				if ("text".equals(args[1])) {
+					f = new StateFormatterText(new ArrayList<>());
+				} else if ("graphviz".equals(args[1])) {
+					f = new StateFormatterGraphviz();
+				} else if ("trace".equals(args[1])) {
+					f = new StateFormatterTrace();
+				} else if ("junit".equals(args[1])) {
+					f = new StateFormatterJUnitTestSuite(r::getInitialState, r::getModel);
+				} else {
+					System.err.println("Unknown rendering " + args[1] + ".");
+					System.exit(1);
+					return;
+				}
+				final PrintStream out = System.out;
+				r.render(f, out);
+				out.flush();
+			}
+		} catch (IOException | InvalidClassFileFactoryClassException e) {
+			System.err.println("Cannot render " + args[0] + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
@@ -80,6 +80,10 @@ public class Util {
 		return result;
 	}
 	
+	public static String formatPercent(long part, long tot) {
+		return (tot == 0 ? "n/a" : new DecimalFormat("##.##%").format(((double) part) / tot));
+	}
+	
 	public static String formatTimePercent(long part, long tot) {
 		final double timeRatio = (((double) part) / tot);
 		final String timePercent = new DecimalFormat("##.##%").format(timeRatio);
@@ -11,5 +11,6 @@ public class CannotBuildFormatterException extends CannotBuildEngineException {
 
     public CannotBuildFormatterException(String s) { super(s); }
     public CannotBuildFormatterException() { super(); }
+    public CannotBuildFormatterException(Exception e) { super(e); }
 
 }
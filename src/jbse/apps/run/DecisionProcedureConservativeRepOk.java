@@ -45,6 +45,10 @@ public final class DecisionProcedureConservativeRepOk extends DecisionProcedureC
         this.checker.setCurrentStateSupplier(currentStateSupplier);
     }
     
+    public void setCacheVerdicts(boolean cacheVerdicts) {
+        this.checker.setCacheVerdicts(cacheVerdicts);
+    }
+    
     @Override
 	protected boolean isSatExpandsLocal(ClassHierarchy hier, ReferenceSymbolic r, String className)
 	throws DecisionException {
@@ -1,5 +1,6 @@
 package jbse.apps.run;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.SortedSet;
@@ -78,16 +79,56 @@ import jbse.val.exc.InvalidTypeException;
  * {@link DecisionProcedureAlgorithms} for guided symbolic execution. It keeps 
  * a guiding {@link Engine} that must be stepped in parallel with the 
  * guided one, and filters all the decisions according to the steps 
- * done by the guiding engine.
+ * done by the guiding engine. The decisions are taken by evaluating 
+ * the symbolic values against the concrete state at the entry of 
+ * the guided method, that is recorded when the guiding engine 
+ * reaches it. The concrete values of the memory paths and the 
+ * evaluated conditions are recorded as well, so each of them is 
+ * evaluated at most once. In recorded mode the guiding engine is 
+ * discarded as soon as it reaches the entry of the guided method,
+ * and the guided execution just follows the recording: This way
+ * the guided method is not interpreted twice, but a divergence
+ * of the guided execution from the concrete one is not detected.
  */
 public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms {
 	private final Engine engine;
 	private final Frame rootFrameConcrete;
 	private State initialStateConcrete;
 	private final HashSet<Long> seenObjects;
+	private final boolean recorded;
+	
+	/** 
+	 * Caches the values of the memory paths in the concrete 
+	 * initial state.
+	 */
+	private final HashMap<MemoryPath, Value> valuesConcrete = new HashMap<>();
+	
+	/** 
+	 * Caches the values of the conditions in the concrete 
+	 * initial state ({@code null} when they cannot be evaluated).
+	 */
+	private final HashMap<Primitive, Primitive> evaluationsConcrete = new HashMap<>();
+	
 	private boolean failedConcrete;
 	private Exception catastrophicFailure;
 	private boolean ended;
+	private boolean engineClosed;
+	
+	/**
+	 * Builds the {@link DecisionProcedureGuidance}, that steps the
+	 * guiding engine in parallel with the guided one.
+	 *
+	 * @param component the component {@link DecisionProcedure} it decorates.
+	 * @param calc a {@link Calculator}.
+	 * @param runnerParameters the {@link RunnerParameters} of the symbolic execution.
+	 * @param stopSignature the {@link Signature} of the guided method.
+	 * @throws GuidanceException if something fails during creation (and the caller
+	 *         is to blame).
+	 */
+	public DecisionProcedureGuidance(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, Signature stopSignature) 
+	throws GuidanceException {
+		this(component, calc, runnerParameters, stopSignature, false);
+	}
 	
 	/**
 	 * Builds the {@link DecisionProcedureGuidance}.
@@ -95,13 +136,20 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 	 * @param component the component {@link DecisionProcedure} it decorates.
 	 * @param calc a {@link Calculator}.
 	 * @param runnerParameters the {@link RunnerParameters} of the symbolic execution.
+	 * @param stopSignature the {@link Signature} of the guided method.
+	 * @param recorded {@code true} iff the guiding engine must be 
+	 *        discarded as soon as it reaches the guided method, 
+	 *        {@code false} iff it must be stepped in parallel 
+	 *        with the guided one.
 	 * @throws GuidanceException if something fails during creation (and the caller
 	 *         is to blame).
 	 */
-	public DecisionProcedureGuidance(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, final Signature stopSignature) 
+	public DecisionProcedureGuidance(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, final Signature stopSignature, boolean recorded) 
 	throws GuidanceException {
 		super(component, calc); 
 		this.seenObjects = new HashSet<>();
+		this.recorded = recorded;
+		this.engineClosed = false;
 		this.failedConcrete = false;
 		this.catastrophicFailure = null;
 		this.ended = false;
@@ -195,7 +243,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
             final Signature currentMethod = this.initialStateConcrete.getCurrentMethodSignature();
             refToRoot = hier.getClassFile(currentMethod.getClassName()).isMethodStatic(currentMethod) ?
                         null :
-                        getValue(this.initialStateConcrete, this.rootFrameConcrete, MemoryPath.mkLocalVariable("this"));
+                        getValue(MemoryPath.mkLocalVariable("this"));
         } catch (GuidanceException | ThreadStackEmptyException | 
                  MethodNotFoundException | BadClassFileException e) {
             //this should never happen
@@ -204,13 +252,25 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 		if (refToRoot != null) {
 			this.seenObjects.add(Util.heapPosition(this.initialStateConcrete, (Reference) refToRoot));
 		}
+		
+		//in recorded mode the guiding engine is no longer necessary
+		if (this.recorded) {
+			closeEngine();
+		}
 	}
 	
+	/**
+	 * Steps the guiding engine. In recorded mode does nothing.
+	 * 
+	 * @throws CannotManageStateException never.
+	 * @throws GuidanceException if the guiding engine fell outside
+	 *         the concrete domain, or it diverged from the guided one.
+	 */
 	public void step() throws CannotManageStateException, GuidanceException {
 		if (this.failedConcrete) {
 			throw new GuidanceException(ERROR_NONCONCRETE_GUIDANCE);
 		}
-		if (this.ended) {
+		if (this.ended || this.recorded) {
 			return;
 		}
 		if (this.engine.canStep()) {
@@ -239,12 +299,16 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 	
     /**
      * Returns the {@link Signature} of the  
-     * guiding engine's current method.
+     * guiding engine's current method. In recorded
+     * mode it is always the guided method.
      * 
      * @return a {@link Signature}.
      * @throws ThreadStackEmptyException if the stack is empty.
      */
 	public Signature getCurrentMethodSignature() throws ThreadStackEmptyException {
+		if (this.recorded) {
+			return this.rootFrameConcrete.getCurrentMethodSignature();
+		}
 	    return this.engine.getCurrentState().getCurrentMethodSignature();
 	}
 	
@@ -255,6 +319,14 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 	public void endGuidance() {
         this.ended = true;
         stopFastAndImprecise();
+        closeEngine();
+	}
+	
+	private void closeEngine() {
+		if (this.engineClosed) {
+			return;
+		}
+		this.engineClosed = true;
 		try {
 			this.engine.close();
 		} catch (DecisionException e) {
@@ -276,7 +348,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 				while (it.hasNext()) {
 					final DecisionAlternative_IFX da = it.next();
 					final Primitive conditionToCheck  = (da.value() ? condition : conditionNot);
-					final Primitive valueInConcreteState = eval(this.initialStateConcrete, this.rootFrameConcrete, conditionToCheck);
+					final Primitive valueInConcreteState = eval(conditionToCheck);
 					if (valueInConcreteState != null && valueInConcreteState.surelyFalse()) {
 						it.remove();
 					}
@@ -308,7 +380,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 							(da.operator() == Operator.GT ? comparisonGT :
 								da.operator() == Operator.EQ ? comparisonEQ :
 									comparisonLT);
-					final Primitive valueInConcreteState = eval(this.initialStateConcrete, this.rootFrameConcrete, conditionToCheck);
+					final Primitive valueInConcreteState = eval(conditionToCheck);
 					if (valueInConcreteState != null && valueInConcreteState.surelyFalse()) {
 						it.remove();
 					}
@@ -337,7 +409,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 					conditionToCheck = (da.isDefault() ?
 					    tab.getDefaultClause(selector) :
 					    selector.eq(this.initialStateConcrete.getCalculator().valInt(da.value())));
-					final Primitive valueInConcreteState = eval(this.initialStateConcrete, this.rootFrameConcrete, conditionToCheck);
+					final Primitive valueInConcreteState = eval(conditionToCheck);
 					if (valueInConcreteState != null && valueInConcreteState.surelyFalse()) {
 						it.remove();
 					}
@@ -363,7 +435,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 				while (it.hasNext()) {
 					final DecisionAlternative_XNEWARRAY da = it.next();
 					final Primitive conditionToCheck = (da.ok() ? countsNonNegative : countsNonNegative.not());
-					final Primitive valueInConcreteState = eval(this.initialStateConcrete, this.rootFrameConcrete, conditionToCheck);
+					final Primitive valueInConcreteState = eval(conditionToCheck);
 					if (valueInConcreteState != null && valueInConcreteState.surelyFalse()) {
 						it.remove();
 					}
@@ -389,7 +461,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 				while (it.hasNext()) {
 					final DecisionAlternative_XASTORE da = it.next();
 					final Primitive conditionToCheck = (da.isInRange() ? inRange : inRange.not());
-					final Primitive valueInConcreteState = eval(this.initialStateConcrete, this.rootFrameConcrete, conditionToCheck);
+					final Primitive valueInConcreteState = eval(conditionToCheck);
 					if (valueInConcreteState != null && valueInConcreteState.surelyFalse()) {
 						it.remove();
 					}
@@ -431,7 +503,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 			while (it.hasNext()) {
 				final DecisionAlternative_XALOAD da = it.next();
 				final Primitive conditionToCheck = da.getArrayAccessExpression();
-				final Primitive valueInConcreteState = eval(this.initialStateConcrete, this.rootFrameConcrete, conditionToCheck);
+				final Primitive valueInConcreteState = eval(conditionToCheck);
 				if (valueInConcreteState != null && valueInConcreteState.surelyFalse()) {
 					it.remove();
 				}
@@ -452,7 +524,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 			while (it.hasNext()) {
 				final DecisionAlternative_XALOAD_Unresolved dar = (DecisionAlternative_XALOAD_Unresolved) it.next();
 				final Primitive conditionToCheck = dar.getArrayAccessExpression();
-				final Primitive valueInConcreteState = eval(this.initialStateConcrete, this.rootFrameConcrete, conditionToCheck);
+				final Primitive valueInConcreteState = eval(conditionToCheck);
 				if (valueInConcreteState != null && valueInConcreteState.surelyFalse()) {
 					it.remove();
 				} else {
@@ -465,13 +537,13 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 	
 	private void filter(State state, ReferenceSymbolic refToLoad, DecisionAlternative_XYLOAD_GETX_Unresolved dar, Iterator<?> it) 
 	throws GuidanceException {
-		final Reference refInConcreteState = (Reference) getValue(this.initialStateConcrete, this.rootFrameConcrete, refToLoad.getOrigin());
+		final Reference refInConcreteState = (Reference) getValue(refToLoad.getOrigin());
 		if (dar instanceof DecisionAlternative_XYLOAD_GETX_Null && !Util.isNull(this.initialStateConcrete, refInConcreteState)) {
 			it.remove();
 		} else if (dar instanceof DecisionAlternative_XYLOAD_GETX_Aliases) {
 			final DecisionAlternative_XYLOAD_GETX_Aliases dara = (DecisionAlternative_XYLOAD_GETX_Aliases) dar;
 			final MemoryPath aliasOrigin = state.getObject(new ReferenceConcrete(dara.getAliasPosition())).getOrigin();
-			final Reference aliasInConcreteState = (Reference) getValue(this.initialStateConcrete, this.rootFrameConcrete, aliasOrigin);
+			final Reference aliasInConcreteState = (Reference) getValue(aliasOrigin);
 			if (!Util.areAlias(this.initialStateConcrete, refInConcreteState, aliasInConcreteState)) {
 				it.remove();
 			}
@@ -492,7 +564,23 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 		this.failedConcrete = this.engine.canBacktrack();
 	}
 	
-	private static Value getValue(State state, Frame rootFrame, MemoryPath origin) 
+	/**
+	 * Returns the value of a memory path in the concrete initial state.
+	 * 
+	 * @param origin a {@link MemoryPath}.
+	 * @return the {@link Value} of {@code origin}.
+	 * @throws GuidanceException if {@code origin} cannot be accessed.
+	 */
+	private Value getValue(MemoryPath origin) throws GuidanceException {
+		Value retVal = this.valuesConcrete.get(origin);
+		if (retVal == null) {
+			retVal = getValue(this.initialStateConcrete, this.rootFrameConcrete, origin);
+			this.valuesConcrete.put(origin, retVal);
+		}
+		return retVal;
+	}
+	
+	private Value getValue(State state, Frame rootFrame, MemoryPath origin) 
 	throws GuidanceException {
         Value fieldValue = null;
 	    Objekt o = null;
@@ -524,7 +612,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
                 }
                 final AccessArrayMember aa = (AccessArrayMember) a;
                 try {
-                    for (AccessOutcome ao : ((Array) o).get(eval(state, rootFrame, aa.index()))) {
+                    for (AccessOutcome ao : ((Array) o).get(eval(aa.index()))) {
                         if (ao instanceof AccessOutcomeIn) {
                             final AccessOutcomeIn aoi = (AccessOutcomeIn) ao;
                             fieldValue = aoi.getValue();
@@ -547,9 +635,20 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
         return fieldValue;
 	}
 	
-	private static Primitive eval(State state, Frame rootFrame, Primitive toEval) 
-	throws GuidanceException {
-		final Evaluator evaluator = new Evaluator(state, rootFrame);
+	/**
+	 * Evaluates a {@link Primitive} in the concrete initial state.
+	 * 
+	 * @param toEval the {@link Primitive} to evaluate.
+	 * @return the value of {@code toEval}, or {@code null} if 
+	 *         it cannot be evaluated.
+	 * @throws GuidanceException if some memory path in {@code toEval} 
+	 *         cannot be accessed.
+	 */
+	private Primitive eval(Primitive toEval) throws GuidanceException {
+		if (this.evaluationsConcrete.containsKey(toEval)) {
+			return this.evaluationsConcrete.get(toEval);
+		}
+		final Evaluator evaluator = new Evaluator(this.initialStateConcrete.getCalculator());
 		try {
 			toEval.accept(evaluator);
 		} catch (RuntimeException | GuidanceException e) {
@@ -558,19 +657,16 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 			//should not happen
 			throw new UnexpectedInternalException(e);
 		}
+		this.evaluationsConcrete.put(toEval, evaluator.value);
 		return evaluator.value;
 	}
 	
-	private static class Evaluator implements PrimitiveVisitor {
-		private final State state;
-		private final Frame rootFrame;
+	private class Evaluator implements PrimitiveVisitor {
 		private final Calculator calc;
 		Primitive value; //the result
 		
-		public Evaluator(State state, Frame rootFrame) {
-			this.state = state;
-			this.rootFrame = rootFrame;
-			this.calc = state.getCalculator();
+		public Evaluator(Calculator calc) {
+			this.calc = calc;
 		}
 		
 		@Override
@@ -622,7 +718,7 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
 
 		@Override
 		public void visitPrimitiveSymbolic(PrimitiveSymbolic s) throws GuidanceException {
-			final Value fieldValue = getValue(this.state, this.rootFrame, s.getOrigin());
+			final Value fieldValue = getValue(s.getOrigin());
 			if (fieldValue instanceof Primitive) {
 				this.value = (Primitive) fieldValue;
 			} else {
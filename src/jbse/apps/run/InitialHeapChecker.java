@@ -4,10 +4,18 @@ import static java.lang.annotation.ElementType.METHOD;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Target;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import jbse.algo.exc.CannotManageStateException;
 import jbse.bc.ClassFile;
@@ -31,8 +39,12 @@ import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.Array;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
 import jbse.mem.Objekt;
 import jbse.mem.State;
+import jbse.mem.Variable;
 import jbse.mem.exc.CannotRefineException;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.InvalidProgramCounterException;
@@ -40,6 +52,7 @@ import jbse.mem.exc.InvalidSlotException;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.val.Reference;
 import jbse.val.ReferenceConcrete;
+import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
 import jbse.val.Value;
 
@@ -49,11 +62,34 @@ public final class InitialHeapChecker {
     private Supplier<State> initialStateSupplier = null;
     private Supplier<State> currentStateSupplier = null;
     
+    /** 
+     * Builds the runners of the check methods, sharing 
+     * the execution context of the first one. 
+     */
+    private final RunnerBuilder builder = new RunnerBuilder();
+    
+    /** The maximum number of cached verdicts. */
+    private static final int VERDICTS_CACHE_SIZE = 4096;
+    
+    /** Matches the primitive symbols in the rendering of a value. */
+    private static final Pattern PRIMITIVE_SYMBOL = Pattern.compile("\\{V[0-9]+\\}");
+    
+    /** 
+     * Caches the verdicts of the check methods, keyed on the canonical
+     * encoding of the checked objects (see {@link #canonical(State, long)}),
+     * or {@code null} if the verdicts are not cached.
+     */
+    private LinkedHashMap<String, Boolean> verdicts = null;
+    
+    /** The number of verdicts found in {@code this.verdicts}. */
+    private long cacheHits = 0;
+    
     public InitialHeapChecker(RunnerParameters runnerParameters, 
                               Class<? extends Annotation> methodAnnotationClass,
                               Map<String, String> checkMethods) {
         this.runnerParameters = runnerParameters;
         this.checkMethodTable = new CheckMethodTable(methodAnnotationClass, checkMethods);
+        this.builder.setReuseContext(true);
     }
     
     public void setInitialStateSupplier(Supplier<State> initialStateSupplier) {
@@ -64,6 +100,46 @@ public final class InitialHeapChecker {
         this.currentStateSupplier = currentStateSupplier;
     }   
     
+    /**
+     * Sets whether the verdicts of the check methods must be cached. 
+     * The verdicts are keyed on the shape of the heap reachable from 
+     * the checked object, up to isomorphism, and on the clauses of the 
+     * path condition that constrain its primitive values, so a verdict 
+     * is reused for all the objects with the same shape, in the same 
+     * and in different states. This assumes that the check methods only 
+     * depend on the objects reachable from the checked object. The 
+     * verdicts are not cached when an unresolved symbolic reference is 
+     * reachable from the checked object, since its possible resolutions
+     * depend on the rest of the heap, on the origin of the reference and 
+     * on the resolution rules.
+     * 
+     * @param cacheVerdicts a {@code boolean}, by default {@code false}.
+     */
+    public void setCacheVerdicts(boolean cacheVerdicts) {
+        if (!cacheVerdicts) {
+            this.verdicts = null;
+        } else if (this.verdicts == null) {
+            this.verdicts = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > VERDICTS_CACHE_SIZE;
+                }
+            };
+        }
+    }
+    
+    /**
+     * Returns the number of checks whose verdict was cached
+     * (see {@link #setCacheVerdicts(boolean)}).
+     * 
+     * @return a {@code long}.
+     */
+    public long getCacheHits() {
+        return this.cacheHits;
+    }
+    
     public boolean checkHeap(boolean scopeExhaustionMeansSuccess) {
         final State sIni = makeInitialState();
         return checkHeap(sIni, scopeExhaustionMeansSuccess);
@@ -80,9 +156,20 @@ public final class InitialHeapChecker {
                     if (methodSignature == null) {
                         //nothing to check
                     } else {
-                        final State sRun = sIni.clone();
-                        final boolean repOk = 
-                            runCheckMethod(sRun, objectRef, methodSignature, this.runnerParameters, scopeExhaustionMeansSuccess);
+                        final String shape = (this.verdicts == null ? null : canonical(sIni, heapPos));
+                        final String key = (shape == null ? null : methodSignature + " " + scopeExhaustionMeansSuccess + "\n" + shape);
+                        final Boolean cached = (key == null ? null : this.verdicts.get(key));
+                        final boolean repOk;
+                        if (cached == null) {
+                            final State sRun = sIni.clone();
+                            repOk = runCheckMethod(sRun, objectRef, methodSignature, this.runnerParameters, scopeExhaustionMeansSuccess);
+                            if (key != null) {
+                                this.verdicts.put(key, repOk);
+                            }
+                        } else {
+                            ++this.cacheHits;
+                            repOk = cached;
+                        }
                         if (!repOk) {
                             return false; 
                         }
@@ -118,6 +205,126 @@ public final class InitialHeapChecker {
         return sIni;
     }
 
+    /**
+     * Encodes the part of a state a check method depends on, i.e., 
+     * the objects reachable from the checked object, and the clauses 
+     * of the path condition that constrain their primitive values, 
+     * transitively. The encoding does not depend on the heap 
+     * positions of the objects and on the names of the symbols, 
+     * so it is the same for isomorphic heaps.
+     * 
+     * @param s a {@link State}.
+     * @param heapPos the position in the heap of {@code s} of the
+     *        checked object.
+     * @return a {@link String}, or {@code null} if the heap reachable
+     *         from the checked object contains arrays, that are 
+     *         not encoded, or unresolved symbolic references, since
+     *         the verdict of the check method depends on the way they 
+     *         are resolved.
+     */
+    static String canonical(State s, long heapPos) {
+        final StringBuilder retVal = new StringBuilder();
+        final HashMap<String, String> symbols = new HashMap<>();
+        final HashMap<Long, Integer> ids = new HashMap<>();
+        final ArrayDeque<Long> toVisit = new ArrayDeque<>();
+        ids.put(heapPos, 0);
+        toVisit.add(heapPos);
+        
+        //encodes the reachable objects breadth-first, 
+        //with their fields in name order
+        while (!toVisit.isEmpty()) {
+            final long pos = toVisit.poll();
+            final Objekt o = s.getObject(new ReferenceConcrete(pos));
+            if (o instanceof Array) {
+                return null;
+            }
+            retVal.append('#').append(ids.get(pos)).append(' ').append(o.getType()).append(o.isSymbolic() ? " {" : " !{");
+            for (Map.Entry<String, Variable> field : new TreeMap<>(o.fields()).entrySet()) {
+                retVal.append(field.getKey()).append('=');
+                final Value v = field.getValue().getValue();
+                if (v instanceof Reference) {
+                    final Reference ref = (Reference) v;
+                    if (s.isNull(ref)) {
+                        retVal.append("null");
+                    } else if (ref instanceof ReferenceSymbolic && !s.resolved((ReferenceSymbolic) ref)) {
+                        return null;
+                    } else {
+                        final long target = (ref instanceof ReferenceSymbolic ? 
+                                             s.getResolution((ReferenceSymbolic) ref) : 
+                                             ((ReferenceConcrete) ref).getHeapPosition());
+                        Integer id = ids.get(target);
+                        if (id == null) {
+                            id = ids.size();
+                            ids.put(target, id);
+                            toVisit.add(target);
+                        }
+                        retVal.append('#').append(id);
+                    }
+                } else {
+                    retVal.append(rename(String.valueOf(v), symbols));
+                }
+                retVal.append(';');
+            }
+            retVal.append("}\n");
+        }
+        
+        //adds the clauses on the reached symbols, transitively,
+        //in path condition order
+        final ArrayList<String> clauses = new ArrayList<>();
+        for (Clause c : s.getPathCondition()) {
+            if (c instanceof ClauseAssume) {
+                clauses.add(((ClauseAssume) c).getCondition().toString());
+            }
+        }
+        final HashSet<Integer> added = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < clauses.size(); ++i) {
+                if (added.contains(i)) {
+                    continue;
+                }
+                final Matcher m = PRIMITIVE_SYMBOL.matcher(clauses.get(i));
+                while (m.find()) {
+                    if (symbols.containsKey(m.group())) {
+                        added.add(i);
+                        changed = true;
+                        break;
+                    }
+                }
+                if (added.contains(i)) {
+                    retVal.append(rename(clauses.get(i), symbols)).append('\n');
+                }
+            }
+        }
+        return retVal.toString();
+    }
+    
+    /**
+     * Renames the primitive symbols in a {@link String} 
+     * in order of first occurrence.
+     * 
+     * @param s a {@link String}.
+     * @param symbols a {@link Map}{@code <}{@link String}{@code , }{@link String}{@code >}
+     *        from the names of the symbols to their new names. It is 
+     *        updated with the symbols first met in {@code s}.
+     * @return {@code s} with the primitive symbols renamed.
+     */
+    private static String rename(String s, Map<String, String> symbols) {
+        final Matcher m = PRIMITIVE_SYMBOL.matcher(s);
+        final StringBuffer retVal = new StringBuffer();
+        while (m.find()) {
+            String name = symbols.get(m.group());
+            if (name == null) {
+                name = "{$" + symbols.size() + "}";
+                symbols.put(m.group(), name);
+            }
+            m.appendReplacement(retVal, Matcher.quoteReplacement(name));
+        }
+        m.appendTail(retVal);
+        return retVal.toString();
+    }
+
     /**
      * This class stores bindings from class names to signatures
      * of methods in the class that must be used to check the 
@@ -217,7 +424,8 @@ public final class InitialHeapChecker {
     }
 
     /**
-     * Runs a check method in a new {@link Engine}.
+     * Runs a check method in a new {@link Engine}, that 
+     * shares the execution context of the previous ones.
      * 
      * @param s the initial {@link State} to run the
      *        method. It will be modified.
@@ -255,7 +463,7 @@ public final class InitialHeapChecker {
      * @throws MethodCodeNotFoundException 
      */
     //TODO handle and convert all these exceptions and raise the abstraction level of the operation
-    private static boolean 
+    private boolean 
     runCheckMethod(State s, Reference r, Signature methodSignatureImpl, RunnerParameters p, boolean scopeExhaustionMeansSuccess) 
     throws CannotBuildEngineException, InitializationException, 
     InvalidClassFileFactoryClassException, InvalidProgramCounterException, 
@@ -273,8 +481,7 @@ public final class InitialHeapChecker {
         p.setActions(actions);
 
         //runs
-        final RunnerBuilder builder = new RunnerBuilder();
-        final Runner runner = builder.build(p);
+        final Runner runner = this.builder.build(p);
         runner.run();
         return actions.repOk;
     }
@@ -0,0 +1,167 @@
+package jbse.apps.run;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * A pipeline that processes the leaves of a symbolic execution
+ * on a pool of worker threads. Each worker owns a context, that
+ * it uses for all the leaves it processes. The processing of a
+ * leaf yields a completion, that is run on the thread that
+ * submits the leaves, in the order the leaves were submitted,
+ * so the effects of the completions are deterministic. The
+ * number of leaves that are submitted and not yet completed
+ * is bounded: When the bound is reached, submission blocks
+ * until the oldest leaf is completed.
+ *
+ * @param <C> the type of the contexts of the workers.
+ *
+ * @author Pietro Braione
+ */
+final class LeafPipeline<C> {
+    /**
+     * The processing of a leaf.
+     *
+     * @param <C> the type of the contexts of the workers.
+     */
+    @FunctionalInterface
+    interface Task<C> {
+        /**
+         * Processes a leaf. It is run by a worker thread.
+         *
+         * @param context the context of the worker.
+         * @return a {@link Runnable}, the completion, that
+         *         is run on the thread that submitted the leaf.
+         * @throws Exception if the processing fails; the
+         *         exception is rethrown when the leaf is
+         *         completed.
+         */
+        Runnable process(C context) throws Exception;
+    }
+
+    /** The worker threads. */
+    private final ExecutorService executor;
+
+    /** The context of each worker thread. */
+    private final ThreadLocal<C> context;
+
+    /** The leaves not yet completed, in submission order. */
+    private final ArrayDeque<Future<Runnable>> pending = new ArrayDeque<>();
+
+    /** The maximum number of leaves not yet completed. */
+    private final int capacity;
+
+    /** How many times a submission blocked. */
+    private long stalls = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param contexts a {@link List}{@code <C>}, the contexts
+     *        of the workers. There will be a worker thread
+     *        for each context. It must not be empty.
+     * @param capacity an {@code int}, the maximum number of
+     *        leaves submitted and not yet completed. If it is
+     *        less than the number of contexts, it is set to
+     *        the number of contexts.
+     */
+    LeafPipeline(List<C> contexts, int capacity) {
+        final ConcurrentLinkedQueue<C> free = new ConcurrentLinkedQueue<>(contexts);
+        this.context = ThreadLocal.withInitial(free::poll);
+        this.executor = Executors.newFixedThreadPool(contexts.size(), r -> {
+            final Thread t = new Thread(r, "jbse-leaf-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.capacity = Math.max(capacity, contexts.size());
+    }
+
+    /**
+     * Submits a leaf. Before submission completes all the
+     * leaves whose processing is over, and blocks if the
+     * pipeline is full.
+     *
+     * @param task the {@link Task} that processes the leaf.
+     *        It must only access the context it receives and
+     *        objects that no other thread modifies.
+     * @throws RuntimeException if the processing of a previously
+     *         submitted leaf failed.
+     */
+    void submit(Task<C> task) {
+        completeDone();
+        if (this.pending.size() >= this.capacity) {
+            ++this.stalls;
+            do {
+                completeHead();
+            } while (this.pending.size() >= this.capacity);
+        }
+        this.pending.add(this.executor.submit(() -> task.process(this.context.get())));
+    }
+
+    /**
+     * Completes all the leaves whose processing is over, in
+     * submission order, without blocking.
+     *
+     * @throws RuntimeException if the processing of a leaf failed.
+     */
+    void completeDone() {
+        while (!this.pending.isEmpty() && this.pending.peek().isDone()) {
+            completeHead();
+        }
+    }
+
+    /**
+     * Waits for the processing of all the submitted leaves and
+     * completes them.
+     *
+     * @throws RuntimeException if the processing of a leaf failed.
+     */
+    void drain() {
+        while (!this.pending.isEmpty()) {
+            completeHead();
+        }
+    }
+
+    /**
+     * Returns how many times a submission blocked
+     * because the pipeline was full.
+     *
+     * @return a {@code long}.
+     */
+    long getStalls() {
+        return this.stalls;
+    }
+
+    /**
+     * Stops the worker threads. The leaves not yet
+     * completed are discarded.
+     */
+    void close() {
+        this.pending.clear();
+        this.executor.shutdownNow();
+    }
+
+    private void completeHead() {
+        final Future<Runnable> head = this.pending.poll();
+        final Runnable completion;
+        try {
+            completion = head.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedInternalException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new UnexpectedInternalException(e.getCause());
+        }
+        completion.run();
+    }
+}
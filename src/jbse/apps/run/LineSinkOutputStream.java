@@ -0,0 +1,70 @@
+package jbse.apps.run;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+/**
+ * An {@link OutputStream} that splits the bytes written to it
+ * in lines, and passes each line, decoded with the default
+ * charset and without its line separator, to a
+ * {@link Consumer} as soon as it is complete. The last line
+ * is passed on close, if it is not empty.
+ *
+ * @author Pietro Braione
+ */
+final class LineSinkOutputStream extends OutputStream {
+	/** The {@link Consumer} of the lines. */
+	private final Consumer<String> sink;
+
+	/** The bytes of the current line. */
+	private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sink the {@link Consumer} of the lines.
+	 */
+	LineSinkOutputStream(Consumer<String> sink) {
+		this.sink = sink;
+	}
+
+	@Override
+	public void write(int b) {
+		if (b == '\n') {
+			emit();
+		} else {
+			this.line.write(b);
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		int start = off;
+		for (int i = off; i < off + len; ++i) {
+			if (b[i] == '\n') {
+				this.line.write(b, start, i - start);
+				emit();
+				start = i + 1;
+			}
+		}
+		this.line.write(b, start, off + len - start);
+	}
+
+	@Override
+	public void close() {
+		if (this.line.size() > 0) {
+			emit();
+		}
+	}
+
+	private void emit() {
+		String s = new String(this.line.toByteArray(), Charset.defaultCharset());
+		if (s.endsWith("\r")) {
+			s = s.substring(0, s.length() - 1);
+		}
+		this.line.reset();
+		this.sink.accept(s);
+	}
+}
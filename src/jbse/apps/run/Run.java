@@ -2,24 +2,41 @@ package jbse.apps.run;
 
 import static jbse.apps.Util.LINE_SEP;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import jbse.JBSE;
 import jbse.algo.exc.CannotInvokeNativeException;
 import jbse.algo.exc.CannotManageStateException;
 import jbse.algo.exc.NotYetImplementedException;
 import jbse.apps.DecisionProcedureDecoratorPrint;
+import jbse.apps.DecisionProcedureDecoratorStats;
 import jbse.apps.DecisionProcedureDecoratorTimer;
 import jbse.apps.IO;
+import jbse.apps.JUnitTestSuiteWriter;
 import jbse.apps.Formatter;
+import jbse.apps.StateFormatterBinary;
 import jbse.apps.StateFormatterGraphviz;
 import jbse.apps.StateFormatterJUnitTestSuite;
 import jbse.apps.StateFormatterText;
+import jbse.apps.StateFormatterTextDiff;
 import jbse.apps.StateFormatterTrace;
 import jbse.apps.Timer;
 import jbse.apps.Util;
@@ -30,6 +47,7 @@ import jbse.apps.run.RunParameters.StateFormatMode;
 import jbse.apps.run.RunParameters.StepShowMode;
 import jbse.apps.run.RunParameters.TextMode;
 import jbse.apps.run.RunParameters.TraceTypes;
+import jbse.bc.ClassHierarchy;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.UnexpectedInternalException;
@@ -39,11 +57,16 @@ import jbse.dec.DecisionProcedureAlwSat;
 import jbse.dec.DecisionProcedureCVC3;
 import jbse.dec.DecisionProcedureClassInit;
 import jbse.dec.DecisionProcedureEquality;
+import jbse.dec.DecisionProcedureExternal;
 import jbse.dec.DecisionProcedureLICS;
+import jbse.dec.DecisionProcedureLinearArithmetic;
 import jbse.dec.DecisionProcedureSignAnalysis;
+import jbse.dec.DecisionProcedureSMTLIB2Portfolio;
 import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRA;
+import jbse.dec.VerdictStore;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.InvalidInputException;
 import jbse.jvm.Engine;
 import jbse.jvm.EngineParameters;
 import jbse.jvm.Runner;
@@ -63,6 +86,8 @@ import jbse.meta.annotations.ConcretizationCheck;
 import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
 import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.tree.CoverageTracker;
+import jbse.tree.StateSerializer;
 import jbse.tree.StateTree.BranchPoint;
 import jbse.val.PrimitiveSymbolic;
 import jbse.val.Simplex;
@@ -91,6 +116,13 @@ import jbse.val.Simplex;
 public final class Run {
 	/** The {@link RunParameters} of the symbolic execution. */
 	private final RunParameters parameters;
+	
+	/** 
+	 * The {@link RunWorker} when this {@link Run} explores a 
+	 * subregion on behalf of a {@link RunCoordinator}, 
+	 * otherwise {@code null}.
+	 */
+	private final RunWorker worker;
 
 	/** The {@link Runner} used to run the method. */
 	private Runner runner = null; //TODO build run object during construction and make this final
@@ -110,15 +142,42 @@ public final class Run {
 	/** The {@link PrintStream}s for errors (critical log information). */
 	private PrintStream[] err = null;
 
+	/** The dump file underlying {@code out[1]}, {@code log[1]} and {@code err[1]}, or {@code null}. */
+	private FileOutputStream dumpFile = null;
+
 	/** The {@link Formatter} to output states at branches. */
 	private Formatter formatterBranches = null;
 
 	/** The {@link Formatter} to output states not at branches. */
 	private Formatter formatterOthers = null;
 
+	/** Writes the JUnit test suite to a directory, if required. */
+	private JUnitTestSuiteWriter testSuite = null;
+
 	/** The {@link Timer} for the decision procedure. */
 	private Timer timer = null;
 
+	/** The portfolio decision procedure, whenever it is chosen for deciding the arithmetic conditions. */
+	private DecisionProcedureSMTLIB2Portfolio portfolio = null;
+
+	/** 
+	 * The portfolio decision procedures for the concretization checks, possibly 
+	 * created by many leaf workers, whenever the portfolio is chosen.
+	 */
+	private final ArrayList<DecisionProcedureSMTLIB2Portfolio> portfoliosNumeric = new ArrayList<>();
+
+	/** The external decision procedure, whenever one is chosen for deciding the arithmetic conditions. */
+	private DecisionProcedureExternal external = null;
+
+	/** The persistent store of the verdicts of the external decision procedures, if required. */
+	private VerdictStore verdictStore = null;
+
+	/** 
+	 * The decorators collecting the statistics of the members of the 
+	 * chain of decision procedures, from the outermost to the innermost. 
+	 */
+	private final ArrayList<DecisionProcedureDecoratorStats> metrics = new ArrayList<>();
+
 	/** The {@link DecisionProcedureGuidance}, whenever this method is chosen for stepping the {@link Engine}. */
 	private DecisionProcedureGuidance guidance = null;
 	
@@ -127,6 +186,18 @@ public final class Run {
 	
 	/** The concretization checker. */
 	private InitialHeapChecker checker = null;
+	
+	/** The pipeline that processes the leaves off the exploration thread, if required. */
+	private LeafPipeline<LeafContext> leafPipeline = null;
+	
+	/** The contexts of the workers of {@code this.leafPipeline}. */
+	private final ArrayList<LeafContext> leafContexts = new ArrayList<>();
+	
+	/** The initial state, taken when the first leaf is submitted. */
+	private State leafInitialState = null;
+	
+	/** The progress of the formatter after all the submitted leaves are formatted. */
+	private long leafProgress = 0;
 
 	/** Counter for the number of analyzed traces that are safe (do not violate assertions). */
 	private long tracesSafe = 0;
@@ -146,11 +217,32 @@ public final class Run {
 	/** The time spent during the concretization checks. */
 	private long elapsedTimeConcretization = 0;
 
+	/** Counter for the number of traces stopped because handed off to another worker. */
+	private long tracesHandedOff = 0;
+
+	/** 
+	 * {@code true} iff some pending state could not be handed 
+	 * off to another worker, and its subregion was not explored.
+	 */
+	private boolean regionIncomplete = false;
+
 	/**
 	 * Constructor.
 	 */
 	public Run(RunParameters parameters) {
+		this(parameters, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param parameters the {@link RunParameters}.
+	 * @param worker the {@link RunWorker} on behalf of which
+	 *        a subregion is explored, or {@code null}.
+	 */
+	Run(RunParameters parameters, RunWorker worker) {
 		this.parameters = parameters;
+		this.worker = worker;
 		//TODO this should build! Eliminate numeric error codes!
 	}
 
@@ -169,10 +261,246 @@ public final class Run {
 		INC_OUT_OF_SCOPE
 	}
 	
+	/**
+	 * A leaf, and what must be done with it. Its states
+	 * are not modified after submission, neither by the 
+	 * exploration thread nor by the workers, that copy them
+	 * together, so the copies share the objects (e.g., the
+	 * path condition clauses) the originals share.
+	 * 
+	 * @author Pietro Braione
+	 *
+	 */
+	private static final class Leaf {
+		/** The initial state. */
+		final State initialState;
+		
+		/** The leaf state. */
+		final State state;
+		
+		/** The identifier of the leaf state. */
+		final String identifier;
+		
+		/** The end of trace message, or {@code null} if it must not be logged. */
+		final String endOfTraceMessage;
+		
+		/** Whether the leaf must be emitted. */
+		final boolean show;
+		
+		/** Whether the refined initial state must be emitted before the leaf. */
+		final boolean summary;
+		
+		/** The progress of the formatter before the leaf is formatted. */
+		final long progress;
+		
+		/** 
+		 * The counter to be incremented if the leaf is concretizable, 
+		 * or {@code null} if it must not be checked. 
+		 */
+		final CounterKind counterKind;
+		
+		Leaf(State initialState, State state, String identifier, String endOfTraceMessage, 
+		     boolean show, boolean summary, long progress, CounterKind counterKind) {
+			this.initialState = initialState;
+			this.state = state;
+			this.identifier = identifier;
+			this.endOfTraceMessage = endOfTraceMessage;
+			this.show = show;
+			this.summary = summary;
+			this.progress = progress;
+			this.counterKind = counterKind;
+		}
+	}
+	
+	/**
+	 * The context of a worker of {@code Run.this.leafPipeline}. 
+	 * It has its own calculator, class hierarchy, decision 
+	 * procedure, concretization checker and formatter, and 
+	 * works on its own copy of the leaves, so it shares no
+	 * mutable object with the exploration thread.
+	 * 
+	 * @author Pietro Braione
+	 *
+	 */
+	private final class LeafContext {
+		/** 
+		 * Serializes the leaves; its shared objects are 
+		 * the ones of the exploration thread, that are 
+		 * only compared by identity.
+		 */
+		private final StateSerializer source = new StateSerializer();
+		
+		/** The buffer where the leaves are serialized. */
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		
+		/** Deserializes the leaves into this context. */
+		private final StateSerializer serializer = new StateSerializer();
+		
+		/** The decision procedure, or {@code null} if no leaf is checked and no model is needed. */
+		private final DecisionProcedureAlgorithms decisionProcedure;
+		
+		/** The concretization checker, or {@code null} if no leaf is checked. */
+		private final InitialHeapChecker checker;
+		
+		/** The formatter of the leaves. */
+		private final Formatter formatter;
+		
+		/** The initial state. */
+		private State initialState = null;
+		
+		/** The leaf state being processed. */
+		private State currentState = null;
+		
+		LeafContext() 
+		throws CannotBuildEngineException, CannotBuildDecisionProcedureException, 
+		CannotBuildFormatterException, InvalidClassFileFactoryClassException {
+			final CalculatorRewriting calc = createCalculator();
+			final ClassHierarchy hier = 
+				new ClassHierarchy(Run.this.parameters.getClasspath(), Run.this.parameters.getClassFileFactory(), 
+				                   Run.this.parameters.getRunnerParameters().getEngineParameters().getExpansionBackdoor());
+			this.serializer.setSharedObjects(calc, hier);
+			final boolean doConcretization = Run.this.parameters.getDoConcretization();
+			if (doConcretization || Run.this.parameters.getStateFormatMode() == StateFormatMode.JUNIT_TEST) {
+				try {
+					this.decisionProcedure = createDecisionProcedureNumeric(calc);
+				} catch (DecisionException e) {
+					throw new CannotBuildDecisionProcedureException(e);
+				}
+			} else {
+				this.decisionProcedure = null;
+			}
+			this.checker = (doConcretization ? createHeapChecker(this.decisionProcedure, this::getInitialState, this::getCurrentState) : null);
+			this.formatter = createFormatter(true, this::getInitialState, this::getModel);
+		}
+		
+		private State getInitialState() {
+			return this.initialState.clone();
+		}
+		
+		private State getCurrentState() {
+			return this.currentState;
+		}
+		
+		private Map<PrimitiveSymbolic, Simplex> getModel() {
+			try {
+				this.decisionProcedure.setAssumptions(this.currentState.getPathCondition());
+				return this.decisionProcedure.getModel();
+			} catch (InvalidInputException | DecisionException e) {
+				return null;
+			}
+		}
+		
+		/**
+		 * Copies the initial state and the state of a leaf into
+		 * this context, with a single serialization.
+		 * 
+		 * @param leaf a {@link Leaf}.
+		 * @throws IOException if the states cannot be copied.
+		 */
+		private void copy(Leaf leaf) throws IOException {
+			this.source.setSharedObjects(leaf.state.getCalculator(), leaf.state.getClassHierarchy());
+			this.buffer.reset();
+			try (final ObjectOutputStream out = this.source.newOutputStream(this.buffer)) {
+				out.writeObject(leaf.initialState);
+				out.writeObject(leaf.state);
+			}
+			try (final ObjectInputStream in = this.serializer.newInputStream(new ByteArrayInputStream(this.buffer.toByteArray()))) {
+				this.initialState = (State) in.readObject();
+				this.currentState = (State) in.readObject();
+			} catch (ClassNotFoundException | ClassCastException e) {
+				throw new IOException(e);
+			}
+		}
+		
+		/**
+		 * Processes a leaf on a worker thread, i.e., copies it into
+		 * this context, formats it and checks whether it is concretizable.
+		 * 
+		 * @param leaf a {@link Leaf}.
+		 * @return a {@link Runnable} that outputs the formatted leaf and
+		 *         updates the statistics on the exploration thread, or
+		 *         that reports the failure if the leaf cannot be copied
+		 *         or the initial state cannot be refined; in this case
+		 *         the leaf is not emitted nor counted, but the symbolic
+		 *         execution goes on.
+		 */
+		Runnable process(Leaf leaf) {
+			try {
+				return processOrFail(leaf);
+			} catch (IOException | CannotRefineException e) {
+				this.currentState = null;
+				return () -> {
+					err(ERROR_LEAF + leaf.identifier + ", cause: ");
+					err(e);
+				};
+			}
+		}
+		
+		private Runnable processOrFail(Leaf leaf) throws IOException, CannotRefineException {
+			copy(leaf);
+			
+			//formats the leaf state (preceded by the refined initial state for the summaries case)
+			final String initialRefinedText;
+			final String currentText;
+			final long progress;
+			if (leaf.show) {
+				this.formatter.setProgress(leaf.progress);
+				if (leaf.summary) {
+					final State initialRefined = getInitialState();
+					initialRefined.refine(this.currentState);
+					this.formatter.cleanup();
+					this.formatter.formatState(initialRefined);
+					initialRefinedText = this.formatter.emit();
+				} else {
+					initialRefinedText = null;
+				}
+				this.formatter.cleanup();
+				this.formatter.formatState(this.currentState);
+				currentText = this.formatter.emit();
+				progress = this.formatter.getProgress();
+			} else {
+				initialRefinedText = currentText = null;
+				progress = 0;
+			}
+			
+			//checks the leaf state
+			final boolean concretizable;
+			final long elapsedTime;
+			if (leaf.counterKind == null) {
+				concretizable = false;
+				elapsedTime = 0;
+			} else {
+				final long startTime = System.currentTimeMillis();
+				concretizable = this.checker.checkHeap(false);
+				elapsedTime = System.currentTimeMillis() - startTime;
+			}
+			this.currentState = null;
+			
+			return () -> {
+				if (leaf.show) {
+					Run.this.markOutput(leaf.identifier);
+					if (leaf.summary) {
+						Run.this.emitFormatted(initialRefinedText);
+						Run.this.out("\n===\n");
+					}
+					Run.this.emitFormatted(currentText);
+					Run.this.formatterBranches.setProgress(progress);
+				}
+				if (leaf.endOfTraceMessage != null) {
+					Run.this.log(leaf.identifier + leaf.endOfTraceMessage);
+				}
+				if (leaf.counterKind != null) {
+					updateConcretizationStats(leaf.counterKind, concretizable, elapsedTime, leaf.identifier);
+				}
+			};
+		}
+	}
+	
 	private class ActionsRun extends Runner.Actions {
 		private String endOfTraceMessage;
 		private TraceTypes traceKind;
 		private boolean isBranch;
+		private boolean handedOff;
 		
 		/**
 		 * Determines whether the stack size of the current state 
@@ -193,9 +521,11 @@ public final class Run {
 		 * @return {@code true} iff the user told to stop execution.
 		 */
 		private boolean printAndAsk() {
-			if (this.endOfTraceMessage == null && this.traceKind != TraceTypes.CONTRADICTORY && this.stackSizeAcceptable()) {
+			if (this.endOfTraceMessage == null && this.traceKind != TraceTypes.CONTRADICTORY && 
+			    this.stackSizeAcceptable() && this.currentStateIsOwned()) {
 				try {
 		            final State currentState = Run.this.getCurrentState();
+					Run.this.markOutput(currentState.getIdentifier());
 					Run.this.emitState(currentState, this.isBranch);
 				} catch (UnexpectedInternalException e) {
 				    Run.this.err(ERROR_UNEXPECTED);
@@ -216,6 +546,60 @@ public final class Run {
 			return stop;
 		}
 		
+		/**
+		 * Determines whether the current state must be emitted 
+		 * by this {@link Run}.
+		 * 
+		 * @return {@code false} iff this {@link Run} is a worker, and 
+		 *         the current state either is handed off to another 
+		 *         worker, or is on the path from the root to the
+		 *         subregion of this worker (in which case it is
+		 *         emitted by the worker of an enclosing subregion).
+		 */
+		private boolean currentStateIsOwned() {
+			return (Run.this.worker == null || 
+			        (!this.handedOff && Run.this.worker.owns(Run.this.engine.getCurrentState().getIdentifier())));
+		}
+		
+		/**
+		 * Stops the current trace and hands off the subregion 
+		 * rooted at the current state to another worker, if 
+		 * this {@link Run} is a worker and the current state 
+		 * is beyond its frontier.
+		 */
+		private void handOffIfBeyondFrontier() {
+			if (Run.this.worker == null) {
+				return;
+			}
+			final State currentState = Run.this.engine.getCurrentState();
+			if (Run.this.worker.isBeyondFrontier(currentState)) {
+				Run.this.worker.handOff(currentState.getIdentifier());
+				Run.this.engine.stopCurrentTrace();
+				this.handedOff = true;
+			}
+		}
+		
+		/**
+		 * Hands off to other workers all the pending states
+		 * in the subregion of this worker.
+		 */
+		private void handOffPending() {
+			final String identifierSubregion = Run.this.parameters.getRunnerParameters().getIdentifierSubregion();
+			try {
+				while (Run.this.engine.canBacktrack()) {
+					Run.this.engine.backtrack();
+					final String identifier = Run.this.engine.getCurrentState().getIdentifier();
+					if (Runner.isInSubregion(identifier, identifierSubregion)) {
+						Run.this.worker.handOff(identifier);
+					}
+				}
+			} catch (DecisionBacktrackException | CannotBacktrackException e) {
+				Run.this.regionIncomplete = true;
+				Run.this.err(ERROR_HAND_OFF);
+				Run.this.err(e);
+			}
+		}
+		
 		@Override
 		public boolean atRoot() {
 		    Run.this.emitPrologue();
@@ -239,6 +623,10 @@ public final class Run {
 			
 			//at the start of a trace we are on a branch
 			this.isBranch = true;
+			
+			//the subregion might be handed off to another worker
+			this.handedOff = false;
+			handOffIfBeyondFrontier();
 
 			//exits if user wants
 			boolean stop = false;
@@ -274,11 +662,13 @@ public final class Run {
 		@Override
 		public boolean atBranch(BranchPoint bp) {
 			this.isBranch = true;
+			handOffIfBeyondFrontier();
 			return super.atBranch(bp);
 		}
 		
 		@Override
 		public void atEnd() {
+		    Run.this.drainLeaves();
 		    Run.this.emitEpilogue();
 		    super.atEnd();
 		}
@@ -302,6 +692,64 @@ public final class Run {
             }
 		}
 		
+		@Override
+		public void atCoverageGoal() {
+            if (Run.this.parameters.getShowWarnings()) {
+                Run.this.log(WARNING_COVERAGE_GOAL);
+            }
+		}
+		
+		@Override
+		public void atCheckpoint(Map<String, Long> data) {
+			Run.this.drainLeaves();
+			data.put(CHECKPOINT_TRACES_SAFE, Run.this.tracesSafe);
+			data.put(CHECKPOINT_TRACES_UNSAFE, Run.this.tracesUnsafe);
+			data.put(CHECKPOINT_TRACES_CONCRETIZABLE_SAFE, Run.this.tracesConcretizableSafe);
+			data.put(CHECKPOINT_TRACES_CONCRETIZABLE_UNSAFE, Run.this.tracesConcretizableUnsafe);
+			data.put(CHECKPOINT_TRACES_CONCRETIZABLE_OUT_OF_SCOPE, Run.this.tracesConcretizableOutOfScope);
+			data.put(CHECKPOINT_FORMATTER_PROGRESS, Run.this.formatterOthers.getProgress());
+			if (Run.this.dumpFile != null) {
+				//the dump file is brought back to this length on resume
+				Run.this.err[1].flush();
+				try {
+					data.put(CHECKPOINT_DUMP_FILE_LENGTH, Run.this.dumpFile.getChannel().size());
+				} catch (IOException e) {
+					//the dump file will be kept as it is on resume
+				}
+			}
+		}
+		
+		@Override
+		public void atResume(Map<String, Long> data) {
+			Run.this.tracesSafe = data.getOrDefault(CHECKPOINT_TRACES_SAFE, 0L);
+			Run.this.tracesUnsafe = data.getOrDefault(CHECKPOINT_TRACES_UNSAFE, 0L);
+			Run.this.tracesConcretizableSafe = data.getOrDefault(CHECKPOINT_TRACES_CONCRETIZABLE_SAFE, 0L);
+			Run.this.tracesConcretizableUnsafe = data.getOrDefault(CHECKPOINT_TRACES_CONCRETIZABLE_UNSAFE, 0L);
+			Run.this.tracesConcretizableOutOfScope = data.getOrDefault(CHECKPOINT_TRACES_CONCRETIZABLE_OUT_OF_SCOPE, 0L);
+			Run.this.formatterOthers.setProgress(data.getOrDefault(CHECKPOINT_FORMATTER_PROGRESS, 0L));
+			final Long dumpFileLength = data.get(CHECKPOINT_DUMP_FILE_LENGTH);
+			if (Run.this.dumpFile != null && dumpFileLength != null) {
+				//drops what was emitted after the checkpoint, and will be emitted again
+				Run.this.err[1].flush();
+				try {
+					Run.this.dumpFile.getChannel().truncate(dumpFileLength);
+				} catch (IOException e) {
+					Run.this.err(ERROR_DUMP_FILE_RESUME);
+					Run.this.err(e);
+				}
+			}
+			if (Run.this.parameters.getShowInfo()) {
+				Run.this.log(MSG_RESUMED + Run.this.parameters.getResumeFile() + ".");
+			}
+		}
+		
+		@Override
+		public boolean atCheckpointException(IOException e) {
+			Run.this.err(ERROR_CHECKPOINT);
+			Run.this.err(e);
+			return super.atCheckpointException(e);
+		}
+		
 		@Override
 		public boolean atScopeExhaustionHeap() {
 			this.traceKind = TraceTypes.OUT_OF_SCOPE;
@@ -367,17 +815,23 @@ public final class Run {
 
 		@Override
 		public boolean atTraceEnd() {
+			if (this.handedOff) {
+				++Run.this.tracesHandedOff;
+				return false;
+			}
 			try {
                 final State currentState = Run.this.engine.getCurrentState();
-				//prints the leaf state if the case
-				if (Run.this.parameters.getStepShowMode() == StepShowMode.ALL ||    //already shown
-				    Run.this.parameters.getStepShowMode() == StepShowMode.SOURCE || //already shown
-				    Run.this.parameters.getStepShowMode() == StepShowMode.METHOD || //already shown
-				    Run.this.parameters.getStepShowMode() == StepShowMode.NONE   || //not to show
-				    !Run.this.parameters.getTracesToShow().contains(this.traceKind)) {   //not to show
-					//does nothing, the leaf state has been already printed 
-					//or must not be printed at all
-				} else {
+				//determines whether the leaf state must be printed
+				final boolean show = 
+				    !(Run.this.parameters.getStepShowMode() == StepShowMode.ALL ||    //already shown
+				      Run.this.parameters.getStepShowMode() == StepShowMode.SOURCE || //already shown
+				      Run.this.parameters.getStepShowMode() == StepShowMode.METHOD || //already shown
+				      Run.this.parameters.getStepShowMode() == StepShowMode.NONE   || //not to show
+				      !Run.this.parameters.getTracesToShow().contains(this.traceKind));   //not to show
+
+				//prints the leaf state if the case, unless it is processed off the exploration thread
+				if (show && Run.this.leafPipeline == null) {
+					Run.this.markOutput(currentState.getIdentifier());
 					//prints the refined root state for the summaries case
 					if (Run.this.parameters.getStepShowMode() == StepShowMode.SUMMARIES) {
 						State initialRefined = Run.this.engine.getInitialState();
@@ -418,6 +872,10 @@ public final class Run {
 				default:
 				    throw new AssertionError();
 				}
+                if (Run.this.leafPipeline != null) {
+                    submitLeaf(currentState, show, counterKind);
+                    return false;
+                }
                 if (Run.this.parameters.getShowWarnings()) {
                     Run.this.log(currentState.getIdentifier() + this.endOfTraceMessage);
                 }
@@ -433,6 +891,13 @@ public final class Run {
 
 		@Override
 		public boolean atBacktrackPre() {
+			//if the coordinator asks to split the subregion, hands 
+			//off the pending states and stops
+			if (Run.this.worker != null && Run.this.worker.isSplitRequested()) {
+				handOffPending();
+				return true;
+			}
+			
 			// prompts the user for backtrack in the case of interactive mode
             boolean stop = false;
 			if (Run.this.parameters.getInteractionMode() == InteractionMode.PROMPT_BACKTRACK) {
@@ -506,21 +971,38 @@ public final class Run {
 			final long startTime = System.currentTimeMillis();
 			final boolean concretizable = Run.this.checker.checkHeap(false);
 			final long elapsedTime = System.currentTimeMillis() - startTime;
-			Run.this.elapsedTimeConcretization += elapsedTime;
-			if (concretizable) {
-				if (ctr == CounterKind.INC_OUT_OF_SCOPE) {
-					++Run.this.tracesConcretizableOutOfScope;
-				} else if (ctr == CounterKind.INC_SAFE) {
-					++Run.this.tracesConcretizableSafe;
-				} else { //ctr == CounterKind.INC_UNSAFE
-					++Run.this.tracesConcretizableUnsafe;
-				}
+			Run.this.updateConcretizationStats(ctr, concretizable, elapsedTime, Run.this.engine.getCurrentState().getIdentifier());
+		}
+		
+		/**
+		 * Submits a leaf to {@code Run.this.leafPipeline}, that
+		 * prints it and checks whether it is concretizable off 
+		 * the exploration thread.
+		 * 
+		 * @param currentState the leaf {@link State}.
+		 * @param show {@code true} iff the leaf must be printed.
+		 * @param ctr the {@link CounterKind} to be incremented if the 
+		 *        leaf is concretizable, or {@code null} if no counter 
+		 *        must be incremented.
+		 */
+		private void submitLeaf(State currentState, boolean show, CounterKind ctr) {
+			//the leaf is not modified after it is backtracked, so 
+			//it can be copied by the worker, off this thread
+			if (Run.this.leafInitialState == null) {
+				Run.this.leafInitialState = Run.this.engine.getInitialState();
+				Run.this.leafProgress = Run.this.formatterBranches.getProgress();
 			}
-            if (Run.this.parameters.getShowWarnings()) {
-                final State currentState = Run.this.engine.getCurrentState();
-                Run.this.log(currentState.getIdentifier() 
-                    + (concretizable ? MSG_CONCRETIZABLE_TRACE : MSG_NOT_CONCRETIZABLE_TRACE));
-            }
+			
+			//the formatters advance their progress by at most one for each formatted state
+			final boolean summary = (show && Run.this.parameters.getStepShowMode() == StepShowMode.SUMMARIES);
+			final long progress = Run.this.leafProgress;
+			Run.this.leafProgress += (summary ? 2 : show ? 1 : 0);
+			
+			final Leaf leaf = new Leaf(Run.this.leafInitialState, currentState, currentState.getIdentifier(), 
+			                           (Run.this.parameters.getShowWarnings() ? this.endOfTraceMessage : null), 
+			                           show, summary, progress, 
+			                           (Run.this.parameters.getDoConcretization() ? ctr : null));
+			Run.this.leafPipeline.submit(context -> context.process(leaf));
 		}
 	}
 
@@ -547,6 +1029,7 @@ public final class Run {
         // runs
 		try {
 			this.runner.run();
+			drainLeaves();
 		} catch (ClasspathException | 
 		         DecisionException | CannotManageStateException | 
 				 EngineStuckException | CannotBacktrackException e) {
@@ -628,6 +1111,27 @@ public final class Run {
     private static final String COMMANDLINE_LAUNCH_Z3   = " -smt2 -in -t:10";
     private static final String COMMANDLINE_LAUNCH_CVC4 = " --lang=smt2 --output-lang=smt2 --no-interactive --incremental --tlimit-per=10000";
     
+    /**
+     * Returns the command line that launches the SMTLIB 2 
+     * solver of the decision procedure.
+     * 
+     * @param parameters a {@link RunParameters}.
+     * @return a {@link String}, or {@code null} if the 
+     *         decision procedure of {@code parameters} is 
+     *         neither Z3 nor CVC4.
+     */
+    static String commandLineSMTLIB2(RunParameters parameters) {
+        final Path path = parameters.getExternalDecisionProcedurePath();
+        final DecisionProcedureType type = parameters.getDecisionProcedureType();
+        if (type == DecisionProcedureType.Z3) {
+            return (path == null ? "z3" : path.toString()) + COMMANDLINE_LAUNCH_Z3;
+        } else if (type == DecisionProcedureType.CVC4) {
+            return (path == null ? "cvc4" : path.toString()) + COMMANDLINE_LAUNCH_CVC4;
+        } else {
+            return null;
+        }
+    }
+    
 	/**
 	 * Processes the provided {@link RunParameters} and builds the {@link Engine}
 	 * which will be used by the runner to perform the symbolic execution.
@@ -650,6 +1154,14 @@ public final class Run {
 		//builds
 		try {
 			createFormatter();
+			if (this.parameters.getStateFormatMode() == StateFormatMode.JUNIT_TEST && 
+			    this.parameters.getTestSuiteDirectory() != null) {
+			    this.testSuite = new JUnitTestSuiteWriter(this.parameters.getTestSuiteDirectory(), this.parameters.getTestSuiteMaxTests(), 
+			                                              this.parameters.getTestSuiteMaxSize(), this.parameters.getTestSuiteDeduplicate());
+			}
+			if (this.worker != null) {
+			    this.formatterOthers.setProgress(this.worker.getProgressBase());
+			}
 	        final RunnerParameters runnerParameters = this.parameters.getRunnerParameters();
 	        runnerParameters.setActions(new ActionsRun());
             final CalculatorRewriting calc = createCalculator();
@@ -664,6 +1176,7 @@ public final class Run {
 				return 1;
 			}
             createHeapChecker(this.decisionProcedureConcretization);
+            createLeafPipeline();
         } catch (NonexistingObservedVariablesException e) {
             for (int i : e.getVariableIndices()) {
                 if (Run.this.parameters.getShowWarnings()) {
@@ -705,20 +1218,26 @@ public final class Run {
         this.log = new PrintStream[2];
         this.err = new PrintStream[2];
         if (this.parameters.getShowOnConsole()) {
-            this.out[0] = System.out;
+            //the output of a worker is collected by its coordinator
+            this.out[0] = (this.worker == null ? System.out : this.worker.getBodyStream());
             this.log[0] = System.err;
             this.err[0] = System.err;
         }
 
-        // tries to open the dump file
-        if (this.parameters.getOutputFileName() == null) {
+        // tries to open the dump file; when resuming it is appended,
+        // since it has the output emitted before the checkpoint
+        if (this.parameters.getOutputSink() != null) {
+            this.err[1] = new PrintStream(new LineSinkOutputStream(this.parameters.getOutputSink()), true);
+        } else if (this.parameters.getOutputFileName() == null) {
             this.err[1] = null;
         } else {
             try {
                 final File f = new File(this.parameters.getOutputFileName());
-                this.err[1] = new PrintStream(f);
+                this.dumpFile = new FileOutputStream(f, this.parameters.getResumeFile() != null);
+                this.err[1] = new PrintStream(this.dumpFile);
             } catch (FileNotFoundException | SecurityException e) {
                 err(ERROR_DUMP_FILE_OPEN);
+                this.dumpFile = null;
                 this.err[1] = null;
             }
         }
@@ -775,40 +1294,91 @@ public final class Run {
      * @throws CannotBuildFormatterException upon failure.
      */
     private void createFormatter() throws CannotBuildFormatterException {
+        this.formatterBranches = createFormatter(true, this::getInitialState, this::getModel);
         final StateFormatMode type = this.parameters.getStateFormatMode();
         if (type == StateFormatMode.FULLTEXT) {
-            this.formatterBranches = new StateFormatterText(this.parameters.getSourcePath()) {
-                @Override
-                public void formatState(State s) {
-                    this.output += LINE_SEP; // gutter
-                    this.output += 
-                        banner(s.getIdentifier() + "[" + s.getSequenceNumber() + "]", true);
-                    this.output += LINE_SEP; // gutter
-                    super.formatState(s);
-                }
-            };
-            this.formatterOthers = new StateFormatterText(this.parameters.getSourcePath()) {
+            this.formatterOthers = createFormatter(false, this::getInitialState, this::getModel);
+        } else if (type == StateFormatMode.DIFFTEXT) {
+            //shares the previously displayed state with formatterBranches
+            this.formatterOthers = createFormatterDiff(false, (StateFormatterTextDiff) this.formatterBranches);
+        } else {
+            this.formatterOthers = this.formatterBranches;
+        }
+    }
+
+    /**
+     * Creates a formatter.
+     * 
+     * @param isRootBranch {@code true} iff the formatter 
+     *        will output states at branches.
+     * @param initialStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+     *        for the initial state.
+     * @param modelSupplier a {@link Supplier}{@code <}{@link Map}{@code <}{@link PrimitiveSymbolic}{@code ,}{@link Simplex}{@code >>}
+     *        for the model of the formatted state.
+     * @return the {@link Formatter}.
+     * @throws CannotBuildFormatterException upon failure.
+     */
+    private Formatter createFormatter(boolean isRootBranch, Supplier<State> initialStateSupplier, 
+                                      Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier) 
+    throws CannotBuildFormatterException {
+        final StateFormatMode type = this.parameters.getStateFormatMode();
+        if (type == StateFormatMode.FULLTEXT) {
+            return new StateFormatterText(this.parameters.getSourcePath()) {
                 @Override
                 public void formatState(State s) {
                     this.output += LINE_SEP; // gutter
                     this.output += 
-                        banner(s.getIdentifier() + "[" + s.getSequenceNumber() + "]", false);
+                        banner(s.getIdentifier() + "[" + s.getSequenceNumber() + "]", isRootBranch);
                     this.output += LINE_SEP; // gutter
                     super.formatState(s);
                 }
             };
+        } else if (type == StateFormatMode.DIFFTEXT) {
+            return createFormatterDiff(isRootBranch, null);
         } else if (type == StateFormatMode.GRAPHVIZ) {
-            this.formatterBranches = this.formatterOthers = new StateFormatterGraphviz();
+            return new StateFormatterGraphviz();
         } else if (type == StateFormatMode.TRACE) {
-            this.formatterBranches = this.formatterOthers = new StateFormatterTrace();
+            return new StateFormatterTrace();
         } else if (type == StateFormatMode.JUNIT_TEST) {
-            this.formatterBranches = this.formatterOthers = 
-                new StateFormatterJUnitTestSuite(this::getInitialState, this::getModel);
+            return new StateFormatterJUnitTestSuite(initialStateSupplier, modelSupplier);
+        } else if (type == StateFormatMode.BINARY) {
+            if (this.parameters.getBinaryTraceFile() == null) {
+                throw new CannotBuildFormatterException(ERROR_BINARY_TRACE_FILE);
+            }
+            try {
+                return new StateFormatterBinary(this.parameters.getBinaryTraceFile(), initialStateSupplier, modelSupplier);
+            } catch (IOException e) {
+                throw new CannotBuildFormatterException(e);
+            }
         } else {
             throw new CannotBuildFormatterException(ERROR_UNDEF_STATE_FORMAT);
         }
     }
 
+    /**
+     * Creates a formatter that displays the changes 
+     * between states.
+     * 
+     * @param isRootBranch {@code true} iff the formatter 
+     *        will output states at branches.
+     * @param sibling a {@link StateFormatterTextDiff} with which
+     *        the created formatter shares the previously displayed 
+     *        state, or {@code null}.
+     * @return the {@link StateFormatterTextDiff}.
+     */
+    private StateFormatterTextDiff createFormatterDiff(boolean isRootBranch, StateFormatterTextDiff sibling) {
+        return new StateFormatterTextDiff(this.parameters.getSourcePath(), sibling) {
+            @Override
+            public void formatState(State s) {
+                this.output += LINE_SEP; // gutter
+                this.output += 
+                    banner(s.getIdentifier() + "[" + s.getSequenceNumber() + "]", isRootBranch);
+                this.output += LINE_SEP; // gutter
+                super.formatState(s);
+            }
+        };
+    }
+
     /**
      * Returns a banner around a {@link String}.
      * 
@@ -852,6 +1422,126 @@ public final class Run {
 		return calc;
 	}
 	
+	/**
+	 * Returns the command lines of the solvers in the portfolio.
+	 * 
+	 * @return the {@link List}{@code <}{@link String}{@code >} set with
+	 *         {@link RunParameters#addPortfolioSolvers(String...)}, or 
+	 *         the default Z3 and CVC4 command lines if it is empty.
+	 */
+	private List<String> portfolioSolvers() {
+	    final List<String> retVal = this.parameters.getPortfolioSolvers();
+	    if (retVal.isEmpty()) {
+	        return Arrays.asList("z3" + COMMANDLINE_LAUNCH_Z3, "cvc4" + COMMANDLINE_LAUNCH_CVC4);
+	    }
+	    return retVal;
+	}
+
+	/**
+	 * Wraps a member of the chain of decision procedures with a 
+	 * decorator that collects its statistics, if required.
+	 * 
+	 * @param dec the {@link DecisionProcedure} to wrap.
+	 * @return the wrapping {@link DecisionProcedureDecoratorStats}, 
+	 *         or {@code dec} if statistics are not required.
+	 */
+	private DecisionProcedure metered(DecisionProcedure dec) {
+	    if (!this.parameters.getDoDecisionProcedureMetrics()) {
+	        return dec;
+	    }
+	    final DecisionProcedureDecoratorStats retVal = new DecisionProcedureDecoratorStats(dec, dec.getClass().getSimpleName());
+	    this.metrics.add(0, retVal);
+	    return retVal;
+	}
+
+	/**
+	 * Returns the statistics collected on the operations of the 
+	 * decision procedures (see {@link RunParameters#setDoDecisionProcedureMetrics(boolean)}).
+	 * It can be invoked while the symbolic execution is running.
+	 * 
+	 * @return a {@link String}, the statistics as tab-separated values 
+	 *         (see {@link DecisionProcedureDecoratorStats#summary(List)}), 
+	 *         or {@code null} if they are not collected.
+	 */
+	public String getDecisionProcedureMetrics() {
+	    if (this.metrics.isEmpty()) {
+	        return null;
+	    }
+	    return DecisionProcedureDecoratorStats.summary(this.metrics);
+	}
+
+	/**
+	 * Sets the query time budget, the unknown answer policy,
+	 * the dump directory and the verdict store of an external 
+	 * decision procedure.
+	 * 
+	 * @param dec a {@link DecisionProcedureExternal}.
+	 * @throws DecisionException if the solver rejects the time budget,
+	 *         or the verdict store cannot be opened.
+	 */
+	private void configureExternal(DecisionProcedureExternal dec) throws DecisionException {
+	    dec.setQueryTimeout(this.parameters.getExternalDecisionProcedureTimeout());
+	    dec.setUnknownAnswerPolicy(this.parameters.getUnknownAnswerPolicy());
+	    dec.setDumpDirectory(this.parameters.getUnknownQueriesDumpPath());
+	    final Path verdictStoreFile = this.parameters.getVerdictStoreFile();
+	    if (verdictStoreFile != null) {
+	        if (this.verdictStore == null) {
+	            try {
+	                this.verdictStore = new VerdictStore(verdictStoreFile);
+	            } catch (IOException e) {
+	                throw new DecisionException(e);
+	            }
+	        }
+	        dec.setVerdictStore(this.verdictStore);
+	    }
+	}
+
+	/**
+	 * Creates a purely numeric decision procedure, as those 
+	 * used by the heap checkers. 
+	 * 
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @return a {@link DecisionProcedureAlgorithms}.
+	 * @throws DecisionException if the external decision procedure
+	 *         cannot be launched or configured.
+	 */
+	private DecisionProcedureAlgorithms createDecisionProcedureNumeric(CalculatorRewriting calc) 
+	throws DecisionException {
+		final Path path = this.parameters.getExternalDecisionProcedurePath();       
+		final DecisionProcedureType type = this.parameters.getDecisionProcedureType();
+		final boolean checkSatAssuming = this.parameters.getUseCheckSatAssuming();
+		DecisionProcedure coreNumeric = new DecisionProcedureAlwSat();
+		if (type == DecisionProcedureType.ALL_SAT) {
+		    //do nothing
+		} else if (type == DecisionProcedureType.CVC3) {
+		    coreNumeric = new DecisionProcedureCVC3(coreNumeric, calc, (path == null ? "cvc3" : path.toString()));
+		} else if (type == DecisionProcedureType.Z3 || type == DecisionProcedureType.CVC4) {
+		    coreNumeric = new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, calc, commandLineSMTLIB2(this.parameters), checkSatAssuming, this.parameters.getSolverProcessPool());
+		} else if (type == DecisionProcedureType.PORTFOLIO) {
+		    final DecisionProcedureSMTLIB2Portfolio portfolioNumeric = new DecisionProcedureSMTLIB2Portfolio(coreNumeric, calc, portfolioSolvers(), checkSatAssuming);
+		    synchronized (this.portfoliosNumeric) {
+		        this.portfoliosNumeric.add(portfolioNumeric);
+		    }
+		    coreNumeric = portfolioNumeric;
+		} else {
+		    coreNumeric.close();
+		    throw new UnexpectedInternalException(ERROR_UNDEF_DECISION_PROCEDURE);
+		}
+		if (coreNumeric instanceof DecisionProcedureExternal) {
+		    configureExternal((DecisionProcedureExternal) coreNumeric);
+		}
+		if (this.parameters.getDoLinearArithmetic()) {
+		    coreNumeric = new DecisionProcedureLinearArithmetic(coreNumeric, calc);
+		}
+		if (this.parameters.getDoSignAnalysis()) {
+		    coreNumeric = new DecisionProcedureSignAnalysis(coreNumeric, calc);
+		}
+		if (this.parameters.getDoEqualityAnalysis()) {
+		    coreNumeric = new DecisionProcedureEquality(coreNumeric, calc);
+		}
+		return new DecisionProcedureAlgorithms(coreNumeric, calc);
+	}
+
 	/**
 	 * Creates the decision procedures in {@code this.decisionProcedure}
 	 * and {@code this.decisionProcedureConcretization}. 
@@ -871,6 +1561,8 @@ public final class Run {
                 log(MSG_TRY_Z3 + (path == null ? "default" : path.toString()) + ".");
             } else if (this.parameters.getDecisionProcedureType() == DecisionProcedureType.CVC4) {
                 log(MSG_TRY_CVC4 + (path == null ? "default" : path.toString()) + ".");
+            } else if (this.parameters.getDecisionProcedureType() == DecisionProcedureType.PORTFOLIO) {
+                log(MSG_TRY_PORTFOLIO + portfolioSolvers() + ".");
             } else if (this.parameters.getInteractionMode() == InteractionMode.NO_INTERACTION) {
                 log(MSG_DECISION_BASIC);
             } else {
@@ -881,60 +1573,66 @@ public final class Run {
 		//initializes cores
         final boolean needHeapCheck = (this.parameters.getUseConservativeRepOks() || this.parameters.getDoConcretization());
 		DecisionProcedure core = new DecisionProcedureAlwSat();
-		DecisionProcedure coreNumeric = (needHeapCheck ? new DecisionProcedureAlwSat() : null);
 		
 		//wraps cores with external numeric decision procedure
 		final DecisionProcedureType type = this.parameters.getDecisionProcedureType();
+		final boolean checkSatAssuming = this.parameters.getUseCheckSatAssuming();
 		try {
 		    if (type == DecisionProcedureType.ALL_SAT) {
 		        //do nothing
 		    } else if (type == DecisionProcedureType.CVC3) {
 		        final String cvc3 = (path == null ? "cvc3" : path.toString());
 		        core = new DecisionProcedureCVC3(core, calc, cvc3);
-		        coreNumeric = (needHeapCheck ? new DecisionProcedureCVC3(coreNumeric, calc, cvc3) : null);
-		    } else if (type == DecisionProcedureType.Z3) {
-		        final String z3 = (path == null ? "z3" : path.toString()) + COMMANDLINE_LAUNCH_Z3;
-		        core = new DecisionProcedureSMTLIB2_AUFNIRA(core, calc, z3);
-		        coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, calc, z3) : null);
-		    } else if (type == DecisionProcedureType.CVC4) {
-                final String cvc4 = (path == null ? "cvc4" : path.toString()) + COMMANDLINE_LAUNCH_CVC4;
-		        core = new DecisionProcedureSMTLIB2_AUFNIRA(core, calc, cvc4);
-		        coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, calc, cvc4) : null);
+		    } else if (type == DecisionProcedureType.Z3 || type == DecisionProcedureType.CVC4) {
+		        core = new DecisionProcedureSMTLIB2_AUFNIRA(core, calc, commandLineSMTLIB2(this.parameters), checkSatAssuming, this.parameters.getSolverProcessPool());
+		    } else if (type == DecisionProcedureType.PORTFOLIO) {
+		        final List<String> solvers = portfolioSolvers();
+		        this.portfolio = new DecisionProcedureSMTLIB2Portfolio(core, calc, solvers, checkSatAssuming);
+		        core = this.portfolio;
 		    } else {
 		        core.close();
-		        if (coreNumeric != null) {
-		            coreNumeric.close();
-		        }
 		        throw new CannotBuildDecisionProcedureException(ERROR_UNDEF_DECISION_PROCEDURE);
 		    }
+		    if (core instanceof DecisionProcedureExternal) {
+		        this.external = (DecisionProcedureExternal) core;
+		        configureExternal(this.external);
+		    }
 		} catch (DecisionException e) {
 			throw new CannotBuildDecisionProcedureException(e);
 		}
+		core = metered(core);
+		
+		//further wraps cores with linear arithmetic decision procedure, if required
+		if (this.parameters.getDoLinearArithmetic()) {
+			core = metered(new DecisionProcedureLinearArithmetic(core, calc));
+		}
 		
 		//further wraps cores with sign analysis, if required
 		if (this.parameters.getDoSignAnalysis()) {
-			core = new DecisionProcedureSignAnalysis(core, calc);
-			coreNumeric = (needHeapCheck ? new DecisionProcedureSignAnalysis(coreNumeric, calc) : null);
+			core = metered(new DecisionProcedureSignAnalysis(core, calc));
 		}
 		
 		//further wraps cores with equality analysis, if required
 		if (this.parameters.getDoEqualityAnalysis()) {
-			core = new DecisionProcedureEquality(core, calc);
-			coreNumeric = (needHeapCheck ? new DecisionProcedureEquality(coreNumeric, calc) : null);
+			core = metered(new DecisionProcedureEquality(core, calc));
 		}
 		
 		//sets the decision procedure for checkers
 		if (needHeapCheck) {
-		    this.decisionProcedureConcretization = new DecisionProcedureAlgorithms(coreNumeric, calc);
+		    try {
+		        this.decisionProcedureConcretization = createDecisionProcedureNumeric(calc);
+		    } catch (DecisionException e) {
+		        throw new CannotBuildDecisionProcedureException(e);
+		    }
 		}
 		
 		//further wraps core with LICS decision procedure
 		if (this.parameters.getUseLICS()) {
-			core = new DecisionProcedureLICS(core, calc, this.parameters.getLICSRulesRepo());
+			core = metered(new DecisionProcedureLICS(core, calc, this.parameters.getLICSRulesRepo()));
 		}
 		
 		//further wraps core with class init decision procedure
-		core = new DecisionProcedureClassInit(core, calc, this.parameters.getClassInitRulesRepo());
+		core = metered(new DecisionProcedureClassInit(core, calc, this.parameters.getClassInitRulesRepo()));
 		
 		//further wraps core with conservative repOk decision procedure
 		if (this.parameters.getUseConservativeRepOks()) {
@@ -945,12 +1643,13 @@ public final class Run {
 			    new DecisionProcedureConservativeRepOk(core, calc, checkerParameters, this.parameters.getConservativeRepOks());
             dec.setInitialStateSupplier(this::getInitialState); 
             dec.setCurrentStateSupplier(this::getCurrentState); 
-			core = dec;
+            dec.setCacheVerdicts(this.parameters.getCacheRepOkVerdicts());
+			core = metered(dec);
 		}
 
 		//wraps core with custom wrappers
 		for (DecisionProcedureCreationStrategy c : this.parameters.getDecisionProcedureCreationStrategies()) {
-			core = c.createAndWrap(core, calc);
+			core = metered(c.createAndWrap(core, calc));
 		}
 
 		//wraps with timer
@@ -970,7 +1669,8 @@ public final class Run {
 			    log(MSG_TRY_GUIDANCE + guidanceDriverParameters.getMethodSignature() + ".");
 			}
 			try {
-				this.guidance = new DecisionProcedureGuidance(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature());
+				this.guidance = new DecisionProcedureGuidance(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature(), 
+				                                              this.parameters.getGuidanceRecorded());
 			} catch (GuidanceException | UnexpectedInternalException e) {
 				err(ERROR_GUIDANCE_FAILED + e.getMessage());
 				throw new CannotBuildDecisionProcedureException(e);
@@ -992,22 +1692,118 @@ public final class Run {
 	 */
 	private void createHeapChecker(DecisionProcedureAlgorithms decisionProcedureConcretization) {
         if (this.parameters.getDoConcretization()) {
-            final RunnerParameters checkerParameters = this.parameters.getConcretizationDriverParameters();
-            checkerParameters.setDecisionProcedure(decisionProcedureConcretization);
-            this.checker = 
-                new InitialHeapChecker(checkerParameters, ConcretizationCheck.class, this.parameters.getConcretizationMethods());
-            this.checker.setInitialStateSupplier(this::getInitialState); 
-            this.checker.setCurrentStateSupplier(this::getCurrentState); 
+            this.checker = createHeapChecker(decisionProcedureConcretization, this::getInitialState, this::getCurrentState);
         }
 	}
 	
+	/**
+	 * Creates a concretization checker.
+	 * 
+	 * @param decisionProcedureConcretization the {@link DecisionProcedureAlgorithms}
+	 *        to be used by the heap checker.
+	 * @param initialStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+	 *        for the initial state.
+	 * @param currentStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+	 *        for the checked state.
+	 * @return an {@link InitialHeapChecker}.
+	 */
+	private InitialHeapChecker createHeapChecker(DecisionProcedureAlgorithms decisionProcedureConcretization, 
+	                                             Supplier<State> initialStateSupplier, Supplier<State> currentStateSupplier) {
+        final RunnerParameters checkerParameters = this.parameters.getConcretizationDriverParameters();
+        checkerParameters.setDecisionProcedure(decisionProcedureConcretization);
+        final InitialHeapChecker retVal = 
+            new InitialHeapChecker(checkerParameters, ConcretizationCheck.class, this.parameters.getConcretizationMethods());
+        retVal.setInitialStateSupplier(initialStateSupplier); 
+        retVal.setCurrentStateSupplier(currentStateSupplier); 
+        retVal.setCacheVerdicts(this.parameters.getCacheRepOkVerdicts());
+        return retVal;
+	}
+	
+	/**
+	 * Creates the pipeline that processes the leaves off the 
+	 * exploration thread into {@code this.leafPipeline}, if
+	 * required and possible, i.e., if the execution is not 
+	 * interactive and only the leaves are output. 
+	 * 
+	 * @throws CannotBuildEngineException if the calculator of
+	 *         a worker cannot be built.
+	 * @throws CannotBuildDecisionProcedureException if the decision 
+	 *         procedure of a worker cannot be built.
+	 * @throws CannotBuildFormatterException if the formatter of 
+	 *         a worker cannot be built.
+	 * @throws InvalidClassFileFactoryClassException if the class
+	 *         hierarchy of a worker cannot be built.
+	 */
+	private void createLeafPipeline() 
+	throws CannotBuildEngineException, CannotBuildDecisionProcedureException, 
+	CannotBuildFormatterException, InvalidClassFileFactoryClassException {
+	    final StepShowMode stepShowMode = this.parameters.getStepShowMode();
+	    final boolean onlyLeaves = 
+	        (stepShowMode == StepShowMode.LEAVES || stepShowMode == StepShowMode.SUMMARIES || stepShowMode == StepShowMode.NONE);
+	    if (this.parameters.getLeafWorkers() == 0 || 
+	        this.parameters.getInteractionMode() != InteractionMode.NO_INTERACTION || !onlyLeaves ||
+	        this.parameters.getStateFormatMode() == StateFormatMode.BINARY || 
+	        this.parameters.getStateFormatMode() == StateFormatMode.DIFFTEXT) {
+	        return;
+	    }
+	    for (int i = 0; i < this.parameters.getLeafWorkers(); ++i) {
+	        this.leafContexts.add(new LeafContext());
+	    }
+	    this.leafPipeline = new LeafPipeline<>(this.leafContexts, this.parameters.getLeafQueueSize());
+	}
+	
+	/**
+	 * Updates the statistics after a concretization check.
+	 * 
+	 * @param ctr the {@link CounterKind} to be incremented if
+	 *        the checked leaf is concretizable.
+	 * @param concretizable {@code true} iff the checked leaf 
+	 *        is concretizable.
+	 * @param elapsedTime a {@code long}, the duration of the check.
+	 * @param identifier a {@link String}, the identifier of the
+	 *        checked leaf.
+	 */
+	private void updateConcretizationStats(CounterKind ctr, boolean concretizable, long elapsedTime, String identifier) {
+		this.elapsedTimeConcretization += elapsedTime;
+		if (concretizable) {
+			if (ctr == CounterKind.INC_OUT_OF_SCOPE) {
+				++this.tracesConcretizableOutOfScope;
+			} else if (ctr == CounterKind.INC_SAFE) {
+				++this.tracesConcretizableSafe;
+			} else { //ctr == CounterKind.INC_UNSAFE
+				++this.tracesConcretizableUnsafe;
+			}
+		}
+		if (this.parameters.getShowWarnings()) {
+			log(identifier + (concretizable ? MSG_CONCRETIZABLE_TRACE : MSG_NOT_CONCRETIZABLE_TRACE));
+		}
+	}
+	
+	/**
+	 * Waits for the processing of all the leaves submitted 
+	 * to {@code this.leafPipeline}, and completes them.
+	 */
+	private void drainLeaves() {
+		if (this.leafPipeline != null) {
+			this.leafPipeline.drain();
+		}
+	}
+	
 	/**
 	 * Emits the prologue of the symbolic execution.
 	 */
 	private void emitPrologue() {
+        if (this.testSuite != null) {
+            //the test suite writer emits a prologue for each class
+            return;
+        }
         this.formatterOthers.cleanup();
         this.formatterOthers.formatPrologue();
-        outNoBreak(this.formatterOthers.emit());
+        if (this.worker == null) {
+            outNoBreak(this.formatterOthers.emit());
+        } else {
+            this.worker.getPrologueStream().print(this.formatterOthers.emit());
+        }
 	}
 
 	/**
@@ -1022,16 +1818,86 @@ public final class Run {
 			(isRootBranch ? this.formatterBranches : this.formatterOthers);
         f.cleanup();
 		f.formatState(s);
-		outNoBreak(f.emit());
+		emitFormatted(f.emit());
+	}
+	
+	/**
+	 * Marks the start of the output of a {@link State} if this
+	 * {@link Run} is a worker, so its coordinator can interleave
+	 * the outputs of the workers in identifier order.
+	 *
+	 * @param identifier the identifier of the emitted {@link State}.
+	 */
+	private void markOutput(String identifier) {
+		if (this.worker != null && this.testSuite == null) {
+			this.worker.markBody(identifier);
+		}
+	}
+
+	/**
+	 * Emits a formatted {@link State} on the output, or
+	 * writes it to the test suite directory if required.
+	 * 
+	 * @param s a {@link String}, the formatted state.
+	 */
+	private void emitFormatted(String s) {
+		if (this.testSuite == null) {
+			outNoBreak(s);
+		} else {
+			this.testSuite.write(s);
+		}
 	}
     
     /**
      * Emits the epilogue of the symbolic execution.
      */
 	private void emitEpilogue() {
+        if (this.testSuite != null) {
+            this.testSuite.close();
+            return;
+        }
         this.formatterOthers.cleanup();
         this.formatterOthers.formatEpilogue();
-        outNoBreak(this.formatterOthers.emit());
+        if (this.worker == null) {
+            outNoBreak(this.formatterOthers.emit());
+        } else {
+            this.worker.getEpilogueStream().print(this.formatterOthers.emit());
+        }
+	}
+	
+	/**
+	 * Returns the statistics of the symbolic execution, to be
+	 * merged by a {@link RunCoordinator}. The traces handed off 
+	 * to other workers are not counted.
+	 * 
+	 * @return a {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}
+	 *         mapping the names of the statistics to their values; it is 
+	 *         empty if the symbolic execution did not start.
+	 */
+	Map<String, Long> getStatistics() {
+		final HashMap<String, Long> retVal = new HashMap<>();
+		if (this.runner == null) {
+			return retVal;
+		}
+		retVal.put(STATS_STATES, this.engine.getAnalyzedStates());
+		retVal.put(STATS_TRACES_TOT, this.runner.getTracesTotal() - this.tracesHandedOff);
+		retVal.put(STATS_TRACES_OUT_OF_SCOPE, this.runner.getTracesOutOfScope());
+		retVal.put(STATS_TRACES_SAFE, this.tracesSafe);
+		retVal.put(STATS_TRACES_UNSAFE, this.tracesUnsafe);
+		retVal.put(STATS_TRACES_CONCRETIZABLE_SAFE, this.tracesConcretizableSafe);
+		retVal.put(STATS_TRACES_CONCRETIZABLE_UNSAFE, this.tracesConcretizableUnsafe);
+		retVal.put(STATS_TRACES_CONCRETIZABLE_OUT_OF_SCOPE, this.tracesConcretizableOutOfScope);
+		return retVal;
+	}
+	
+	/**
+	 * Checks whether some part of the subregion of this worker
+	 * was neither explored nor handed off.
+	 * 
+	 * @return a {@code boolean}.
+	 */
+	boolean isRegionIncomplete() {
+		return this.regionIncomplete;
 	}
     
 	/**
@@ -1074,6 +1940,61 @@ public final class Run {
                   : ", " + MSG_END_DECISION + Util.formatTime(elapsedTimeDecisionProcedure) 
                     + " (" + Util.formatTimePercent(elapsedTimeDecisionProcedure, elapsedTime) + " of total)."
             ));
+        final LinkedHashMap<String, Long> portfolioWins = new LinkedHashMap<>();
+        if (this.portfolio != null) {
+            portfolioWins.putAll(this.portfolio.getWins());
+        }
+        synchronized (this.portfoliosNumeric) {
+            for (DecisionProcedureSMTLIB2Portfolio p : this.portfoliosNumeric) {
+                for (Map.Entry<String, Long> entry : p.getWins().entrySet()) {
+                    portfolioWins.merge(entry.getKey(), entry.getValue(), Long::sum);
+                }
+            }
+        }
+        if (!portfolioWins.isEmpty()) {
+            final StringBuilder wins = new StringBuilder();
+            for (Map.Entry<String, Long> entry : portfolioWins.entrySet()) {
+                wins.append(wins.length() == 0 ? "" : ", ");
+                wins.append(entry.getKey() + ": " + entry.getValue());
+            }
+            log(MSG_END_PORTFOLIO_WINS + wins + ".");
+        }
+        if (this.external != null && this.external.getUnknownAnswers() > 0) {
+            log(MSG_END_UNKNOWN + this.external.getUnknownAnswers() + " of " + this.external.getQueries() 
+                + " queries (" + this.external.getTimeouts() + " " + MSG_END_TIMEOUTS + ").");
+        }
+        if (this.external != null && this.verdictStore != null) {
+            log(MSG_END_VERDICT_STORE + this.external.getStoreHits() + " of " 
+                + (this.external.getStoreHits() + this.external.getQueries()) + " queries (" 
+                + this.verdictStore.size() + " stored verdicts).");
+        }
+        if (this.testSuite != null) {
+            log(MSG_END_TEST_SUITE + this.testSuite.getTests() + " test cases in " + this.testSuite.getClasses() + " classes ("
+                + this.testSuite.getDuplicates() + " duplicates dropped) in " + this.parameters.getTestSuiteDirectory() + ".");
+        }
+        if (this.leafPipeline != null) {
+            log(MSG_END_LEAF_WORKERS + this.parameters.getLeafWorkers() + " workers, exploration waited for them " 
+                + this.leafPipeline.getStalls() + " times.");
+        }
+        final String metrics = getDecisionProcedureMetrics();
+        if (metrics != null) {
+            final Path metricsFile = this.parameters.getDecisionProcedureMetricsFile();
+            if (metricsFile == null) {
+                log(MSG_END_METRICS);
+                log(metrics);
+            } else {
+                try {
+                    Files.write(metricsFile, metrics.getBytes());
+                } catch (IOException e) {
+                    err(ERROR_METRICS + e.getMessage());
+                }
+            }
+        }
+        final CoverageTracker coverage = this.engine.getCoverageTracker();
+        if (coverage != null) {
+            log(MSG_END_COVERAGE + coverage.getCoveredEdges() + "/" + coverage.getTotalEdges() 
+                + " (" + Util.formatPercent(coverage.getCoveredEdges(), coverage.getTotalEdges()) + ").");
+        }
     }
     
     /**
@@ -1084,6 +2005,24 @@ public final class Run {
     private int close() {
         int retVal = 0;
         
+        // stops the leaf workers and quits their decision procedures
+        if (this.leafPipeline != null) {
+            this.leafPipeline.close();
+            this.leafPipeline = null;
+        }
+        for (LeafContext context : this.leafContexts) {
+            if (context.decisionProcedure != null) {
+                try {
+                    context.decisionProcedure.close();
+                } catch (DecisionException e) {
+                    err(ERROR_ENGINE_QUIT_DECISION_PROCEDURE);
+                    err(e);
+                    retVal = 1;
+                }
+            }
+        }
+        this.leafContexts.clear();
+        
         // quits the numeric decision procedure for the checker
         if (this.decisionProcedureConcretization != null) {
             try {
@@ -1110,6 +2049,35 @@ public final class Run {
             retVal = 2;
         }
 
+        // closes the test suite
+        if (this.testSuite != null) {
+            this.testSuite.close();
+            if (this.testSuite.getError() != null) {
+                err(ERROR_TEST_SUITE + this.testSuite.getError().getMessage());
+                retVal = 1;
+            }
+        }
+
+        // closes the binary trace
+        if (this.formatterBranches instanceof StateFormatterBinary) {
+            final StateFormatterBinary trace = (StateFormatterBinary) this.formatterBranches;
+            trace.close();
+            if (trace.getError() != null) {
+                err(ERROR_BINARY_TRACE + trace.getError().getMessage());
+                retVal = 1;
+            }
+        }
+
+        // closes the verdict store
+        if (this.verdictStore != null) {
+            try {
+                this.verdictStore.close();
+            } catch (IOException e) {
+                err(ERROR_VERDICT_STORE + e.getMessage());
+                retVal = 1;
+            }
+        }
+
         // closes all the output streams with the exception of
         // stdout/err
         for (PrintStream p : this.out) {
@@ -1146,6 +2114,9 @@ public final class Run {
     /** Message: trying to connect to CVC4. */
     private static final String MSG_TRY_CVC4 = "Connecting to CVC4 at ";
 
+    /** Message: trying to connect to a portfolio of solvers. */
+    private static final String MSG_TRY_PORTFOLIO = "Connecting to the portfolio of solvers ";
+
 	/** Message: trying to initialize guidance. */
 	private static final String MSG_TRY_GUIDANCE = "Initializing guidance by driver method ";
 
@@ -1168,10 +2139,10 @@ public final class Run {
 	private static final String MSG_NOT_CONCRETIZABLE_TRACE = " trace has not a concretizable final state.";
 
 	/** Message: end of symbolic execution. */
-	private static final String MSG_END = "Symbolic execution finished at ";
+	static final String MSG_END = "Symbolic execution finished at ";
 
 	/** Message: elapsed time. */
-	private static final String MSG_END_ELAPSED = "Elapsed time: ";
+	static final String MSG_END_ELAPSED = "Elapsed time: ";
 
 	/** Message: elapsed time. */
 	private static final String MSG_END_ELAPSED_CONCRETIZATION = "Elapsed concretization time: ";
@@ -1183,22 +2154,46 @@ public final class Run {
 	private static final String MSG_END_SPEED = "Average speed: ";
 
 	/** Message: analyzed states. */
-	private static final String MSG_END_STATES = "Analyzed states: ";
+	static final String MSG_END_STATES = "Analyzed states: ";
 
 	/** Message: total traces. */
-	private static final String MSG_END_TRACES_TOT = "Analyzed traces: ";
+	static final String MSG_END_TRACES_TOT = "Analyzed traces: ";
 
 	/** Message: total traces violating assumptions. */
-	private static final String MSG_END_TRACES_VIOLATING_ASSUMPTION = "Violating assumptions: ";
+	static final String MSG_END_TRACES_VIOLATING_ASSUMPTION = "Violating assumptions: ";
 	
 	/** Message: total safe traces. */
-	private static final String MSG_END_TRACES_SAFE = "Safe: ";
+	static final String MSG_END_TRACES_SAFE = "Safe: ";
 	
 	/** Message: total unsafe traces. */
-	private static final String MSG_END_TRACES_UNSAFE = "Unsafe: ";
+	static final String MSG_END_TRACES_UNSAFE = "Unsafe: ";
+	
+	/** Message: satisfiability checks won by each solver in the portfolio. */
+	private static final String MSG_END_PORTFOLIO_WINS = "Portfolio wins: ";
+	
+	/** Message: queries the external decision procedure could not decide. */
+	private static final String MSG_END_UNKNOWN = "Undecided solver queries: ";
 	
+	/** Message: queries that exceeded their time budget. */
+	private static final String MSG_END_TIMEOUTS = "timed out";
+	
+	/** Message: verdicts found in the verdict store. */
+	private static final String MSG_END_VERDICT_STORE = "Verdicts reused from previous runs: ";
+
+	/** Message: test suite. */
+	private static final String MSG_END_TEST_SUITE = "Test suite: ";
+
+	/** Message: leaf workers. */
+	private static final String MSG_END_LEAF_WORKERS = "Leaves processed off the exploration thread by ";
+	
+	/** Message: statistics of the decision procedures. */
+	private static final String MSG_END_METRICS = "Decision procedures statistics:";
+	
+	/** Message: covered edges. */
+	private static final String MSG_END_COVERAGE = "Covered branches: ";
+
 	/** Message: total traces. */
-	private static final String MSG_END_TRACES_OUT_OF_SCOPE = "Out of scope: ";
+	static final String MSG_END_TRACES_OUT_OF_SCOPE = "Out of scope: ";
 
 	/** Message: will consider all the clauses satisfiable. */
 	private static final String MSG_DECISION_BASIC = "Will use a noninteractive, always-sat decision procedure when necessary.";
@@ -1216,6 +2211,52 @@ public final class Run {
 	/** Warning: timeout. */
 	private static final String WARNING_TIMEOUT = "Timeout.";
 
+	/** Message: resumed from a checkpoint. */
+	private static final String MSG_RESUMED = "Resumed from checkpoint ";
+
+	/** Error: failure while exporting the statistics of the decision procedures. */
+	private static final String ERROR_METRICS = "Failed writing the decision procedures statistics, cause: ";
+
+	/** Error: failure while saving the verdict store. */
+	private static final String ERROR_VERDICT_STORE = "Failed saving the verdict store, cause: ";
+
+	/** Error: failure while writing the test suite. */
+	private static final String ERROR_TEST_SUITE = "Failed writing the test suite, cause: ";
+
+	/** Error: failure while writing the binary trace. */
+	private static final String ERROR_BINARY_TRACE = "Failed writing the binary trace, cause: ";
+
+	/** Error: failure while processing a leaf off the exploration thread. */
+	private static final String ERROR_LEAF = "Failed processing the leaf ";
+
+	/** Error: checkpoint failure. */
+	private static final String ERROR_CHECKPOINT = "Failed reading or writing the checkpoint, cause: ";
+
+	/** Keys of the counters saved in checkpoints. */
+	private static final String CHECKPOINT_TRACES_SAFE = "run.tracesSafe";
+	private static final String CHECKPOINT_TRACES_UNSAFE = "run.tracesUnsafe";
+	private static final String CHECKPOINT_TRACES_CONCRETIZABLE_SAFE = "run.tracesConcretizableSafe";
+	private static final String CHECKPOINT_TRACES_CONCRETIZABLE_UNSAFE = "run.tracesConcretizableUnsafe";
+	private static final String CHECKPOINT_TRACES_CONCRETIZABLE_OUT_OF_SCOPE = "run.tracesConcretizableOutOfScope";
+	private static final String CHECKPOINT_FORMATTER_PROGRESS = "run.formatterProgress";
+	private static final String CHECKPOINT_DUMP_FILE_LENGTH = "run.dumpFileLength";
+
+	/** Keys of the statistics merged by a {@link RunCoordinator}. */
+	static final String STATS_STATES = "engine.analyzedStates";
+	static final String STATS_TRACES_TOT = "runner.tracesTotal";
+	static final String STATS_TRACES_OUT_OF_SCOPE = "runner.tracesOutOfScope";
+	static final String STATS_TRACES_SAFE = "traces.safe";
+	static final String STATS_TRACES_UNSAFE = "traces.unsafe";
+	static final String STATS_TRACES_CONCRETIZABLE_SAFE = "traces.concretizableSafe";
+	static final String STATS_TRACES_CONCRETIZABLE_UNSAFE = "traces.concretizableUnsafe";
+	static final String STATS_TRACES_CONCRETIZABLE_OUT_OF_SCOPE = "traces.concretizableOutOfScope";
+
+	/** Error: hand off failure. */
+	private static final String ERROR_HAND_OFF = "Failed handing off the pending states to other workers, cause: ";
+
+	/** Warning: coverage goal reached. */
+	private static final String WARNING_COVERAGE_GOAL = "Coverage goal reached.";
+
 	/** Warning: exhausted heap scope. */
 	private static final String WARNING_SCOPE_EXHAUSTED_HEAP = " trace exhausted heap scope.";
 
@@ -1227,6 +2268,7 @@ public final class Run {
 
 	/** Error: unable to open dump file. */
 	private static final String ERROR_DUMP_FILE_OPEN = "Could not open the dump file. The session will be displayed on console only.";
+	private static final String ERROR_DUMP_FILE_RESUME = "Could not bring the dump file back to the checkpoint, it may have duplicated output, cause: ";
 
 	/** Error: unable to connect with decision procedure. */
 	private static final String ERROR_DECISION_PROCEDURE_FAILED = "Connection failed, cause: ";
@@ -1264,6 +2306,9 @@ public final class Run {
     /** Error: unexpected internal error (undefined state format mode). */
     private static final String ERROR_UNDEF_STATE_FORMAT = "Unexpected internal error: This state format mode is unimplemented.";
 
+    /** Error: binary state format mode without a trace file. */
+    private static final String ERROR_BINARY_TRACE_FILE = "The binary state format mode requires a trace file.";
+
     /** Error: unexpected internal error (undefined decision procedure). */
     private static final String ERROR_UNDEF_DECISION_PROCEDURE = "Unexpected internal error: This decision procedure is unimplemented.";
 
@@ -0,0 +1,280 @@
+package jbse.apps.run;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jbse.apps.IO;
+import jbse.apps.Util;
+import jbse.apps.run.RunParameters.TextMode;
+import jbse.bc.ClassFileFactoryJavassistShared;
+import jbse.bc.Signature;
+import jbse.dec.SolverProcessPool;
+
+/**
+ * Symbolically executes many target methods (see
+ * {@link RunParameters#addBatchTarget(String, String, String)}) in
+ * the same JVM, each with a {@link Run} with the same parameters,
+ * concurrently on a bounded pool of threads (see
+ * {@link RunParameters#setBatchThreads(int)}). The runs share the
+ * bytes of the classfiles (see {@link ClassFileFactoryJavassistShared})
+ * and a {@link SolverProcessPool}, so each classfile is read once, and
+ * the solver processes are launched once per thread rather than once per
+ * target. Each run is bounded by the timeout set with
+ * {@link RunParameters#setTimeout(long, java.util.concurrent.TimeUnit)},
+ * and writes its output to its own result file in the directory set with
+ * {@link RunParameters#setBatchOutputDirectory(String)}, where at the end
+ * a summary file lists the exit code and elapsed time of every target.
+ * The other files set in the parameters (e.g., checkpoint or trace files)
+ * would be shared by all the runs, thus they should not be set.
+ *
+ * @author Pietro Braione
+ */
+public final class RunBatch {
+	/** The name of the summary file. */
+	static final String SUMMARY_FILE = "summary.txt";
+
+	/** The {@link RunParameters}. */
+	private final RunParameters parameters;
+
+	/** The {@link PrintStream}s for the output. */
+	private PrintStream[] out = null;
+
+	/** The {@link PrintStream}s for log information. */
+	private PrintStream[] log = null;
+
+	/** The {@link PrintStream}s for errors (critical log information). */
+	private PrintStream[] err = null;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parameters the {@link RunParameters} of the
+	 *        symbolic executions. The method signature
+	 *        and the output file name are overridden
+	 *        for each target method.
+	 */
+	public RunBatch(RunParameters parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Runs the symbolic executions of all the target methods.
+	 *
+	 * @return an {@code int} value representing an error code,
+	 * {@code 0} if everything went ok, otherwise the maximum
+	 * among the error codes of the runs (see {@link Run#run()})
+	 * and {@code 1} if the batch itself could not be completed.
+	 */
+	public int run() {
+		setStreams();
+		final Path outputDirectory = this.parameters.getBatchOutputDirectory();
+		if (outputDirectory == null) {
+			err(ERROR_NO_OUTPUT_DIRECTORY);
+			return close(1);
+		}
+		try {
+			Files.createDirectories(outputDirectory);
+		} catch (IOException e) {
+			err(ERROR_OUTPUT_DIRECTORY);
+			err(e);
+			return close(1);
+		}
+		final List<Signature> targets = this.parameters.getBatchTargets();
+		final int threads = this.parameters.getBatchThreads();
+		if (this.parameters.getShowInfo()) {
+			log(MSG_START + targets.size() + " target methods with " + threads + " threads at " + new Date() + ".");
+		}
+		final long startTime = System.currentTimeMillis();
+
+		//runs
+		final int[] retVals = new int[targets.size()];
+		final long[] elapsedTimes = new long[targets.size()];
+		final AtomicInteger threadCounter = new AtomicInteger(0);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			final Thread t = new Thread(r, "jbse-batch-" + threadCounter.getAndIncrement());
+			t.setDaemon(true);
+			return t;
+		});
+		int retVal = 0;
+		final int launched, reused;
+		try (final SolverProcessPool solvers = new SolverProcessPool()) {
+			final ArrayList<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < targets.size(); ++i) {
+				final int index = i;
+				final RunParameters targetParameters = targetParameters(index, targets.get(index), solvers);
+				futures.add(executor.submit(() -> {
+					final long targetStartTime = System.currentTimeMillis();
+					int targetRetVal;
+					try {
+						targetRetVal = new Run(targetParameters).run();
+					} catch (RuntimeException e) {
+						err(ERROR_TARGET + targets.get(index) + ".");
+						err(e);
+						targetRetVal = 2;
+					}
+					retVals[index] = targetRetVal;
+					elapsedTimes[index] = System.currentTimeMillis() - targetStartTime;
+					if (this.parameters.getShowInfo()) {
+						log(MSG_TARGET_END + targets.get(index) + ", exit code " + targetRetVal + ", elapsed time " +
+						    Util.formatTime(elapsedTimes[index]) + ".");
+					}
+				}));
+			}
+			for (Future<?> f : futures) {
+				f.get();
+			}
+			launched = solvers.getLaunched();
+			reused = solvers.getReused();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+			return close(1);
+		} catch (ExecutionException e) {
+			//this should never happen, the tasks catch their exceptions
+			err(ERROR_UNEXPECTED);
+			err(e.getCause());
+			executor.shutdownNow();
+			return close(2);
+		}
+		executor.shutdown();
+		final long elapsedTime = System.currentTimeMillis() - startTime;
+
+		//writes the summary
+		int failed = 0;
+		final ArrayList<String> summary = new ArrayList<>();
+		for (int i = 0; i < targets.size(); ++i) {
+			summary.add(i + "\t" + retVals[i] + "\t" + elapsedTimes[i] + "\t" + targets.get(i));
+			retVal = Math.max(retVal, retVals[i]);
+			if (retVals[i] != 0) {
+				++failed;
+			}
+		}
+		try {
+			Files.write(outputDirectory.resolve(SUMMARY_FILE), summary, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			err(ERROR_SUMMARY);
+			err(e);
+			retVal = Math.max(retVal, 1);
+		}
+
+		// prints statistics
+		if (this.parameters.getShowInfo()) {
+			log(Run.MSG_END + new Date() + ".");
+			log(MSG_END_TARGETS + targets.size() + ", " + MSG_END_FAILED + failed + ", "
+			    + MSG_END_SOLVERS + launched + " (reused " + reused + " times).");
+			log(Run.MSG_END_ELAPSED + Util.formatTime(elapsedTime) + ".");
+		}
+
+		return close(retVal);
+	}
+
+	/**
+	 * Returns the parameters of the run of a target method.
+	 *
+	 * @param index the index of the target method.
+	 * @param target the {@link Signature} of the target method.
+	 * @param solvers the {@link SolverProcessPool} shared by the runs.
+	 * @return a {@link RunParameters}.
+	 */
+	private RunParameters targetParameters(int index, Signature target, SolverProcessPool solvers) {
+		final RunParameters retVal = this.parameters.clone();
+		retVal.setMethodSignature(target.getClassName(), target.getDescriptor(), target.getName());
+		final String fileName = index + "-" + (target.getClassName().replace('/', '.') + "." + target.getName()).replaceAll("[^A-Za-z0-9._$-]", "_") + ".txt";
+		retVal.setOutputFileName(this.parameters.getBatchOutputDirectory().resolve(fileName).toString());
+		retVal.setShowOnConsole(false);
+		retVal.setClassFileFactory(ClassFileFactoryJavassistShared.class);
+		retVal.setSolverProcessPool(solvers);
+		return retVal;
+	}
+
+	private void setStreams() {
+		this.out = new PrintStream[2];
+		this.log = new PrintStream[2];
+		this.err = new PrintStream[2];
+		if (this.parameters.getShowOnConsole()) {
+			this.out[0] = System.out;
+			this.log[0] = System.err;
+			this.err[0] = System.err;
+		}
+		if (this.parameters.getOutputFileName() != null) {
+			try {
+				this.err[1] = new PrintStream(new File(this.parameters.getOutputFileName()));
+			} catch (FileNotFoundException | SecurityException e) {
+				err(ERROR_DUMP_FILE_OPEN);
+			}
+		}
+		this.out[1] = this.log[1] = this.err[1];
+
+		// sets line separator style
+		if (this.parameters.getTextMode() == TextMode.WINDOWS) {
+			System.setProperty("line.separator", "\r\n");
+		} else if (this.parameters.getTextMode() == TextMode.UNIX) {
+			System.setProperty("line.separator", "\n");
+		} //else it is platform: nothing to do
+	}
+
+	private int close(int retVal) {
+		if (this.err[1] != null) {
+			this.err[1].close();
+		}
+		return retVal;
+	}
+
+	private synchronized void log(String s) {
+		IO.println(this.log, s);
+	}
+
+	private synchronized void err(String s) {
+		IO.println(this.err, s);
+	}
+
+	private synchronized void err(Throwable t) {
+		IO.printException(this.err, t);
+	}
+
+	/** Message: start of the batch. */
+	private static final String MSG_START = "Starting batch symbolic execution of ";
+
+	/** Message: end of a target. */
+	private static final String MSG_TARGET_END = "Finished symbolic execution of method ";
+
+	/** Message: number of targets. */
+	private static final String MSG_END_TARGETS = "Target methods: ";
+
+	/** Message: number of failed targets. */
+	private static final String MSG_END_FAILED = "failed: ";
+
+	/** Message: number of launched solver processes. */
+	private static final String MSG_END_SOLVERS = "launched solver processes: ";
+
+	/** Error: no output directory. */
+	private static final String ERROR_NO_OUTPUT_DIRECTORY = "No output directory for the result files was set.";
+
+	/** Error: the output directory cannot be created. */
+	private static final String ERROR_OUTPUT_DIRECTORY = "Could not create the output directory, cause: ";
+
+	/** Error: a target failed unexpectedly. */
+	private static final String ERROR_TARGET = "Unexpected failure of the symbolic execution of method ";
+
+	/** Error: the summary cannot be written. */
+	private static final String ERROR_SUMMARY = "Could not write the summary file, cause: ";
+
+	/** Error: unexpected failure. */
+	private static final String ERROR_UNEXPECTED = "Unexpected internal error.";
+
+	/** Error: unable to open dump file. */
+	private static final String ERROR_DUMP_FILE_OPEN = "Could not open the dump file. The session will be displayed on console only.";
+}
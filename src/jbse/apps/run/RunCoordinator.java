@@ -0,0 +1,679 @@
+package jbse.apps.run;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jbse.apps.IO;
+import jbse.apps.Util;
+import jbse.apps.run.RunParameters.TextMode;
+import jbse.tree.StateTree;
+
+/**
+ * Explores the state space of a method with a pool of
+ * local worker processes (see {@link RunWorker}), each
+ * exploring the subregions of the state space it is assigned.
+ * The state space is split by the REPLICABLE identifiers of
+ * the states, that are the same in all the workers: Initially
+ * a worker explores the whole state space up to a frontier
+ * depth, and hands off to the other workers the subregions
+ * rooted beyond the frontier. Whenever a worker is idle and
+ * no subregion is waiting, the worker that has been exploring
+ * its subregion for longest is asked to hand off all its
+ * pending states. At the end the outputs of the states
+ * emitted by all the subregions are merged in identifier order,
+ * that is the order of a depth-first exploration, and the
+ * statistics are summed.
+ *
+ * @author Pietro Braione
+ */
+public final class RunCoordinator {
+	/** The time in milliseconds between two checks for idle workers. */
+	private static final long POLL_INTERVAL = 100;
+
+	/** The time in milliseconds a worker has to exit after being asked. */
+	private static final long QUIT_TIMEOUT = 5000;
+
+	/**
+	 * A subregion of the state space.
+	 */
+	private static final class Region {
+		final long ordinal;
+		final String identifier;
+		final int frontierDepth;
+		long startTime;
+		boolean splitRequested = false;
+		boolean done = false;
+
+		Region(long ordinal, String identifier, int frontierDepth) {
+			this.ordinal = ordinal;
+			this.identifier = identifier;
+			this.frontierDepth = frontierDepth;
+		}
+	}
+
+	/**
+	 * A worker process.
+	 */
+	private static final class Worker {
+		final Process process;
+		final PrintWriter commands;
+		Region region = null;
+
+		Worker(Process process) {
+			this.process = process;
+			this.commands = new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8), true);
+		}
+	}
+
+	/**
+	 * The output of an emitted state in the body
+	 * of the output of a subregion.
+	 */
+	private static final class Segment {
+		final String identifier;
+		final int region;
+		final long start;
+		final long end;
+
+		Segment(String identifier, int region, long start, long end) {
+			this.identifier = identifier;
+			this.region = region;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/** Orders the {@link Segment}s by identifier, then by subregion. */
+	private static final Comparator<Segment> SEGMENT_ORDER =
+	    Comparator.comparing((Segment s) -> s.identifier, RunCoordinator::compareIdentifiers).thenComparingInt(s -> s.region);
+
+	/**
+	 * A line sent by a worker, or its termination.
+	 */
+	private static final class Event {
+		final Worker worker;
+		final String line;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param worker a {@link Worker}.
+		 * @param line the line sent by {@code worker},
+		 *        or {@code null} if it terminated.
+		 */
+		Event(Worker worker, String line) {
+			this.worker = worker;
+			this.line = line;
+		}
+	}
+
+	/** The {@link RunParameters}. */
+	private final RunParameters parameters;
+
+	/** The workers that are alive. */
+	private final ArrayList<Worker> workers = new ArrayList<>();
+
+	/** All the subregions, indexed by their ordinals. */
+	private final ArrayList<Region> regions = new ArrayList<>();
+
+	/** The subregions waiting for a worker. */
+	private final ArrayDeque<Region> waiting = new ArrayDeque<>();
+
+	/** The lines sent by the workers. */
+	private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+
+	/** The sum of the statistics of the explored subregions. */
+	private final HashMap<String, Long> statistics = new HashMap<>();
+
+	/** The directory of the output files of the subregions. */
+	private Path outputDirectory = null;
+
+	/** The {@link PrintStream}s for the output. */
+	private PrintStream[] out = null;
+
+	/** The {@link PrintStream}s for log information. */
+	private PrintStream[] log = null;
+
+	/** The {@link PrintStream}s for errors (critical log information). */
+	private PrintStream[] err = null;
+
+	/** The return value of {@link #run()}. */
+	private int retVal = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parameters the {@link RunParameters} of the
+	 *        symbolic execution. The worker processes
+	 *        get theirs from the class set by
+	 *        {@link RunParameters#setWorkerParametersSupplier(String)}.
+	 */
+	public RunCoordinator(RunParameters parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Runs the symbolic execution.
+	 *
+	 * @return an {@code int} value representing an error code,
+	 * {@code 0} if everything went ok, {@code 1} if the cause
+	 * of the error was external (inputs, or failure of some
+	 * worker), {@code 2} if the cause of the error was internal.
+	 */
+	public int run() {
+		setStreams();
+		if (this.parameters.getWorkerParametersSupplier() == null) {
+			err(ERROR_NO_SUPPLIER);
+			return close(1);
+		}
+		if (this.parameters.getShowInfo()) {
+			log(MSG_START + this.parameters.getMethodSignature() + " with " + this.parameters.getWorkers() + " workers at " + new Date() + ".");
+		}
+		final long startTime = System.currentTimeMillis();
+
+		try {
+			this.outputDirectory = Files.createTempDirectory("jbse-run");
+			for (int i = 0; i < this.parameters.getWorkers(); ++i) {
+				startWorker(i);
+			}
+		} catch (IOException e) {
+			err(ERROR_WORKER_START);
+			err(e);
+			stopWorkers();
+			return close(1);
+		}
+
+		//explores
+		this.waiting.add(newRegion(null, this.parameters.getFrontierDepth()));
+		try {
+			while (!isFinished()) {
+				dispatch();
+				final Event e = this.events.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (e != null) {
+					handle(e);
+				}
+				splitStragglers();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.retVal = 1;
+		}
+		stopWorkers();
+		final long elapsedTime = System.currentTimeMillis() - startTime;
+
+		//merges the outputs
+		try {
+			mergeOutputs();
+		} catch (IOException e) {
+			err(ERROR_MERGE);
+			err(e);
+			this.retVal = Math.max(this.retVal, 1);
+		}
+
+		// prints statistics
+		if (this.parameters.getShowInfo()) {
+			log(Run.MSG_END + new Date() + ".");
+			printFinalStats(elapsedTime);
+		}
+
+		return close(this.retVal);
+	}
+
+	private void startWorker(int index) throws IOException {
+		final ArrayList<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(this.parameters.getWorkerJvmOptions());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(RunWorker.class.getName());
+		command.add(this.parameters.getWorkerParametersSupplier());
+		final Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		final Worker w = new Worker(process);
+		this.workers.add(w);
+
+		final Thread reader = new Thread(() -> {
+			try (final BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					this.events.add(new Event(w, line));
+				}
+			} catch (IOException e) {
+				//the worker is dead
+			}
+			this.events.add(new Event(w, null));
+		}, "jbse-coordinator-worker-" + index);
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	private Region newRegion(String identifier, int frontierDepth) {
+		final Region retVal = new Region(this.regions.size(), identifier, frontierDepth);
+		this.regions.add(retVal);
+		return retVal;
+	}
+
+	private boolean isFinished() {
+		if (this.workers.isEmpty()) {
+			if (!this.waiting.isEmpty()) {
+				err(ERROR_NO_WORKERS);
+				this.retVal = Math.max(this.retVal, 1);
+			}
+			return true;
+		}
+		if (!this.waiting.isEmpty()) {
+			return false;
+		}
+		for (Worker w : this.workers) {
+			if (w.region != null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Assigns the waiting subregions to the idle workers.
+	 */
+	private void dispatch() {
+		for (Worker w : this.workers) {
+			if (this.waiting.isEmpty()) {
+				return;
+			}
+			if (w.region == null) {
+				final Region r = this.waiting.removeFirst();
+				w.region = r;
+				r.startTime = System.currentTimeMillis();
+				final String outputPrefix = this.outputDirectory.resolve(Long.toString(r.ordinal)).toString();
+				w.commands.println(RunWorker.CMD_REGION + " " + r.ordinal + " " + r.frontierDepth + " " +
+				                   (r.identifier == null ? RunWorker.ROOT : r.identifier) + " " + outputPrefix);
+			}
+		}
+	}
+
+	/**
+	 * Asks the workers exploring a subregion since the
+	 * longest time to split it, as long as there are
+	 * idle workers and no waiting subregions.
+	 */
+	private void splitStragglers() {
+		if (!this.waiting.isEmpty()) {
+			return;
+		}
+		int idle = 0;
+		for (Worker w : this.workers) {
+			if (w.region == null) {
+				++idle;
+			}
+		}
+		final long now = System.currentTimeMillis();
+		while (idle > 0) {
+			Worker straggler = null;
+			for (Worker w : this.workers) {
+				if (w.region != null && !w.region.splitRequested && now - w.region.startTime >= this.parameters.getSplitDelay() &&
+				    (straggler == null || w.region.startTime < straggler.region.startTime)) {
+					straggler = w;
+				}
+			}
+			if (straggler == null) {
+				return;
+			}
+			straggler.region.splitRequested = true;
+			straggler.commands.println(RunWorker.CMD_SPLIT + " " + straggler.region.ordinal);
+			--idle;
+		}
+	}
+
+	private void handle(Event e) {
+		if (e.line == null) {
+			//the worker died
+			this.workers.remove(e.worker);
+			if (e.worker.region != null) {
+				err(ERROR_WORKER_DIED + regionName(e.worker.region) + ".");
+				this.retVal = Math.max(this.retVal, 1);
+			}
+			return;
+		}
+		final String[] fields = e.line.split(" ");
+		try {
+			if (fields[0].equals(RunWorker.REPLY_HAND_OFF) && fields.length == 3) {
+				//HANDOFF <ordinal> <identifier>
+				this.waiting.addLast(newRegion(fields[2], 0));
+			} else if (fields[0].equals(RunWorker.REPLY_DONE) && fields.length >= 3) {
+				//DONE <ordinal> <return value> <statistic>=<value>...
+				final Region r = this.regions.get(Integer.parseInt(fields[1]));
+				r.done = true;
+				e.worker.region = null;
+				final int regionRetVal = Integer.parseInt(fields[2]);
+				if (regionRetVal != 0) {
+					err(ERROR_REGION + regionName(r) + ".");
+					this.retVal = Math.max(this.retVal, regionRetVal);
+				}
+				for (int i = 3; i < fields.length; ++i) {
+					final int sep = fields[i].lastIndexOf('=');
+					this.statistics.merge(fields[i].substring(0, sep), Long.parseLong(fields[i].substring(sep + 1)), Long::sum);
+				}
+			} else {
+				err(ERROR_PROTOCOL + e.line);
+			}
+		} catch (IndexOutOfBoundsException | NumberFormatException exc) {
+			err(ERROR_PROTOCOL + e.line);
+		}
+	}
+
+	private void stopWorkers() {
+		for (Worker w : this.workers) {
+			w.commands.println(RunWorker.CMD_QUIT);
+		}
+		for (Worker w : this.workers) {
+			try {
+				if (!w.process.waitFor(QUIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+					w.process.destroyForcibly();
+				}
+			} catch (InterruptedException e) {
+				w.process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+		this.workers.clear();
+	}
+
+	/**
+	 * Merges the outputs of all the subregions in identifier
+	 * order, preceded by the prologue of the whole state space
+	 * and followed by the first epilogue emitted by a worker.
+	 *
+	 * @throws IOException if some output file cannot be read.
+	 */
+	private void mergeOutputs() throws IOException {
+		final ArrayList<Region> sorted = new ArrayList<>(this.regions);
+		sorted.sort(Comparator.comparing((Region r) -> r.identifier, RunCoordinator::compareIdentifiers));
+		copyOutput(outputFile(this.regions.get(0), RunWorker.SUFFIX_PROLOGUE));
+		final ArrayList<Path> prefixes = new ArrayList<>();
+		final ArrayList<String> identifiers = new ArrayList<>();
+		for (Region r : this.regions) {
+			prefixes.add(outputFile(r, ""));
+			identifiers.add(r.identifier);
+		}
+		mergeBodies(prefixes, identifiers, this.out);
+		for (Region r : sorted) {
+			final Path epilogue = outputFile(r, RunWorker.SUFFIX_EPILOGUE);
+			if (Files.exists(epilogue) && Files.size(epilogue) > 0) {
+				copyOutput(epilogue);
+				break;
+			}
+		}
+
+		//cleans up
+		for (Region r : this.regions) {
+			Files.deleteIfExists(outputFile(r, RunWorker.SUFFIX_PROLOGUE));
+			Files.deleteIfExists(outputFile(r, RunWorker.SUFFIX_BODY));
+			Files.deleteIfExists(outputFile(r, RunWorker.SUFFIX_EPILOGUE));
+			Files.deleteIfExists(outputFile(r, RunWorker.SUFFIX_INDEX));
+		}
+		Files.deleteIfExists(this.outputDirectory);
+	}
+
+	private Path outputFile(Region r, String suffix) {
+		return this.outputDirectory.resolve(r.ordinal + suffix);
+	}
+
+	private void copyOutput(Path file) throws IOException {
+		if (!Files.exists(file)) {
+			return;
+		}
+		for (PrintStream p : this.out) {
+			if (p != null) {
+				Files.copy(file, p);
+				p.flush();
+			}
+		}
+	}
+
+	/**
+	 * Merges the bodies of the outputs of some subregions, so
+	 * that the outputs of all the emitted states are in identifier
+	 * order. A subregion hands off its subregions while it emits
+	 * its states, thus the output of a subregion must be interleaved
+	 * with the outputs of the subregions it handed off. Each body is
+	 * split in the outputs of its states by its index (see
+	 * {@link RunWorker#markBody(String)}), and the bodies are
+	 * k-way merged.
+	 *
+	 * @param prefixes a {@link List}{@code <}{@link Path}{@code >}, the
+	 *        prefixes of the output files of the subregions.
+	 * @param identifiers a {@link List}{@code <}{@link String}{@code >},
+	 *        the identifiers of the subregions, {@code null} for the
+	 *        whole state space.
+	 * @param out the {@link PrintStream}s where the merged bodies
+	 *        are printed; its {@code null} elements are skipped.
+	 * @throws IOException if some output file cannot be read.
+	 */
+	static void mergeBodies(List<Path> prefixes, List<String> identifiers, PrintStream[] out) throws IOException {
+		//splits the bodies
+		final PriorityQueue<ArrayDeque<Segment>> heads = new PriorityQueue<>(Math.max(1, prefixes.size()), Comparator.comparing(ArrayDeque::peekFirst, SEGMENT_ORDER));
+		for (int i = 0; i < prefixes.size(); ++i) {
+			final Path body = Paths.get(prefixes.get(i) + RunWorker.SUFFIX_BODY);
+			final Path index = Paths.get(prefixes.get(i) + RunWorker.SUFFIX_INDEX);
+			final ArrayList<Segment> segments = new ArrayList<>();
+			if (Files.exists(body)) {
+				final long size = Files.size(body);
+				long start = 0;
+				String identifier = identifiers.get(i);
+				if (Files.exists(index)) {
+					for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+						final int sep = line.indexOf(' ');
+						final long offset = Long.parseLong(line.substring(0, sep));
+						if (offset > start) {
+							segments.add(new Segment(identifier, i, start, offset));
+						}
+						start = offset;
+						identifier = line.substring(sep + 1);
+					}
+				}
+				if (size > start) {
+					segments.add(new Segment(identifier, i, start, size));
+				}
+			}
+			//the leaves processed off the exploration thread may be emitted late
+			segments.sort(SEGMENT_ORDER);
+			final ArrayDeque<Segment> queue = new ArrayDeque<>(segments);
+			if (!queue.isEmpty()) {
+				heads.add(queue);
+			}
+		}
+
+		//merges them
+		final RandomAccessFile[] files = new RandomAccessFile[prefixes.size()];
+		try {
+			byte[] buf = new byte[8192];
+			while (!heads.isEmpty()) {
+				final ArrayDeque<Segment> queue = heads.poll();
+				final Segment s = queue.removeFirst();
+				if (!queue.isEmpty()) {
+					heads.add(queue);
+				}
+				if (files[s.region] == null) {
+					files[s.region] = new RandomAccessFile(prefixes.get(s.region) + RunWorker.SUFFIX_BODY, "r");
+				}
+				final int length = (int) (s.end - s.start);
+				if (buf.length < length) {
+					buf = new byte[length];
+				}
+				files[s.region].seek(s.start);
+				files[s.region].readFully(buf, 0, length);
+				for (PrintStream p : out) {
+					if (p != null) {
+						p.write(buf, 0, length);
+					}
+				}
+			}
+		} finally {
+			for (RandomAccessFile f : files) {
+				if (f != null) {
+					f.close();
+				}
+			}
+		}
+		for (PrintStream p : out) {
+			if (p != null) {
+				p.flush();
+			}
+		}
+	}
+
+	/**
+	 * Compares two state identifiers branch by branch,
+	 * numerically if both branches are numbers. A state
+	 * precedes all the states in its subtree.
+	 *
+	 * @param id1 a state identifier, or {@code null}
+	 *        for the root of the state space.
+	 * @param id2 a state identifier, or {@code null}
+	 *        for the root of the state space.
+	 * @return a negative, zero or positive {@code int}
+	 *         if {@code id1} precedes, is equal to, or
+	 *         follows {@code id2} respectively.
+	 */
+	static int compareIdentifiers(String id1, String id2) {
+		final String[] branches1 = (id1 == null ? new String[0] : id1.split("[" + StateTree.IDENTIFIER_SEPARATOR_LONG + StateTree.IDENTIFIER_SEPARATOR_COMPACT + "]"));
+		final String[] branches2 = (id2 == null ? new String[0] : id2.split("[" + StateTree.IDENTIFIER_SEPARATOR_LONG + StateTree.IDENTIFIER_SEPARATOR_COMPACT + "]"));
+		for (int i = 0; i < Math.min(branches1.length, branches2.length); ++i) {
+			int cmp;
+			try {
+				cmp = Long.compare(Long.parseLong(branches1[i]), Long.parseLong(branches2[i]));
+			} catch (NumberFormatException e) {
+				cmp = branches1[i].compareTo(branches2[i]);
+			}
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return Integer.compare(branches1.length, branches2.length);
+	}
+
+	private static String regionName(Region r) {
+		return (r.identifier == null ? StateTree.IDENTIFIER_DEFAULT_LONG : r.identifier);
+	}
+
+	private long statistic(String key) {
+		return this.statistics.getOrDefault(key, 0L);
+	}
+
+	private void printFinalStats(long elapsedTime) {
+		final long tracesTot = statistic(Run.STATS_TRACES_TOT);
+		final long tracesSafe = statistic(Run.STATS_TRACES_SAFE);
+		final long tracesUnsafe = statistic(Run.STATS_TRACES_UNSAFE);
+		final long tracesOutOfScope = statistic(Run.STATS_TRACES_OUT_OF_SCOPE);
+		final boolean doConcretization = this.parameters.getDoConcretization();
+		log(Run.MSG_END_STATES + statistic(Run.STATS_STATES) + ", "
+		    + Run.MSG_END_TRACES_TOT + tracesTot + ", "
+		    + Run.MSG_END_TRACES_SAFE + tracesSafe
+		    + (doConcretization ? " (" + statistic(Run.STATS_TRACES_CONCRETIZABLE_SAFE) + " concretizable)" : "")
+		    + ", "
+		    + Run.MSG_END_TRACES_UNSAFE + tracesUnsafe
+		    + (doConcretization ? " (" + statistic(Run.STATS_TRACES_CONCRETIZABLE_UNSAFE) + " concretizable)" : "")
+		    + ", "
+		    + Run.MSG_END_TRACES_OUT_OF_SCOPE + tracesOutOfScope
+		    + (doConcretization ? " (" + statistic(Run.STATS_TRACES_CONCRETIZABLE_OUT_OF_SCOPE) + " concretizable)" : "")
+		    + ", "
+		    + Run.MSG_END_TRACES_VIOLATING_ASSUMPTION + (tracesTot - tracesSafe - tracesUnsafe - tracesOutOfScope) + ".");
+		log(Run.MSG_END_ELAPSED + Util.formatTime(elapsedTime) + ", "
+		    + MSG_END_REGIONS + this.regions.size() + ".");
+	}
+
+	private void setStreams() {
+		this.out = new PrintStream[2];
+		this.log = new PrintStream[2];
+		this.err = new PrintStream[2];
+		if (this.parameters.getShowOnConsole()) {
+			this.out[0] = System.out;
+			this.log[0] = System.err;
+			this.err[0] = System.err;
+		}
+		if (this.parameters.getOutputFileName() != null) {
+			try {
+				this.err[1] = new PrintStream(new File(this.parameters.getOutputFileName()));
+			} catch (FileNotFoundException | SecurityException e) {
+				err(ERROR_DUMP_FILE_OPEN);
+			}
+		}
+		this.out[1] = this.log[1] = this.err[1];
+
+		// sets line separator style
+		if (this.parameters.getTextMode() == TextMode.WINDOWS) {
+			System.setProperty("line.separator", "\r\n");
+		} else if (this.parameters.getTextMode() == TextMode.UNIX) {
+			System.setProperty("line.separator", "\n");
+		} //else it is platform: nothing to do
+	}
+
+	private int close(int retVal) {
+		if (this.err[1] != null) {
+			this.err[1].close();
+		}
+		return retVal;
+	}
+
+	private void log(String s) {
+		IO.println(this.log, s);
+	}
+
+	private void err(String s) {
+		IO.println(this.err, s);
+	}
+
+	private void err(Throwable t) {
+		IO.printException(this.err, t);
+	}
+
+	/** Message: start of the symbolic execution. */
+	private static final String MSG_START = "Starting distributed symbolic execution of method ";
+
+	/** Message: number of subregions. */
+	private static final String MSG_END_REGIONS = "Explored subregions: ";
+
+	/** Error: no parameters supplier. */
+	private static final String ERROR_NO_SUPPLIER = "No supplier of the parameters of the workers was set.";
+
+	/** Error: workers cannot be started. */
+	private static final String ERROR_WORKER_START = "Could not start the worker processes, cause: ";
+
+	/** Error: a worker died. */
+	private static final String ERROR_WORKER_DIED = "A worker process terminated while exploring subregion ";
+
+	/** Error: all workers died. */
+	private static final String ERROR_NO_WORKERS = "No worker process left, some subregions were not explored.";
+
+	/** Error: a subregion failed. */
+	private static final String ERROR_REGION = "Failed exploration of subregion ";
+
+	/** Error: unexpected line from a worker. */
+	private static final String ERROR_PROTOCOL = "Unexpected message from a worker process: ";
+
+	/** Error: outputs cannot be merged. */
+	private static final String ERROR_MERGE = "Could not merge the outputs of the workers, cause: ";
+
+	/** Error: unable to open dump file. */
+	private static final String ERROR_DUMP_FILE_OPEN = "Could not open the dump file. The session will be displayed on console only.";
+}
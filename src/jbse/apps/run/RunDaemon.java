@@ -0,0 +1,248 @@
+package jbse.apps.run;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import jbse.apps.run.RunParameters.InteractionMode;
+import jbse.apps.settings.ParseException;
+import jbse.apps.settings.SettingsReader;
+import jbse.bc.ClassFileFactoryJavassistShared;
+import jbse.dec.SolverProcessPool;
+
+/**
+ * A long-lived process that symbolically executes the methods
+ * it is asked, so that the runs do not pay the startup of the
+ * JVM, the JIT warm-up, the reading of the classfiles (see
+ * {@link ClassFileFactoryJavassistShared}) and the launch of the
+ * solver processes (see {@link SolverProcessPool}). Only the 
+ * bytes of the classfiles are cached: each job still parses the 
+ * classes it uses and builds its own {@link jbse.bc.ClassHierarchy}, 
+ * since they are not thread-safe and depend on the job's settings.
+ * It receives from its standard input the jobs, each with the method 
+ * to execute and possibly a settings file (see {@link SettingsReader}),
+ * executes each of them with a {@link Run} on a pool of threads (see
+ * {@link RunParameters#setBatchThreads(int)}), and sends back on its
+ * standard output the output of each job, line by line as it is 
+ * produced. A job sees the classfiles
+ * as they are on disk when it starts: if some cached classfiles changed,
+ * it waits for the running jobs to finish, and then they are dropped.
+ * The protocol is line-oriented:
+ *
+ * <ul>
+ * <li>{@code JOB <id> <class> <descriptor> <method> [<settings file>]}
+ * asks to execute a method; {@code <id>} is chosen by the client and
+ * must not contain spaces;</li>
+ * <li>{@code QUIT} asks to exit after the pending jobs are done;</li>
+ * <li>{@code READY} is sent when the daemon accepts jobs;</li>
+ * <li>{@code OUT <id> <line>} is sent for each line of the output of a job;</li>
+ * <li>{@code ERROR <id> <message>} is sent when a job cannot be started
+ * or fails unexpectedly, or a command is malformed (in this case
+ * {@code <id>} is {@code -});</li>
+ * <li>{@code DONE <id> <exit code> <elapsed time in ms>} is sent when
+ * a job is finished, after all its output.</li>
+ * </ul>
+ *
+ * @author Pietro Braione
+ */
+public final class RunDaemon {
+	/** Command: execute a method. */
+	static final String CMD_JOB = "JOB";
+
+	/** Command: exit. */
+	static final String CMD_QUIT = "QUIT";
+
+	/** Reply: ready to accept jobs. */
+	static final String REPLY_READY = "READY";
+
+	/** Reply: a line of the output of a job. */
+	static final String REPLY_OUT = "OUT";
+
+	/** Reply: a job could not be started, or a command is malformed. */
+	static final String REPLY_ERROR = "ERROR";
+
+	/** Reply: a job is finished. */
+	static final String REPLY_DONE = "DONE";
+
+	/** The identifier of a malformed command in the replies. */
+	static final String NO_ID = "-";
+
+	/** The {@link Supplier} of the {@link RunParameters}. */
+	private final Supplier<RunParameters> parametersSupplier;
+
+	/** The channel to the client. */
+	private final PrintStream channel;
+
+	/** The solver processes shared by the jobs. */
+	private final SolverProcessPool solvers = new SolverProcessPool();
+
+	/** Executes the jobs. */
+	private final ExecutorService executor;
+
+	/**
+	 * Held for reading by the running jobs, and for writing while
+	 * the changed classfiles are dropped. It is fair, so the jobs
+	 * that start after a job waiting to drop them wait too.
+	 */
+	private final ReentrantReadWriteLock runs = new ReentrantReadWriteLock(true);
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parametersSupplier a {@link Supplier}{@code <}{@link RunParameters}{@code >},
+	 *        that must return a fresh object on each invocation. The parameters
+	 *        of a job are those it returns, filled with the job's settings file.
+	 * @param channel the {@link PrintStream} of the replies.
+	 */
+	RunDaemon(Supplier<RunParameters> parametersSupplier, PrintStream channel) {
+		this.parametersSupplier = parametersSupplier;
+		this.channel = channel;
+		final AtomicInteger threadCounter = new AtomicInteger(0);
+		this.executor = Executors.newFixedThreadPool(parametersSupplier.get().getBatchThreads(), r -> {
+			final Thread t = new Thread(r, "jbse-daemon-" + threadCounter.getAndIncrement());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Launches in advance one solver process per thread.
+	 */
+	void prestartSolvers() {
+		final RunParameters parameters = this.parametersSupplier.get();
+		final String commandLine = Run.commandLineSMTLIB2(parameters);
+		if (commandLine != null) {
+			try {
+				this.solvers.prestart(commandLine, parameters.getBatchThreads());
+			} catch (IOException e) {
+				System.err.println("Cannot launch the solver " + commandLine + ": " + e);
+			}
+		}
+	}
+
+	/**
+	 * Reads the commands from a {@link BufferedReader} and
+	 * executes them, until {@code QUIT} or the end of the input.
+	 * Then waits for the pending jobs.
+	 *
+	 * @param in a {@link BufferedReader}.
+	 * @throws InterruptedException if interrupted while waiting
+	 *         for the pending jobs.
+	 */
+	void serve(BufferedReader in) throws InterruptedException {
+		reply(REPLY_READY);
+		try {
+			String line;
+			while ((line = in.readLine()) != null && !line.equals(CMD_QUIT)) {
+				//JOB <id> <class> <descriptor> <method> [<settings file>]
+				final String[] fields = line.split(" ", 6);
+				if (fields.length >= 5 && fields[0].equals(CMD_JOB)) {
+					this.executor.submit(() -> job(fields[1], fields[2], fields[3], fields[4], (fields.length == 6 ? fields[5] : null)));
+				} else if (!line.isEmpty()) {
+					reply(REPLY_ERROR + " " + NO_ID + " Malformed command: " + line);
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot read the commands: " + e);
+		} finally {
+			this.executor.shutdown();
+			this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			this.solvers.close();
+		}
+	}
+
+	private void job(String id, String className, String descriptor, String methodName, String settingsFile) {
+		final long startTime = System.currentTimeMillis();
+		int retVal;
+		try {
+			//the parameters of a job must not interfere with the other jobs
+			final RunParameters parameters = this.parametersSupplier.get();
+			if (settingsFile != null) {
+				new SettingsReader(settingsFile).fillRunParameters(parameters);
+			}
+			parameters.setMethodSignature(className, descriptor, methodName);
+			parameters.setInteractionMode(InteractionMode.NO_INTERACTION);
+			parameters.setShowOnConsole(false);
+			parameters.setOutputSink(line -> reply(REPLY_OUT + " " + id + " " + line));
+			parameters.setClassFileFactory(ClassFileFactoryJavassistShared.class);
+			parameters.setSolverProcessPool(this.solvers);
+			if (ClassFileFactoryJavassistShared.changed()) {
+				//the running jobs must not read the new classfiles
+				this.runs.writeLock().lock();
+				try {
+					ClassFileFactoryJavassistShared.invalidateChanged();
+				} finally {
+					this.runs.writeLock().unlock();
+				}
+			}
+			this.runs.readLock().lock();
+			try {
+				retVal = new Run(parameters).run();
+			} finally {
+				this.runs.readLock().unlock();
+			}
+		} catch (IOException | ParseException e) {
+			reply(REPLY_ERROR + " " + id + " " + e.toString().replace('\n', ' '));
+			retVal = 1;
+		} catch (RuntimeException e) {
+			reply(REPLY_ERROR + " " + id + " " + e.toString().replace('\n', ' '));
+			retVal = 2;
+		}
+		reply(REPLY_DONE + " " + id + " " + retVal + " " + (System.currentTimeMillis() - startTime));
+	}
+
+	private void reply(String line) {
+		synchronized (this.channel) {
+			this.channel.println(line);
+			this.channel.flush();
+		}
+	}
+
+	/**
+	 * Starts a daemon process.
+	 *
+	 * @param args an array with one element, the name of the class
+	 *        supplying the {@link RunParameters}; it must be public,
+	 *        have a public parameterless constructor and implement
+	 *        {@link Supplier}{@code <}{@link RunParameters}{@code >}.
+	 */
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: java " + RunDaemon.class.getName() + " <parameters supplier class>");
+			System.exit(1);
+		}
+
+		//whatever is printed on the standard output must not
+		//corrupt the channel to the client
+		final PrintStream channel = System.out;
+		System.setOut(System.err);
+
+		final Supplier<RunParameters> parametersSupplier;
+		try {
+			@SuppressWarnings("unchecked")
+			final Supplier<RunParameters> s = (Supplier<RunParameters>) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+			parametersSupplier = s;
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			System.err.println("Cannot instantiate the parameters supplier " + args[0] + ": " + e);
+			System.exit(1);
+			return; //to keep compiler happy
+		}
+
+		final RunDaemon daemon = new RunDaemon(parametersSupplier, channel);
+		daemon.prestartSolvers();
+		try {
+			daemon.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+		} catch (InterruptedException e) {
+			//exits
+		}
+		System.exit(0);
+	}
+}
@@ -10,18 +10,24 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import jbse.bc.ClassFileFactory;
+import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedure;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.dec.DecisionProcedureAlwSat;
 import jbse.dec.DecisionProcedureClassInit;
+import jbse.dec.DecisionProcedureExternal.UnknownAnswerPolicy;
+import jbse.dec.SolverProcessPool;
 import jbse.jvm.EngineParameters;
 import jbse.jvm.ExecutionObserver;
 import jbse.jvm.RunnerParameters;
 import jbse.jvm.EngineParameters.BreadthMode;
+import jbse.jvm.EngineParameters.SearchMode;
 import jbse.jvm.EngineParameters.StateIdentificationMode;
 import jbse.mem.State;
 import jbse.rewr.CalculatorRewriting;
@@ -90,7 +96,13 @@ public final class RunParameters implements Cloneable {
 		Z3,
 		
 		/** Uses CVC4. */
-		CVC4
+		CVC4,
+		
+		/** 
+		 * Races the solvers set with {@link RunParameters#addPortfolioSolvers(String...)}
+		 * (by default, Z3 and CVC4), and takes the first answer. 
+		 */
+		PORTFOLIO
 	}
 
 	/**
@@ -244,6 +256,17 @@ public final class RunParameters implements Cloneable {
 		/** Displays the states textually (with indentation). */ 
 		FULLTEXT,
 		
+		/** 
+		 * Displays the states textually as {@link #FULLTEXT}, 
+		 * but each state that continues the trace of the 
+		 * previously displayed state only with what changed
+		 * (new path condition clauses, heap objects, frames, 
+		 * operands and local variables). Best suited to the
+		 * {@link StepShowMode#ALL} and {@link StepShowMode#SOURCE}
+		 * step show modes.
+		 */
+		DIFFTEXT,
+		
 		/** Displays the states as DOT graphs. */
 		GRAPHVIZ,
 		
@@ -259,7 +282,15 @@ public final class RunParameters implements Cloneable {
 		 * covers all the symbolic states according to the
 		 * step show mode.  
 		 */
-		JUNIT_TEST
+		JUNIT_TEST,
+		
+		/**
+		 * Writes the states to a compact binary trace file
+		 * (see {@link RunParameters#setBinaryTraceFile(String)}) 
+		 * that can be rendered offline in any other format
+		 * by a {@link jbse.apps.StateTraceReader}.
+		 */
+		BINARY
 	}
 
 	/** The runner parameters. */
@@ -276,6 +307,38 @@ public final class RunParameters implements Cloneable {
 	
 	/** The {@link Path} where the executable of the external decision procedure is. */
 	private Path externalDecisionProcedurePath = null;
+	
+	/** The command lines of the solvers in the portfolio. */
+	private ArrayList<String> portfolioSolvers = new ArrayList<>();
+	
+	/** 
+	 * Whether the SMTLIB 2 solvers should check the clauses with
+	 * check-sat-assuming and activation literals. 
+	 */
+	private boolean useCheckSatAssuming = false;
+	
+	/** 
+	 * The time budget in milliseconds of every query to the external 
+	 * decision procedure, {@code 0} for no budget. 
+	 */
+	private long externalDecisionProcedureTimeout = 0;
+	
+	/** What the external decision procedure does when it cannot decide a query. */
+	private UnknownAnswerPolicy unknownAnswerPolicy = UnknownAnswerPolicy.ASSUME_SAT;
+	
+	/** 
+	 * The {@link Path} of the directory where the queries the 
+	 * external decision procedure cannot decide are dumped, 
+	 * or {@code null} for no dump. 
+	 */
+	private Path unknownQueriesDumpPath = null;
+	
+	/** 
+	 * The {@link Path} of the file where the verdicts of the 
+	 * external decision procedure persist across runs, 
+	 * or {@code null} for no persistence. 
+	 */
+	private Path verdictStorePath = null;
 
 	/** 
 	 * Whether the engine should use its sign analysis 
@@ -286,6 +349,12 @@ public final class RunParameters implements Cloneable {
 	/** Whether the engine should do sign analysis before invoking the decision procedure. */
 	private boolean doEqualityAnalysis = false;
 	
+	/** 
+	 * Whether the engine should decide linear arithmetic
+	 * before invoking the decision procedure.
+	 */
+	private boolean doLinearArithmetic = false;
+	
 	/** 
 	 * Whether the engine should use the LICS decision procedure.
 	 * Set to true by default because the LICS decision procedure
@@ -304,6 +373,21 @@ public final class RunParameters implements Cloneable {
 	 * repOK decision procedure.
 	 */
     private boolean useConservativeRepOks = false;
+    
+    /** 
+     * Whether the verdicts of the conservative repOk and 
+     * of the concretization methods must be cached.
+     */
+    private boolean cacheRepOkVerdicts = false;
+    
+    /** 
+     * The number of threads that process the leaves, 
+     * {@code 0} for processing them on the exploration thread.
+     */
+    private int leafWorkers = 0;
+    
+    /** The maximum number of leaves waiting to be processed. */
+    private int leafQueueSize = 64;
 	
 	/**
 	 *  Associates classes with the name of their respective
@@ -344,6 +428,24 @@ public final class RunParameters implements Cloneable {
 	/** The format mode. */
 	private StateFormatMode stateFormatMode = StateFormatMode.FULLTEXT;
 	
+	/** 
+	 * The directory where the JUnit test suite is written,
+	 * or {@code null} for emitting it on the output.
+	 */
+	private Path testSuiteDirectory = null;
+	
+	/** The maximum number of test cases in a test suite class. */
+	private int testSuiteMaxTests = 500;
+	
+	/** The maximum size of a test suite class, in characters. */
+	private long testSuiteMaxSize = 1_000_000L;
+	
+	/** Whether the duplicate test cases must be dropped. */
+	private boolean testSuiteDeduplicate = true;
+	
+	/** The binary trace file, or {@code null} if not set. */
+	private Path binaryTraceFile = null;
+	
 	/** 
 	 * Maximum stack depth to which we show code;
 	 * if 0 we show at any depth (default).
@@ -381,6 +483,19 @@ public final class RunParameters implements Cloneable {
 	 * the output. 
 	 */
 	private boolean showDecisionProcedureInteraction = false;
+	
+	/** 
+	 * {@code true} iff the engine must collect statistics on 
+	 * the operations of the decision procedures. 
+	 */
+	private boolean doDecisionProcedureMetrics = false;
+	
+	/** 
+	 * The {@link Path} of the file where the statistics on the 
+	 * operations of the decision procedures are exported, or 
+	 * {@code null} iff they must be logged. 
+	 */
+	private Path decisionProcedureMetricsPath = null;
 
 	/**  
 	 * The source code path, or {@code null} iff no path is specified, 
@@ -393,6 +508,64 @@ public final class RunParameters implements Cloneable {
     
 	/** The signature of the driver method when guided == true. */
     private Signature driverSignature = null;
+    
+    /** 
+     * Whether the guided symbolic execution follows a recording 
+     * of the concrete one, rather than stepping it in parallel.
+     */
+    private boolean guidanceRecorded = false;
+    
+    /** The number of worker processes of a {@link RunCoordinator}. */
+    private int workers = 1;
+    
+    /** 
+     * The name of the class supplying the {@link RunParameters} 
+     * to the worker processes, or {@code null} if not set. 
+     */
+    private String workerParametersSupplier = null;
+    
+    /** The options of the JVMs of the worker processes. */
+    private ArrayList<String> workerJvmOptions = new ArrayList<>();
+    
+    /** 
+     * The depth of the frontier explored before splitting 
+     * the state space among the worker processes (0 for 
+     * splitting only when a worker process is idle).
+     */
+    private int frontierDepth = 0;
+    
+    /** 
+     * The time in milliseconds after which a subregion 
+     * is split if a worker process is idle.
+     */
+    private long splitDelay = 1000;
+    
+    /** The signatures of the target methods of a {@link RunBatch}. */
+    private ArrayList<Signature> batchTargets = new ArrayList<>();
+    
+    /** The number of threads of a {@link RunBatch}. */
+    private int batchThreads = 1;
+    
+    /** 
+     * The directory where a {@link RunBatch} writes the 
+     * result files of the target methods, or {@code null} 
+     * if not set. 
+     */
+    private Path batchOutputDirectory = null;
+    
+    /** 
+     * The pool of the solver processes shared with other
+     * symbolic executions, or {@code null} if the solver 
+     * processes are not shared.
+     */
+    private SolverProcessPool solverProcessPool = null;
+    
+    /** 
+     * The {@link Consumer} of the lines of the output, 
+     * or {@code null} if the output is not sent to a 
+     * consumer.
+     */
+    private Consumer<String> outputSink = null;
 	
 	/**
 	 * Constructor.
@@ -442,6 +615,117 @@ public final class RunParameters implements Cloneable {
 	public void setBreadthMode(BreadthMode breadthMode) {
 		this.runnerParameters.setBreadthMode(breadthMode);
 	}
+	
+	/**
+	 * Sets the search mode, i.e., which pending branch
+	 * will be resumed when a trace ends.
+	 * 
+	 * @param searchMode a {@link SearchMode}.
+	 * @throws NullPointerException if {@code searchMode == null}.
+	 */
+	public void setSearchMode(SearchMode searchMode) {
+		this.runnerParameters.setSearchMode(searchMode);
+	}
+	
+	/**
+	 * Sets the amount by which the depth bound is increased
+	 * when the search mode is {@link SearchMode#ITERATIVE_DEEPENING}.
+	 * 
+	 * @param iterativeDeepeningIncrement a positive {@code int}.
+	 * @throws IllegalArgumentException if {@code iterativeDeepeningIncrement <= 0}.
+	 */
+	public void setIterativeDeepeningIncrement(int iterativeDeepeningIncrement) {
+		this.runnerParameters.setIterativeDeepeningIncrement(iterativeDeepeningIncrement);
+	}
+	
+	/**
+	 * Sets the seed for the random choices done when 
+	 * the search mode is {@link SearchMode#RANDOM_PATH}.
+	 * 
+	 * @param randomPathSeed a {@code long}.
+	 */
+	public void setRandomPathSeed(long randomPathSeed) {
+		this.runnerParameters.setRandomPathSeed(randomPathSeed);
+	}
+	
+	/**
+	 * Sets the heap usage threshold above which the pending 
+	 * states are spilled to disk.
+	 * 
+	 * @param spillThreshold a {@code double} in {@code [0, 1]}, 
+	 *        the ratio of the maximum heap size, or {@code 0} 
+	 *        for never spilling states.
+	 * @throws IllegalArgumentException if {@code spillThreshold}
+	 *         is not in {@code [0, 1]}.
+	 */
+	public void setSpillThreshold(double spillThreshold) {
+		this.runnerParameters.setSpillThreshold(spillThreshold);
+	}
+	
+	/**
+	 * Sets the directory where the pending states are spilled.
+	 * 
+	 * @param spillDirectory a {@link String} containing 
+	 *        the pathname of a directory.
+	 * @throws NullPointerException if {@code spillDirectory == null}.
+	 * @throws InvalidPathException if {@code spillDirectory} is not
+	 *         a valid path file name.
+	 */
+	public void setSpillDirectory(String spillDirectory) {
+		this.runnerParameters.setSpillDirectory(spillDirectory);
+	}
+	
+	/**
+	 * Sets the file where checkpoints are periodically written, 
+	 * so that an interrupted execution can be resumed.
+	 * 
+	 * @param checkpointFile a {@link String}, the pathname of the 
+	 *        checkpoint file. If it is the same file the execution
+	 *        is resumed from, it is continued, otherwise it is 
+	 *        overwritten.
+	 * @throws NullPointerException if {@code checkpointFile == null}.
+	 * @throws InvalidPathException if {@code checkpointFile} 
+	 *         is not a valid path file name.
+	 */
+	public void setCheckpointFile(String checkpointFile) {
+		this.runnerParameters.setCheckpointFile(checkpointFile);
+	}
+	
+	/**
+	 * Sets the number of traces between two checkpoints. 
+	 * 
+	 * @param checkpointInterval a {@code long}, the number 
+	 *        of traces ({@code <= 0} means that only the final
+	 *        checkpoint is written).
+	 */
+	public void setCheckpointInterval(long checkpointInterval) {
+		this.runnerParameters.setCheckpointInterval(checkpointInterval);
+	}
+	
+	/**
+	 * Sets the checkpoint file the execution must be resumed 
+	 * from. The other parameters must be the same of the 
+	 * execution that wrote the checkpoint.
+	 * 
+	 * @param resumeFile a {@link String}, the pathname of the 
+	 *        checkpoint file.
+	 * @throws NullPointerException if {@code resumeFile == null}.
+	 * @throws InvalidPathException if {@code resumeFile} 
+	 *         is not a valid path file name.
+	 */
+	public void setResumeFile(String resumeFile) {
+		this.runnerParameters.setResumeFile(resumeFile);
+	}
+	
+	/**
+	 * Gets the checkpoint file the execution must be resumed from.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the execution
+	 *         starts from scratch.
+	 */
+	public Path getResumeFile() {
+		return this.runnerParameters.getResumeFile();
+	}
 
 	/**
 	 * Sets the symbolic execution's classpath; the 
@@ -470,6 +754,28 @@ public final class RunParameters implements Cloneable {
 		return this.runnerParameters.getClasspath();
 	}
 
+	/**
+	 * Sets the class of the {@link ClassFileFactory} that loads 
+	 * the classfiles; the default is {@link ClassFileFactoryJavassist}.
+	 * 
+	 * @param classFileFactoryClass the {@link Class} of some subclass 
+	 *        of {@link ClassFileFactory}.
+	 * @throws NullPointerException if {@code classFileFactoryClass == null}.
+	 */
+	public void setClassFileFactory(Class<? extends ClassFileFactory> classFileFactoryClass) {
+		this.runnerParameters.setClassFileFactory(classFileFactoryClass);
+	}
+
+	/**
+	 * Returns the class of the {@link ClassFileFactory} that 
+	 * loads the classfiles.
+	 * 
+	 * @return the {@link Class} of some subclass of {@link ClassFileFactory}.
+	 */
+	public Class<? extends ClassFileFactory> getClassFileFactory() {
+		return this.runnerParameters.getClassFileFactory();
+	}
+
 	/**
 	 * Sets the signature of the method which must be symbolically executed.
 	 * 
@@ -559,6 +865,39 @@ public final class RunParameters implements Cloneable {
 		this.runnerParameters.setTimeoutUnlimited();
 	}
 	
+	/**
+	 * Sets whether the control flow edges covered by the
+	 * symbolic execution must be tracked and reported.
+	 * 
+	 * @param trackCoverage a {@code boolean}.
+	 */
+	public void setTrackCoverage(boolean trackCoverage) {
+		this.runnerParameters.getEngineParameters().setTrackCoverage(trackCoverage);
+	}
+	
+	/**
+	 * Sets a coverage target, i.e., a ratio of covered control
+	 * flow edges at which execution stops.
+	 * 
+	 * @param coverageTarget a {@code double} in {@code (0, 1]}, 
+	 *        or {@code 0} for no target.
+	 * @throws IllegalArgumentException if {@code coverageTarget} 
+	 *         is not in {@code [0, 1]}.
+	 */
+	public void setCoverageTarget(double coverageTarget) {
+		this.runnerParameters.setCoverageTarget(coverageTarget);
+	}
+	
+	/**
+	 * Sets a coverage plateau, i.e., a number of consecutive traces 
+	 * without new coverage after which execution stops.
+	 * 
+	 * @param coveragePlateau a {@code long}, or {@code 0} for no plateau.
+	 */
+	public void setCoveragePlateau(long coveragePlateau) {
+		this.runnerParameters.setCoveragePlateau(coveragePlateau);
+	}
+	
 	/**
 	 * Sets a limited heap scope for the objects of a given class. 
 	 * The heap scope is the maximum number of objects of a given class 
@@ -753,6 +1092,161 @@ public final class RunParameters implements Cloneable {
 	public Path getExternalDecisionProcedurePath() {
 		return this.externalDecisionProcedurePath;
 	}
+	
+	/**
+	 * Adds solvers to the portfolio used when the decision 
+	 * procedure is {@link DecisionProcedureType#PORTFOLIO}. 
+	 * 
+	 * @param commandLines a list of {@link String}s, the 
+	 *        complete command lines that launch the solvers
+	 *        in SMTLIB 2 interactive mode (e.g., 
+	 *        {@code "/usr/bin/z3 -smt2 -in -t:10"}).
+	 * @throws NullPointerException if {@code commandLines == null}.
+	 */
+	public void addPortfolioSolvers(String... commandLines) {
+		Collections.addAll(this.portfolioSolvers, commandLines);
+	}
+	
+	/**
+	 * Gets the command lines of the solvers in the portfolio.
+	 * 
+	 * @return a {@link List}{@code <}{@link String}{@code >}.
+	 */
+	public List<String> getPortfolioSolvers() {
+		return Collections.unmodifiableList(this.portfolioSolvers);
+	}
+	
+	/**
+	 * Sets whether the SMTLIB 2 solvers (Z3, CVC4 and the 
+	 * portfolio) must assert every clause once, guarded by
+	 * an activation literal, and check satisfiability with 
+	 * check-sat-assuming on the literals of the current path, 
+	 * rather than assert the clauses in push/pop scopes. 
+	 * This way backtracking does not discard what the solver
+	 * learned.
+	 * 
+	 * @param useCheckSatAssuming a {@code boolean}.
+	 */
+	public void setUseCheckSatAssuming(boolean useCheckSatAssuming) {
+		this.useCheckSatAssuming = useCheckSatAssuming;
+	}
+	
+	/**
+	 * Gets whether the SMTLIB 2 solvers must check the 
+	 * clauses with check-sat-assuming and activation literals.
+	 * 
+	 * @return a {@code boolean}.
+	 */
+	public boolean getUseCheckSatAssuming() {
+		return this.useCheckSatAssuming;
+	}
+	
+	/**
+	 * Sets the time budget of every query to the external 
+	 * decision procedure. When a query exceeds it, the answer
+	 * is treated as unknown according to the policy set with 
+	 * {@link #setUnknownAnswerPolicy(UnknownAnswerPolicy)}.
+	 * 
+	 * @param millis a {@code long}, the budget in milliseconds;
+	 *        {@code 0} means no budget (default).
+	 * @throws IllegalArgumentException if {@code millis < 0}.
+	 */
+	public void setExternalDecisionProcedureTimeout(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.externalDecisionProcedureTimeout = millis;
+	}
+	
+	/**
+	 * Gets the time budget of every query to the external 
+	 * decision procedure.
+	 * 
+	 * @return a {@code long}, the budget in milliseconds, 
+	 *         {@code 0} if there is no budget.
+	 */
+	public long getExternalDecisionProcedureTimeout() {
+		return this.externalDecisionProcedureTimeout;
+	}
+	
+	/**
+	 * Sets what the external decision procedure does when it 
+	 * cannot decide a query, because the solver answers unknown
+	 * or exceeds its time budget.
+	 * 
+	 * @param unknownAnswerPolicy an {@link UnknownAnswerPolicy}.
+	 *        Default is {@link UnknownAnswerPolicy#ASSUME_SAT}.
+	 * @throws NullPointerException if {@code unknownAnswerPolicy == null}.
+	 */
+	public void setUnknownAnswerPolicy(UnknownAnswerPolicy unknownAnswerPolicy) {
+		if (unknownAnswerPolicy == null) {
+			throw new NullPointerException();
+		}
+		this.unknownAnswerPolicy = unknownAnswerPolicy;
+	}
+	
+	/**
+	 * Gets what the external decision procedure does when it 
+	 * cannot decide a query.
+	 * 
+	 * @return an {@link UnknownAnswerPolicy}.
+	 */
+	public UnknownAnswerPolicy getUnknownAnswerPolicy() {
+		return this.unknownAnswerPolicy;
+	}
+	
+	/**
+	 * Sets the directory where the queries the external 
+	 * decision procedure cannot decide are dumped, one file
+	 * per query, for offline triage.
+	 * 
+	 * @param unknownQueriesDumpPath a {@link String}, the path
+	 *        of the directory.
+	 * @throws InvalidPathException if {@code unknownQueriesDumpPath} 
+	 *         is not a valid path.
+	 */
+	public void setUnknownQueriesDumpPath(String unknownQueriesDumpPath) {
+		this.unknownQueriesDumpPath = Paths.get(unknownQueriesDumpPath);
+	}
+	
+	/**
+	 * Gets the directory where the queries the external 
+	 * decision procedure cannot decide are dumped.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the
+	 *         queries are not dumped.
+	 */
+	public Path getUnknownQueriesDumpPath() {
+		return this.unknownQueriesDumpPath;
+	}
+	
+	/**
+	 * Sets the file where the verdicts of the external decision 
+	 * procedure persist across runs. Before querying the external 
+	 * decision procedure the verdict is looked up in the file, 
+	 * and the new verdicts are appended to it. The verdicts 
+	 * saved with a different configuration of the decision 
+	 * procedure are kept, but are not used.
+	 * 
+	 * @param verdictStorePath a {@link String}, the path
+	 *        of the file.
+	 * @throws InvalidPathException if {@code verdictStorePath} 
+	 *         is not a valid path.
+	 */
+	public void setVerdictStoreFile(String verdictStorePath) {
+		this.verdictStorePath = Paths.get(verdictStorePath);
+	}
+	
+	/**
+	 * Gets the file where the verdicts of the external decision
+	 * procedure persist across runs.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the
+	 *         verdicts do not persist.
+	 */
+	public Path getVerdictStoreFile() {
+		return this.verdictStorePath;
+	}
     
     /**
      * Adds a creation strategy to the strategies 
@@ -827,6 +1321,28 @@ public final class RunParameters implements Cloneable {
         return this.doEqualityAnalysis;
     }
     
+	/**
+	 * Sets whether the engine should decide linear 
+	 * arithmetic constraints with an in-process simplex 
+	 * before invoking the decision procedure set with 
+	 * {@link #setDecisionProcedureType(DecisionProcedureType)}.
+	 * 
+	 * @param doLinearArithmetic {@code true} iff the engine must 
+	 *        decide linear arithmetic.
+	 */
+	public void setDoLinearArithmetic(boolean doLinearArithmetic) {
+		this.doLinearArithmetic = doLinearArithmetic;
+	}
+
+	/**
+	 * Gets whether the engine should decide linear arithmetic.
+	 * 
+	 * @return {@code true} iff the engine must decide linear arithmetic.
+	 */
+    public boolean getDoLinearArithmetic() {
+        return this.doLinearArithmetic;
+    }
+    
 	/**
 	 * Sets whether the engine shall invoke or not the conservative
 	 * repOk methods at every heap expansion. By default they are
@@ -848,6 +1364,92 @@ public final class RunParameters implements Cloneable {
 	public boolean getUseConservativeRepOks() {
 	    return this.useConservativeRepOks;
 	}
+	
+	/**
+	 * Sets whether the verdicts of the conservative repOk and 
+	 * of the concretization methods must be cached, so they are
+	 * not run again on objects whose reachable heap has the 
+	 * same shape and constraints of an object already checked. 
+	 * It assumes that these methods only depend on the objects 
+	 * reachable from the checked object. By default the verdicts
+	 * are not cached.
+	 * 
+	 * @param cacheRepOkVerdicts {@code true} iff the verdicts
+	 *        must be cached.
+	 */
+	public void setCacheRepOkVerdicts(boolean cacheRepOkVerdicts) {
+		this.cacheRepOkVerdicts = cacheRepOkVerdicts;
+	}
+	
+	/**
+	 * Returns whether the verdicts of the conservative repOk 
+	 * and of the concretization methods must be cached.
+	 * 
+	 * @return a {@code boolean}.
+	 */
+	public boolean getCacheRepOkVerdicts() {
+		return this.cacheRepOkVerdicts;
+	}
+	
+	/**
+	 * Sets the number of threads that process the leaves of the 
+	 * symbolic execution, i.e., check whether they are concretizable
+	 * and format them. Each thread has its own decision procedure, 
+	 * and works on a copy of the leaves, so the exploration goes on 
+	 * while the leaves are processed. The output and the statistics 
+	 * are the same as if the leaves were processed on the exploration 
+	 * thread. The leaves are always processed on the exploration 
+	 * thread when the execution is interactive, or when states other 
+	 * than the leaves are shown. By default the leaves are processed 
+	 * on the exploration thread.
+	 * 
+	 * @param leafWorkers an {@code int}, the number of threads, 
+	 *        or {@code 0} for processing the leaves on the 
+	 *        exploration thread.
+	 * @throws IllegalArgumentException if {@code leafWorkers < 0}.
+	 */
+	public void setLeafWorkers(int leafWorkers) {
+		if (leafWorkers < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.leafWorkers = leafWorkers;
+	}
+	
+	/**
+	 * Returns the number of threads that process 
+	 * the leaves of the symbolic execution.
+	 * 
+	 * @return an {@code int}.
+	 */
+	public int getLeafWorkers() {
+		return this.leafWorkers;
+	}
+	
+	/**
+	 * Sets the maximum number of leaves that wait to be processed
+	 * (see {@link #setLeafWorkers(int)}). When it is reached the 
+	 * exploration waits for the oldest leaf to be processed. 
+	 * By default it is {@code 64}.
+	 * 
+	 * @param leafQueueSize a positive {@code int}.
+	 * @throws IllegalArgumentException if {@code leafQueueSize <= 0}.
+	 */
+	public void setLeafQueueSize(int leafQueueSize) {
+		if (leafQueueSize <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.leafQueueSize = leafQueueSize;
+	}
+	
+	/**
+	 * Returns the maximum number of leaves 
+	 * that wait to be processed.
+	 * 
+	 * @return an {@code int}.
+	 */
+	public int getLeafQueueSize() {
+		return this.leafQueueSize;
+	}
 
 	/**
 	 * Specifies the conservative repOK method of a class.
@@ -1679,6 +2281,137 @@ public final class RunParameters implements Cloneable {
 	    return this.stateFormatMode;
 	}
 	
+	/**
+	 * Sets the directory where the JUnit test suite is written
+	 * when the state format mode is {@link StateFormatMode#JUNIT_TEST}.
+	 * The test cases are written as they are generated, sharded 
+	 * in several test suite classes, each in its own file (see
+	 * {@link #setTestSuiteMaxTests(int)} and {@link #setTestSuiteMaxSize(long)}).
+	 * By default the test suite is emitted on the output as a 
+	 * single class.
+	 * 
+	 * @param testSuiteDirectory a {@link String}, the pathname
+	 *        of the directory. It is created if it does not exist.
+	 * @throws NullPointerException if {@code testSuiteDirectory == null}.
+	 * @throws InvalidPathException if {@code testSuiteDirectory} is not
+	 *         a valid path file name.
+	 */
+	public void setTestSuiteDirectory(String testSuiteDirectory) {
+		this.testSuiteDirectory = Paths.get(testSuiteDirectory);
+	}
+	
+	/**
+	 * Returns the directory where the JUnit test suite is written.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the 
+	 *         test suite is emitted on the output.
+	 */
+	public Path getTestSuiteDirectory() {
+		return this.testSuiteDirectory;
+	}
+	
+	/**
+	 * Sets the maximum number of test cases in a class 
+	 * of the test suite written to a directory (see 
+	 * {@link #setTestSuiteDirectory(String)}). By default
+	 * it is {@code 500}.
+	 * 
+	 * @param testSuiteMaxTests a positive {@code int}.
+	 * @throws IllegalArgumentException if {@code testSuiteMaxTests <= 0}.
+	 */
+	public void setTestSuiteMaxTests(int testSuiteMaxTests) {
+		if (testSuiteMaxTests <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.testSuiteMaxTests = testSuiteMaxTests;
+	}
+	
+	/**
+	 * Returns the maximum number of test cases in a class 
+	 * of the test suite written to a directory.
+	 * 
+	 * @return an {@code int}.
+	 */
+	public int getTestSuiteMaxTests() {
+		return this.testSuiteMaxTests;
+	}
+	
+	/**
+	 * Sets the maximum size of a class of the test suite written 
+	 * to a directory (see {@link #setTestSuiteDirectory(String)}).
+	 * By default it is {@code 1000000} characters.
+	 * 
+	 * @param testSuiteMaxSize a positive {@code long}, 
+	 *        the size in characters.
+	 * @throws IllegalArgumentException if {@code testSuiteMaxSize <= 0}.
+	 */
+	public void setTestSuiteMaxSize(long testSuiteMaxSize) {
+		if (testSuiteMaxSize <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.testSuiteMaxSize = testSuiteMaxSize;
+	}
+	
+	/**
+	 * Returns the maximum size of a class of 
+	 * the test suite written to a directory.
+	 * 
+	 * @return a {@code long}, the size in characters.
+	 */
+	public long getTestSuiteMaxSize() {
+		return this.testSuiteMaxSize;
+	}
+	
+	/**
+	 * Sets whether the test cases of the test suite written
+	 * to a directory (see {@link #setTestSuiteDirectory(String)})
+	 * that are identical to a previously written test case, 
+	 * i.e., that have the same concrete inputs and the same 
+	 * expected outcome, must be dropped. By default they are 
+	 * dropped.
+	 * 
+	 * @param testSuiteDeduplicate {@code true} iff the duplicate
+	 *        test cases must be dropped.
+	 */
+	public void setTestSuiteDeduplicate(boolean testSuiteDeduplicate) {
+		this.testSuiteDeduplicate = testSuiteDeduplicate;
+	}
+	
+	/**
+	 * Returns whether the duplicate test cases of the test 
+	 * suite written to a directory must be dropped.
+	 * 
+	 * @return a {@code boolean}.
+	 */
+	public boolean getTestSuiteDeduplicate() {
+		return this.testSuiteDeduplicate;
+	}
+	
+	/**
+	 * Sets the file where the states are written when 
+	 * the state format mode is {@link StateFormatMode#BINARY}.
+	 * If the file exists it is overwritten.
+	 * 
+	 * @param binaryTraceFile a {@link String}, the pathname
+	 *        of the file.
+	 * @throws NullPointerException if {@code binaryTraceFile == null}.
+	 * @throws InvalidPathException if {@code binaryTraceFile} is not
+	 *         a valid path file name.
+	 */
+	public void setBinaryTraceFile(String binaryTraceFile) {
+		this.binaryTraceFile = Paths.get(binaryTraceFile);
+	}
+	
+	/**
+	 * Returns the file where the states are written when 
+	 * the state format mode is {@link StateFormatMode#BINARY}.
+	 * 
+	 * @return a {@link Path}, or {@code null} if not set.
+	 */
+	public Path getBinaryTraceFile() {
+		return this.binaryTraceFile;
+	}
+	
 	/**
 	 * Sets the path of the source files.
 	 * 
@@ -1774,6 +2507,55 @@ public final class RunParameters implements Cloneable {
 	public boolean getShowDecisionProcedureInteraction() {
 	    return this.showDecisionProcedureInteraction;
 	}
+	
+	/**
+	 * Instructs whether the engine must collect, for each 
+	 * decision procedure in the chain and each kind of operation, 
+	 * the number of invocations and the distribution of their 
+	 * latencies (by default it does not). 
+	 * 
+	 * @param doDecisionProcedureMetrics {@code true} iff the 
+	 *        statistics must be collected.
+	 */
+	public void setDoDecisionProcedureMetrics(boolean doDecisionProcedureMetrics) {
+		this.doDecisionProcedureMetrics = doDecisionProcedureMetrics;
+	}
+	
+	/**
+	 * Returns whether the engine must collect statistics on 
+	 * the operations of the decision procedures.
+	 * 
+	 * @return a {@code boolean}.
+	 */
+	public boolean getDoDecisionProcedureMetrics() {
+		return this.doDecisionProcedureMetrics;
+	}
+	
+	/**
+	 * Sets the file where the statistics on the operations of 
+	 * the decision procedures are exported at the end of the 
+	 * symbolic execution, as tab-separated values. If it is
+	 * not set they are logged. 
+	 * 
+	 * @param decisionProcedureMetricsPath a {@link String}, the 
+	 *        path of the file.
+	 * @throws InvalidPathException if {@code decisionProcedureMetricsPath} 
+	 *         is not a valid path.
+	 */
+	public void setDecisionProcedureMetricsFile(String decisionProcedureMetricsPath) {
+		this.decisionProcedureMetricsPath = Paths.get(decisionProcedureMetricsPath);
+	}
+	
+	/**
+	 * Returns the file where the statistics on the operations 
+	 * of the decision procedures are exported.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the statistics 
+	 *         are logged.
+	 */
+	public Path getDecisionProcedureMetricsFile() {
+		return this.decisionProcedureMetricsPath;
+	}
 
 	/**
 	 * Sets the symbolic execution to be guided by a concrete one starting
@@ -1812,6 +2594,283 @@ public final class RunParameters implements Cloneable {
 	public boolean isGuided() {
 		return this.guided;
 	}
+	
+	/**
+	 * Sets whether the guided symbolic execution (see {@link #setGuided})
+	 * follows a recording of the concrete one. If so, the concrete 
+	 * execution of the driver method is stopped as soon as it invokes 
+	 * the method set by {@link #setMethodSignature}, and the symbolic
+	 * execution is guided by the recorded concrete state at the 
+	 * method entry, without interpreting the method twice. Otherwise 
+	 * (default) the concrete execution is stepped in parallel with 
+	 * the symbolic one, and their divergence is detected.
+	 * 
+	 * @param guidanceRecorded {@code true} iff the guided symbolic 
+	 *        execution must follow a recording of the concrete one.
+	 */
+	public void setGuidanceRecorded(boolean guidanceRecorded) {
+		this.guidanceRecorded = guidanceRecorded;
+	}
+	
+	/**
+	 * Tests whether the guided symbolic execution follows
+	 * a recording of the concrete one.
+	 * 
+	 * @return {@code true} iff the guided symbolic execution 
+	 *         follows a recording of the concrete one.
+	 */
+	public boolean getGuidanceRecorded() {
+		return this.guidanceRecorded;
+	}
+	
+	/**
+	 * Sets the number of worker processes among which a 
+	 * {@link RunCoordinator} splits the state space.
+	 * 
+	 * @param workers a positive {@code int}. By default it is {@code 1}.
+	 * @throws IllegalArgumentException if {@code workers <= 0}.
+	 */
+	public void setWorkers(int workers) {
+		if (workers <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.workers = workers;
+	}
+	
+	/**
+	 * Gets the number of worker processes.
+	 * 
+	 * @return a positive {@code int}.
+	 */
+	public int getWorkers() {
+		return this.workers;
+	}
+	
+	/**
+	 * Sets the class supplying the parameters to the worker
+	 * processes of a {@link RunCoordinator}. The class must be
+	 * public, have a public parameterless constructor and implement 
+	 * {@link java.util.function.Supplier Supplier}{@code <}{@link RunParameters}{@code >},
+	 * and its {@link java.util.function.Supplier#get() get} method must 
+	 * return, on each invocation, a fresh {@link RunParameters} object
+	 * equal to this one. 
+	 * 
+	 * @param className a {@link String}, the name of the class.
+	 * @throws NullPointerException if {@code className == null}.
+	 */
+	public void setWorkerParametersSupplier(String className) {
+		if (className == null) {
+			throw new NullPointerException();
+		}
+		this.workerParametersSupplier = className;
+	}
+	
+	/**
+	 * Gets the class supplying the parameters to the worker processes.
+	 * 
+	 * @return a {@link String}, the name of the class, or {@code null}
+	 *         if not set.
+	 */
+	public String getWorkerParametersSupplier() {
+		return this.workerParametersSupplier;
+	}
+	
+	/**
+	 * Adds options to the command line of the JVMs of the 
+	 * worker processes (e.g., {@code "-Xmx4G"}).
+	 * 
+	 * @param options a list of {@link String}s.
+	 * @throws NullPointerException if {@code options == null}.
+	 */
+	public void addWorkerJvmOptions(String... options) {
+		Collections.addAll(this.workerJvmOptions, options);
+	}
+	
+	/**
+	 * Gets the options of the JVMs of the worker processes.
+	 * 
+	 * @return a {@link List}{@code <}{@link String}{@code >}.
+	 */
+	public List<String> getWorkerJvmOptions() {
+		return Collections.unmodifiableList(this.workerJvmOptions);
+	}
+	
+	/**
+	 * Sets the depth of the frontier of the state space that is
+	 * explored by a single worker process; each state beyond the 
+	 * frontier roots a subregion that is dispatched to the next 
+	 * idle worker process.
+	 * 
+	 * @param frontierDepth a nonnegative {@code int}, the number of 
+	 *        branches from the root to the frontier. If it is {@code 0} 
+	 *        (default) the state space is split only when some worker
+	 *        process is idle.
+	 * @throws IllegalArgumentException if {@code frontierDepth < 0}.
+	 */
+	public void setFrontierDepth(int frontierDepth) {
+		if (frontierDepth < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.frontierDepth = frontierDepth;
+	}
+	
+	/**
+	 * Gets the depth of the frontier of the state space.
+	 * 
+	 * @return a nonnegative {@code int}.
+	 */
+	public int getFrontierDepth() {
+		return this.frontierDepth;
+	}
+	
+	/**
+	 * Sets the time after which a worker process is asked to
+	 * hand off the unexplored part of its subregion if some 
+	 * other worker process is idle. By default it is one second.
+	 * 
+	 * @param time a {@code long}, the amount of time.
+	 * @param timeUnit the {@link TimeUnit} of {@code long}.
+	 */
+	public void setSplitDelay(long time, TimeUnit timeUnit) {
+		this.splitDelay = timeUnit.toMillis(time);
+	}
+	
+	/**
+	 * Gets the time after which a worker process is asked to
+	 * hand off the unexplored part of its subregion.
+	 * 
+	 * @return a {@code long}, the time in milliseconds.
+	 */
+	public long getSplitDelay() {
+		return this.splitDelay;
+	}
+	
+	/**
+	 * Adds a target method to those analyzed by a {@link RunBatch}.
+	 * 
+	 * @param className the name of the class containing the method.
+	 * @param parametersSignature the types of the method parameters.
+	 * @param methodName the name of the method. 
+	 * @throws NullPointerException if any of the above parameters is {@code null}.
+	 */
+	public void addBatchTarget(String className, String parametersSignature, String methodName) {
+		if (className == null || parametersSignature == null || methodName == null) {
+			throw new NullPointerException();
+		}
+		this.batchTargets.add(new Signature(className, parametersSignature, methodName));
+	}
+	
+	/**
+	 * Clears the target methods of a {@link RunBatch}.
+	 */
+	public void clearBatchTargets() {
+		this.batchTargets.clear();
+	}
+	
+	/**
+	 * Gets the target methods of a {@link RunBatch}.
+	 * 
+	 * @return a {@link List}{@code <}{@link Signature}{@code >}.
+	 */
+	public List<Signature> getBatchTargets() {
+		return Collections.unmodifiableList(this.batchTargets);
+	}
+	
+	/**
+	 * Sets the number of threads on which a {@link RunBatch}
+	 * analyzes its target methods, or a {@link RunDaemon} its
+	 * jobs, concurrently.
+	 * 
+	 * @param batchThreads a positive {@code int}. By default it is {@code 1}.
+	 * @throws IllegalArgumentException if {@code batchThreads <= 0}.
+	 */
+	public void setBatchThreads(int batchThreads) {
+		if (batchThreads <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.batchThreads = batchThreads;
+	}
+	
+	/**
+	 * Gets the number of threads of a {@link RunBatch}.
+	 * 
+	 * @return a positive {@code int}.
+	 */
+	public int getBatchThreads() {
+		return this.batchThreads;
+	}
+	
+	/**
+	 * Sets the directory where a {@link RunBatch} writes 
+	 * the result files of its target methods. 
+	 * 
+	 * @param batchOutputDirectory a {@link String}, the pathname
+	 *        of the directory. It is created if it does not exist.
+	 * @throws NullPointerException if {@code batchOutputDirectory == null}.
+	 * @throws InvalidPathException if {@code batchOutputDirectory} is not
+	 *         a valid pathname.
+	 */
+	public void setBatchOutputDirectory(String batchOutputDirectory) {
+		this.batchOutputDirectory = Paths.get(batchOutputDirectory);
+	}
+	
+	/**
+	 * Gets the directory where a {@link RunBatch} writes 
+	 * the result files of its target methods. 
+	 * 
+	 * @return a {@link Path}, or {@code null} if not set.
+	 */
+	public Path getBatchOutputDirectory() {
+		return this.batchOutputDirectory;
+	}
+	
+	/**
+	 * Sets the pool of the solver processes, that is shared with
+	 * other symbolic executions in the same JVM. It is used by the 
+	 * decision procedures that launch Z3 or CVC4.
+	 * 
+	 * @param solverProcessPool a {@link SolverProcessPool}, or {@code null}
+	 *        (default) if the solver processes must not be shared.
+	 */
+	public void setSolverProcessPool(SolverProcessPool solverProcessPool) {
+		this.solverProcessPool = solverProcessPool;
+	}
+	
+	/**
+	 * Gets the pool of the solver processes.
+	 * 
+	 * @return a {@link SolverProcessPool}, or {@code null} 
+	 *         if the solver processes are not shared.
+	 */
+	public SolverProcessPool getSolverProcessPool() {
+		return this.solverProcessPool;
+	}
+	
+	/**
+	 * Sets a consumer of the output, that receives each line
+	 * of it (without the line separator) as soon as it is 
+	 * emitted. It replaces the output file (see 
+	 * {@link #setOutputFileName(String)}), and is 
+	 * invoked by the thread running the symbolic execution.
+	 * 
+	 * @param outputSink a {@link Consumer}{@code <}{@link String}{@code >}, 
+	 *        or {@code null} (default) if the output must not be 
+	 *        sent to a consumer.
+	 */
+	public void setOutputSink(Consumer<String> outputSink) {
+		this.outputSink = outputSink;
+	}
+	
+	/**
+	 * Gets the consumer of the output.
+	 * 
+	 * @return a {@link Consumer}{@code <}{@link String}{@code >}, 
+	 *         or {@code null} if the output is not sent to 
+	 *         a consumer.
+	 */
+	public Consumer<String> getOutputSink() {
+		return this.outputSink;
+	}
 
 	/**
 	 * Returns a new {@link RunnerParameters} that can be used
@@ -1898,6 +2957,10 @@ public final class RunParameters implements Cloneable {
 		o.tracesToShow = this.tracesToShow.clone();
 		o.concretizationMethods = (HashMap<String, String>) this.concretizationMethods.clone();
 		o.srcPath = (ArrayList<String>) this.srcPath.clone();
+		o.workerJvmOptions = (ArrayList<String>) this.workerJvmOptions.clone();
+		o.batchTargets = (ArrayList<Signature>) this.batchTargets.clone();
+		//solverProcessPool and outputSink are *not* cloned, they are shared
+		o.portfolioSolvers = (ArrayList<String>) this.portfolioSolvers.clone();
 		return o;
 	}
 }
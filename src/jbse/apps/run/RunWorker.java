@@ -0,0 +1,394 @@
+package jbse.apps.run;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+import jbse.apps.IO;
+import jbse.apps.run.RunParameters.InteractionMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+import jbse.mem.State;
+import jbse.tree.StateTree;
+
+/**
+ * A worker process of a {@link RunCoordinator}. It receives
+ * from its standard input the subregions of the state space
+ * it must explore, explores each of them with a {@link Run},
+ * and sends back on its standard output the identifiers
+ * of the subregions it hands off to other workers, and the
+ * statistics of each explored subregion. The output of the
+ * symbolic execution is written to files, that are merged by
+ * the coordinator. The body of the output is indexed by the
+ * identifiers of the emitted states, so the coordinator can
+ * interleave the bodies of the subregions in identifier order.
+ *
+ * @author Pietro Braione
+ */
+public final class RunWorker {
+	/** Command: explore a subregion. */
+	static final String CMD_REGION = "REGION";
+
+	/** Command: hand off the unexplored part of the current subregion. */
+	static final String CMD_SPLIT = "SPLIT";
+
+	/** Command: exit. */
+	static final String CMD_QUIT = "QUIT";
+
+	/** Reply: a subregion is handed off. */
+	static final String REPLY_HAND_OFF = "HANDOFF";
+
+	/** Reply: the exploration of a subregion is finished. */
+	static final String REPLY_DONE = "DONE";
+
+	/** The identifier of the whole state space in the commands. */
+	static final String ROOT = "-";
+
+	/** The suffixes of the output files of a subregion. */
+	static final String SUFFIX_PROLOGUE = ".prologue";
+	static final String SUFFIX_BODY = ".body";
+	static final String SUFFIX_EPILOGUE = ".epilogue";
+	static final String SUFFIX_INDEX = ".index";
+
+	/**
+	 * The distance between the formatter progresses of
+	 * two subregions, so that, e.g., test methods emitted
+	 * by different workers have different names.
+	 */
+	static final long PROGRESS_STRIDE = 1L << 20;
+
+	/** The {@link Supplier} of the {@link RunParameters}. */
+	private final Supplier<RunParameters> parametersSupplier;
+
+	/** The channel to the coordinator. */
+	private final PrintStream channel;
+
+	/** The {@code REGION} commands not yet executed, or {@code CMD_QUIT}. */
+	private final BlockingQueue<String> commands = new LinkedBlockingQueue<>();
+
+	/** The ordinal of the last subregion received. */
+	private volatile long regionOrdinal = -1;
+
+	/** Whether the coordinator asked to split the current subregion. */
+	private volatile boolean splitRequested = false;
+
+	/** The identifier of the current subregion, or {@code null} for the whole state space. */
+	private String regionIdentifier;
+
+	/** The depth of the frontier of the current subregion, or {@code 0}. */
+	private int frontierDepth;
+
+	/** The output streams of the current subregion. */
+	private PrintStream prologue, body, epilogue;
+
+	/** The file of the body of the output of the current subregion. */
+	private FileOutputStream bodyFile;
+
+	/**
+	 * The index of the body of the output of the current subregion,
+	 * with a line {@code <offset> <identifier>} for each emitted state.
+	 */
+	private PrintStream index;
+
+	/** Whether the index of the current subregion could not be written. */
+	private boolean indexFailed;
+
+	/** The {@link PrintStream}s for errors. */
+	private final PrintStream[] err = new PrintStream[] { System.err, null };
+
+	RunWorker(Supplier<RunParameters> parametersSupplier, PrintStream channel) {
+		this.parametersSupplier = parametersSupplier;
+		this.channel = channel;
+	}
+
+	/**
+	 * Reads the commands from a {@link BufferedReader}. The
+	 * {@code SPLIT} commands are executed immediately, the
+	 * other ones are queued.
+	 *
+	 * @param in a {@link BufferedReader}.
+	 */
+	void readCommands(BufferedReader in) {
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.startsWith(CMD_SPLIT + " ")) {
+					if (Long.parseLong(line.substring(CMD_SPLIT.length() + 1)) == this.regionOrdinal) {
+						this.splitRequested = true;
+					}
+				} else if (line.startsWith(CMD_REGION + " ")) {
+					//the coordinator sends a subregion only when the previous one is done
+					this.regionOrdinal = Long.parseLong(line.split(" ", 3)[1]);
+					this.splitRequested = false;
+					this.commands.add(line);
+				} else if (line.equals(CMD_QUIT)) {
+					break;
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			err(ERROR_COMMAND);
+			err(e);
+		} finally {
+			this.commands.add(CMD_QUIT);
+		}
+	}
+
+	/**
+	 * Executes the queued commands until {@code CMD_QUIT}.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 *         for a command.
+	 */
+	void serve() throws InterruptedException {
+		while (true) {
+			final String command = this.commands.take();
+			if (command.equals(CMD_QUIT)) {
+				return;
+			}
+			//REGION <ordinal> <frontier depth> <identifier> <output files prefix>
+			final String[] fields = command.split(" ", 5);
+			final long ordinal = Long.parseLong(fields[1]);
+			final int frontierDepth = Integer.parseInt(fields[2]);
+			final String identifier = (fields[3].equals(ROOT) ? null : fields[3]);
+			exploreRegion(ordinal, frontierDepth, identifier, fields[4]);
+		}
+	}
+
+	private void exploreRegion(long ordinal, int frontierDepth, String identifier, String outputPrefix) {
+		this.regionIdentifier = identifier;
+		this.frontierDepth = frontierDepth;
+		int retVal;
+		Map<String, Long> statistics = null;
+		try {
+			this.prologue = new PrintStream(outputPrefix + SUFFIX_PROLOGUE, StandardCharsets.UTF_8.name());
+			this.bodyFile = new FileOutputStream(outputPrefix + SUFFIX_BODY);
+			this.body = new PrintStream(this.bodyFile, false, StandardCharsets.UTF_8.name());
+			this.epilogue = new PrintStream(outputPrefix + SUFFIX_EPILOGUE, StandardCharsets.UTF_8.name());
+			this.index = new PrintStream(outputPrefix + SUFFIX_INDEX, StandardCharsets.UTF_8.name());
+			this.indexFailed = false;
+
+			//the parameters of a worker must not interfere with the other workers
+			final RunParameters parameters = this.parametersSupplier.get();
+			parameters.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+			if (identifier == null) {
+				parameters.setIdentifierSubregionRoot();
+			} else {
+				parameters.setIdentifierSubregion(identifier);
+			}
+			parameters.setInteractionMode(InteractionMode.NO_INTERACTION);
+			parameters.setShowOnConsole(true);
+			parameters.setOutputFileNone();
+			parameters.setShowInfo(false);
+			parameters.getRunnerParameters().setCheckpointNone();
+
+			final Run r = new Run(parameters, this);
+			retVal = r.run();
+			if (retVal == 0 && r.isRegionIncomplete()) {
+				retVal = 1;
+			}
+			statistics = r.getStatistics();
+			if (this.indexFailed) {
+				err(ERROR_INDEX + ordinal + ".");
+				retVal = Math.max(retVal, 1);
+			}
+		} catch (FileNotFoundException | UnsupportedEncodingException e) {
+			err(ERROR_OUTPUT_FILES + ordinal + ", cause: ");
+			err(e);
+			retVal = 1;
+		} catch (RuntimeException e) {
+			err(ERROR_UNEXPECTED + ordinal + ".");
+			err(e);
+			retVal = 2;
+		} finally {
+			for (PrintStream p : new PrintStream[] { this.prologue, this.body, this.epilogue, this.index }) {
+				if (p != null) {
+					p.close();
+				}
+			}
+			this.prologue = this.body = this.epilogue = this.index = null;
+			this.bodyFile = null;
+		}
+
+		//DONE <ordinal> <return value> <statistic>=<value>...
+		final StringBuilder reply = new StringBuilder(REPLY_DONE + " " + ordinal + " " + retVal);
+		if (statistics != null) {
+			for (Map.Entry<String, Long> e : statistics.entrySet()) {
+				reply.append(' ').append(e.getKey()).append('=').append(e.getValue());
+			}
+		}
+		reply(reply.toString());
+	}
+
+	private void reply(String line) {
+		this.channel.println(line);
+		this.channel.flush();
+	}
+
+	private void err(String s) {
+		IO.println(this.err, s);
+	}
+
+	private void err(Throwable t) {
+		IO.printException(this.err, t);
+	}
+
+	/**
+	 * Checks whether a state is in the subregion of the state
+	 * space that must be emitted by this worker.
+	 *
+	 * @param identifier the identifier of a state.
+	 * @return {@code true} iff the state is in the current
+	 *         subregion, and not on the path from the root
+	 *         to it.
+	 */
+	boolean owns(String identifier) {
+		return (this.regionIdentifier == null || StateTree.isIdentifierPrefix(this.regionIdentifier, identifier));
+	}
+
+	/**
+	 * Checks whether a state is beyond the frontier
+	 * of the current subregion.
+	 *
+	 * @param s a {@link State}.
+	 * @return {@code true} iff the subregion rooted at {@code s}
+	 *         must be handed off to another worker.
+	 */
+	boolean isBeyondFrontier(State s) {
+		return (this.frontierDepth > 0 && s.getDepth() > this.frontierDepth);
+	}
+
+	/**
+	 * Checks whether the coordinator asked to hand off
+	 * the unexplored part of the current subregion.
+	 *
+	 * @return a {@code boolean}.
+	 */
+	boolean isSplitRequested() {
+		return this.splitRequested;
+	}
+
+	/**
+	 * Hands off a subregion to another worker.
+	 *
+	 * @param identifier the identifier of the branch
+	 *        state of the subregion; it must not be
+	 *        further explored by this worker.
+	 */
+	void handOff(String identifier) {
+		reply(REPLY_HAND_OFF + " " + this.regionOrdinal + " " + identifier);
+	}
+
+	/**
+	 * Returns the initial progress of the formatter.
+	 *
+	 * @return a {@code long}.
+	 */
+	long getProgressBase() {
+		return this.regionOrdinal * PROGRESS_STRIDE;
+	}
+
+	/**
+	 * Returns the stream for the prologue of the output.
+	 *
+	 * @return a {@link PrintStream}.
+	 */
+	PrintStream getPrologueStream() {
+		return this.prologue;
+	}
+
+	/**
+	 * Returns the stream for the output, excluding
+	 * its prologue and epilogue.
+	 *
+	 * @return a {@link PrintStream}.
+	 */
+	PrintStream getBodyStream() {
+		return this.body;
+	}
+
+	/**
+	 * Marks the start of the output of an emitted state
+	 * in the body of the output.
+	 *
+	 * @param identifier the identifier of the emitted state.
+	 */
+	void markBody(String identifier) {
+		try {
+			this.body.flush();
+			this.index.println(this.bodyFile.getChannel().position() + " " + identifier);
+		} catch (IOException e) {
+			this.indexFailed = true;
+		}
+	}
+
+	/**
+	 * Returns the stream for the epilogue of the output.
+	 *
+	 * @return a {@link PrintStream}.
+	 */
+	PrintStream getEpilogueStream() {
+		return this.epilogue;
+	}
+
+	/**
+	 * Starts a worker process.
+	 *
+	 * @param args an array with one element, the name
+	 *        of the class supplying the {@link RunParameters}
+	 *        (see {@link RunParameters#setWorkerParametersSupplier(String)}).
+	 */
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: java " + RunWorker.class.getName() + " <parameters supplier class>");
+			System.exit(1);
+		}
+
+		//whatever is printed on the standard output must not
+		//corrupt the channel to the coordinator
+		final PrintStream channel = System.out;
+		System.setOut(System.err);
+
+		final Supplier<RunParameters> parametersSupplier;
+		try {
+			@SuppressWarnings("unchecked")
+			final Supplier<RunParameters> s = (Supplier<RunParameters>) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+			parametersSupplier = s;
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			System.err.println("Cannot instantiate the parameters supplier " + args[0] + ": " + e);
+			System.exit(1);
+			return; //to keep compiler happy
+		}
+
+		final RunWorker worker = new RunWorker(parametersSupplier, channel);
+		final BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		final Thread reader = new Thread(() -> worker.readCommands(in), "jbse-worker-commands");
+		reader.setDaemon(true);
+		reader.start();
+		try {
+			worker.serve();
+		} catch (InterruptedException e) {
+			//exits
+		}
+		System.exit(0);
+	}
+
+	/** Error: malformed command. */
+	private static final String ERROR_COMMAND = "Malformed command from the coordinator, cause: ";
+
+	/** Error: output files cannot be created. */
+	private static final String ERROR_OUTPUT_FILES = "Could not create the output files of subregion ";
+
+	/** Error: index cannot be written. */
+	private static final String ERROR_INDEX = "Could not write the index of the output of subregion ";
+
+	/** Error: unexpected failure. */
+	private static final String ERROR_UNEXPECTED = "Unexpected internal error while exploring subregion ";
+}
@@ -0,0 +1,274 @@
+package jbse.bc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javassist.ClassPath;
+import javassist.ClassPool;
+import javassist.NotFoundException;
+
+import jbse.bc.exc.BadClassFileException;
+
+/**
+ * A {@link ClassFileFactory} that, as {@link ClassFileFactoryJavassist},
+ * parses the classfiles with its own Javassist {@link ClassPool}, but
+ * reads their bytes from a cache shared by all the factories with the
+ * same classpath in the JVM. This way many symbolic executions in the
+ * same JVM, possibly concurrent, read and decompress each classfile
+ * (e.g., those of the JRE) only once. Javassist's classes are not shared,
+ * since they are not thread-safe. The cache is emptied of the classfiles
+ * that changed on disk only by {@link #invalidateChanged()}, and
+ * {@link #changed()} tells whether this is needed.
+ *
+ * @author Pietro Braione
+ */
+public class ClassFileFactoryJavassistShared extends ClassFileFactory {
+	/** The shared caches, one per classpath. */
+	private static final ConcurrentHashMap<List<String>, SharedClassPath> CACHES = new ConcurrentHashMap<>();
+
+	private ClassPool cpool;
+
+	public ClassFileFactoryJavassistShared(ClassFileStore cfi, Classpath cp) {
+		super(cfi);
+		final ArrayList<String> paths = new ArrayList<>();
+		for (String s : cp.classPath()) {
+			paths.add(s);
+		}
+		this.cpool = new ClassPool();
+		this.cpool.appendClassPath(CACHES.computeIfAbsent(paths, SharedClassPath::new));
+	}
+
+	@Override
+	protected ClassFile newClassFileClass(String className)
+	throws BadClassFileException {
+		return new ClassFileJavassist(className, this.cpool);
+	}
+
+	/**
+	 * Checks whether some classfile in the shared caches changed
+	 * on disk since it was read, or some classfile that was not
+	 * found now exists, or some jar file changed.
+	 *
+	 * @return {@code true} iff {@link #invalidateChanged()} would
+	 *         drop a classfile that is not current.
+	 */
+	public static boolean changed() {
+		for (SharedClassPath cache : CACHES.values()) {
+			if (cache.jarsChanged() || cache.changed()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Drops from the shared caches the classfiles that changed
+	 * on disk since they were read, and the classfiles that were
+	 * not found. If a jar file changed, the whole cache of the
+	 * classpaths containing it is dropped. The factories created
+	 * afterwards read the current classfiles. The existing factories
+	 * keep the classes they already parsed, but might read the current
+	 * version of the others, thus this method should be invoked only
+	 * when no symbolic execution is in progress on the changed classes.
+	 *
+	 * @return the number of dropped classfiles.
+	 */
+	public static int invalidateChanged() {
+		int retVal = 0;
+		for (Map.Entry<List<String>, SharedClassPath> e : CACHES.entrySet()) {
+			final SharedClassPath cache = e.getValue();
+			if (cache.jarsChanged()) {
+				CACHES.remove(e.getKey(), cache);
+				retVal += cache.size();
+			} else {
+				retVal += cache.invalidateChanged();
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * A cached classfile.
+	 */
+	private static final class Cached {
+		/** The bytes of the classfile, or {@code null} if it was not found. */
+		final byte[] bytes;
+
+		/** The file of the classfile, or {@code null} if it is in a jar file or was not found. */
+		final File file;
+
+		/** The modification time of {@code file}. */
+		final long lastModified;
+
+		Cached(byte[] bytes, File file, long lastModified) {
+			this.bytes = bytes;
+			this.file = file;
+			this.lastModified = lastModified;
+		}
+
+		boolean isChanged() {
+			return (this.bytes == null || (this.file != null && this.file.lastModified() != this.lastModified));
+		}
+	}
+
+	/**
+	 * A Javassist {@link ClassPath} that caches the bytes
+	 * of the classfiles it reads. It is thread-safe.
+	 */
+	private static final class SharedClassPath implements ClassPath {
+		/** The classpath entries, in lookup order. */
+		private final ArrayList<ClassPath> entries = new ArrayList<>();
+
+		/** The paths of {@code entries}. */
+		private final ArrayList<String> paths = new ArrayList<>();
+
+		/** The modification times of the jar files in {@code paths}. */
+		private final HashMap<String, Long> jarsLastModified = new HashMap<>();
+
+		/** The cached classfiles. */
+		private final ConcurrentHashMap<String, Cached> classfiles = new ConcurrentHashMap<>();
+
+		/** The cached locations of the classfiles. */
+		private final ConcurrentHashMap<String, URL> urls = new ConcurrentHashMap<>();
+
+		SharedClassPath(List<String> paths) {
+			final ClassPool pool = new ClassPool();
+			for (String s : paths) {
+				try {
+					this.entries.add(pool.appendClassPath(s));
+					this.paths.add(s);
+					if (s.endsWith(".jar")) {
+						this.jarsLastModified.put(s, new File(s).lastModified());
+					}
+				} catch (NotFoundException e) {
+					//does nothing
+				}
+			}
+		}
+
+		@Override
+		public InputStream openClassfile(String className) throws NotFoundException {
+			final Cached c = classfile(className);
+			if (c.bytes == null) {
+				throw new NotFoundException(className);
+			}
+			return new ByteArrayInputStream(c.bytes);
+		}
+
+		@Override
+		public URL find(String className) {
+			try {
+				if (classfile(className).bytes == null) {
+					return null;
+				}
+			} catch (NotFoundException e) {
+				return null;
+			}
+			URL retVal = this.urls.get(className);
+			if (retVal == null) {
+				synchronized (this.entries) {
+					for (ClassPath entry : this.entries) {
+						retVal = entry.find(className);
+						if (retVal != null) {
+							this.urls.put(className, retVal);
+							break;
+						}
+					}
+				}
+			}
+			return retVal;
+		}
+
+		@Override
+		public void close() {
+			//the cache is shared, thus it is never closed
+		}
+
+		boolean jarsChanged() {
+			for (Map.Entry<String, Long> e : this.jarsLastModified.entrySet()) {
+				if (new File(e.getKey()).lastModified() != e.getValue().longValue()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		int size() {
+			return this.classfiles.size();
+		}
+
+		boolean changed() {
+			for (Map.Entry<String, Cached> e : this.classfiles.entrySet()) {
+				final Cached c = e.getValue();
+				if (c.bytes == null ? exists(e.getKey()) : c.isChanged()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean exists(String className) {
+			synchronized (this.entries) {
+				for (ClassPath entry : this.entries) {
+					if (entry.find(className) != null) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		int invalidateChanged() {
+			int retVal = 0;
+			for (Map.Entry<String, Cached> e : this.classfiles.entrySet()) {
+				if (e.getValue().isChanged() && this.classfiles.remove(e.getKey(), e.getValue())) {
+					this.urls.remove(e.getKey());
+					++retVal;
+				}
+			}
+			return retVal;
+		}
+
+		private Cached classfile(String className) throws NotFoundException {
+			final Cached c = this.classfiles.get(className);
+			if (c != null) {
+				return c;
+			}
+			final Cached retVal = read(className);
+			this.classfiles.putIfAbsent(className, retVal);
+			return retVal;
+		}
+
+		private Cached read(String className) throws NotFoundException {
+			synchronized (this.entries) {
+				for (int i = 0; i < this.entries.size(); ++i) {
+					final String path = this.paths.get(i);
+					final File file = (path.endsWith(".jar") ? null : new File(path, className.replace('.', '/') + ".class"));
+					final long lastModified = (file == null ? 0 : file.lastModified()); //before reading
+					try (final InputStream in = this.entries.get(i).openClassfile(className)) {
+						if (in != null) {
+							final ByteArrayOutputStream out = new ByteArrayOutputStream();
+							final byte[] buf = new byte[8192];
+							for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+								out.write(buf, 0, n);
+							}
+							return new Cached(out.toByteArray(), file, lastModified);
+						}
+					} catch (IOException e) {
+						throw new NotFoundException(className, e);
+					}
+				}
+			}
+			return new Cached(null, null, 0);
+		}
+	}
+}
@@ -0,0 +1,357 @@
+package jbse.bc;
+
+import static jbse.common.Util.asUnsignedByte;
+import static jbse.common.Util.byteCat;
+import static jbse.common.Util.byteCatShort;
+
+import java.util.Arrays;
+
+/**
+ * The intraprocedural control flow graph of a method,
+ * decoded once from its bytecode. Nodes are the program
+ * counters of the instructions, and edges are the normal
+ * (i.e., not exceptional) control transfers between them.
+ * Edges are numbered densely from {@code 0} to
+ * {@link #getNumEdges()}{@code  - 1}, so they can be used
+ * to index compact data structures such as bitmaps.
+ *
+ * @author Pietro Braione
+ */
+public final class ControlFlowGraph {
+	/** The length of the bytecode. */
+	private final int codeLength;
+
+	/**
+	 * For each program counter, the index in {@code edgeTarget}
+	 * of its first outgoing edge; the outgoing edges of
+	 * {@code pc} are those in {@code [edgeStart[pc], edgeStart[pc + 1])}.
+	 * Program counters not starting an instruction have no edges.
+	 */
+	private final int[] edgeStart;
+
+	/** The target program counter of each edge. */
+	private final int[] edgeTarget;
+
+	/** The source program counter of each edge. */
+	private final int[] edgeSource;
+
+	/**
+	 * For each program counter, the index in {@code predecessorEdge}
+	 * of its first incoming edge, as in {@code edgeStart}.
+	 */
+	private final int[] predecessorStart;
+
+	/** The incoming edges of each program counter, grouped by target. */
+	private final int[] predecessorEdge;
+
+	/**
+	 * For each program counter, the index of the edge to the next
+	 * instruction, or {@code -1} if there is no such edge.
+	 */
+	private final int[] fallthroughEdge;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param code the bytecode of a method, a {@code byte[]}.
+	 *        It will not be modified nor retained.
+	 * @throws IllegalArgumentException if {@code code} is malformed.
+	 */
+	public ControlFlowGraph(byte[] code) {
+		this.codeLength = code.length;
+		this.edgeStart = new int[this.codeLength + 1];
+		this.fallthroughEdge = new int[this.codeLength];
+		Arrays.fill(this.fallthroughEdge, -1);
+
+		//first pass: decodes and collects the edges
+		int[] targets = new int[this.codeLength * 2 + 2];
+		int numEdges = 0;
+		int pc = 0;
+		while (pc < this.codeLength) {
+			this.edgeStart[pc] = numEdges;
+			final int length = instructionLength(code, pc);
+			final int[] succ = successors(code, pc, length);
+			for (int target : succ) {
+				if (target < 0 || target >= this.codeLength) {
+					throw new IllegalArgumentException("Jump target " + target + " out of bounds at pc " + pc + ".");
+				}
+				boolean duplicate = false;
+				for (int k = this.edgeStart[pc]; k < numEdges; ++k) {
+					duplicate = duplicate || (targets[k] == target);
+				}
+				if (duplicate) {
+					continue;
+				}
+				if (numEdges == targets.length) {
+					targets = Arrays.copyOf(targets, targets.length * 2);
+				}
+				if (target == pc + length) {
+					this.fallthroughEdge[pc] = numEdges;
+				}
+				targets[numEdges++] = target;
+			}
+			//the bytes inside the instruction have no edges
+			for (int i = pc + 1; i < pc + length && i <= this.codeLength; ++i) {
+				this.edgeStart[i] = numEdges;
+			}
+			pc += length;
+		}
+		this.edgeStart[this.codeLength] = numEdges;
+		this.edgeTarget = Arrays.copyOf(targets, numEdges);
+
+		//second pass: builds the reverse adjacency
+		this.edgeSource = new int[numEdges];
+		this.predecessorStart = new int[this.codeLength + 1];
+		for (int src = 0; src < this.codeLength; ++src) {
+			for (int e = this.edgeStart[src]; e < this.edgeStart[src + 1]; ++e) {
+				this.edgeSource[e] = src;
+				++this.predecessorStart[this.edgeTarget[e] + 1];
+			}
+		}
+		for (int i = 0; i < this.codeLength; ++i) {
+			this.predecessorStart[i + 1] += this.predecessorStart[i];
+		}
+		this.predecessorEdge = new int[numEdges];
+		final int[] fill = Arrays.copyOf(this.predecessorStart, this.codeLength);
+		for (int e = 0; e < numEdges; ++e) {
+			this.predecessorEdge[fill[this.edgeTarget[e]]++] = e;
+		}
+	}
+
+	/**
+	 * Returns the length of the method's bytecode.
+	 *
+	 * @return an {@code int}.
+	 */
+	public int getCodeLength() {
+		return this.codeLength;
+	}
+
+	/**
+	 * Returns the number of edges.
+	 *
+	 * @return an {@code int}.
+	 */
+	public int getNumEdges() {
+		return this.edgeTarget.length;
+	}
+
+	/**
+	 * Returns the index of an edge.
+	 *
+	 * @param source the program counter of the source instruction.
+	 * @param target the program counter of the target instruction.
+	 * @return the index of the edge from {@code source} to
+	 *         {@code target}, or {@code -1} if there is no such edge.
+	 */
+	public int edgeIndex(int source, int target) {
+		if (source < 0 || source >= this.codeLength) {
+			return -1;
+		}
+		for (int e = this.edgeStart[source]; e < this.edgeStart[source + 1]; ++e) {
+			if (this.edgeTarget[e] == target) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the edge from an instruction
+	 * to the next one.
+	 *
+	 * @param source the program counter of the source instruction.
+	 * @return the index of the edge, or {@code -1} if
+	 *         the instruction never falls through.
+	 */
+	public int fallthroughEdgeIndex(int source) {
+		if (source < 0 || source >= this.codeLength) {
+			return -1;
+		}
+		return this.fallthroughEdge[source];
+	}
+
+	/**
+	 * Returns the first outgoing edge of an instruction. The
+	 * outgoing edges of {@code pc} are those with index in
+	 * {@code [firstEdge(pc), firstEdge(pc + 1))}.
+	 *
+	 * @param pc a program counter between {@code 0} and
+	 *        {@link #getCodeLength()} (included).
+	 * @return an {@code int}, an edge index.
+	 */
+	public int firstEdge(int pc) {
+		return this.edgeStart[pc];
+	}
+
+	/**
+	 * Returns the source of an edge.
+	 *
+	 * @param edge an edge index.
+	 * @return the program counter of the source instruction.
+	 */
+	public int edgeSource(int edge) {
+		return this.edgeSource[edge];
+	}
+
+	/**
+	 * Returns the target of an edge.
+	 *
+	 * @param edge an edge index.
+	 * @return the program counter of the target instruction.
+	 */
+	public int edgeTarget(int edge) {
+		return this.edgeTarget[edge];
+	}
+
+	/**
+	 * Returns the first incoming edge of an instruction. The
+	 * incoming edges of {@code pc} are {@link #predecessorEdge(int) predecessorEdge(i)}
+	 * for {@code i} in {@code [firstPredecessor(pc), firstPredecessor(pc + 1))}.
+	 *
+	 * @param pc a program counter between {@code 0} and
+	 *        {@link #getCodeLength()} (included).
+	 * @return an {@code int}.
+	 */
+	public int firstPredecessor(int pc) {
+		return this.predecessorStart[pc];
+	}
+
+	/**
+	 * Returns an incoming edge.
+	 *
+	 * @param i an {@code int}, see {@link #firstPredecessor(int)}.
+	 * @return an edge index.
+	 */
+	public int predecessorEdge(int i) {
+		return this.predecessorEdge[i];
+	}
+
+	private static int instructionLength(byte[] code, int pc) {
+		final byte opcode = code[pc];
+		switch (opcode) {
+		case Opcodes.OP_BIPUSH:
+		case Opcodes.OP_LDC:
+		case Opcodes.OP_NEWARRAY:
+		case Opcodes.OP_RET:
+			return 2;
+		case Opcodes.OP_SIPUSH:
+		case Opcodes.OP_LDC_W:
+		case Opcodes.OP_LDC2_W:
+		case Opcodes.OP_IINC:
+		case Opcodes.OP_GETSTATIC:
+		case Opcodes.OP_PUTSTATIC:
+		case Opcodes.OP_GETFIELD:
+		case Opcodes.OP_PUTFIELD:
+		case Opcodes.OP_INVOKEVIRTUAL:
+		case Opcodes.OP_INVOKESPECIAL:
+		case Opcodes.OP_INVOKESTATIC:
+		case Opcodes.OP_NEW:
+		case Opcodes.OP_ANEWARRAY:
+		case Opcodes.OP_CHECKCAST:
+		case Opcodes.OP_INSTANCEOF:
+			return 3;
+		case Opcodes.OP_MULTIANEWARRAY:
+			return 4;
+		case Opcodes.OP_INVOKEINTERFACE:
+		case Opcodes.OP_INVOKEDYNAMIC:
+		case Opcodes.OP_GOTO_W:
+		case Opcodes.OP_JSR_W:
+			return 5;
+		case Opcodes.OP_WIDE:
+			return (pc + 1 < code.length && code[pc + 1] == Opcodes.OP_IINC ? 6 : 4);
+		case Opcodes.OP_TABLESWITCH: {
+			final int base = switchBase(pc);
+			final int low = readInt(code, base + 4);
+			final int high = readInt(code, base + 8);
+			return base + 12 + 4 * (high - low + 1) - pc;
+		}
+		case Opcodes.OP_LOOKUPSWITCH: {
+			final int base = switchBase(pc);
+			final int npairs = readInt(code, base + 4);
+			return base + 8 + 8 * npairs - pc;
+		}
+		default:
+			final int op = asUnsignedByte(opcode);
+			if ((op >= asUnsignedByte(Opcodes.OP_ILOAD) && op <= asUnsignedByte(Opcodes.OP_ALOAD)) ||
+				(op >= asUnsignedByte(Opcodes.OP_ISTORE) && op <= asUnsignedByte(Opcodes.OP_ASTORE))) {
+				return 2;
+			} else if (isJump16(opcode)) {
+				return 3;
+			} else {
+				return 1;
+			}
+		}
+	}
+
+	private static int[] successors(byte[] code, int pc, int length) {
+		final byte opcode = code[pc];
+		switch (opcode) {
+		case Opcodes.OP_IRETURN:
+		case Opcodes.OP_LRETURN:
+		case Opcodes.OP_FRETURN:
+		case Opcodes.OP_DRETURN:
+		case Opcodes.OP_ARETURN:
+		case Opcodes.OP_RETURN:
+		case Opcodes.OP_ATHROW:
+		case Opcodes.OP_RET:
+			return new int[0];
+		case Opcodes.OP_GOTO:
+			return new int[] { pc + byteCatShort(code[pc + 1], code[pc + 2]) };
+		case Opcodes.OP_GOTO_W:
+			return new int[] { pc + readInt(code, pc + 1) };
+		case Opcodes.OP_JSR:
+			return new int[] { pc + byteCatShort(code[pc + 1], code[pc + 2]), pc + length };
+		case Opcodes.OP_JSR_W:
+			return new int[] { pc + readInt(code, pc + 1), pc + length };
+		case Opcodes.OP_TABLESWITCH: {
+			final int base = switchBase(pc);
+			final int low = readInt(code, base + 4);
+			final int high = readInt(code, base + 8);
+			final int[] retVal = new int[high - low + 2];
+			retVal[0] = pc + readInt(code, base);
+			for (int i = 0; i < high - low + 1; ++i) {
+				retVal[i + 1] = pc + readInt(code, base + 12 + 4 * i);
+			}
+			return retVal;
+		}
+		case Opcodes.OP_LOOKUPSWITCH: {
+			final int base = switchBase(pc);
+			final int npairs = readInt(code, base + 4);
+			final int[] retVal = new int[npairs + 1];
+			retVal[0] = pc + readInt(code, base);
+			for (int i = 0; i < npairs; ++i) {
+				retVal[i + 1] = pc + readInt(code, base + 12 + 8 * i);
+			}
+			return retVal;
+		}
+		default:
+			if (isJump16(opcode)) {
+				return new int[] { pc + length, pc + byteCatShort(code[pc + 1], code[pc + 2]) };
+			} else if (pc + length < code.length) {
+				return new int[] { pc + length };
+			} else {
+				return new int[0];
+			}
+		}
+	}
+
+	private static boolean isJump16(byte opcode) {
+		final int op = asUnsignedByte(opcode);
+		return (op >= asUnsignedByte(Opcodes.OP_IFEQ) && op <= asUnsignedByte(Opcodes.OP_IF_ACMPNE)) ||
+				opcode == Opcodes.OP_IFNULL || opcode == Opcodes.OP_IFNONNULL ||
+				opcode == Opcodes.OP_GOTO || opcode == Opcodes.OP_JSR;
+	}
+
+	private static int switchBase(int pc) {
+		//skips the padding to the next multiple of 4
+		return (pc + 4) & ~3;
+	}
+
+	private static int readInt(byte[] code, int i) {
+		if (i + 3 >= code.length) {
+			throw new IllegalArgumentException("Truncated switch table at " + i + ".");
+		}
+		return byteCat(code[i], code[i + 1], code[i + 2], code[i + 3]);
+	}
+}
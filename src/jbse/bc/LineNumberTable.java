@@ -1,10 +1,15 @@
 package jbse.bc;
 
+import java.io.Serializable;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-public class LineNumberTable implements Iterable<LineNumberTable.Row> {
-	public static class Row {
+public class LineNumberTable implements Iterable<LineNumberTable.Row>, Serializable {
+	private static final long serialVersionUID = -5996061705711621593L;
+
+	public static class Row implements Serializable {
+		private static final long serialVersionUID = 652408472977309985L;
+
 		public int start;
 		public int lineNumber;
 		
@@ -1,5 +1,6 @@
 package jbse.bc;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -12,8 +13,12 @@ import jbse.common.Type;
 /**
  * Class of objects representing a method local variable table.
  */
-public class LocalVariableTable implements Iterable<LocalVariableTable.Row> {
-	public static class Row {
+public class LocalVariableTable implements Iterable<LocalVariableTable.Row>, Serializable {
+	private static final long serialVersionUID = -8650524168328965562L;
+
+	public static class Row implements Serializable {
+		private static final long serialVersionUID = -3276789378169335258L;
+
 		public int slot;
 		public String descriptor;
 		public String name;
@@ -0,0 +1,335 @@
+package jbse.dec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseAssumeAliases;
+import jbse.mem.ClauseAssumeClassInitialized;
+import jbse.mem.ClauseAssumeClassNotInitialized;
+import jbse.mem.ClauseAssumeExpands;
+import jbse.mem.ClauseAssumeReferenceSymbolic;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.FunctionApplication;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
+
+/**
+ * Partitions a stack of {@link Clause}s in independent groups,
+ * i.e., groups that share no symbol. Two clauses are in the same
+ * group iff they are connected by a chain of clauses, each sharing
+ * a symbol with the next one. Whether a query is satisfiable under
+ * all the clauses depends only on the groups the symbols of the
+ * query belong to, if the clauses are satisfiable.
+ * The symbols of a clause are its {@link PrimitiveSymbolic}s and
+ * {@link Term}s, its {@link jbse.val.ReferenceSymbolic}, the heap
+ * position of the object it refers to, or the name of the class
+ * it is about.
+ *
+ * @author Pietro Braione
+ */
+final class ClauseIndependence {
+	/** The clauses, in push order. */
+	private final ArrayList<Clause> clauses = new ArrayList<>();
+
+	/**
+	 * The node of a symbol of each clause, in push
+	 * order, or {@code null} if the clause has no symbol.
+	 */
+	private final ArrayList<Node> anchors = new ArrayList<>();
+
+	/** Maps the symbols to their nodes. */
+	private final HashMap<Object, Node> nodes = new HashMap<>();
+
+	/**
+	 * The trail of the changes to the partition: each node
+	 * either created, or linked to a new parent, in change order.
+	 */
+	private final ArrayList<Node> trail = new ArrayList<>();
+
+	/** The sizes of {@code trail} before each clause was pushed. */
+	private final ArrayList<Integer> checkpoints = new ArrayList<>();
+
+	/**
+	 * Pushes a clause.
+	 *
+	 * @param c a {@link Clause}.
+	 */
+	void push(Clause c) {
+		this.checkpoints.add(this.trail.size());
+		Node anchor = null;
+		for (Object symbol : symbols(c)) {
+			final Node root = rootNode(symbol);
+			if (anchor == null) {
+				anchor = root;
+			} else {
+				anchor = union(anchor, root);
+			}
+		}
+		this.clauses.add(c);
+		this.anchors.add(anchor);
+	}
+
+	/**
+	 * Pops the last pushed clause.
+	 *
+	 * @throws UnexpectedInternalException if there is no clause.
+	 */
+	void pop() {
+		if (this.clauses.isEmpty()) {
+			throw new UnexpectedInternalException("Attempted to pop a clause from an empty independence partition.");
+		}
+		this.clauses.remove(this.clauses.size() - 1);
+		this.anchors.remove(this.anchors.size() - 1);
+		final int checkpoint = this.checkpoints.remove(this.checkpoints.size() - 1);
+		for (int i = this.trail.size() - 1; i >= checkpoint; --i) {
+			final Node node = this.trail.remove(i);
+			if (node.parent == node) {
+				//was created
+				this.nodes.remove(node.symbol);
+			} else {
+				//was linked
+				if (node.rankIncremented) {
+					--node.parent.rank;
+					node.rankIncremented = false;
+				}
+				node.parent = node;
+			}
+		}
+	}
+
+	/**
+	 * Removes all the clauses.
+	 */
+	void clear() {
+		this.clauses.clear();
+		this.anchors.clear();
+		this.nodes.clear();
+		this.trail.clear();
+		this.checkpoints.clear();
+	}
+
+	/**
+	 * Returns the number of pushed clauses.
+	 *
+	 * @return an {@code int}.
+	 */
+	int size() {
+		return this.clauses.size();
+	}
+
+	/**
+	 * Returns a pushed clause.
+	 *
+	 * @param position an {@code int}, the position of the
+	 *        clause in push order.
+	 * @return the {@link Clause} at {@code position}.
+	 */
+	Clause get(int position) {
+		return this.clauses.get(position);
+	}
+
+	/**
+	 * Returns the clauses a query depends on.
+	 *
+	 * @param symbols a {@link Set} of symbols, the ones
+	 *        of the query (see {@link #symbols(Clause)} and
+	 *        {@link #symbols(Primitive)}).
+	 * @return a {@link List}{@code <}{@link Integer}{@code >}, the
+	 *         positions in push order of the clauses in the
+	 *         groups of {@code symbols}, and of the clauses
+	 *         with no symbol, in increasing order.
+	 */
+	List<Integer> slice(Set<Object> symbols) {
+		final HashSet<Node> roots = new HashSet<>();
+		for (Object symbol : symbols) {
+			final Node node = this.nodes.get(symbol);
+			if (node != null) {
+				roots.add(findRoot(node));
+			}
+		}
+		final ArrayList<Integer> retVal = new ArrayList<>();
+		for (int i = 0; i < this.anchors.size(); ++i) {
+			final Node anchor = this.anchors.get(i);
+			if (anchor == null || roots.contains(findRoot(anchor))) {
+				retVal.add(i);
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the symbols of a {@link Clause}.
+	 *
+	 * @param c a {@link Clause}.
+	 * @return a {@link Set} of symbols.
+	 */
+	static Set<Object> symbols(Clause c) {
+		final HashSet<Object> retVal = new HashSet<>();
+		if (c instanceof ClauseAssume) {
+			addSymbols(((ClauseAssume) c).getCondition(), retVal);
+		} else if (c instanceof ClauseAssumeReferenceSymbolic) {
+			retVal.add(((ClauseAssumeReferenceSymbolic) c).getReference());
+			if (c instanceof ClauseAssumeAliases) {
+				retVal.add(((ClauseAssumeAliases) c).getHeapPosition());
+			} else if (c instanceof ClauseAssumeExpands) {
+				retVal.add(((ClauseAssumeExpands) c).getHeapPosition());
+			}
+		} else if (c instanceof ClauseAssumeClassInitialized) {
+			retVal.add(((ClauseAssumeClassInitialized) c).getClassName());
+		} else if (c instanceof ClauseAssumeClassNotInitialized) {
+			retVal.add(((ClauseAssumeClassNotInitialized) c).getClassName());
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the symbols of a {@link Primitive}.
+	 *
+	 * @param p a {@link Primitive}.
+	 * @return a {@link Set} of symbols.
+	 */
+	static Set<Object> symbols(Primitive p) {
+		final HashSet<Object> retVal = new HashSet<>();
+		addSymbols(p, retVal);
+		return retVal;
+	}
+
+	private static void addSymbols(Primitive p, Set<Object> symbols) {
+		if (p == null) {
+			return;
+		}
+		try {
+			p.accept(new SymbolCollector(symbols));
+		} catch (Exception e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+	}
+
+	private static class SymbolCollector implements PrimitiveVisitor {
+		private final Set<Object> symbols;
+
+		SymbolCollector(Set<Object> symbols) {
+			this.symbols = symbols;
+		}
+
+		@Override
+		public void visitAny(Any x) {
+			//nothing to do
+		}
+
+		@Override
+		public void visitExpression(Expression e) throws Exception {
+			if (e.isUnary()) {
+				e.getOperand().accept(this);
+			} else {
+				e.getFirstOperand().accept(this);
+				e.getSecondOperand().accept(this);
+			}
+		}
+
+		@Override
+		public void visitFunctionApplication(FunctionApplication x) throws Exception {
+			for (Primitive arg : x.getArgs()) {
+				if (arg != null) {
+					arg.accept(this);
+				}
+			}
+		}
+
+		@Override
+		public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
+			this.symbols.add(s);
+		}
+
+		@Override
+		public void visitSimplex(Simplex x) {
+			//nothing to do
+		}
+
+		@Override
+		public void visitTerm(Term x) {
+			this.symbols.add(x);
+		}
+
+		@Override
+		public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+			x.getArg().accept(this);
+		}
+
+		@Override
+		public void visitWideningConversion(WideningConversion x) throws Exception {
+			x.getArg().accept(this);
+		}
+	}
+
+	private Node union(Node first, Node second) {
+		if (first == second) {
+			return first;
+		}
+		final Node lower, higher;
+		if (first.rank < second.rank) {
+			lower = first;
+			higher = second;
+		} else {
+			lower = second;
+			higher = first;
+			if (lower.rank == higher.rank) {
+				++higher.rank;
+				lower.rankIncremented = true;
+			}
+		}
+		lower.parent = higher;
+		this.trail.add(lower);
+		return higher;
+	}
+
+	private static Node findRoot(Node node) {
+		Node retVal = node;
+		while (retVal.parent != retVal) {
+			retVal = retVal.parent;
+		}
+		return retVal;
+	}
+
+	private Node rootNode(Object symbol) {
+		Node node = this.nodes.get(symbol);
+		if (node == null) {
+			node = new Node(symbol);
+			this.nodes.put(symbol, node);
+			this.trail.add(node);
+			return node;
+		}
+		return findRoot(node);
+	}
+
+	private static class Node {
+		final Object symbol;
+		Node parent;
+		int rank;
+
+		/**
+		 * Whether linking this node to its parent
+		 * incremented the rank of the parent.
+		 */
+		boolean rankIncremented = false;
+
+		Node(Object symbol) {
+			this.symbol = symbol;
+			this.parent = this;
+			this.rank = 0;
+		}
+	}
+}
@@ -13,12 +13,20 @@ import jbse.rewr.CalculatorRewriting;
  *
  */
 public class DecisionProcedureCVC3 extends DecisionProcedureExternal {
+	private final String path;
+	
 	public DecisionProcedureCVC3(DecisionProcedure component, CalculatorRewriting calc, String path) throws DecisionException {
 		super(component, calc);
+		this.path = path;
         try {
         	this.extIf = new DecisionProcedureExternalInterfaceCVC3(calc, path);
 		} catch (ExternalProtocolInterfaceException | IOException e) {
 			throw new DecisionException(e);
 		}
 	}
+	
+	@Override
+	protected String getConfiguration() {
+		return this.path;
+	}
 }
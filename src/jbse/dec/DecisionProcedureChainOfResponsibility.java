@@ -450,6 +450,9 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 		} else if (expSimpl instanceof Expression) {
 			final boolean localDecidesSat = isSatLocal(hier, expression, (Expression) expSimpl);
 			if (localDecidesSat) {
+			    if (isSurelySatLocal(hier, expression, (Expression) expSimpl)) {
+			        return true; //surely sat
+			    }
 			    return delegateIsSat(hier, expression);  //TODO shouldn't we pass expSimpl instead? do we really need to pass the original exp to the next in chain?
 			}
 			return false; //surely unsat
@@ -477,6 +480,26 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
     	return true;
     }
 
+    /**
+     * Must be overridden by subclasses that are able to decide 
+     * that an {@link Expression} is surely satisfiable, so 
+     * that the next decision procedures in the chain need not 
+     * be queried. It is invoked right after 
+     * {@link #isSatLocal(ClassHierarchy, Expression, Expression) isSatLocal}
+     * returned {@code true} for the same parameters. The default 
+     * implementation answers {@code false} (no local decision).
+     *  
+     * @param hier see {@link #isSatLocal(ClassHierarchy, Expression, Expression) isSatLocal}.
+     * @param exp see {@link #isSatLocal(ClassHierarchy, Expression, Expression) isSatLocal}.
+     * @param expSimpl see {@link #isSatLocal(ClassHierarchy, Expression, Expression) isSatLocal}.
+     * @return {@code true} iff {@code exp} is surely satisfiable 
+     *         together with the current assumptions.
+     * @throws DecisionException upon failure.
+     */
+    protected boolean isSurelySatLocal(ClassHierarchy hier, Expression exp, Expression expSimpl) throws DecisionException {
+    	return false;
+    }
+
     /**
      * Queries the next decision procedure in the chain for 
      * satisfiability of an {@link Expression}.
@@ -1,10 +1,12 @@
 package jbse.dec;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 
 import jbse.bc.ClassHierarchy;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
 import jbse.mem.ClauseAssume;
 import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
@@ -37,6 +39,12 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 		this.rewriters = new Rewriter[] { new RewriterUnify() }; //explicit assignment: no constructor call is allowed before super()
 	}
 
+	@Override
+	protected void pushAssumptionLocal(Clause cSimpl) throws DecisionException {
+		this.equivalence.checkpoint();
+		super.pushAssumptionLocal(cSimpl);
+	}
+
 	@Override
 	protected void pushAssumptionLocal(ClauseAssume c) {
 		final Primitive p = c.getCondition();
@@ -56,6 +64,18 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 	protected void clearAssumptionsLocal() {
 		this.equivalence.reset();
 	}
+	
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+	
+	@Override
+	protected void popAssumptionLocal() throws DecisionException {
+		if (!this.equivalence.rollback()) {
+			throw new DecisionException("Attempted to pop an assumption from an empty assumption set.");
+		}
+	}
 
 	@Override
 	protected boolean isSatLocal(ClassHierarchy hier, Expression exp, Expression expSimpl) 
@@ -334,13 +354,57 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 	}
 	
 	/**
-	 * Union-find partition of primitives.
+	 * Union-find partition of primitives, with rollback
+	 * to the previous checkpoints. To make rollback cheap 
+	 * paths are not compressed, and the trees are kept 
+	 * shallow by union by rank only.
 	 * 
 	 * @author Pietro Braione
 	 */
 	private static class Partition {
 		private final LinkedHashMap<Primitive, PartitionNode> nodes = new LinkedHashMap<Primitive, PartitionNode>();
 		
+		/** 
+		 * The trail of the changes to the partition: each node 
+		 * either created, or linked to a new parent, in change order. 
+		 */
+		private final ArrayList<PartitionNode> trail = new ArrayList<>();
+		
+		/** The sizes of {@code trail} at the checkpoints. */
+		private final ArrayList<Integer> checkpoints = new ArrayList<>();
+		
+		void checkpoint() {
+			this.checkpoints.add(this.trail.size());
+		}
+		
+		/**
+		 * Undoes all the changes since the last checkpoint,
+		 * and drops it.
+		 * 
+		 * @return {@code false} iff there is no checkpoint.
+		 */
+		boolean rollback() {
+			if (this.checkpoints.isEmpty()) {
+				return false;
+			}
+			final int checkpoint = this.checkpoints.remove(this.checkpoints.size() - 1);
+			for (int i = this.trail.size() - 1; i >= checkpoint; --i) {
+				final PartitionNode node = this.trail.remove(i);
+				if (node.parent == node) {
+					//was created
+					this.nodes.remove(node.element);
+				} else {
+					//was linked
+					if (node.rankIncremented) {
+						--node.parent.rank;
+						node.rankIncremented = false;
+					}
+					node.parent = node;
+				}
+			}
+			return true;
+		}
+		
 		void union(Primitive elemFirst, Primitive elemSecond) {
 			if (elemFirst.equals(elemSecond)) {
 				return;
@@ -350,6 +414,10 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 			final boolean firstShorter = (firstLength < secondLength);
 			final PartitionNode partitionFirst = (firstShorter ? rootNode(elemFirst) : rootNode(elemSecond));
 			final PartitionNode partitionSecond = (firstShorter ? rootNode(elemSecond) : rootNode(elemFirst));
+			if (partitionFirst == partitionSecond) {
+				//already in the same partition
+				return;
+			}
 			final PartitionNode partitionLower, partitionHigher; 
 			if (partitionFirst.rank < partitionSecond.rank) {
 				partitionLower = partitionFirst;
@@ -359,9 +427,11 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 				partitionHigher = partitionFirst;
 				if (partitionLower.rank == partitionHigher.rank) {
 					++partitionHigher.rank;
+					partitionLower.rankIncremented = true;
 				}
 			}
 			partitionLower.parent = partitionHigher;
+			this.trail.add(partitionLower);
 		}
 		
 		Primitive find (Primitive elem) {
@@ -369,7 +439,7 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 			if (node == null) {
 				return elem;
 			}
-			return findRootAndCompress(node).element;
+			return findRoot(node).element;
 		}
 		
 		/* aggressive closure, seemingly offers no advantage
@@ -395,13 +465,16 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 		
 		void reset() {
 			this.nodes.clear();
+			this.trail.clear();
+			this.checkpoints.clear();
 		}
 
-		private PartitionNode findRootAndCompress(PartitionNode node) {
-			if (node.parent != node) {
-				node.parent = findRootAndCompress(node.parent);
+		private static PartitionNode findRoot(PartitionNode node) {
+			PartitionNode retVal = node;
+			while (retVal.parent != retVal) {
+				retVal = retVal.parent;
 			}
-			return node.parent;
+			return retVal;
 		}
 		
 		private PartitionNode rootNode(Primitive elem) {
@@ -409,8 +482,9 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 			if (elemNode == null) {
 				elemNode = new PartitionNode(elem);
 				this.nodes.put(elem, elemNode);
+				this.trail.add(elemNode);
 			}
-			return findRootAndCompress(elemNode);
+			return findRoot(elemNode);
 		}
 		
 		private static class PartitionNode {
@@ -418,6 +492,12 @@ public final class DecisionProcedureEquality extends DecisionProcedureChainOfRes
 			PartitionNode parent;
 			int rank;
 			
+			/** 
+			 * Whether linking this node to its parent 
+			 * incremented the rank of the parent. 
+			 */
+			boolean rankIncremented = false;
+			
 			PartitionNode(Primitive element) {
 				this.element = element;
 				this.parent = this;
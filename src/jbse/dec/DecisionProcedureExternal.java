@@ -1,10 +1,25 @@
 package jbse.dec;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jbse.bc.ClassHierarchy;
+import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
 import jbse.dec.exc.ExternalProtocolInterfaceException;
 import jbse.mem.Clause;
@@ -17,10 +32,17 @@ import jbse.mem.ClauseAssumeNull;
 import jbse.mem.Objekt;
 import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
+import jbse.val.Any;
 import jbse.val.Expression;
+import jbse.val.FunctionApplication;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
 import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveVisitor;
 import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
 
 /**
  * A {@link DecisionProcedureExternal} is a {@link DecisionProcedureChainOfResponsibility} 
@@ -34,26 +56,133 @@ import jbse.val.Simplex;
  * interface returns unsat as an answer, this decision procedure returns unsat, but when the
  * external interface returns sat, this decision procedures delegates the query to the next 
  * in the chain.
+ * The external decision procedure does not receive all the current
+ * assumptions, but only the ones the query depends on, i.e., the groups
+ * of assumptions that share symbols with the query (see {@link ClauseIndependence}),
+ * and the verdicts for the most recent queries are cached.
+ * This assumes that the current assumptions are satisfiable.
+ * Each query can be given a time budget (see {@link #setQueryTimeout(long)}),
+ * after which the external decision procedure should answer unknown; 
+ * if it does not, and the subclass can restart it (see 
+ * {@link #restartExternalInterface()}), it is killed and restarted.
+ * Unknown answers are handled according to an {@link UnknownAnswerPolicy}, 
+ * counted, and possibly dumped to files for offline analysis.
+ * The verdicts can also be saved to, and looked up in, a 
+ * {@link VerdictStore} that persists across runs.
  * 
  * @author Pietro Braione
  */
 public abstract class DecisionProcedureExternal extends DecisionProcedureChainOfResponsibility {
+	/**
+	 * What to do when the external decision procedure answers 
+	 * unknown, or times out.
+	 * 
+	 * @author Pietro Braione
+	 */
+	public enum UnknownAnswerPolicy {
+		/** 
+		 * The query is considered satisfiable, and delegated
+		 * to the next decision procedure in the chain (conservative). 
+		 */
+		ASSUME_SAT,
+		
+		/** 
+		 * The query is sent again with a larger time budget 
+		 * (by default the external decision procedures try 
+		 * different tactics as time passes); if the answer is 
+		 * unknown again, it is considered satisfiable. If the 
+		 * queries have no time budget it is the same as 
+		 * {@link #ASSUME_SAT}.
+		 */
+		RETRY,
+		
+		/** 
+		 * The query is considered unsatisfiable, so the branch 
+		 * is not explored, as the traces that exceed the scope. 
+		 * This may miss feasible traces. The query is not cached,
+		 * thus it is sent again when it is met again.
+		 */
+		PRUNE
+	}
+	
 	private final String NOT_WORKING = "Method invoked after the failure of the external decision procedure " + this.getClass().getName() + ".";
 	
+	/** The maximum number of cached verdicts. */
+	private static final int VERDICTS_CACHE_SIZE = 4096;
+	
+	/** How much the time budget of a retried query is increased. */
+	private static final int RETRY_FACTOR = 4;
+	
+	/** The version of the rendering of the queries in the verdict store. */
+	private static final int KEY_FORMAT = 2;
+	
+	/** 
+	 * How much a query may exceed its time budget before the 
+	 * external decision procedure is killed, in milliseconds.
+	 */
+	private static final long KILL_GRACE = 1000L;
+	
+	/** The states of a query watched by {@code WATCHDOG}. */
+	private static final int WATCHED_RUNNING = 0, WATCHED_KILLED = 1, WATCHED_DONE = 2;
+	
+	/** Kills the external decision procedures that exceed their time budget. */
+	private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread t = new Thread(r, "external-decision-procedure-watchdog");
+		t.setDaemon(true);
+		return t;
+	});
+	
 	/** The interface to the external decision procedure; it is set by subclasses. */
 	protected DecisionProcedureExternalInterface extIf;
 	
 	/** Caches the current assumptions sent (or to be sent) to the external decision procedure. */
 	protected final ArrayDeque<Clause> clauses;
+	
+	/** The current assumptions, partitioned in independent groups. */
+	private final ClauseIndependence independence = new ClauseIndependence();
 
 	/** 
-	 * true iff we want to go fast by exploiting unchecked assumption pushing
-	 * of the decision procedure of choice. 
+	 * The positions in {@code independence} of the assumptions 
+	 * the external decision procedure received, in increasing order. 
 	 */
-	private boolean fast = false;
+	private final ArrayList<Integer> loaded = new ArrayList<>();
+	
+	/** 
+	 * Caches the verdicts of the external decision procedure; the
+	 * keys are the assumptions sent followed by the query. 
+	 */
+	private final LinkedHashMap<List<Object>, Boolean> verdicts = new LinkedHashMap<List<Object>, Boolean>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
 
-	/** true iff the external decision procedure has not yet received the current assumption. */
-	private boolean notInSynch = false;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, Boolean> eldest) {
+			return size() > VERDICTS_CACHE_SIZE;
+		}
+	};
+	
+	/** The time budget of a query in milliseconds, {@code 0} for none. */
+	private long queryTimeout = 0;
+	
+	/** The policy for the unknown answers. */
+	private UnknownAnswerPolicy unknownAnswerPolicy = UnknownAnswerPolicy.ASSUME_SAT;
+	
+	/** The directory where the unknown queries are dumped, or {@code null}. */
+	private Path dumpDirectory = null;
+	
+	/** The number of queries sent to the external decision procedure. */
+	private long queries = 0;
+	
+	/** The number of unknown answers, including the timeouts. */
+	private long unknownAnswers = 0;
+	
+	/** The number of times the external decision procedure was killed. */
+	private long timeouts = 0;
+	
+	/** The persistent store of the verdicts, or {@code null}. */
+	private VerdictStore verdictStore = null;
+	
+	/** The number of verdicts found in {@code this.verdictStore}. */
+	private long storeHits = 0;
 	
 	protected DecisionProcedureExternal(DecisionProcedure next, CalculatorRewriting calc, Rewriter... rewriters) {
 		super(next, calc, rewriters);
@@ -61,55 +190,514 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	}
 	
 	/**
-	 * Resynchs the external decision procedure with this.bs.
+	 * Checks whether the external decision procedure can be 
+	 * restarted. If it cannot, it is never killed.
 	 * 
+	 * @return {@code true} iff {@link #restartExternalInterface()}
+	 *         is implemented. By default returns {@code false}.
+	 */
+	protected boolean canRestartExternalInterface() {
+		return false;
+	}
+	
+	/**
+	 * Creates a new interface to the external decision procedure,
+	 * to replace one that was killed because it exceeded its time
+	 * budget. It can be unimplemented (see {@link #canRestartExternalInterface()}). 
+	 * 
+	 * @return a new {@link DecisionProcedureExternalInterface} with
+	 *         no assumption, or {@code null} if it is unimplemented.
+	 * @throws ExternalProtocolInterfaceException if the restart fails.
+	 * @throws IOException if the restart fails.
+	 */
+	protected DecisionProcedureExternalInterface restartExternalInterface() 
+	throws ExternalProtocolInterfaceException, IOException {
+		return null;
+	}
+	
+	/**
+	 * Sets the time budget of each query.
+	 * 
+	 * @param millis a {@code long}, the budget in milliseconds;
+	 *        {@code 0} (the default) means no budget.
+	 * @throws DecisionException if the external decision procedure
+	 *         rejects the budget.
+	 */
+	public void setQueryTimeout(long millis) throws DecisionException {
+		this.queryTimeout = (millis <= 0 ? 0 : millis);
+		try {
+			this.extIf.setTimeout(this.queryTimeout);
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
+		}
+	}
+	
+	/**
+	 * Sets the policy for the unknown answers.
+	 * 
+	 * @param unknownAnswerPolicy an {@link UnknownAnswerPolicy}; 
+	 *        the default is {@link UnknownAnswerPolicy#ASSUME_SAT}.
+	 * @throws NullPointerException if {@code unknownAnswerPolicy == null}.
+	 */
+	public void setUnknownAnswerPolicy(UnknownAnswerPolicy unknownAnswerPolicy) {
+		if (unknownAnswerPolicy == null) {
+			throw new NullPointerException();
+		}
+		this.unknownAnswerPolicy = unknownAnswerPolicy;
+	}
+	
+	/**
+	 * Sets the directory where the queries answered unknown, 
+	 * or timed out, are dumped, one file per query.
+	 * 
+	 * @param dumpDirectory a {@link Path}, or {@code null} 
+	 *        (the default) for no dump.
+	 */
+	public void setDumpDirectory(Path dumpDirectory) {
+		this.dumpDirectory = dumpDirectory;
+	}
+	
+	/**
+	 * Sets the persistent store where the verdicts are looked up
+	 * before querying the external decision procedure, and saved 
+	 * after. Only definitive verdicts are saved. The store 
+	 * can be shared by many decision procedures.
+	 * 
+	 * @param verdictStore a {@link VerdictStore}, or {@code null} 
+	 *        (the default) for no store. The verdicts are stored 
+	 *        with {@link #getFingerprint()}, thus they are found 
+	 *        only by the decision procedures with the same one. 
+	 */
+	public void setVerdictStore(VerdictStore verdictStore) {
+		this.verdictStore = verdictStore;
+	}
+	
+	/**
+	 * Returns the configuration of the external decision procedure
+	 * its verdicts depend on, e.g., the version of the encoding of
+	 * the queries and the command line of the solver.
+	 * 
+	 * @return a {@link String} with no line terminators. By
+	 *         default returns the empty string.
+	 */
+	protected String getConfiguration() {
+		return "";
+	}
+	
+	/**
+	 * Returns a fingerprint of the configuration of this decision
+	 * procedure, that identifies the decision procedures whose 
+	 * verdicts are interchangeable. It depends on the version of 
+	 * the rendering of the queries, on the class and the 
+	 * configuration (see {@link #getConfiguration()}) of the 
+	 * decision procedure, and on the rewriters that simplify 
+	 * the queries. 
+	 * 
+	 * @return a {@link String} with no line terminators.
+	 */
+	public String getFingerprint() {
+		final StringBuilder retVal = new StringBuilder();
+		retVal.append(KEY_FORMAT).append(' ').append(getClass().getName());
+		retVal.append(" [").append(getConfiguration()).append(']');
+		for (Rewriter r : this.calc.getRewriters()) {
+			retVal.append(' ').append(r.getClass().getName());
+		}
+		retVal.append(" /");
+		for (Rewriter r : this.rewriters) {
+			retVal.append(' ').append(r.getClass().getName());
+		}
+		return retVal.toString();
+	}
+	
+	/**
+	 * Returns the number of verdicts found in the 
+	 * persistent store (see {@link #setVerdictStore(VerdictStore)}).
+	 * 
+	 * @return a {@code long}.
+	 */
+	public long getStoreHits() {
+		return this.storeHits;
+	}
+	
+	/**
+	 * Returns the number of queries sent to the 
+	 * external decision procedure.
+	 * 
+	 * @return a {@code long}.
+	 */
+	public long getQueries() {
+		return this.queries;
+	}
+	
+	/**
+	 * Returns the number of queries the external decision 
+	 * procedure answered unknown or did not answer in time, 
+	 * retries included.
+	 * 
+	 * @return a {@code long}.
+	 */
+	public long getUnknownAnswers() {
+		return this.unknownAnswers;
+	}
+	
+	/**
+	 * Returns the number of times the external decision procedure
+	 * was killed because it exceeded its time budget.
+	 * 
+	 * @return a {@code long}.
+	 */
+	public long getTimeouts() {
+		return this.timeouts;
+	}
+	
+	/**
+	 * Makes the assumptions received by the external decision 
+	 * procedure the ones at some positions in {@code this.independence}.
+	 * 
+	 * @param positions a {@link List}{@code <}{@link Integer}{@code >}, 
+	 *        in increasing order.
 	 * @throws DecisionException
 	 */
-	private void resynch() throws DecisionException {
+	private void load(List<Integer> positions) throws DecisionException {
 	    try {
-	        this.extIf.clear();
-	        final Iterable<Clause> i = () -> clauses.descendingIterator();
-	        for (Clause c : i) {
-	            super.pushAssumptionLocal(c);
+	        int common = 0;
+	        while (common < this.loaded.size() && common < positions.size() && 
+	               this.loaded.get(common).equals(positions.get(common))) {
+	            ++common;
+	        }
+	        final int toPop = this.loaded.size() - common;
+	        if (toPop > common || (toPop > 0 && !canPopAssumptions())) {
+	            this.extIf.clear();
+	            this.loaded.clear();
+	            common = 0;
+	        } else {
+	            for (int i = 0; i < toPop; ++i) {
+	                this.extIf.popAssumption();
+	                this.loaded.remove(this.loaded.size() - 1);
+	            }
+	        }
+	        for (int i = common; i < positions.size(); ++i) {
+	            final int position = positions.get(i);
+	            super.pushAssumptionLocal(this.independence.get(position)); //redispatches
 	            this.extIf.pushAssumption(true);
+	            this.loaded.add(position);
 	        }
-	        this.notInSynch = false;
 	    } catch (ExternalProtocolInterfaceException | IOException e) {
 	        throw new DecisionException(e);
 	    }
 	}
+	
+	/**
+	 * Sends a query to the external decision procedure under the 
+	 * current assumptions it depends on, or returns the cached verdict.
+	 * 
+	 * @param hier a {@link ClassHierarchy}.
+	 * @param symbols the symbols of the query (see {@link ClauseIndependence#symbols(Primitive)}).
+	 * @param sender a {@link QuerySender} that sends the query.
+	 * @param query the query, an array of {@link Object}s starting with a 
+	 *        tag of the kind of the query.
+	 * @return the verdict of the external decision procedure.
+	 * @throws DecisionException
+	 */
+	private boolean isSatSliced(ClassHierarchy hier, Set<Object> symbols, QuerySender sender, Object... query) 
+	throws DecisionException {
+	    try {
+	        if (!this.extIf.isWorking()) {
+	        	throw new DecisionException(NOT_WORKING);
+	        }
+	        final List<Integer> slice = this.independence.slice(symbols);
+	        final ArrayList<Object> key = new ArrayList<>(slice.size() + query.length);
+	        for (int position : slice) {
+	        	key.add(this.independence.get(position));
+	        }
+	        key.addAll(Arrays.asList(query));
+	        final Boolean cached = this.verdicts.get(key);
+	        if (cached != null) {
+	        	return cached;
+	        }
+	        final String digest = (this.verdictStore == null ? null : VerdictStore.digest(getFingerprint() + '\n' + canonical(key)));
+	        if (digest != null) {
+	        	final Boolean stored = this.verdictStore.get(digest);
+	        	if (stored != null) {
+	        		++this.storeHits;
+	        		this.verdicts.put(key, stored);
+	        		return stored;
+	        	}
+	        }
+	        
+	        Boolean verdict = check(hier, slice, sender, this.queryTimeout);
+	        if (verdict == null) {
+	        	dump(key);
+	        	if (this.unknownAnswerPolicy == UnknownAnswerPolicy.RETRY && this.queryTimeout > 0) {
+	        		verdict = check(hier, slice, sender, this.queryTimeout * RETRY_FACTOR);
+	        		this.extIf.setTimeout(this.queryTimeout);
+	        	}
+	        }
+	        if (verdict != null && digest != null) {
+	        	this.verdictStore.put(digest, verdict);
+	        }
+	        final boolean retVal = (verdict == null ? this.unknownAnswerPolicy != UnknownAnswerPolicy.PRUNE : verdict);
+	        if (verdict != null || retVal) {
+	        	//a pruned unknown is not cached as if it were unsat
+	        	this.verdicts.put(key, retVal);
+	        }
+	        return retVal;
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
+		}
+	}
+	
+	/**
+	 * Sends a query to the external decision procedure under 
+	 * some of the current assumptions, and waits for the answer 
+	 * at most (about) a given time, after which the external 
+	 * decision procedure is restarted, if possible.
+	 * 
+	 * @param hier a {@link ClassHierarchy}.
+	 * @param slice the positions in {@code this.independence} of
+	 *        the assumptions, in increasing order.
+	 * @param sender a {@link QuerySender} that sends the query.
+	 * @param timeout a {@code long}, the time budget of the query 
+	 *        in milliseconds, {@code 0} for none.
+	 * @return the verdict, or {@code null} if the external decision
+	 *         procedure answered unknown or did not answer in time.
+	 * @throws DecisionException
+	 * @throws ExternalProtocolInterfaceException
+	 * @throws IOException
+	 */
+	private Boolean check(ClassHierarchy hier, List<Integer> slice, QuerySender sender, long timeout) 
+	throws DecisionException, ExternalProtocolInterfaceException, IOException {
+		if (timeout != this.queryTimeout) {
+			this.extIf.setTimeout(timeout);
+		}
+		load(slice);
+		sender.send();
+		++this.queries;
+		final DecisionProcedureExternalInterface watched = this.extIf;
+		//the watchdog kills only if it moves the state from running to killed, 
+		//and this thread moves it from running to done before using the answer
+		final AtomicInteger state = new AtomicInteger(WATCHED_RUNNING);
+		final ScheduledFuture<?> watchdog = 
+			(timeout > 0 && canRestartExternalInterface() ? 
+			 WATCHDOG.schedule(() -> { 
+				 if (state.compareAndSet(WATCHED_RUNNING, WATCHED_KILLED)) {
+					 watched.fail(); 
+				 }
+			 }, timeout + KILL_GRACE, TimeUnit.MILLISECONDS) :
+			 null);
+		Boolean retVal;
+		try {
+			retVal = this.extIf.checkSat(hier, true);
+			if (!this.extIf.isLastCheckSatDefinitive()) {
+				retVal = null;
+			}
+			this.extIf.retractClause();
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			if (state.compareAndSet(WATCHED_RUNNING, WATCHED_DONE)) {
+				throw e;
+			}
+			retVal = null;
+		} finally {
+			if (watchdog != null) {
+				watchdog.cancel(false);
+			}
+		}
+		if (!state.compareAndSet(WATCHED_RUNNING, WATCHED_DONE) && state.get() == WATCHED_KILLED) {
+			++this.timeouts;
+			restart();
+			retVal = null;
+		}
+		if (retVal == null) {
+			++this.unknownAnswers;
+		}
+		return retVal;
+	}
+	
+	private void restart() throws DecisionException, ExternalProtocolInterfaceException, IOException {
+		this.extIf = restartExternalInterface();
+		if (this.extIf == null) {
+			throw new DecisionException(NOT_WORKING);
+		}
+		this.extIf.setTimeout(this.queryTimeout);
+		this.loaded.clear();
+	}
+	
+	/**
+	 * Renders a query as a {@link String} that does not depend 
+	 * on the run, i.e., is the same for all the equal queries of 
+	 * all the runs. The symbols are rendered by their origins, and 
+	 * every primitive by its type, since the same rendering of a 
+	 * value (e.g., {@code 1}) may denote values of different types. 
+	 * If the rendering changes, {@link #KEY_FORMAT} must be incremented.
+	 * 
+	 * @param key the key of the query in {@code this.verdicts}.
+	 * @return a {@link String}, the assumptions and the query, 
+	 *         one per line.
+	 */
+	private static String canonical(List<Object> key) {
+		final CanonicalRenderer renderer = new CanonicalRenderer();
+		for (Object o : key) {
+			renderer.render(o);
+			renderer.out.append('\n');
+		}
+		return renderer.out.toString();
+	}
+	
+	/**
+	 * Renders the parts of a query for {@link DecisionProcedureExternal#canonical(List)}.
+	 */
+	private static final class CanonicalRenderer implements PrimitiveVisitor {
+		final StringBuilder out = new StringBuilder();
+		
+		void render(Object o) {
+			if (o instanceof ClauseAssume) {
+				this.out.append("assume ");
+				render(((ClauseAssume) o).getCondition());
+			} else if (o instanceof ClauseAssumeNull) {
+				this.out.append("null ");
+				render(((ClauseAssumeNull) o).getReference());
+			} else if (o instanceof ClauseAssumeAliases) {
+				final ClauseAssumeAliases c = (ClauseAssumeAliases) o;
+				this.out.append("aliases ");
+				render(c.getReference());
+				this.out.append(' ').append(c.getHeapPosition()).append(' ');
+				render(c.getObjekt());
+			} else if (o instanceof ClauseAssumeExpands) {
+				final ClauseAssumeExpands c = (ClauseAssumeExpands) o;
+				this.out.append("expands ");
+				render(c.getReference());
+				this.out.append(' ').append(c.getHeapPosition()).append(' ');
+				render(c.getObjekt());
+			} else if (o instanceof ClauseAssumeClassInitialized) {
+				this.out.append("initialized ").append(((ClauseAssumeClassInitialized) o).getClassName());
+			} else if (o instanceof ClauseAssumeClassNotInitialized) {
+				this.out.append("notInitialized ").append(((ClauseAssumeClassNotInitialized) o).getClassName());
+			} else if (o instanceof ReferenceSymbolic) {
+				final ReferenceSymbolic r = (ReferenceSymbolic) o;
+				this.out.append('{').append(r.getOrigin() == null ? r.toString() : r.getOrigin().toString()).append("}:").append(r.getStaticType());
+			} else if (o instanceof Objekt) {
+				this.out.append(((Objekt) o).getType()).append(' ').append(((Objekt) o).getOrigin());
+			} else if (o instanceof Primitive) {
+				try {
+					((Primitive) o).accept(this);
+				} catch (Exception e) {
+					//this should never happen
+					throw new UnexpectedInternalException(e);
+				}
+			} else if (o instanceof String || o instanceof Long) {
+				//the tags of the queries, class names and heap positions
+				this.out.append(o);
+			} else {
+				this.out.append(o.getClass().getName()).append(' ').append(o);
+			}
+		}
 
-	@Override
-	protected final void goFastAndImpreciseLocal() {
-		this.fast = true;
+		@Override
+		public void visitAny(Any x) {
+			this.out.append("*:").append(x.getType());
+		}
+
+		@Override
+		public void visitExpression(Expression e) throws Exception {
+			this.out.append('(').append(e.getOperator().name()).append(':').append(e.getType());
+			if (e.isUnary()) {
+				this.out.append(' ');
+				e.getOperand().accept(this);
+			} else {
+				this.out.append(' ');
+				e.getFirstOperand().accept(this);
+				this.out.append(' ');
+				e.getSecondOperand().accept(this);
+			}
+			this.out.append(')');
+		}
+
+		@Override
+		public void visitFunctionApplication(FunctionApplication x) throws Exception {
+			this.out.append("(").append(x.getOperator()).append(':').append(x.getType());
+			for (Primitive arg : x.getArgs()) {
+				this.out.append(' ');
+				arg.accept(this);
+			}
+			this.out.append(')');
+		}
+
+		@Override
+		public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
+			this.out.append('{').append(s.getOrigin() == null ? s.toString() : s.getOrigin().toString()).append("}:").append(s.getType());
+		}
+
+		@Override
+		public void visitSimplex(Simplex x) {
+			this.out.append(x.getActualValue()).append(':').append(x.getType());
+		}
+
+		@Override
+		public void visitTerm(Term x) {
+			this.out.append('\'').append(x.getValue()).append("':").append(x.getType());
+		}
+
+		@Override
+		public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+			this.out.append("(narrow:").append(x.getType()).append(' ');
+			x.getArg().accept(this);
+			this.out.append(')');
+		}
+
+		@Override
+		public void visitWideningConversion(WideningConversion x) throws Exception {
+			this.out.append("(widen:").append(x.getType()).append(' ');
+			x.getArg().accept(this);
+			this.out.append(')');
+		}
 	}
 	
-	@Override
-	protected final void stopFastAndImpreciseLocal() {
-		this.fast = false;
+	/**
+	 * Dumps a query that was answered unknown, or timed out, 
+	 * to a new file in {@code this.dumpDirectory}, if set.
+	 * The file contains the assumptions the query was checked 
+	 * under, one per line, followed by the query. 
+	 * 
+	 * @param key the key of the query in {@code this.verdicts}.
+	 */
+	private void dump(List<Object> key) {
+		if (this.dumpDirectory == null) {
+			return;
+		}
+		final StringBuilder dump = new StringBuilder();
+		int i = 0;
+		for (; i < key.size() && key.get(i) instanceof Clause; ++i) {
+			dump.append(key.get(i).toString());
+			dump.append('\n');
+		}
+		dump.append("query:");
+		for (; i < key.size(); ++i) {
+			dump.append(' ');
+			dump.append(String.valueOf(key.get(i)));
+		}
+		dump.append('\n');
+		try {
+			Files.createDirectories(this.dumpDirectory);
+			Files.write(Files.createTempFile(this.dumpDirectory, "unknown-", ".txt"), dump.toString().getBytes());
+		} catch (IOException e) {
+			//the dump is best effort
+		}
+	}
+	
+	@FunctionalInterface
+	private interface QuerySender {
+		void send() throws ExternalProtocolInterfaceException, IOException;
 	}
 	
 	@Override
 	protected final void pushAssumptionLocal(Clause cSimpl) 
 	throws DecisionException {
-		this.clauses.push(cSimpl);
-		if (this.fast) {
-			this.notInSynch = true;
-		} else {
-			try {
-				if (this.extIf.isWorking()) {
-					if (this.notInSynch) {
-						resynch();
-					}
-					super.pushAssumptionLocal(cSimpl); //redispatches
-					this.extIf.pushAssumption(true);
-				} else {
-					throw new DecisionException(NOT_WORKING);
-				}
-			} catch (ExternalProtocolInterfaceException | IOException e) {
-				throw new DecisionException(e);
-			}
+		if (!this.extIf.isWorking()) {
+			throw new DecisionException(NOT_WORKING);
 		}
+		//the external decision procedure receives the clause when a query depends on it
+		this.clauses.push(cSimpl);
+		this.independence.push(cSimpl);
 	}
     
 	@Override
@@ -176,20 +764,17 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	protected final void clearAssumptionsLocal() 
 	throws DecisionException {
     	this.clauses.clear();
-		if (this.fast) {
-			this.notInSynch = true;
-		} else {
-			try {
-				if (this.extIf.isWorking()) {
-					//"lightweight" resynch
-					this.extIf.clear();
-					this.notInSynch = false; 
-				} else {
-					throw new DecisionException(NOT_WORKING);
-				}
-			} catch (ExternalProtocolInterfaceException | IOException e) {
-				throw new DecisionException(e);
+    	this.independence.clear();
+		try {
+			if (this.extIf.isWorking()) {
+				//"lightweight" resynch
+				this.extIf.clear();
+				this.loaded.clear();
+			} else {
+				throw new DecisionException(NOT_WORKING);
 			}
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
 		}
 	}
 	
@@ -197,12 +782,13 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	protected final void popAssumptionLocal() 
 	throws DecisionException {
 		this.clauses.pop();
-		if (this.fast) {
-			this.notInSynch = true;
-		} else {
+		final int position = this.independence.size() - 1;
+		this.independence.pop();
+		if (!this.loaded.isEmpty() && this.loaded.get(this.loaded.size() - 1) == position) {
 			try {
 				if (this.extIf.isWorking()) {
 					this.extIf.popAssumption();
+					this.loaded.remove(this.loaded.size() - 1);
 				} else {
 					throw new DecisionException(NOT_WORKING);					
 				}
@@ -215,87 +801,44 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
 	@Override
 	protected final boolean isSatLocal(ClassHierarchy hier, Expression exp, Expression expSimpl) 
 	throws DecisionException {
-	    try {
-	        if (this.extIf.isWorking()) {
-	        	if (this.notInSynch) {
-	        		resynch();
-	        	}
-	        	this.extIf.sendClauseAssume(expSimpl);
-	        	final boolean retVal = this.extIf.checkSat(hier, true); 
-	        	this.extIf.retractClause();
-	            return retVal;
-	        } else {
-	        	throw new DecisionException(NOT_WORKING);
-	        }
-		} catch (ExternalProtocolInterfaceException | IOException e) {
-			throw new DecisionException(e);
-		}
+		return isSatSliced(hier, ClauseIndependence.symbols(expSimpl), 
+		                   () -> this.extIf.sendClauseAssume(expSimpl), "assume", expSimpl);
 	}
 	
 	@Override
 	protected final boolean isSatAliasesLocal(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o) 
 	throws DecisionException {
-	    try {
-	        if (this.extIf.isWorking()) {
-	        	if (this.notInSynch) {
-	        		resynch();
-	        	}
-	        	this.extIf.sendClauseAssumeAliases(r, heapPos, o);
-	        	final boolean retVal = this.extIf.checkSat(hier, true); 
-	        	this.extIf.retractClause();
-	            return retVal;
-	        } else {
-	        	throw new DecisionException(NOT_WORKING);
-	        }
-		} catch (ExternalProtocolInterfaceException | IOException e) {
-			throw new DecisionException(e);
-		}
+		final Set<Object> symbols = new HashSet<>();
+		symbols.add(r);
+		symbols.add(heapPos);
+		return isSatSliced(hier, symbols, 
+		                   () -> this.extIf.sendClauseAssumeAliases(r, heapPos, o), "aliases", r, heapPos, o);
 	}
 	
 	@Override
 	protected final boolean isSatExpandsLocal(ClassHierarchy hier, ReferenceSymbolic r, String className)
 	throws DecisionException {
-	    try {
-	        if (this.extIf.isWorking()) {
-	        	if (this.notInSynch) {
-	        		resynch();
-	        	}
-	        	this.extIf.sendClauseAssumeExpands(r, className);
-	        	final boolean retVal = this.extIf.checkSat(hier, true); 
-	        	this.extIf.retractClause();
-	            return retVal;
-	        } else {
-	        	throw new DecisionException(NOT_WORKING);
-	        }
-		} catch (ExternalProtocolInterfaceException | IOException e) {
-			throw new DecisionException(e);
-		}
+		return isSatSliced(hier, Collections.singleton(r), 
+		                   () -> this.extIf.sendClauseAssumeExpands(r, className), "expands", r, className);
 	}
 	
 	@Override
 	protected final boolean isSatNullLocal(ClassHierarchy hier, ReferenceSymbolic r)
 	throws DecisionException {
-	    try {
-	        if (this.extIf.isWorking()) {
-	        	if (this.notInSynch) {
-	        		resynch();
-	        	}
-	        	this.extIf.sendClauseAssumeNull(r);
-	        	final boolean retVal = this.extIf.checkSat(hier, true); 
-	        	this.extIf.retractClause();
-	            return retVal;
-	        } else {
-	        	throw new DecisionException(NOT_WORKING);
-	        }
-		} catch (ExternalProtocolInterfaceException | IOException e) {
-			throw new DecisionException(e);
-		}
+		return isSatSliced(hier, Collections.singleton(r), 
+		                   () -> this.extIf.sendClauseAssumeNull(r), "null", r);
 	}
 	
 	@Override
 	protected Map<PrimitiveSymbolic, Simplex> getModelLocal()
 	throws DecisionException {
         try {
+        	//a model must satisfy all the current assumptions
+        	final ArrayList<Integer> all = new ArrayList<>();
+        	for (int i = 0; i < this.independence.size(); ++i) {
+        		all.add(i);
+        	}
+        	load(all);
             return this.extIf.getModel();
         } catch (ExternalProtocolInterfaceException | IOException e) {
             throw new DecisionException(e);
@@ -152,6 +152,38 @@ public abstract class DecisionProcedureExternalInterface {
 	public abstract boolean checkSat(ClassHierarchy hier, boolean positive)
 	throws ExternalProtocolInterfaceException, IOException;
 	
+	/**
+	 * Checks whether the answer of the last invocation of 
+	 * {@link #checkSat(ClassHierarchy, boolean) checkSat} was
+	 * definitive, i.e., the external decision procedure did
+	 * not give up.
+	 * 
+	 * @return {@code true} iff the last answer of 
+	 *         {@link #checkSat(ClassHierarchy, boolean) checkSat}
+	 *         was definitive. By default returns {@code true}.
+	 */
+	public boolean isLastCheckSatDefinitive() {
+		return true;
+	}
+	
+	/**
+	 * Sets the time budget of each satisfiability check, after 
+	 * which the external decision procedure should give up and
+	 * answer nondefinitively (see {@link #isLastCheckSatDefinitive()}). 
+	 * It can be unimplemented, in which case it does nothing.
+	 * 
+	 * @param millis a {@code long}, the budget in milliseconds;
+	 *        {@code 0} means no budget.
+	 * @throws ExternalProtocolInterfaceException if the external
+	 *         decision procedure rejects the budget.
+	 * @throws IOException if communication with the external 
+	 *         decision procedure fails.
+	 */
+	public void setTimeout(long millis) 
+	throws ExternalProtocolInterfaceException, IOException {
+		//default implementation does nothing
+	}
+	
     /**
      * Returns a model of the last sent clause whose satisfiability
      * was checked with {@link #checkSat(ClassHierarchy, boolean) checkSat}.
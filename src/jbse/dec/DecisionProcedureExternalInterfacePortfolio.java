@@ -0,0 +1,605 @@
+package jbse.dec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jbse.bc.ClassHierarchy;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.dec.exc.NoModelException;
+import jbse.mem.Objekt;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+
+/**
+ * {@link DecisionProcedureExternalInterface} to a portfolio of
+ * external decision procedures, that are driven in lockstep on
+ * the same assumptions. Every satisfiability check is issued to
+ * all of them, and the first definitive answer wins. The external
+ * decision procedures that are still working on a check when
+ * another one wins are let finish it, so they keep their incremental
+ * state and may win the next checks. Only those that are still
+ * working on it after a grace period are killed, restarted, and
+ * brought back to the current assumptions in background.
+ *
+ * @author Pietro Braione
+ */
+final class DecisionProcedureExternalInterfacePortfolio extends DecisionProcedureExternalInterface {
+	/**
+	 * Creates the {@link DecisionProcedureExternalInterface}
+	 * to a member of the portfolio.
+	 *
+	 * @author Pietro Braione
+	 */
+	@FunctionalInterface
+	interface Factory {
+		DecisionProcedureExternalInterface make() throws ExternalProtocolInterfaceException, IOException;
+	}
+
+	/**
+	 * A command to a member of the portfolio.
+	 *
+	 * @author Pietro Braione
+	 */
+	@FunctionalInterface
+	private interface Command {
+		void apply(DecisionProcedureExternalInterface extIf) throws ExternalProtocolInterfaceException, IOException;
+	}
+
+	/**
+	 * A query to a member of the portfolio.
+	 *
+	 * @author Pietro Braione
+	 */
+	@FunctionalInterface
+	private interface Query<R> {
+		R apply(DecisionProcedureExternalInterface extIf) throws NoModelException, ExternalProtocolInterfaceException, IOException;
+	}
+
+	/**
+	 * A member of the portfolio. All the commands to a member
+	 * are executed in order by its own thread.
+	 *
+	 * @author Pietro Braione
+	 */
+	private static final class Member {
+		final String name;
+		final Factory factory;
+		final ExecutorService executor;
+
+		/** Accessed by the member thread, and by {@link #kill(List)}. */
+		volatile DecisionProcedureExternalInterface extIf;
+
+		/** The number of restarts that were not completed yet. */
+		final AtomicInteger restarts = new AtomicInteger(0);
+
+		/** Set when the member fails for a reason different from being killed. */
+		volatile boolean dead = false;
+
+		/** The number of the satisfiability checks this member won. */
+		long wins = 0;
+
+		/** Set when the last query to this member is done. */
+		AtomicBoolean lastQueryDone = new AtomicBoolean(true);
+
+		/**
+		 * The time when this member must be killed if its last query
+		 * is not done yet, or {@code 0} if it must not be killed.
+		 */
+		long lagDeadline = 0;
+
+		Member(String name, Factory factory) throws ExternalProtocolInterfaceException, IOException {
+			this.name = name;
+			this.factory = factory;
+			this.executor = Executors.newSingleThreadExecutor(r -> {
+				final Thread t = new Thread(r, "portfolio-" + name);
+				t.setDaemon(true);
+				return t;
+			});
+			this.extIf = factory.make();
+		}
+
+		/**
+		 * Runs a command in the member thread.
+		 *
+		 * @param command a {@link Command}.
+		 */
+		void run(Command command) {
+			this.executor.execute(() -> {
+				if (this.dead || this.restarts.get() > 0) {
+					return;
+				}
+				try {
+					command.apply(this.extIf);
+				} catch (ExternalProtocolInterfaceException | IOException | RuntimeException e) {
+					dieUnlessKilled();
+				}
+			});
+		}
+
+		/**
+		 * Runs a query in the member thread.
+		 *
+		 * @param query a {@link Query}.
+		 * @param checkSat {@code true} iff {@code query} checks
+		 *        satisfiability, and thus its answer may be
+		 *        nondefinitive.
+		 * @param answers a {@link LinkedBlockingQueue} where
+		 *        the {@link Answer} to the query is put.
+		 */
+		<R> void ask(Query<R> query, boolean checkSat, LinkedBlockingQueue<Answer<R>> answers) {
+			final AtomicBoolean done = new AtomicBoolean(false);
+			this.lastQueryDone = done;
+			this.executor.execute(() -> {
+				try {
+					if (this.dead || this.restarts.get() > 0) {
+						answers.add(new Answer<>(this, null, false, null));
+						return;
+					}
+					final R value = query.apply(this.extIf);
+					final boolean definitive = (!checkSat || this.extIf.isLastCheckSatDefinitive());
+					answers.add(new Answer<>(this, value, definitive, null));
+				} catch (NoModelException e) {
+					answers.add(new Answer<>(this, null, false, e));
+				} catch (ExternalProtocolInterfaceException | IOException | RuntimeException e) {
+					dieUnlessKilled();
+					answers.add(new Answer<>(this, null, false, e));
+				} finally {
+					done.set(true);
+				}
+			});
+		}
+
+		/**
+		 * Kills the member, and restarts it in its thread.
+		 *
+		 * @param assumptions a {@link List}{@code <}{@link Command}{@code >}
+		 *        that brings a restarted member to the current assumptions.
+		 *        It must not be modified afterwards.
+		 */
+		void kill(List<Command> assumptions) {
+			this.restarts.incrementAndGet();
+			this.extIf.fail();
+			this.executor.execute(() -> {
+				try {
+					if (this.dead || this.restarts.get() > 1) {
+						//superseded by a later restart
+						return;
+					}
+					this.extIf.fail();
+					this.extIf = this.factory.make();
+					for (Command command : assumptions) {
+						command.apply(this.extIf);
+					}
+				} catch (ExternalProtocolInterfaceException | IOException | RuntimeException e) {
+					if (this.restarts.get() == 1) {
+						die();
+					}
+				} finally {
+					this.restarts.decrementAndGet();
+				}
+			});
+		}
+
+		private void dieUnlessKilled() {
+			if (this.restarts.get() == 0) {
+				die();
+			}
+		}
+
+		void die() {
+			this.dead = true;
+			this.extIf.fail();
+		}
+	}
+
+	/**
+	 * The answer of a member to a query.
+	 *
+	 * @author Pietro Braione
+	 */
+	private static final class Answer<R> {
+		final Member member;
+		final R value;
+		final boolean definitive;
+		final Exception exception;
+
+		Answer(Member member, R value, boolean definitive, Exception exception) {
+			this.member = member;
+			this.value = value;
+			this.definitive = definitive;
+			this.exception = exception;
+		}
+	}
+
+	/** 
+	 * How often a query checks whether the portfolio 
+	 * failed, in milliseconds.
+	 */
+	private static final long FAILURE_POLL_INTERVAL = 100L;
+
+	/**
+	 * The minimum time, in milliseconds, a member is given to
+	 * finish a check after another member won it, before it
+	 * is killed. A member is also given as long as the winner
+	 * took, if longer.
+	 */
+	static final long LAGGARD_GRACE = 500L;
+
+	/** The members of the portfolio. */
+	private final ArrayList<Member> members = new ArrayList<>();
+
+	/**
+	 * The commands that bring a member from an empty
+	 * assumption to the current one.
+	 */
+	private final ArrayList<Command> assumptions = new ArrayList<>();
+
+	/** The command that sends the current clause, or {@code null}. */
+	private Command currentClause = null;
+
+	/** Whether the last check was definitive. */
+	private boolean lastCheckSatDefinitive = true;
+
+	/** The time budget of a check in milliseconds, {@code 0} for none. */
+	private long timeout = 0;
+
+	/** Set when the portfolio fails, possibly by another thread. */
+	private volatile boolean failed = false;
+
+	/** Whether some member might be killed by {@link #killLaggards()}. */
+	private boolean laggards = false;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param factories a {@link Map}{@code <}{@link String}{@code , }{@link Factory}{@code >}
+	 *        mapping the names of the members of the portfolio to the
+	 *        factories of their {@link DecisionProcedureExternalInterface}s.
+	 * @throws ExternalProtocolInterfaceException if {@code factories} is empty,
+	 *         or if the creation of a member fails.
+	 * @throws IOException if the creation of a member fails.
+	 */
+	DecisionProcedureExternalInterfacePortfolio(Map<String, Factory> factories)
+	throws ExternalProtocolInterfaceException, IOException {
+		if (factories.isEmpty()) {
+			throw new ExternalProtocolInterfaceException("Attempted to create an empty portfolio of external decision procedures.");
+		}
+		try {
+			for (Map.Entry<String, Factory> entry : factories.entrySet()) {
+				this.members.add(new Member(entry.getKey(), entry.getValue()));
+			}
+		} catch (ExternalProtocolInterfaceException | IOException | RuntimeException e) {
+			fail();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns how many satisfiability checks each member of the
+	 * portfolio won, i.e., answered definitively first.
+	 *
+	 * @return a {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}
+	 *         mapping the names of the members to their number of wins.
+	 */
+	Map<String, Long> getWins() {
+		final LinkedHashMap<String, Long> retVal = new LinkedHashMap<>();
+		for (Member member : this.members) {
+			retVal.merge(member.name, member.wins, Long::sum);
+		}
+		return retVal;
+	}
+
+	@Override
+	public boolean isWorking() {
+		for (Member member : this.members) {
+			if (!member.dead) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void sendClauseAssume(Primitive predicate) throws ExternalProtocolInterfaceException {
+		send(extIf -> extIf.sendClauseAssume(predicate));
+	}
+
+	@Override
+	public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o) throws ExternalProtocolInterfaceException {
+		send(extIf -> extIf.sendClauseAssumeAliases(r, heapPos, o));
+	}
+
+	@Override
+	public void sendClauseAssumeExpands(ReferenceSymbolic r, String className) throws ExternalProtocolInterfaceException {
+		send(extIf -> extIf.sendClauseAssumeExpands(r, className));
+	}
+
+	@Override
+	public void sendClauseAssumeNull(ReferenceSymbolic r) throws ExternalProtocolInterfaceException {
+		send(extIf -> extIf.sendClauseAssumeNull(r));
+	}
+
+	@Override
+	public void sendClauseAssumeClassInitialized(String className) throws ExternalProtocolInterfaceException {
+		send(extIf -> extIf.sendClauseAssumeClassInitialized(className));
+	}
+
+	@Override
+	public void sendClauseAssumeClassNotInitialized(String className) throws ExternalProtocolInterfaceException {
+		send(extIf -> extIf.sendClauseAssumeClassNotInitialized(className));
+	}
+
+	private void send(Command command) throws ExternalProtocolInterfaceException {
+		killLaggards();
+		if (this.currentClause != null) {
+			throw new ExternalProtocolInterfaceException("Attempted to send a clause when a current clause already exists.");
+		}
+		this.currentClause = command;
+		runAll(command);
+	}
+
+	@Override
+	public void retractClause() throws ExternalProtocolInterfaceException {
+		killLaggards();
+		if (this.currentClause == null) {
+			throw new ExternalProtocolInterfaceException("Attempted to retract a clause with no current clause.");
+		}
+		this.currentClause = null;
+		runAll(DecisionProcedureExternalInterface::retractClause);
+	}
+
+	@Override
+	public boolean checkSat(ClassHierarchy hier, boolean positive)
+	throws ExternalProtocolInterfaceException, IOException {
+		if (this.currentClause == null) {
+			throw new ExternalProtocolInterfaceException("Attempted to check satisfiability with no current clause.");
+		}
+		final Answer<Boolean> answer;
+		try {
+			answer = race(extIf -> extIf.checkSat(hier, positive), true);
+		} catch (NoModelException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		this.lastCheckSatDefinitive = answer.definitive;
+		return answer.value;
+	}
+
+	@Override
+	public boolean isLastCheckSatDefinitive() {
+		return this.lastCheckSatDefinitive;
+	}
+
+	@Override
+	public void setTimeout(long millis) {
+		killLaggards();
+		this.timeout = millis;
+		runAll(extIf -> extIf.setTimeout(millis));
+	}
+
+	@Override
+	public Map<PrimitiveSymbolic, Simplex> getModel()
+	throws NoModelException, ExternalProtocolInterfaceException, IOException {
+		final Answer<Map<PrimitiveSymbolic, Simplex>> answer = race(DecisionProcedureExternalInterface::getModel, false);
+		if (answer.value == null) {
+			throw new NoModelException();
+		}
+		return answer.value;
+	}
+
+	/**
+	 * Issues a query to all the members of the portfolio, and
+	 * waits for the first definitive answer.
+	 *
+	 * @param query a {@link Query}.
+	 * @param checkSat {@code true} iff {@code query} checks
+	 *        satisfiability, and thus its answer may be
+	 *        nondefinitive.
+	 * @return the first definitive {@link Answer} to {@code query},
+	 *         or the last nondefinitive one if no member answers
+	 *         definitively.
+	 * @throws NoModelException if no member answers and some
+	 *         member threw a {@link NoModelException}.
+	 * @throws ExternalProtocolInterfaceException if no member answers
+	 *         and some member threw an {@link ExternalProtocolInterfaceException}.
+	 * @throws IOException if no member answers, otherwise.
+	 */
+	private <R> Answer<R> race(Query<R> query, boolean checkSat)
+	throws NoModelException, ExternalProtocolInterfaceException, IOException {
+		killLaggards();
+		final long startTime = System.currentTimeMillis();
+		final LinkedBlockingQueue<Answer<R>> answers = new LinkedBlockingQueue<>();
+		final ArrayList<Member> running = new ArrayList<>();
+		for (Member member : this.members) {
+			if (!member.dead) {
+				member.ask(query, checkSat, answers);
+				running.add(member);
+			}
+		}
+		if (running.isEmpty()) {
+			throw new IOException("All the external decision procedures in the portfolio failed.");
+		}
+
+		Answer<R> winner = null;
+		Exception failure = null;
+		final int nRunning = running.size();
+		for (int i = 0; i < nRunning; ++i) {
+			Answer<R> answer;
+			try {
+				while ((answer = answers.poll(FAILURE_POLL_INTERVAL, TimeUnit.MILLISECONDS)) == null) {
+					if (this.failed) {
+						//the queries of the members may be discarded
+						throw new IOException("The portfolio of external decision procedures was killed.");
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail();
+				throw new IOException(e);
+			}
+			running.remove(answer.member);
+			if (answer.exception != null) {
+				failure = (failure instanceof NoModelException ? failure : answer.exception);
+			} else if (answer.value != null) {
+				winner = answer;
+				if (answer.definitive) {
+					break;
+				}
+			}
+		}
+		if (winner == null) {
+			if (failure instanceof NoModelException) {
+				throw (NoModelException) failure;
+			} else if (failure instanceof ExternalProtocolInterfaceException) {
+				throw (ExternalProtocolInterfaceException) failure;
+			} else {
+				throw new IOException("All the external decision procedures in the portfolio failed.", failure);
+			}
+		}
+
+		//counts the win, and gives the others a grace period to finish
+		if (checkSat && winner.definitive) {
+			++winner.member.wins;
+		}
+		final long now = System.currentTimeMillis();
+		final long lagDeadline = now + Math.max(LAGGARD_GRACE, now - startTime);
+		for (Member member : running) {
+			member.lagDeadline = lagDeadline;
+			this.laggards = true;
+		}
+		return winner;
+	}
+
+	/**
+	 * Kills and restarts the members that did not finish their last
+	 * query within its grace period. It must be invoked before the
+	 * current assumptions are changed, since the restarted members
+	 * are brought back to them.
+	 */
+	private void killLaggards() {
+		if (!this.laggards) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		List<Command> restart = null;
+		boolean laggards = false;
+		for (Member member : this.members) {
+			if (member.lagDeadline == 0) {
+				continue;
+			}
+			if (member.dead || member.lastQueryDone.get()) {
+				member.lagDeadline = 0;
+			} else if (now >= member.lagDeadline) {
+				if (restart == null) {
+					restart = restartCommands();
+				}
+				member.kill(restart);
+				member.lagDeadline = 0;
+			} else {
+				laggards = true;
+			}
+		}
+		this.laggards = laggards;
+	}
+
+	/**
+	 * Returns the commands that bring a restarted member
+	 * to the current assumptions.
+	 *
+	 * @return a {@link List}{@code <}{@link Command}{@code >}.
+	 */
+	private List<Command> restartCommands() {
+		final ArrayList<Command> retVal = new ArrayList<>();
+		final long restartTimeout = this.timeout;
+		if (restartTimeout > 0) {
+			retVal.add(extIf -> extIf.setTimeout(restartTimeout));
+		}
+		retVal.addAll(this.assumptions);
+		if (this.currentClause != null) {
+			retVal.add(this.currentClause);
+		}
+		return retVal;
+	}
+
+	@Override
+	public void pushAssumption(boolean positive) throws ExternalProtocolInterfaceException {
+		killLaggards();
+		if (this.currentClause == null) {
+			throw new ExternalProtocolInterfaceException("Attempted to push assumption with no current clause.");
+		}
+		final Command send = this.currentClause;
+		final Command push = extIf -> extIf.pushAssumption(positive);
+		this.assumptions.add(extIf -> { send.apply(extIf); push.apply(extIf); });
+		this.currentClause = null;
+		runAll(push);
+	}
+
+	@Override
+	public void popAssumption() throws ExternalProtocolInterfaceException {
+		killLaggards();
+		if (this.assumptions.isEmpty()) {
+			throw new ExternalProtocolInterfaceException("Attempted to pop assumption with no assumption.");
+		}
+		this.assumptions.remove(this.assumptions.size() - 1);
+		runAll(DecisionProcedureExternalInterface::popAssumption);
+	}
+
+	@Override
+	public void clear() {
+		killLaggards();
+		this.assumptions.clear();
+		this.currentClause = null;
+		runAll(DecisionProcedureExternalInterface::clear);
+	}
+
+	private void runAll(Command command) {
+		for (Member member : this.members) {
+			member.run(command);
+		}
+	}
+
+	@Override
+	public void quit() throws IOException {
+		//does not wait for the members still working on a check
+		for (Member member : this.members) {
+			if (!member.lastQueryDone.get()) {
+				member.die();
+			}
+		}
+		runAll(DecisionProcedureExternalInterface::quit);
+		for (Member member : this.members) {
+			member.executor.shutdown();
+		}
+		try {
+			for (Member member : this.members) {
+				member.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			fail();
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void fail() {
+		this.failed = true;
+		for (Member member : this.members) {
+			member.dead = true;
+			member.extIf.fail();
+			member.executor.shutdownNow();
+		}
+	}
+}
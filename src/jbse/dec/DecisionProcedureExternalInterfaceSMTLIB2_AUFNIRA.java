@@ -1,14 +1,14 @@
 package jbse.dec;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Stack;
 
@@ -41,11 +41,18 @@ import jbse.val.WideningConversion;
  */
 //TODO simplify implementation
 class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedureExternalInterface {
+    /** 
+     * The version of the encoding of the clauses; it must be incremented
+     * whenever the encoding changes, since the stored verdicts depend on it.
+     */
+    private static final int ENCODING_VERSION = 1;
+    
     //commands
     private static final String PROLOGUE = 
         "(set-option :print-success true)\n" +
         "(set-option :interactive-mode true)\n" +
         "(set-option :produce-models true)\n" +
+        "(set-option :global-declarations true)\n" +
         "(set-logic AUFNIRA)\n" +
         "(define-fun round_to_zero ((x Real)) Int (ite (>= x 0.0) (to_int x) (- (to_int (- x)))))\n";
     private static final String PUSH_1 = "(push 1)\n";
@@ -53,9 +60,17 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     private static final String POP_END = ")\n";
     private static final String POP_1 = "(pop 1)\n";
     private static final String CHECKSAT = "(check-sat)\n";
+    private static final String CHECKSAT_ASSUMING_BEGIN = "(check-sat-assuming (";
+    private static final String CHECKSAT_ASSUMING_END = "))\n";
     private static final String GETVALUE_BEGIN = "(get-value (";
     private static final String GETVALUE_END = "))\n";
     private static final String EXIT = "(exit)\n";
+    private static final String RESET = "(reset)\n";
+    private static final String SET_TIMEOUT_Z3_BEGIN = "(set-option :timeout ";
+    private static final String SET_TIMEOUT_CVC4_BEGIN = "(set-option :tlimit-per ";
+    private static final String SET_TIMEOUT_END = ")\n";
+    private static final String SET_TIMEOUT_UNSUPPORTED = "";
+    private static final String Z3_NO_TIMEOUT = "4294967295";
     
     //answers
     private static final String SUCCESS = "success";
@@ -65,39 +80,136 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     
     //etc
     private static final String OTHER = "";
+    private static final int RENDERINGS_CACHE_SIZE = 16384;
+    private static final String ACTIVATION_LITERAL_PREFIX = "act_";
+    static final int ACTIVATION_LITERALS_MAX = 1024;
 
     private final CalculatorRewriting calc;
     private final ExpressionMangler m;
+    private final String solverBinaryPath;
+    private final SolverProcessPool pool;
     private boolean working;
     private Process solver;
-    private BufferedReader solverIn;
+    private SExpressionReader solverIn;
     private BufferedWriter solverOut;
-    private String currentClausePositive;
-    private String currentClauseNegative;
+    private String currentClause;
     private boolean hasCurrentClause;
+    private boolean lastCheckSatDefinitive;
     private SMTLIB2ExpressionVisitor v;
     private ArrayList<Integer> nSymPushed; 
     private int nSymCurrent;
     private int nTotalSymbols;
+    
+    /** 
+     * The option that sets the time budget of the solver, 
+     * {@code null} if not known yet.
+     */
+    private String timeoutOption = null;
+    
+    /** The current time budget of the solver, {@code 0} for none. */
+    private long timeout = 0;
+    
+    /** 
+     * Whether the clauses are guarded by activation literals 
+     * and checked with check-sat-assuming, rather than 
+     * asserted in push/pop scopes.
+     */
+    private final boolean checkSatAssuming;
+    
+    /** 
+     * Maps the (possibly negated) clauses asserted so far, 
+     * to the activation literals that guard them. When it 
+     * grows over {@link #ACTIVATION_LITERALS_MAX} the guarded 
+     * clauses are retracted at the next {@link #clear()}.
+     */
+    private final HashMap<String, String> activationLiterals = new HashMap<>();
+    
+    /** 
+     * The number of activation literals declared so far; 
+     * since the declarations are global it is never reset, 
+     * so that no literal is declared twice.
+     */
+    private int nActivationLiterals = 0;
+    
+    /** 
+     * The activation literals of the current assumption, 
+     * in push order, {@code null} for nonnumeric clauses.
+     */
+    private final ArrayList<String> activeLiterals = new ArrayList<>();
 
     /** 
      * Costructor.
      */
     public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(CalculatorRewriting calc, String solverBinaryPath) 
+    throws ExternalProtocolInterfaceException, IOException {
+        this(calc, solverBinaryPath, false);
+    }
+
+    /** 
+     * Costructor.
+     * 
+     * @param calc a {@link CalculatorRewriting}.
+     * @param solverBinaryPath a {@link String}, the command line 
+     *        that launches the solver.
+     * @param checkSatAssuming if {@code true}, every clause is 
+     *        asserted once, guarded by a fresh boolean activation 
+     *        literal, and satisfiability is checked with 
+     *        check-sat-assuming on the literals of the current 
+     *        assumption, so that backtracking does not pop the 
+     *        solver's scopes (and learned lemmas). Otherwise 
+     *        every clause is asserted in its own push/pop scope.
+     */
+    public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(CalculatorRewriting calc, String solverBinaryPath, boolean checkSatAssuming) 
+    throws ExternalProtocolInterfaceException, IOException {
+        this(calc, solverBinaryPath, checkSatAssuming, null);
+    }
+
+    /** 
+     * Costructor.
+     * 
+     * @param calc a {@link CalculatorRewriting}.
+     * @param solverBinaryPath a {@link String}, the command line 
+     *        that launches the solver.
+     * @param checkSatAssuming see {@link #DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(CalculatorRewriting, String, boolean)}.
+     * @param pool a {@link SolverProcessPool} from which the solver 
+     *        process is acquired, and to which it is released 
+     *        upon {@link #quit()}, or {@code null} if the solver 
+     *        process must be launched and exited.
+     */
+    public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(CalculatorRewriting calc, String solverBinaryPath, boolean checkSatAssuming, SolverProcessPool pool) 
     throws ExternalProtocolInterfaceException, IOException {
         this.calc = calc;
+        this.checkSatAssuming = checkSatAssuming;
         this.m = new ExpressionMangler("X", "", this.calc);
+        this.solverBinaryPath = solverBinaryPath;
+        this.pool = pool;
         this.working = true;
-        final ProcessBuilder pb = new ProcessBuilder(solverBinaryPath.split(" "));
-        pb.redirectErrorStream(true);
-        this.solver = pb.start();
-        this.solverIn = new BufferedReader(new InputStreamReader(this.solver.getInputStream()));
+        if (pool == null) {
+            final ProcessBuilder pb = new ProcessBuilder(solverBinaryPath.split(" "));
+            pb.redirectErrorStream(true);
+            this.solver = pb.start();
+        } else {
+            this.solver = pool.acquire(solverBinaryPath);
+        }
+        this.solverIn = new SExpressionReader(new InputStreamReader(this.solver.getInputStream()));
         this.solverOut = new BufferedWriter(new OutputStreamWriter(this.solver.getOutputStream()));
 
         final String query = PROLOGUE + PUSH_1;
         sendAndCheckAnswer(query);
         clear();
     }
+    
+    /**
+     * Returns the configuration the verdicts of a solver depend on.
+     * 
+     * @param solverBinaryPath a {@link String}, the command line 
+     *        that launches the solver.
+     * @return a {@link String}, with the version of the encoding 
+     *        and {@code solverBinaryPath}.
+     */
+    static String configuration(String solverBinaryPath) {
+        return "smtlib2-aufnira-" + ENCODING_VERSION + " " + solverBinaryPath;
+    }
 
     @Override
     public boolean isWorking() {
@@ -116,10 +228,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         this.hasCurrentClause = true;
 
         try {
-            cond.accept(this.v);
-            this.currentClausePositive = PUSH_1 + this.v.getQueryDeclarations() + "(assert " + this.v.getQueryAssertClause() + ")\n";
-            cond.not().accept(this.v);
-            this.currentClauseNegative = PUSH_1 + this.v.getQueryDeclarations() + "(assert " + this.v.getQueryAssertClause() + ")\n";
+            this.currentClause = this.v.render(cond, true);
         } catch (ExternalProtocolInterfaceException | RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -138,7 +247,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
         this.hasCurrentClause = true;
         //does nothing, this decision procedure works only for numbers
-        this.currentClausePositive = this.currentClauseNegative = null;
+        this.currentClause = null;
     }
 
     @Override
@@ -149,7 +258,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
         this.hasCurrentClause = true;
         //does nothing, this decision procedure works only for numbers
-        this.currentClausePositive = this.currentClauseNegative = null;
+        this.currentClause = null;
     }
 
     @Override
@@ -160,7 +269,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
         this.hasCurrentClause = true;
         //does nothing, this decision procedure works only for numbers      
-        this.currentClausePositive = this.currentClauseNegative = null;
+        this.currentClause = null;
     }
 
     @Override
@@ -171,7 +280,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
         this.hasCurrentClause = true;
         //does nothing, this decision procedure works only for numbers
-        this.currentClausePositive = this.currentClauseNegative = null;
+        this.currentClause = null;
     }
 
     @Override
@@ -182,7 +291,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
         this.hasCurrentClause = true;
         //does nothing, this decision procedure works only for numbers
-        this.currentClausePositive = this.currentClauseNegative = null;
+        this.currentClause = null;
     }
 
     @Override
@@ -191,7 +300,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             throw new ExternalProtocolInterfaceException("Attempted to retract a clause with no current clause.");
         }
         this.hasCurrentClause = false;
-        this.currentClausePositive = this.currentClauseNegative = null;
+        this.currentClause = null;
         forgetPushedDeclarations();
     }
 
@@ -202,173 +311,193 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             throw new ExternalProtocolInterfaceException("Attempted to check satisfiability with no current clause.");
         }
         
-        final String queryPush = (value ? this.currentClausePositive : this.currentClauseNegative);
+        if (this.checkSatAssuming) {
+            final String literal = activationLiteral(value);
+            if (literal == null) {
+                this.lastCheckSatDefinitive = true;
+                return true;
+            }
+            return sendAndCheckAnswerChecksat(queryChecksatAssuming(literal));
+        }
+        
+        final String queryPush = queryPush(value);
         if (queryPush == null) {
+            this.lastCheckSatDefinitive = true;
             return true;
         }
         sendAndCheckAnswer(queryPush);
-        final boolean isSat = sendAndCheckAnswerChecksat();
+        final boolean isSat = sendAndCheckAnswerChecksat(CHECKSAT);
         sendAndCheckAnswer(POP_1);
         return isSat;
     }
     
+    @Override
+    public boolean isLastCheckSatDefinitive() {
+        return this.lastCheckSatDefinitive;
+    }
+    
+    @Override
+    public void setTimeout(long millis) throws IOException {
+        final long budget = (millis <= 0 ? 0 : millis);
+        if (budget == this.timeout) {
+            return;
+        }
+        if (this.timeoutOption == null) {
+            //there is no standard SMTLIB2 option, so we try 
+            //the Z3 and the CVC4 ones until the solver accepts one
+            this.timeoutOption = SET_TIMEOUT_UNSUPPORTED;
+            for (String option : new String[] { SET_TIMEOUT_Z3_BEGIN, SET_TIMEOUT_CVC4_BEGIN }) {
+                send(option + timeoutValue(option, budget) + SET_TIMEOUT_END);
+                if (read().equals(SUCCESS)) {
+                    this.timeoutOption = option;
+                    break;
+                }
+            }
+        } else if (this.timeoutOption != SET_TIMEOUT_UNSUPPORTED) {
+            send(this.timeoutOption + timeoutValue(this.timeoutOption, budget) + SET_TIMEOUT_END);
+            read();
+        }
+        this.timeout = budget;
+    }
+    
+    private static String timeoutValue(String option, long budget) {
+        //for Z3 0 is not "no budget"
+        return (budget == 0 && option == SET_TIMEOUT_Z3_BEGIN ? Z3_NO_TIMEOUT : Long.toString(budget));
+    }
+    
     @Override
     public Map<PrimitiveSymbolic, Simplex> getModel() 
     throws NoModelException, ExternalProtocolInterfaceException, IOException {
-        sendAndCheckAnswerChecksat(); //always need a checksat before reading a model
-        final String smtlib2Model = sendAndCheckAnswerGetmodel();
-        if (smtlib2Model == null || smtlib2Model.startsWith("(error")) {
+        //always need a checksat before reading a model
+        sendAndCheckAnswerChecksat(this.checkSatAssuming ? queryChecksatAssuming(null) : CHECKSAT);
+        sendGetmodel();
+        return readModel();
+    }
+    
+    /**
+     * Reads the answer to a {@code get-value} command, i.e., a list 
+     * of (symbol, value) pairs, directly from the solver output.
+     * The answer is always read up to its end, even when it cannot
+     * be interpreted.
+     * 
+     * @return the model.
+     * @throws NoModelException if the answer is not a list of pairs, 
+     *         or if some value of a numeric symbol cannot be interpreted.
+     * @throws IOException if reading the answer fails.
+     */
+    private Map<PrimitiveSymbolic, Simplex> readModel() throws NoModelException, IOException {
+        final int base = this.solverIn.depth();
+        int token = nextToken();
+        if (token != SExpressionReader.OPEN) {
+            //e.g., unsupported
             throw new NoModelException();
         }
-        
         final HashMap<PrimitiveSymbolic, Simplex> model = new HashMap<>();
-        String smtlib2Symbol = null;
-        LinkedList<LinkedList<Object>> smtlib2ParseStack = new LinkedList<>();
-        smtlib2ParseStack.push(new LinkedList<>());
-        int nestingLevel = 0;
-        boolean scanningSymbol = false;
-        final String[] smtlib2ModelTokens = smtlib2Model.replace("(", " ( ").replace(")", " ) ").trim().split("\\s+"); //thanks for the idea Peter Norvig!
-        for (String token : smtlib2ModelTokens) {
-            final int prevNestingLevel = nestingLevel;
-            if (token.equals("(")) {
-                ++nestingLevel;
-            } else if (token.equals(")")) {
-                --nestingLevel;
+        boolean interpreted = true;
+        while ((token = nextToken()) != SExpressionReader.CLOSE) {
+            if (token != SExpressionReader.OPEN) {
+                //e.g., (error "...")
+                skipToDepth(base);
+                throw new NoModelException();
             }
-            if (prevNestingLevel == 1 && nestingLevel == 2) {
-                scanningSymbol = true;
-            } else if (nestingLevel == 2 && scanningSymbol) {
-                smtlib2Symbol = token;
-                scanningSymbol = false;
-            } else if (nestingLevel >= 2 && !scanningSymbol) {
-                if (token.equals("(")) {
-                    smtlib2ParseStack.push(new LinkedList<>());
-                } else if (token.equals(")")) {
-                    final LinkedList<Object> list = smtlib2ParseStack.pop();
-                    smtlib2ParseStack.peek().add(list);
-                } else {
-                    smtlib2ParseStack.peek().add(token);
-                }
-            } else if (prevNestingLevel == 2 && nestingLevel == 1) {
-                final Primitive jbseSymbol = this.v.smtlib2VarsToJBSESymbols.get(smtlib2Symbol);
-                if (jbseSymbol != null && jbseSymbol instanceof PrimitiveSymbolic) {
-                    final Number value = smtlib2Interpret(smtlib2ParseStack.pop());
+            token = nextToken();
+            if (token == SExpressionReader.ATOM) {
+                final Primitive jbseSymbol = this.v.smtlib2VarsToJBSESymbols.get(this.solverIn.atom().toString());
+                if (jbseSymbol instanceof PrimitiveSymbolic) {
+                    final Number value = smtlib2Interpret(nextToken());
                     if (value == null) {
                         //unable to interpret the SMTLIB2 expression
-                        throw new NoModelException(); //TODO possibly throw a different exception
+                        interpreted = false;
                     } else {
-                        model.put((PrimitiveSymbolic) jbseSymbol, (Simplex) calc.val_(value));
+                        model.put((PrimitiveSymbolic) jbseSymbol, (Simplex) this.calc.val_(value));
                     }
-                }   
-                smtlib2Symbol = null;
-                smtlib2ParseStack = new LinkedList<>();
-                smtlib2ParseStack.push(new LinkedList<>());
+                }
             }
+            skipToDepth(base + 1);
+        }
+        if (!interpreted) {
+            throw new NoModelException(); //TODO possibly throw a different exception
         }
         return model;
     }
     
-    private Number smtlib2Interpret(Object smtlib2ParsedExpression) {
-        if (smtlib2ParsedExpression == null) {
+    /**
+     * Reads an SMTLIB2 numeric term from the solver output
+     * and interprets it. 
+     * 
+     * @param token the first token of the term, already read.
+     * @return the {@link Number} the term denotes, or {@code null}
+     *         if the term cannot be interpreted. In all cases the
+     *         term is read up to its end.
+     * @throws IOException if reading the term fails.
+     */
+    private Number smtlib2Interpret(int token) throws IOException {
+        if (token == SExpressionReader.ATOM) {
+            // <constant>
+            return this.solverIn.atomAsNumber();
+        }
+        if (token != SExpressionReader.OPEN) {
             return null;
         }
-        if (smtlib2ParsedExpression instanceof String) {
-            // <constant>
-            final String constant = (String) smtlib2ParsedExpression;
-            try {
-                final Long l = Long.parseLong(constant);
-                return l;
-            } catch (NumberFormatException e1) {
-                try {
-                    final Double d = Double.parseDouble(constant);
-                    return d;
-                } catch (NumberFormatException e2) {
-                    return null;
-                }
-            }
+        
+        // ( ... )
+        final int outer = this.solverIn.depth() - 1;
+        token = nextToken();
+        if (token == SExpressionReader.CLOSE) {
+            // ()
+            return null;
+        }
+        final char operator;
+        if (token == SExpressionReader.ATOM && (this.solverIn.atomIs("+") || this.solverIn.atomIs("-") || this.solverIn.atomIs("*") || this.solverIn.atomIs("/"))) {
+            operator = this.solverIn.atom().charAt(0);
+        } else {
+            // (<subexpression>)
+            final Number value = smtlib2Interpret(token);
+            return (nextToken() == SExpressionReader.CLOSE ? value : skipAndFail(outer));
+        }
+        
+        // (<operator> <firstOperand> ... <lastOperand>)
+        Number value = smtlib2Interpret(nextToken());
+        if (value == null) {
+            return skipAndFail(outer);
         }
-        if (smtlib2ParsedExpression instanceof LinkedList<?>) {
-            // ( ... )
-            final LinkedList<?> exprList = (LinkedList<?>) smtlib2ParsedExpression;
-            if (exprList.isEmpty()) {
-                // ()
+        token = nextToken();
+        if (token == SExpressionReader.CLOSE) {
+            // (<operator> <firstOperand>)
+            if (operator == '+') {
+                return value;
+            } else if (operator == '-') {
+                return (isFloating(value) ? (Number) (- value.doubleValue()) : (Number) (- value.longValue()));
+            } else {
                 return null;
             }
-            final Object head = exprList.pollFirst();
-            if (exprList.isEmpty()) {
-                // (<subexpression>)
-                return smtlib2Interpret(head);
-            } else if (head instanceof String) {
-                final String headString = (String) head;
-                final Number firstOperand, secondOperand;
-                switch (headString) {
-                case "+":
-                    firstOperand = smtlib2Interpret(exprList.pollFirst());
-                    if (exprList.isEmpty()) {
-                        // (+ <firstOperand>)
-                        return firstOperand;
-                    } else {
-                        // (+ <firstOperand> <secondOperand>)
-                        secondOperand = smtlib2Interpret(exprList.pollFirst());
-                        if (firstOperand == null || secondOperand == null) {
-                            return null;
-                        } else if (firstOperand instanceof Float || firstOperand instanceof Double ||
-                        secondOperand instanceof Float || secondOperand instanceof Double) {
-                            return firstOperand.doubleValue() + secondOperand.doubleValue();
-                        } else {
-                            return firstOperand.longValue() + secondOperand.longValue();
-                        }
-                    }
-                case "-":
-                    firstOperand = smtlib2Interpret(exprList.pollFirst());
-                    if (exprList.isEmpty()) {
-                        // (- <firstOperand>)
-                        if (firstOperand == null) {
-                            return null;
-                        } else if (firstOperand instanceof Float || firstOperand instanceof Double) {
-                            return - firstOperand.doubleValue();
-                        } else {
-                            return - firstOperand.longValue();
-                        }
-                    } else {
-                        // (- <firstOperand> <secondOperand>)
-                        secondOperand = smtlib2Interpret(exprList.pollFirst());
-                        if (firstOperand == null || secondOperand == null) {
-                            return null;
-                        } else if (firstOperand instanceof Float || firstOperand instanceof Double ||
-                        secondOperand instanceof Float || secondOperand instanceof Double) {
-                            return firstOperand.doubleValue() - secondOperand.doubleValue();
-                        } else {
-                            return firstOperand.longValue() - secondOperand.longValue();
-                        }
-                    }
-                case "*":
-                    // (* <firstOperand> <secondOperand>)
-                    firstOperand = smtlib2Interpret(exprList.pollFirst());
-                    secondOperand = smtlib2Interpret(exprList.pollFirst());
-                    if (firstOperand == null || secondOperand == null) {
-                        return null;
-                    } else if (firstOperand instanceof Float || firstOperand instanceof Double ||
-                    secondOperand instanceof Float || secondOperand instanceof Double) {
-                        return firstOperand.doubleValue() * secondOperand.doubleValue();
-                    } else {
-                        return firstOperand.longValue() * secondOperand.longValue();
-                    }
-                case "/":
-                    // (/ <firstOperand> <secondOperand>)
-                    firstOperand = smtlib2Interpret(exprList.pollFirst());
-                    secondOperand = smtlib2Interpret(exprList.pollFirst());
-                    if (firstOperand == null || secondOperand == null) {
-                        return null;
-                    } else if (firstOperand instanceof Float || firstOperand instanceof Double ||
-                    secondOperand instanceof Float || secondOperand instanceof Double) {
-                        return firstOperand.doubleValue() / secondOperand.doubleValue();
-                    } else {
-                        return firstOperand.longValue() / secondOperand.longValue();
-                    }
+        }
+        while (token != SExpressionReader.CLOSE) {
+            final Number operand = smtlib2Interpret(token);
+            if (operand == null) {
+                return skipAndFail(outer);
+            }
+            if (isFloating(value) || isFloating(operand)) {
+                final double first = value.doubleValue(), second = operand.doubleValue();
+                value = (operator == '+' ? first + second : operator == '-' ? first - second : operator == '*' ? first * second : first / second);
+            } else {
+                final long first = value.longValue(), second = operand.longValue();
+                if (operator == '/' && second == 0) {
+                    return skipAndFail(outer);
                 }
+                value = (operator == '+' ? first + second : operator == '-' ? first - second : operator == '*' ? first * second : first / second);
             }
+            token = nextToken();
         }
+        return value;
+    }
+    
+    private static boolean isFloating(Number n) {
+        return (n instanceof Float || n instanceof Double);
+    }
+    
+    private Number skipAndFail(int depth) throws IOException {
+        skipToDepth(depth);
         return null;
     }
 
@@ -381,16 +510,106 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         this.hasCurrentClause = false;
         rememberPushedDeclarations();
         
-        String queryPush = (value ? this.currentClausePositive : this.currentClauseNegative);
+        if (this.checkSatAssuming) {
+            this.activeLiterals.add(activationLiteral(value));
+            return;
+        }
+        
+        String queryPush = queryPush(value);
         if (queryPush == null) {
             queryPush = PUSH_1; //TODO avoid empty pushes
         }
         sendAndCheckAnswer(queryPush);
     }
 
+    /**
+     * Builds the query that declares the new symbols 
+     * in the current clause, pushes a new assertion 
+     * level, and asserts the (possibly negated) current
+     * clause. The negation wraps the memoized rendering
+     * of the current clause.
+     * 
+     * @param value if {@code false} the current clause 
+     *        is negated, otherwise not.
+     * @return a {@link String}, or {@code null} if the 
+     *         current clause is not numeric.
+     */
+    private String queryPush(boolean value) {
+        if (this.currentClause == null) {
+            return null;
+        }
+        final String retVal = this.v.getQueryDeclarations() + PUSH_1 + 
+            "(assert " + (value ? this.currentClause : "(not " + this.currentClause + ")") + ")\n";
+        this.v.clearQueryDeclarations();
+        return retVal;
+    }
+
+    /**
+     * Returns the activation literal that guards the 
+     * (possibly negated) current clause, and, if the 
+     * clause was never asserted, declares the literal
+     * and the new symbols in the clause, and asserts
+     * the guarded clause.
+     * 
+     * @param value if {@code false} the current clause 
+     *        is negated, otherwise not.
+     * @return a {@link String}, or {@code null} if the 
+     *         current clause is not numeric.
+     * @throws IOException if communication with the solver fails.
+     * @throws ExternalProtocolInterfaceException if the solver 
+     *         rejects the assertion.
+     */
+    private String activationLiteral(boolean value) 
+    throws IOException, ExternalProtocolInterfaceException {
+        if (this.currentClause == null) {
+            return null;
+        }
+        final String assertion = (value ? this.currentClause : "(not " + this.currentClause + ")");
+        String retVal = this.activationLiterals.get(assertion);
+        if (retVal == null) {
+            retVal = ACTIVATION_LITERAL_PREFIX + this.nActivationLiterals;
+            final String query = this.v.getQueryDeclarations() + 
+                "(declare-fun " + retVal + " () Bool)\n" + 
+                "(assert (=> " + retVal + " " + assertion + "))\n";
+            this.v.clearQueryDeclarations();
+            sendAndCheckAnswer(query);
+            this.activationLiterals.put(assertion, retVal);
+            ++this.nActivationLiterals;
+        }
+        return retVal;
+    }
+    
+    /**
+     * Builds the query that checks the satisfiability 
+     * of the current assumption, and possibly of an 
+     * additional clause.
+     * 
+     * @param literal a {@link String}, the activation literal
+     *        of the additional clause, or {@code null}.
+     * @return a {@link String}.
+     */
+    private String queryChecksatAssuming(String literal) {
+        final StringBuilder retVal = new StringBuilder(CHECKSAT_ASSUMING_BEGIN);
+        for (String activeLiteral : this.activeLiterals) {
+            if (activeLiteral != null) {
+                retVal.append(activeLiteral);
+                retVal.append(' ');
+            }
+        }
+        if (literal != null) {
+            retVal.append(literal);
+        }
+        retVal.append(CHECKSAT_ASSUMING_END);
+        return retVal.toString();
+    }
+
     @Override
     public void popAssumption() throws ExternalProtocolInterfaceException, IOException {
         forgetPoppedDeclarations();
+        if (this.checkSatAssuming) {
+            this.activeLiterals.remove(this.activeLiterals.size() - 1);
+            return;
+        }
         sendAndCheckAnswer(POP_1);
     }
 
@@ -398,10 +617,17 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     public void clear() 
     throws ExternalProtocolInterfaceException, IOException {
         final int nToPop = (this.nSymPushed == null ? 0 : this.nSymPushed.size());
-        if (nToPop > 0) {
+        this.activeLiterals.clear();
+        if (nToPop > 0 && !this.checkSatAssuming) {
             sendAndCheckAnswer(POP_BEGIN + nToPop + POP_END);
         }
-        this.currentClausePositive = this.currentClauseNegative = null;
+        if (this.activationLiterals.size() > ACTIVATION_LITERALS_MAX) {
+            //retracts the guarded clauses by popping the level 
+            //pushed by the prologue; the declarations survive
+            sendAndCheckAnswer(POP_1 + PUSH_1);
+            this.activationLiterals.clear();
+        }
+        this.currentClause = null;
         this.hasCurrentClause = false;
         forgetAllDeclarations();
     }
@@ -438,7 +664,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     private String read() throws IOException {
         final String answer;
         try {
-            answer = this.solverIn.readLine();
+            answer = this.solverIn.readExpression();
         } catch (IOException e) {
             this.working = false;
             throw e;
@@ -452,18 +678,18 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         return answer;
     }
     
-    private boolean sendAndCheckAnswerChecksat() throws IOException, ExternalProtocolInterfaceException {
-        send(CHECKSAT);
+    private boolean sendAndCheckAnswerChecksat(String query) throws IOException, ExternalProtocolInterfaceException {
+        send(query);
         final String answer = read();
         if (!answer.equals(SAT) && !answer.equals(UNSAT) && !answer.equals(UNKNOWN)) {
             this.working = false;
             throw new ExternalProtocolInterfaceException("unrecognized answer from solver when checking satisfiability. Message: " + answer);
         }
+        this.lastCheckSatDefinitive = !answer.equals(UNKNOWN);
         return !answer.equals(UNSAT); //conservatively returns true if answer is unknown
     }
     
-    private String sendAndCheckAnswerGetmodel() 
-    throws IOException, ExternalProtocolInterfaceException {
+    private void sendGetmodel() throws IOException {
         final StringBuilder query = new StringBuilder(GETVALUE_BEGIN);
         for (String symbol : this.v.smtlib2DeclaredSymbols) {
             query.append(symbol);
@@ -471,32 +697,44 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
         query.append(GETVALUE_END);
         send(query.toString());
-        //answer can be multiline, we count parentheses to
-        //determine when the answer is over
-        final StringBuilder retVal = new StringBuilder();
-        int nestingLevel = 0;
-        do {
-            final String answer = read();
-            retVal.append(answer);
-            for (char c : answer.toCharArray()) {
-                if (c == '(') {
-                    ++nestingLevel;
-                } else if (c == ')') {
-                    --nestingLevel;
-                }
-            }
-        } while (nestingLevel > 0);
-        return retVal.toString();
+    }
+    
+    private int nextToken() throws IOException {
+        final int token;
+        try {
+            token = this.solverIn.next();
+        } catch (IOException e) {
+            this.working = false;
+            throw e;
+        }
+        if (token == SExpressionReader.EOF) {
+            this.working = false;
+            throw new IOException("failed read of solver output, premature end of stream reached, process alive: " + this.solver.isAlive());
+        }
+        return token;
+    }
+    
+    private void skipToDepth(int depth) throws IOException {
+        final boolean ok;
+        try {
+            ok = this.solverIn.skipToDepth(depth);
+        } catch (IOException e) {
+            this.working = false;
+            throw e;
+        }
+        if (!ok) {
+            this.working = false;
+            throw new IOException("failed read of solver output, premature end of stream reached, process alive: " + this.solver.isAlive());
+        }
     }
     
     private void rememberPushedDeclarations() {
-        this.v.clearQueryDeclarations();
         this.nSymPushed.add(this.nSymCurrent);
         this.nSymCurrent = 0;
     }
     
     private void forgetPushedDeclarations() {
-        this.v.clearQueryDeclarations();
+        this.v.dropQueryDeclarations();
         this.v.removeDeclaredSymbols(this.nSymCurrent);
         this.nSymCurrent = 0;
     }
@@ -508,7 +746,14 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     }
 
     private void forgetAllDeclarations() {
-        this.v = new SMTLIB2ExpressionVisitor();
+        //the declarations sent to the solver are global, 
+        //so the visitor is kept
+        if (this.v == null) {
+            this.v = new SMTLIB2ExpressionVisitor();
+        } else {
+            this.v.dropQueryDeclarations();
+            this.v.removeAllDeclaredSymbols();
+        }
         this.nSymPushed = new ArrayList<>();
         this.nSymCurrent = 0;
         this.nTotalSymbols = 0;
@@ -578,24 +823,90 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
     }
 
+    /**
+     * An SMTLIB2 declaration of a symbol.
+     */
+    private static final class Declaration {
+        /** The SMTLIB2 name of the symbol. */
+        final String name;
+        
+        /** The SMTLIB2 declaration, or {@code null} for built-in functions. */
+        final String text;
+        
+        /** The JBSE symbol, or {@code null} for functions. */
+        final Primitive symbol;
+        
+        Declaration(String name, String text, Primitive symbol) {
+            this.name = name;
+            this.text = text;
+            this.symbol = symbol;
+        }
+        
+        @Override
+        public int hashCode() {
+            return this.name.hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof Declaration && this.name.equals(((Declaration) obj).name));
+        }
+    }
+    
+    /**
+     * The SMTLIB2 rendering of a {@link Primitive}.
+     */
+    private static final class Rendering {
+        /** The SMTLIB2 term. */
+        final String text;
+        
+        /** The declarations of the symbols in the term. */
+        final Declaration[] declarations;
+        
+        /** Whether the term was rendered as a boolean one. */
+        final boolean isBooleanExpression;
+        
+        Rendering(String text, Declaration[] declarations, boolean isBooleanExpression) {
+            this.text = text;
+            this.declarations = declarations;
+            this.isBooleanExpression = isBooleanExpression;
+        }
+    }
+
     /**
      * Builds a SMTLIB2 string representing an expression.
+     * The renderings of the nonatomic subterms are memoized, 
+     * and the symbols are declared to the solver only once, 
+     * at global level, so they survive pops.
      */
     private class SMTLIB2ExpressionVisitor implements PrimitiveVisitor {
         /** Is this a boolean expression? */
         private boolean isBooleanExpression = true;
         
         /** 
-         * All the SMTLIB v2 symbols declared in 
-         * the visited Primitive. 
+         * All the SMTLIB v2 symbols with no arguments 
+         * occurring in the current assumption and 
+         * current clause. 
+         */
+        private final LinkedHashSet<String> smtlib2DeclaredSymbols = new LinkedHashSet<>();
+        
+        /** 
+         * Remaps the SMTLIB v2 symbols in {@code smtlib2DeclaredSymbols}
+         * to their original JBSE primitives 
          */
-        private LinkedHashSet<String> smtlib2DeclaredSymbols = new LinkedHashSet<>();
+        private final HashMap<String, Primitive> smtlib2VarsToJBSESymbols = new HashMap<>();
         
         /** 
-         * Remaps the SMTLIB v2 symbols to
-         * their original JBSE primitives 
+         * All the SMTLIB v2 symbols declared to the solver, 
+         * or to be declared with {@code queryDeclarations}.
          */
-        private HashMap<String, Primitive> smtlib2VarsToJBSESymbols = new HashMap<>();
+        private final HashSet<String> smtlib2GlobalSymbols = new HashSet<>();
+        
+        /** 
+         * The symbols in {@code smtlib2GlobalSymbols} that 
+         * have not yet been declared to the solver.
+         */
+        private final ArrayList<String> smtlib2PendingSymbols = new ArrayList<>();
         
         /** 
          * SMTLIB2 query for the declaration of the symbols.
@@ -605,17 +916,112 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
          */
         private StringBuilder queryDeclarations = new StringBuilder();
         
+        /** The memoized renderings, in access order. */
+        private final LinkedHashMap<Primitive, Rendering> renderings = new LinkedHashMap<Primitive, Rendering>(RENDERINGS_CACHE_SIZE, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Primitive, Rendering> eldest) {
+                return size() > RENDERINGS_CACHE_SIZE;
+            }
+        };
+        
+        /** 
+         * The declarations of the symbols in the 
+         * subterm being rendered, or {@code null}.
+         */
+        private LinkedHashSet<Declaration> used = null;
+        
         /**
          * Clauses stored during the visit.
          */
-        private Stack<String> clauseStack = new Stack<>();
+        private final Stack<String> clauseStack = new Stack<>();
 
-        public String getQueryAssertClause() { return this.clauseStack.pop(); }
+        /**
+         * Renders a {@link Primitive} in SMTLIB2, and 
+         * registers the symbols it contains. A memoized 
+         * rendering is reused only if it was rendered with
+         * the same {@code isBooleanExpression}, otherwise
+         * {@code p} is visited again, so that it is checked 
+         * to be well formed.
+         * 
+         * @param p a {@link Primitive}.
+         * @param isBooleanExpression whether {@code p} 
+         *        must be boolean.
+         * @return a {@link String}, the SMTLIB2 term.
+         * @throws Exception if {@code p} cannot be rendered.
+         */
+        String render(Primitive p, boolean isBooleanExpression) throws Exception {
+            final Rendering cached = this.renderings.get(p);
+            if (cached != null && cached.isBooleanExpression == isBooleanExpression) {
+                for (Declaration d : cached.declarations) {
+                    use(d);
+                }
+                return cached.text;
+            }
+            final boolean savedIsBooleanExpression = this.isBooleanExpression;
+            this.isBooleanExpression = isBooleanExpression;
+            try {
+                if (p instanceof Simplex || p instanceof PrimitiveSymbolic || p instanceof Term) {
+                    //cheap, not worth memoizing
+                    p.accept(this);
+                    return this.clauseStack.pop();
+                }
+                final LinkedHashSet<Declaration> savedUsed = this.used;
+                this.used = new LinkedHashSet<>();
+                try {
+                    p.accept(this);
+                    final String text = this.clauseStack.pop();
+                    this.renderings.put(p, new Rendering(text, this.used.toArray(new Declaration[0]), isBooleanExpression));
+                    if (savedUsed != null) {
+                        savedUsed.addAll(this.used);
+                    }
+                    return text;
+                } finally {
+                    this.used = savedUsed;
+                }
+            } finally {
+                this.isBooleanExpression = savedIsBooleanExpression;
+            }
+        }
+        
+        private void use(Declaration d) {
+            if (this.used != null) {
+                this.used.add(d);
+            }
+            if (d.symbol != null && !this.smtlib2DeclaredSymbols.contains(d.name)) {
+                this.smtlib2DeclaredSymbols.add(d.name);
+                this.smtlib2VarsToJBSESymbols.put(d.name, d.symbol);
+                ++nSymCurrent;
+                ++nTotalSymbols;
+            }
+            if (d.text != null && !this.smtlib2GlobalSymbols.contains(d.name)) {
+                this.smtlib2GlobalSymbols.add(d.name);
+                this.smtlib2PendingSymbols.add(d.name);
+                this.queryDeclarations.append(d.text);
+            }
+        }
 
         public String getQueryDeclarations() { return this.queryDeclarations.toString(); }
 
+        /**
+         * To be invoked after the declarations returned by
+         * {@link #getQueryDeclarations()} are sent to the solver.
+         */
         public void clearQueryDeclarations() {
-            this.queryDeclarations = new StringBuilder();                       
+            this.queryDeclarations = new StringBuilder();
+            this.smtlib2PendingSymbols.clear();
+        }
+
+        /**
+         * To be invoked when the declarations returned by 
+         * {@link #getQueryDeclarations()} will not be sent 
+         * to the solver.
+         */
+        public void dropQueryDeclarations() {
+            this.smtlib2GlobalSymbols.removeAll(this.smtlib2PendingSymbols);
+            this.queryDeclarations = new StringBuilder();
+            this.smtlib2PendingSymbols.clear();
         }
 
         void removeDeclaredSymbols(int nSymbolsToForget) {
@@ -633,15 +1039,10 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             this.smtlib2DeclaredSymbols.removeAll(symbolsToForget);
             nTotalSymbols = nTotalSymbols - nSymbolsToForget;
         }
-
-        public SMTLIB2ExpressionVisitor() { }
-
-        public SMTLIB2ExpressionVisitor(SMTLIB2ExpressionVisitor v, boolean isBooleanExpression) {
-            this.isBooleanExpression = isBooleanExpression;
-            this.smtlib2DeclaredSymbols = v.smtlib2DeclaredSymbols;
-            this.smtlib2VarsToJBSESymbols = v.smtlib2VarsToJBSESymbols;
-            this.queryDeclarations = v.queryDeclarations;
-            this.clauseStack = v.clauseStack;
+        
+        void removeAllDeclaredSymbols() {
+            this.smtlib2DeclaredSymbols.clear();
+            this.smtlib2VarsToJBSESymbols.clear();
         }
 
         @Override
@@ -660,25 +1061,20 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
                 //operation well formed
                 if (operation == Operator.NE) {
                     //1-NE is not a SMTLIB2 operator but can be translated to a combination of SMTLIB2 operators
-                    firstOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                    secondOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                    final String secondOperandSMT = this.clauseStack.pop();
-                    final String firstOperandSMT = this.clauseStack.pop();
+                    final String firstOperandSMT = render(firstOperand, isBooleanOperator);
+                    final String secondOperandSMT = render(secondOperand, isBooleanOperator);
                     this.clauseStack.push("(not (= " + firstOperandSMT + " " + secondOperandSMT + "))");
                 } else if (op.equals(OTHER)) {
                     //2-Operator does not correspond to a SMTLIB2 operator
-                    m.mangle(e).accept(this);
+                    this.clauseStack.push(render(m.mangle(e), this.isBooleanExpression));
                 } else {
                     //3-The operator correspond to a SMTLIB2 operator
                     final String clause;
                     if (e.isUnary()) {
-                        e.getOperand().accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                        clause = "("+ op +" "+ this.clauseStack.pop() + ")";
+                        clause = "("+ op +" "+ render(e.getOperand(), isBooleanOperator) + ")";
                     } else {
-                        firstOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                        secondOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                        final String secondOperandSMT = this.clauseStack.pop();
-                        final String firstOperandSMT = this.clauseStack.pop();
+                        final String firstOperandSMT = render(firstOperand, isBooleanOperator);
+                        final String secondOperandSMT = render(secondOperand, isBooleanOperator);
                         clause = "("+ op + " " + firstOperandSMT + " " + secondOperandSMT + ")";
                     }
                     this.clauseStack.push(clause);
@@ -694,23 +1090,22 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             final char type = x.getType();
             final StringBuilder clause = new StringBuilder();
             final StringBuilder smtlib2Signature = new StringBuilder();
+            final String smtlib2Name;
             boolean builtIn = false;
             if (operator.equals(FunctionApplication.ABS)) {
                 if (Type.isPrimitiveIntegral(x.getType())) {
                     builtIn = true;
-                    clause.append("(abs ");
-                    smtlib2Signature.append("abs ("); //useless, but we keep it
+                    smtlib2Name = "abs";
                 } else {
-                    clause.append("(absReals ");
-                    smtlib2Signature.append("absReals (");
+                    smtlib2Name = "absReals";
                 }
             } else {
-                clause.append("(" + operator + " ");
-                smtlib2Signature.append(operator + " (");
+                smtlib2Name = operator;
             }
+            clause.append("(" + smtlib2Name + " ");
+            smtlib2Signature.append(smtlib2Name + " (");
             for (Primitive p : x.getArgs()) {
-                p.accept(new SMTLIB2ExpressionVisitor(this, false));
-                clause.append(this.clauseStack.pop());
+                clause.append(render(p, false));
                 clause.append(" ");
                 final String smtlib2Type = toSMTLIB2Type(p.getType());
                 smtlib2Signature.append(smtlib2Type);
@@ -721,32 +1116,29 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             smtlib2Signature.append(") ");
             smtlib2Signature.append(toSMTLIB2Type(type));
 
-            if (this.smtlib2DeclaredSymbols.contains(operator) || builtIn) {
-                // does nothing
-            } else {
-                this.smtlib2DeclaredSymbols.add(operator);
-                //not added to smtlib2VarsToJBSESymbols, sorry, no model for this
-                this.queryDeclarations.append("(declare-fun " + smtlib2Signature + " )\n");
-                nSymCurrent = nSymCurrent + 1;
-                nTotalSymbols = nTotalSymbols + 1;
-            }
+            //not associated to a JBSE symbol, sorry, no model for this
+            use(new Declaration(smtlib2Name, (builtIn ? null : "(declare-fun " + smtlib2Signature + " )\n"), null));
         }
 
         @Override
         public void visitWideningConversion(WideningConversion x) throws Exception {
             final Primitive arg = x.getArg();
-            arg.accept(new SMTLIB2ExpressionVisitor(this, false));
+            final String argSMT = render(arg, false);
             if (Type.isPrimitiveIntegral(x.getType()) != Type.isPrimitiveIntegral(arg.getType())) {
-                this.clauseStack.push("(to_real " + this.clauseStack.pop() + ")");
+                this.clauseStack.push("(to_real " + argSMT + ")");
+            } else {
+                this.clauseStack.push(argSMT);
             }
         }   
 
         @Override
         public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
             final Primitive arg = x.getArg();
-            arg.accept(new SMTLIB2ExpressionVisitor(this, false));
+            final String argSMT = render(arg, false);
             if (Type.isPrimitiveIntegral(x.getType()) != Type.isPrimitiveIntegral(arg.getType())) {
-                this.clauseStack.push("(round_to_zero " + this.clauseStack.pop() + ")");
+                this.clauseStack.push("(round_to_zero " + argSMT + ")");
+            } else {
+                this.clauseStack.push(argSMT);
             }
         }
 
@@ -829,15 +1221,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
             final String smtlib2Variable = (symbolToString.charAt(0) == '{' ? 
                                             symbolToString.substring(1, symbolToString.length() - 1) :
                                             symbolToString);
-            if (this.smtlib2DeclaredSymbols.contains(smtlib2Variable)) {
-                // does nothing
-            } else {
-                this.smtlib2DeclaredSymbols.add(smtlib2Variable);
-                this.smtlib2VarsToJBSESymbols.put(smtlib2Variable, symbol);
-                this.queryDeclarations.append("(declare-fun " + smtlib2Variable + " () " + toSMTLIB2Type(type) + ")\n");
-                ++nSymCurrent;
-                ++nTotalSymbols;
-            }
+            use(new Declaration(smtlib2Variable, "(declare-fun " + smtlib2Variable + " () " + toSMTLIB2Type(type) + ")\n", symbol));
             this.clauseStack.push(smtlib2Variable);
         }
     }
@@ -849,8 +1233,19 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
     public void quit() 
     throws ExternalProtocolInterfaceException, IOException {
         this.working = false;
+        if (this.pool != null) {
+            //resets the solver and gives it back to the pool
+            try {
+                sendAndCheckAnswer(RESET);
+            } catch (IOException | ExternalProtocolInterfaceException e) {
+                this.solver.destroy();
+                throw e;
+            }
+            this.pool.release(this.solverBinaryPath, this.solver);
+            return;
+        }
         send(EXIT);
-        while (this.solverIn.readLine() != null) {
+        while (this.solverIn.next() != SExpressionReader.EOF) {
             //do nothing
         }
         this.solverOut.close();
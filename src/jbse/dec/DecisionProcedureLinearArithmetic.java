@@ -0,0 +1,479 @@
+package jbse.dec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jbse.bc.ClassHierarchy;
+import jbse.common.Type;
+import jbse.dec.LinearTableau.DeltaRational;
+import jbse.dec.LinearTableau.Outcome;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.Monomial;
+import jbse.rewr.Polynomial;
+import jbse.val.Expression;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
+
+/**
+ * Decides conjunctions of linear comparisons between numeric
+ * expressions, over the integers and the reals, with an
+ * incremental simplex (see {@link LinearTableau}). The
+ * comparisons are brought in polynomial form (see {@link Polynomial});
+ * the monomials that are not symbols, e.g., products of symbols,
+ * function applications or divisions of integers, are treated
+ * as further unknowns, which only makes the theory weaker.
+ * Whenever the current assumptions and the expression to decide
+ * lie entirely in the theory, a satisfiable answer is definitive
+ * and the next decision procedure in the chain is not queried.
+ *
+ * @author Pietro Braione
+ */
+public final class DecisionProcedureLinearArithmetic extends DecisionProcedureChainOfResponsibility {
+	/** The maximum number of pivoting steps of a simplex run. */
+	private static final int MAX_PIVOTS = 1000;
+
+	/** The maximum number of branches opened to find an integer model. */
+	private static final int MAX_BRANCHES = 32;
+
+	/** The outcomes of asserting a comparison. */
+	private enum Assertion {
+		/** The comparison is asserted. */
+		EXACT,
+
+		/** A weaker constraint than the comparison, or none, is asserted. */
+		INEXACT,
+
+		/** The comparison contradicts the asserted bounds. */
+		CONFLICT
+	}
+
+	/** A comparison {@code lhs operator rhs}. */
+	private static final class Comparison {
+		final Primitive lhs;
+		final Operator operator;
+		final Primitive rhs;
+
+		Comparison(Primitive lhs, Operator operator, Primitive rhs) {
+			this.lhs = lhs;
+			this.operator = operator;
+			this.rhs = rhs;
+		}
+	}
+
+	/** The tableau with the current assumptions. */
+	private LinearTableau tableau = new LinearTableau();
+
+	/**
+	 * Maps the unknowns (symbols, or {@link Monomial}s
+	 * outside the theory) to their variables in {@code tableau}.
+	 */
+	private final HashMap<Object, Integer> unknowns = new HashMap<>();
+
+	/** Maps the normalized linear forms to their variables in {@code tableau}. */
+	private final HashMap<Map<Integer, Rational>, Integer> forms = new HashMap<>();
+
+	/** The number of the current assumptions that were not exactly asserted. */
+	private int inexact = 0;
+
+	/** Whether the current assumptions are contradictory. */
+	private boolean conflict = false;
+
+	/** The values of {@code inexact} and {@code conflict} at the checkpoints. */
+	private final ArrayList<int[]> checkpoints = new ArrayList<>();
+
+	/** The last expression decided surely satisfiable, or {@code null}. */
+	private Expression lastSurelySat = null;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param next The next {@link DecisionProcedure} in the
+	 *        Chain Of Responsibility.
+	 * @param calc a {@link CalculatorRewriting}.
+	 */
+	public DecisionProcedureLinearArithmetic(DecisionProcedure next, CalculatorRewriting calc) {
+		super(next, calc);
+	}
+
+	@Override
+	protected void pushAssumptionLocal(Clause cSimpl) throws DecisionException {
+		this.lastSurelySat = null;
+		this.tableau.checkpoint();
+		this.checkpoints.add(new int[] { this.inexact, (this.conflict ? 1 : 0) });
+		super.pushAssumptionLocal(cSimpl);
+	}
+
+	@Override
+	protected void pushAssumptionLocal(ClauseAssume c) {
+		if (this.conflict) {
+			return;
+		}
+		final ArrayList<Comparison> comparisons = new ArrayList<>();
+		boolean exact = collect(c.getCondition(), true, comparisons);
+		for (Comparison comparison : comparisons) {
+			final Assertion a = assertComparison(comparison);
+			if (a == Assertion.CONFLICT) {
+				this.conflict = true;
+				return;
+			}
+			exact = exact && (a == Assertion.EXACT);
+		}
+		if (!exact) {
+			++this.inexact;
+		}
+	}
+
+	@Override
+	protected void clearAssumptionsLocal() {
+		this.lastSurelySat = null;
+		this.tableau = new LinearTableau();
+		this.unknowns.clear();
+		this.forms.clear();
+		this.inexact = 0;
+		this.conflict = false;
+		this.checkpoints.clear();
+	}
+
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+
+	@Override
+	protected void popAssumptionLocal() throws DecisionException {
+		if (this.checkpoints.isEmpty()) {
+			throw new DecisionException("Attempted to pop an assumption from an empty assumption set.");
+		}
+		this.lastSurelySat = null;
+		final int[] checkpoint = this.checkpoints.remove(this.checkpoints.size() - 1);
+		this.inexact = checkpoint[0];
+		this.conflict = (checkpoint[1] == 1);
+		this.tableau.rollback();
+	}
+
+	@Override
+	protected boolean isSatLocal(ClassHierarchy hier, Expression exp, Expression expSimpl)
+	throws DecisionException {
+		this.lastSurelySat = null;
+		if (this.conflict) {
+			return false;
+		}
+		final ArrayList<Comparison> comparisons = new ArrayList<>();
+		boolean exact = collect(expSimpl, true, comparisons);
+		this.tableau.checkpoint();
+		try {
+			for (Comparison comparison : comparisons) {
+				final Assertion a = assertComparison(comparison);
+				if (a == Assertion.CONFLICT) {
+					return false;
+				}
+				exact = exact && (a == Assertion.EXACT);
+			}
+			final Outcome outcome = this.tableau.check(MAX_PIVOTS, MAX_BRANCHES);
+			if (outcome == Outcome.UNSAT) {
+				return false;
+			}
+			if (outcome == Outcome.SAT && exact && this.inexact == 0) {
+				this.lastSurelySat = expSimpl;
+			}
+			return true;
+		} finally {
+			this.tableau.rollback();
+		}
+	}
+
+	@Override
+	protected boolean isSurelySatLocal(ClassHierarchy hier, Expression exp, Expression expSimpl) {
+		return (this.lastSurelySat == expSimpl);
+	}
+
+	/**
+	 * Collects the comparisons whose conjunction is
+	 * a boolean {@link Primitive}, or its negation.
+	 *
+	 * @param p a {@link Primitive}.
+	 * @param positive {@code false} iff the comparisons
+	 *        of the negation of {@code p} must be collected.
+	 * @param comparisons a list where the comparisons are added.
+	 * @return {@code true} iff the conjunction of {@code comparisons}
+	 *         is equivalent to {@code p} (or its negation),
+	 *         {@code false} iff it is weaker.
+	 */
+	private static boolean collect(Primitive p, boolean positive, ArrayList<Comparison> comparisons) {
+		if (!(p instanceof Expression)) {
+			return false;
+		}
+		final Expression e = (Expression) p;
+		final Operator operator = e.getOperator();
+		if (operator == Operator.NOT) {
+			return collect(e.getOperand(), !positive, comparisons);
+		} else if (operator == (positive ? Operator.AND : Operator.OR)) {
+			final boolean exactFirst = collect(e.getFirstOperand(), positive, comparisons);
+			final boolean exactSecond = collect(e.getSecondOperand(), positive, comparisons);
+			return exactFirst && exactSecond;
+		} else if (operator == Operator.EQ || operator == Operator.NE ||
+		           operator == Operator.LT || operator == Operator.LE ||
+		           operator == Operator.GT || operator == Operator.GE) {
+			if (!isNumeric(e.getFirstOperand().getType()) || !isNumeric(e.getSecondOperand().getType())) {
+				return false;
+			}
+			comparisons.add(new Comparison(e.getFirstOperand(), (positive ? operator : negate(operator)), e.getSecondOperand()));
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isNumeric(char type) {
+		return (Type.isPrimitive(type) && type != Type.BOOLEAN);
+	}
+
+	private static Operator negate(Operator comparison) {
+		switch (comparison) {
+		case EQ: return Operator.NE;
+		case NE: return Operator.EQ;
+		case LT: return Operator.GE;
+		case LE: return Operator.GT;
+		case GT: return Operator.LE;
+		case GE: return Operator.LT;
+		default: return null; //this should never happen
+		}
+	}
+
+	/**
+	 * Asserts a comparison in {@code tableau}.
+	 *
+	 * @param c a {@link Comparison}.
+	 * @return an {@link Assertion}.
+	 */
+	private Assertion assertComparison(Comparison c) {
+		//brings the comparison in the form sum(a_i * x_i) operator bound
+		final TreeMap<Integer, Rational> form = new TreeMap<>();
+		final Rational[] constant = { Rational.ZERO };
+		final boolean exactLhs = addLinear(c.lhs, Rational.ONE, form, constant);
+		final boolean exactRhs = addLinear(c.rhs, Rational.ONE.neg(), form, constant);
+		if (constant[0] == null) {
+			return Assertion.INEXACT; //nonfinite constant
+		}
+		final boolean exact = exactLhs && exactRhs;
+		Operator operator = c.operator;
+		Rational bound = constant[0].neg();
+
+		if (form.isEmpty()) {
+			final int cmp = Rational.ZERO.compareTo(bound);
+			final boolean holds;
+			switch (operator) {
+			case EQ: holds = (cmp == 0); break;
+			case NE: holds = (cmp != 0); break;
+			case LT: holds = (cmp < 0); break;
+			case LE: holds = (cmp <= 0); break;
+			case GT: holds = (cmp > 0); break;
+			default: holds = (cmp >= 0); //GE
+			}
+			return (holds ? (exact ? Assertion.EXACT : Assertion.INEXACT) : Assertion.CONFLICT);
+		}
+
+		//normalizes the form: integer coprime coefficients, the first positive
+		BigInteger lcm = BigInteger.ONE;
+		BigInteger gcd = BigInteger.ZERO;
+		for (Rational a : form.values()) {
+			final BigInteger d = a.denominator();
+			lcm = lcm.divide(lcm.gcd(d)).multiply(d);
+			gcd = gcd.gcd(a.numerator());
+		}
+		Rational factor = Rational.of(lcm).div(Rational.of(gcd));
+		if (form.firstEntry().getValue().signum() < 0) {
+			factor = factor.neg();
+			operator = mirror(operator);
+		}
+		boolean isInteger = true;
+		for (Map.Entry<Integer, Rational> e : form.entrySet()) {
+			e.setValue(e.getValue().mul(factor));
+			isInteger = isInteger && this.tableau.isInteger(e.getKey());
+		}
+		bound = bound.mul(factor);
+
+		//the constrained variable
+		final int x;
+		if (form.size() == 1 && form.firstEntry().getValue().equals(Rational.ONE)) {
+			x = form.firstKey();
+		} else {
+			final Integer formVariable = this.forms.get(form);
+			if (formVariable == null) {
+				x = this.tableau.addRow(form, isInteger);
+				this.forms.put(form, x);
+			} else {
+				x = formVariable;
+			}
+		}
+
+		//asserts the bounds
+		final boolean asserted;
+		switch (operator) {
+		case EQ:
+			asserted = assertUpper(x, bound, false) && assertLower(x, bound, false);
+			break;
+		case NE:
+			this.tableau.assertDisequality(x, bound);
+			asserted = true;
+			break;
+		case LT:
+			asserted = assertUpper(x, bound, true);
+			break;
+		case LE:
+			asserted = assertUpper(x, bound, false);
+			break;
+		case GT:
+			asserted = assertLower(x, bound, true);
+			break;
+		default: //GE
+			asserted = assertLower(x, bound, false);
+		}
+		return (asserted ? (exact ? Assertion.EXACT : Assertion.INEXACT) : Assertion.CONFLICT);
+	}
+
+	private static Operator mirror(Operator comparison) {
+		switch (comparison) {
+		case LT: return Operator.GT;
+		case LE: return Operator.GE;
+		case GT: return Operator.LT;
+		case GE: return Operator.LE;
+		default: return comparison; //EQ, NE
+		}
+	}
+
+	private boolean assertUpper(int x, Rational bound, boolean strict) {
+		if (this.tableau.isInteger(x)) {
+			return this.tableau.assertUpper(x, new DeltaRational(strict ? bound.ceil().sub(Rational.ONE) : bound.floor(), Rational.ZERO));
+		}
+		return this.tableau.assertUpper(x, new DeltaRational(bound, (strict ? Rational.ONE.neg() : Rational.ZERO)));
+	}
+
+	private boolean assertLower(int x, Rational bound, boolean strict) {
+		if (this.tableau.isInteger(x)) {
+			return this.tableau.assertLower(x, new DeltaRational(strict ? bound.floor().add(Rational.ONE) : bound.ceil(), Rational.ZERO));
+		}
+		return this.tableau.assertLower(x, new DeltaRational(bound, (strict ? Rational.ONE : Rational.ZERO)));
+	}
+
+	/**
+	 * Adds a numeric {@link Primitive}, multiplied by a factor,
+	 * to a linear form.
+	 *
+	 * @param p a {@link Primitive}.
+	 * @param factor a {@link Rational}.
+	 * @param form the linear part of the form, a map from
+	 *        variables to their coefficients.
+	 * @param constant an array with one element, the constant
+	 *        part of the form; it is set to {@code null} if
+	 *        a constant is not finite.
+	 * @return {@code true} iff {@code p} has been added
+	 *         exactly, {@code false} if some part of it has been
+	 *         added as an unknown.
+	 */
+	private boolean addLinear(Primitive p, Rational factor, Map<Integer, Rational> form, Rational[] constant) {
+		boolean exact = true;
+		final Polynomial polynomial = Polynomial.of(this.calc, p);
+		for (Map.Entry<Monomial, Simplex> e : polynomial.representation().entrySet()) {
+			final Rational multiplier = toRational(e.getValue());
+			if (multiplier == null || constant[0] == null) {
+				constant[0] = null;
+				return false;
+			}
+			final Rational coefficient = multiplier.mul(factor);
+			final Monomial base = e.getKey();
+			if (base.isNumber()) {
+				constant[0] = constant[0].add(coefficient);
+				continue;
+			}
+
+			//a monomial with only one factor may be further linearized
+			final Map<Primitive, Integer> factors = base.representation();
+			if (factors.size() == 1) {
+				final Map.Entry<Primitive, Integer> f = factors.entrySet().iterator().next();
+				final Primitive atom = f.getKey();
+				if (f.getValue() == 1) {
+					if (atom instanceof PrimitiveSymbolic || atom instanceof Term) {
+						addToForm(form, unknown(atom, atom.getType()), coefficient);
+						continue;
+					} else if (atom instanceof WideningConversion && isValuePreserving((WideningConversion) atom)) {
+						exact = addLinear(((WideningConversion) atom).getArg(), coefficient, form, constant) && exact;
+						continue;
+					} else if (atom instanceof Expression && isDivisionByConstant((Expression) atom)) {
+						final Expression division = (Expression) atom;
+						final Rational divisor = toRational((Simplex) division.getSecondOperand());
+						exact = addLinear(division.getFirstOperand(), coefficient.div(divisor), form, constant) && exact;
+						continue;
+					}
+				}
+			}
+
+			//outside the theory
+			addToForm(form, unknown(base, base.getType()), coefficient);
+			exact = false;
+		}
+		return exact;
+	}
+
+	private static boolean isValuePreserving(WideningConversion w) {
+		final char from = w.getArg().getType();
+		final char to = w.getType();
+		if (Type.isPrimitiveIntegral(from) == Type.isPrimitiveIntegral(to)) {
+			return true;
+		}
+		//integral to floating: the conversion of long, and of int to float, may round
+		return (from != Type.LONG && (from != Type.INT || to == Type.DOUBLE));
+	}
+
+	private static boolean isDivisionByConstant(Expression e) {
+		if (e.getOperator() != Operator.DIV || !Type.isPrimitiveFloating(e.getType())) {
+			return false;
+		}
+		final Primitive divisor = e.getSecondOperand();
+		if (!(divisor instanceof Simplex)) {
+			return false;
+		}
+		final Rational r = toRational((Simplex) divisor);
+		return (r != null && r.signum() != 0);
+	}
+
+	private static Rational toRational(Simplex s) {
+		final Object value = s.getActualValue();
+		if (value instanceof Double || value instanceof Float) {
+			return Rational.of(((Number) value).doubleValue());
+		} else if (value instanceof Number) {
+			return Rational.of(((Number) value).longValue());
+		} else if (value instanceof Character) {
+			return Rational.of((long) ((Character) value).charValue());
+		}
+		return null;
+	}
+
+	private int unknown(Object key, char type) {
+		Integer retVal = this.unknowns.get(key);
+		if (retVal == null) {
+			retVal = this.tableau.addVariable(Type.isPrimitiveIntegral(type));
+			this.unknowns.put(key, retVal);
+		}
+		return retVal;
+	}
+
+	private static void addToForm(Map<Integer, Rational> form, int x, Rational a) {
+		final Rational previous = form.get(x);
+		final Rational sum = (previous == null ? a : previous.add(a));
+		if (sum.signum() == 0) {
+			form.remove(x);
+		} else {
+			form.put(x, sum);
+		}
+	}
+}
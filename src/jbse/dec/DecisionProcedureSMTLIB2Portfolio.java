@@ -0,0 +1,113 @@
+package jbse.dec;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.rewr.CalculatorRewriting;
+
+/**
+ * A decision procedure that races a portfolio of solvers compatible
+ * with SMTLIB 2 specification supporting the AUFNIRA logic and
+ * interactive mode, and takes the first definitive answer.
+ *
+ * @author Pietro Braione
+ */
+public final class DecisionProcedureSMTLIB2Portfolio extends DecisionProcedureExternal {
+	/** The factories of the solvers in the portfolio. */
+	private final LinkedHashMap<String, DecisionProcedureExternalInterfacePortfolio.Factory> factories = new LinkedHashMap<>();
+
+	/** The wins of the portfolios that were restarted. */
+	private final LinkedHashMap<String, Long> pastWins = new LinkedHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param next The next {@link DecisionProcedure} in the
+	 *        Chain Of Responsibility.
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param solverCommandLines a {@link List}{@code <}{@link String}{@code >},
+	 *        the command lines that launch the solvers in the portfolio.
+	 * @throws DecisionException if some solver cannot be launched.
+	 */
+	public DecisionProcedureSMTLIB2Portfolio(DecisionProcedure next, CalculatorRewriting calc, List<String> solverCommandLines)
+	throws DecisionException {
+		this(next, calc, solverCommandLines, false);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param next The next {@link DecisionProcedure} in the
+	 *        Chain Of Responsibility.
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param solverCommandLines a {@link List}{@code <}{@link String}{@code >},
+	 *        the command lines that launch the solvers in the portfolio.
+	 * @param checkSatAssuming if {@code true}, the solvers check the
+	 *        clauses with check-sat-assuming and activation literals,
+	 *        rather than in push/pop scopes.
+	 * @throws DecisionException if some solver cannot be launched.
+	 */
+	public DecisionProcedureSMTLIB2Portfolio(DecisionProcedure next, CalculatorRewriting calc, List<String> solverCommandLines, boolean checkSatAssuming)
+	throws DecisionException {
+		super(next, calc);
+		for (String solverCommandLine : solverCommandLines) {
+			this.factories.put(solverCommandLine, () -> new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(calc, solverCommandLine, checkSatAssuming));
+		}
+		try {
+			this.extIf = new DecisionProcedureExternalInterfacePortfolio(this.factories);
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
+		}
+	}
+
+	/**
+	 * Returns how many satisfiability checks each
+	 * solver in the portfolio answered first.
+	 *
+	 * @return a {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}
+	 *         mapping the command lines of the solvers to their
+	 *         number of wins.
+	 */
+	public Map<String, Long> getWins() {
+		final LinkedHashMap<String, Long> retVal = new LinkedHashMap<>(this.pastWins);
+		for (Map.Entry<String, Long> entry : ((DecisionProcedureExternalInterfacePortfolio) this.extIf).getWins().entrySet()) {
+			retVal.merge(entry.getKey(), entry.getValue(), Long::sum);
+		}
+		return retVal;
+	}
+
+	@Override
+	protected String getConfiguration() {
+		//the verdict is the first definitive one of any solver
+		final StringBuilder retVal = new StringBuilder();
+		for (String solverCommandLine : this.factories.keySet()) {
+			if (retVal.length() > 0) {
+				retVal.append(" | ");
+			}
+			retVal.append(DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA.configuration(solverCommandLine));
+		}
+		return retVal.toString();
+	}
+
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+
+	@Override
+	protected boolean canRestartExternalInterface() {
+		return true;
+	}
+
+	@Override
+	protected DecisionProcedureExternalInterface restartExternalInterface()
+	throws ExternalProtocolInterfaceException, IOException {
+		this.pastWins.clear();
+		this.pastWins.putAll(getWins());
+		return new DecisionProcedureExternalInterfacePortfolio(this.factories);
+	}
+}
@@ -16,17 +16,82 @@ import java.io.IOException;
  *
  */
 public final class DecisionProcedureSMTLIB2_AUFNIRA extends DecisionProcedureExternal {
+	private final CalculatorRewriting calc;
+	private final String solverPath;
+	private final boolean checkSatAssuming;
+	private final SolverProcessPool pool;
+	
 	public DecisionProcedureSMTLIB2_AUFNIRA(DecisionProcedure next, CalculatorRewriting calc, String solverPath) throws DecisionException {
+		this(next, calc, solverPath, false);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param next The next {@link DecisionProcedure} in the 
+	 *        Chain Of Responsibility.
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param solverPath a {@link String}, the command line that
+	 *        launches the solver.
+	 * @param checkSatAssuming if {@code true}, the clauses are 
+	 *        guarded by activation literals and checked with 
+	 *        check-sat-assuming, rather than asserted in 
+	 *        push/pop scopes.
+	 * @throws DecisionException if the solver cannot be launched.
+	 */
+	public DecisionProcedureSMTLIB2_AUFNIRA(DecisionProcedure next, CalculatorRewriting calc, String solverPath, boolean checkSatAssuming) throws DecisionException {
+		this(next, calc, solverPath, checkSatAssuming, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param next The next {@link DecisionProcedure} in the 
+	 *        Chain Of Responsibility.
+	 * @param calc a {@link CalculatorRewriting}.
+	 * @param solverPath a {@link String}, the command line that
+	 *        launches the solver.
+	 * @param checkSatAssuming if {@code true}, the clauses are 
+	 *        guarded by activation literals and checked with 
+	 *        check-sat-assuming, rather than asserted in 
+	 *        push/pop scopes.
+	 * @param pool a {@link SolverProcessPool} shared with other
+	 *        decision procedures, from which the solver process is
+	 *        acquired, or {@code null} if the solver process is
+	 *        not shared.
+	 * @throws DecisionException if the solver cannot be launched.
+	 */
+	public DecisionProcedureSMTLIB2_AUFNIRA(DecisionProcedure next, CalculatorRewriting calc, String solverPath, boolean checkSatAssuming, SolverProcessPool pool) throws DecisionException {
 		super(next, calc);
+		this.calc = calc;
+		this.solverPath = solverPath;
+		this.checkSatAssuming = checkSatAssuming;
+		this.pool = pool;
 		try {
-			this.extIf = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(calc, solverPath);
+			this.extIf = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(calc, solverPath, checkSatAssuming, pool);
 		} catch (ExternalProtocolInterfaceException | IOException e) {
 			throw new DecisionException(e);
 		}
 	}
 	
+	@Override
+	protected String getConfiguration() {
+		return DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA.configuration(this.solverPath);
+	}
+	
 	@Override
 	protected boolean canPopAssumptions() {
 		return true; //TODO should query the external tool for capabilities?
 	}
+	
+	@Override
+	protected boolean canRestartExternalInterface() {
+		return true;
+	}
+	
+	@Override
+	protected DecisionProcedureExternalInterface restartExternalInterface() 
+	throws ExternalProtocolInterfaceException, IOException {
+		return new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(this.calc, this.solverPath, this.checkSatAssuming, this.pool);
+	}
 }
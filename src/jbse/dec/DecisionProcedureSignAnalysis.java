@@ -1,11 +1,13 @@
 package jbse.dec;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 
 import jbse.bc.ClassHierarchy;
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
 import jbse.mem.ClauseAssume;
 import jbse.rewr.CalculatorRewriting;
 import jbse.rewr.Rewriter;
@@ -480,6 +482,24 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 	
 	/** Caches the {@link SignPredicate}s of all the discovered path predicates. */
 	private HashMap<Primitive, SignPredicate> preds = new HashMap<Primitive, SignPredicate>();
+	
+	/** 
+	 * The trail of the changes to {@code preds}: the changed keys,
+	 * in change order.
+	 */
+	private final ArrayList<Primitive> trailKeys = new ArrayList<>();
+	
+	/** 
+	 * The trail of the changes to {@code preds}: the values
+	 * before the change ({@code null} if absent).
+	 */
+	private final ArrayList<SignPredicate> trailValues = new ArrayList<>();
+	
+	/** 
+	 * For each pushed assumption, the size of the trail 
+	 * before the assumption was pushed. 
+	 */
+	private final ArrayList<Integer> checkpoints = new ArrayList<>();
 
 	/**
 	 * Constructor.
@@ -493,6 +513,12 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 		this.rewriters = new Rewriter[] { new RewriterSimplifyTrivialExpressions() }; //explicit assignment: no constructor call is allowed before super()
 	}
 
+	@Override
+	protected void pushAssumptionLocal(Clause cSimpl) throws DecisionException {
+		this.checkpoints.add(this.trailKeys.size());
+		super.pushAssumptionLocal(cSimpl);
+	}
+	
 	@Override
 	protected void pushAssumptionLocal(ClauseAssume c) {
 		final Primitive p = c.getCondition();
@@ -503,7 +529,11 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 				final SignPredicate predicateOperand = fetch(operand);
 				final SignPredicate predicateRange = bestApproxRange(exp);
 				final SignPredicate bestPredicate = predicateOperand.and(predicateRange);
-				this.preds.put(operand, bestPredicate);
+				final SignPredicate previous = this.preds.put(operand, bestPredicate);
+				if (previous != bestPredicate) {
+					this.trailKeys.add(operand);
+					this.trailValues.add(previous);
+				}
 			}
 		}
 	}
@@ -511,6 +541,33 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 	@Override
 	protected void clearAssumptionsLocal() {
 		this.preds.clear();
+		this.trailKeys.clear();
+		this.trailValues.clear();
+		this.checkpoints.clear();
+	}
+	
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+	
+	@Override
+	protected void popAssumptionLocal() throws DecisionException {
+		if (this.checkpoints.isEmpty()) {
+			throw new DecisionException("Attempted to pop an assumption from an empty assumption set.");
+		}
+		
+		//undoes the changes to preds made by the last assumption, in reverse order
+		final int checkpoint = this.checkpoints.remove(this.checkpoints.size() - 1);
+		for (int i = this.trailKeys.size() - 1; i >= checkpoint; --i) {
+			final Primitive key = this.trailKeys.remove(i);
+			final SignPredicate value = this.trailValues.remove(i);
+			if (value == null) {
+				this.preds.remove(key);
+			} else {
+				this.preds.put(key, value);
+			}
+		}
 	}
 	
 	@Override
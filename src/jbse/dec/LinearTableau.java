@@ -0,0 +1,525 @@
+package jbse.dec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * An incremental simplex tableau for deciding conjunctions of
+ * linear constraints over the rationals and the integers, with
+ * backtracking of the asserted bounds. Variables are either
+ * unconstrained (nonbasic in their initial state) or defined as
+ * linear combinations of the other variables (the rows). The
+ * constraints are bounds on variables, possibly strict,
+ * and disequalities between variables and constants; strict
+ * bounds are represented with the infinitesimal delta of
+ * Dutertre and de Moura's general simplex.
+ *
+ * @author Pietro Braione
+ */
+final class LinearTableau {
+	/** The outcomes of a satisfiability check. */
+	enum Outcome { SAT, UNSAT, UNKNOWN }
+
+	/**
+	 * A number {@code value} plus {@code delta} times
+	 * the positive infinitesimal delta.
+	 */
+	static final class DeltaRational implements Comparable<DeltaRational> {
+		static final DeltaRational ZERO = new DeltaRational(Rational.ZERO, Rational.ZERO);
+
+		final Rational value;
+		final Rational delta;
+
+		DeltaRational(Rational value, Rational delta) {
+			this.value = value;
+			this.delta = delta;
+		}
+
+		DeltaRational add(DeltaRational other) {
+			return new DeltaRational(this.value.add(other.value), this.delta.add(other.delta));
+		}
+
+		DeltaRational sub(DeltaRational other) {
+			return new DeltaRational(this.value.sub(other.value), this.delta.sub(other.delta));
+		}
+
+		DeltaRational mul(Rational r) {
+			return new DeltaRational(this.value.mul(r), this.delta.mul(r));
+		}
+
+		DeltaRational div(Rational r) {
+			return new DeltaRational(this.value.div(r), this.delta.div(r));
+		}
+
+		/**
+		 * Checks whether this number is an integer.
+		 *
+		 * @return {@code true} iff {@code delta} is zero
+		 *         and {@code value} is an integer.
+		 */
+		boolean isInteger() {
+			return (this.delta.signum() == 0 && this.value.isInteger());
+		}
+
+		/**
+		 * Returns the greatest integer not greater than this number.
+		 *
+		 * @return a {@link Rational}.
+		 */
+		Rational floor() {
+			if (this.value.isInteger() && this.delta.signum() < 0) {
+				return this.value.sub(Rational.ONE);
+			}
+			return this.value.floor();
+		}
+
+		@Override
+		public int compareTo(DeltaRational other) {
+			final int c = this.value.compareTo(other.value);
+			return (c == 0 ? this.delta.compareTo(other.delta) : c);
+		}
+
+		@Override
+		public String toString() {
+			return this.value + (this.delta.signum() == 0 ? "" : (this.delta.signum() > 0 ? "+" : "") + this.delta + "d");
+		}
+	}
+
+	/** A change of a bound, for backtracking. */
+	private static final class BoundChange {
+		final int variable;
+		final boolean upper;
+		final DeltaRational previous;
+
+		BoundChange(int variable, boolean upper, DeltaRational previous) {
+			this.variable = variable;
+			this.upper = upper;
+			this.previous = previous;
+		}
+	}
+
+	/** A disequality {@code variable != value}. */
+	private static final class Disequality {
+		final int variable;
+		final Rational value;
+
+		Disequality(int variable, Rational value) {
+			this.variable = variable;
+			this.value = value;
+		}
+	}
+
+	/** Whether each variable is integer. */
+	private final ArrayList<Boolean> integer = new ArrayList<>();
+
+	/** The current assignment of each variable. */
+	private final ArrayList<DeltaRational> assignment = new ArrayList<>();
+
+	/** The lower bound of each variable, or {@code null}. */
+	private final ArrayList<DeltaRational> lower = new ArrayList<>();
+
+	/** The upper bound of each variable, or {@code null}. */
+	private final ArrayList<DeltaRational> upper = new ArrayList<>();
+
+	/** Maps each basic variable to its row, i.e., to the coefficients of the nonbasic variables. */
+	private final HashMap<Integer, HashMap<Integer, Rational>> rows = new HashMap<>();
+
+	/** For each variable, the basic variables whose rows contain it. */
+	private final ArrayList<HashSet<Integer>> columns = new ArrayList<>();
+
+	/** The current disequalities. */
+	private final ArrayList<Disequality> disequalities = new ArrayList<>();
+
+	/** The trail of the changes of the bounds, in change order. */
+	private final ArrayList<BoundChange> trail = new ArrayList<>();
+
+	/** The sizes of {@code trail} and of {@code disequalities} at the checkpoints. */
+	private final ArrayList<int[]> checkpoints = new ArrayList<>();
+
+	/** The number of branches the current search may still open. */
+	private int branchesBudget;
+
+	/**
+	 * Adds an unconstrained variable.
+	 *
+	 * @param isInteger whether the variable is integer.
+	 * @return the variable, an {@code int}.
+	 */
+	int addVariable(boolean isInteger) {
+		final int retVal = this.integer.size();
+		this.integer.add(isInteger);
+		this.assignment.add(DeltaRational.ZERO);
+		this.lower.add(null);
+		this.upper.add(null);
+		this.columns.add(new HashSet<>());
+		return retVal;
+	}
+
+	/**
+	 * Adds a variable defined as a linear combination of
+	 * other variables.
+	 *
+	 * @param form a {@link Map}{@code <}{@link Integer}{@code , }{@link Rational}{@code >}
+	 *        mapping variables to their nonzero coefficients.
+	 * @param isInteger whether the variable is integer.
+	 * @return the variable, an {@code int}.
+	 */
+	int addRow(Map<Integer, Rational> form, boolean isInteger) {
+		final HashMap<Integer, Rational> row = new HashMap<>();
+		DeltaRational value = DeltaRational.ZERO;
+		for (Map.Entry<Integer, Rational> e : form.entrySet()) {
+			final int x = e.getKey();
+			final Rational a = e.getValue();
+			value = value.add(this.assignment.get(x).mul(a));
+			final HashMap<Integer, Rational> rowX = this.rows.get(x);
+			if (rowX == null) {
+				addToRow(row, x, a);
+			} else {
+				//x is basic: substitutes its row
+				for (Map.Entry<Integer, Rational> eX : rowX.entrySet()) {
+					addToRow(row, eX.getKey(), eX.getValue().mul(a));
+				}
+			}
+		}
+		final int retVal = addVariable(isInteger);
+		this.assignment.set(retVal, value);
+		this.rows.put(retVal, row);
+		for (int x : row.keySet()) {
+			this.columns.get(x).add(retVal);
+		}
+		return retVal;
+	}
+
+	private static void addToRow(HashMap<Integer, Rational> row, int x, Rational a) {
+		final Rational previous = row.get(x);
+		final Rational sum = (previous == null ? a : previous.add(a));
+		if (sum.signum() == 0) {
+			row.remove(x);
+		} else {
+			row.put(x, sum);
+		}
+	}
+
+	/**
+	 * Checks whether a variable is integer.
+	 *
+	 * @param x a variable.
+	 * @return a {@code boolean}.
+	 */
+	boolean isInteger(int x) {
+		return this.integer.get(x);
+	}
+
+	/**
+	 * Returns the value of a variable in the current assignment;
+	 * after a successful check it is a model of the constraints.
+	 *
+	 * @param x a variable.
+	 * @return a {@link DeltaRational}.
+	 */
+	DeltaRational value(int x) {
+		return this.assignment.get(x);
+	}
+
+	/**
+	 * Saves the current constraints, so that they can be restored
+	 * by {@link #rollback()}.
+	 */
+	void checkpoint() {
+		this.checkpoints.add(new int[] { this.trail.size(), this.disequalities.size() });
+	}
+
+	/**
+	 * Restores the constraints saved by the last {@link #checkpoint()},
+	 * and drops it.
+	 *
+	 * @return {@code false} iff there is no checkpoint.
+	 */
+	boolean rollback() {
+		if (this.checkpoints.isEmpty()) {
+			return false;
+		}
+		final int[] checkpoint = this.checkpoints.remove(this.checkpoints.size() - 1);
+		for (int i = this.trail.size() - 1; i >= checkpoint[0]; --i) {
+			final BoundChange c = this.trail.remove(i);
+			(c.upper ? this.upper : this.lower).set(c.variable, c.previous);
+		}
+		for (int i = this.disequalities.size() - 1; i >= checkpoint[1]; --i) {
+			this.disequalities.remove(i);
+		}
+		//the assignment of the nonbasic variables is within the (looser) restored bounds
+		return true;
+	}
+
+	/**
+	 * Asserts a lower bound on a variable.
+	 *
+	 * @param x a variable.
+	 * @param c a {@link DeltaRational}, the bound.
+	 * @return {@code false} iff the bound contradicts
+	 *         the upper bound of {@code x}.
+	 */
+	boolean assertLower(int x, DeltaRational c) {
+		final DeltaRational l = this.lower.get(x);
+		if (l != null && c.compareTo(l) <= 0) {
+			return true;
+		}
+		final DeltaRational u = this.upper.get(x);
+		if (u != null && c.compareTo(u) > 0) {
+			return false;
+		}
+		this.trail.add(new BoundChange(x, false, l));
+		this.lower.set(x, c);
+		if (!this.rows.containsKey(x) && this.assignment.get(x).compareTo(c) < 0) {
+			update(x, c);
+		}
+		return true;
+	}
+
+	/**
+	 * Asserts an upper bound on a variable.
+	 *
+	 * @param x a variable.
+	 * @param c a {@link DeltaRational}, the bound.
+	 * @return {@code false} iff the bound contradicts
+	 *         the lower bound of {@code x}.
+	 */
+	boolean assertUpper(int x, DeltaRational c) {
+		final DeltaRational u = this.upper.get(x);
+		if (u != null && c.compareTo(u) >= 0) {
+			return true;
+		}
+		final DeltaRational l = this.lower.get(x);
+		if (l != null && c.compareTo(l) < 0) {
+			return false;
+		}
+		this.trail.add(new BoundChange(x, true, u));
+		this.upper.set(x, c);
+		if (!this.rows.containsKey(x) && this.assignment.get(x).compareTo(c) > 0) {
+			update(x, c);
+		}
+		return true;
+	}
+
+	/**
+	 * Asserts a disequality between a variable and a constant.
+	 *
+	 * @param x a variable.
+	 * @param c a {@link Rational}.
+	 */
+	void assertDisequality(int x, Rational c) {
+		if (isInteger(x) && !c.isInteger()) {
+			return; //trivially true
+		}
+		this.disequalities.add(new Disequality(x, c));
+	}
+
+	/**
+	 * Checks whether the current constraints are satisfiable.
+	 *
+	 * @param maxPivots the maximum number of pivoting steps
+	 *        of each simplex run.
+	 * @param maxBranches the maximum number of branches
+	 *        opened to find an integer solution satisfying
+	 *        the disequalities.
+	 * @return {@link Outcome#SAT} if the constraints are satisfiable,
+	 *         and the current assignment is a model of them,
+	 *         {@link Outcome#UNSAT} if they are not satisfiable,
+	 *         {@link Outcome#UNKNOWN} if a limit was hit.
+	 */
+	Outcome check(int maxPivots, int maxBranches) {
+		this.branchesBudget = maxBranches;
+		return search(maxPivots);
+	}
+
+	private Outcome search(int maxPivots) {
+		final Outcome relaxed = simplex(maxPivots);
+		if (relaxed != Outcome.SAT) {
+			return relaxed;
+		}
+
+		//finds a branching variable and value
+		int branchVariable = -1;
+		Rational below = null, above = null; //the branches are x <= below and x >= above
+		boolean strict = false;
+		for (int x = 0; x < this.assignment.size(); ++x) {
+			final DeltaRational v = this.assignment.get(x);
+			if (isInteger(x) && !v.isInteger()) {
+				branchVariable = x;
+				below = v.floor();
+				above = below.add(Rational.ONE);
+				break;
+			}
+		}
+		if (branchVariable < 0) {
+			for (Disequality d : this.disequalities) {
+				final DeltaRational v = this.assignment.get(d.variable);
+				if (v.delta.signum() == 0 && v.value.equals(d.value)) {
+					branchVariable = d.variable;
+					if (isInteger(d.variable)) {
+						below = d.value.sub(Rational.ONE);
+						above = d.value.add(Rational.ONE);
+					} else {
+						below = above = d.value;
+						strict = true;
+					}
+					break;
+				}
+			}
+		}
+		if (branchVariable < 0) {
+			return Outcome.SAT;
+		}
+		if (this.branchesBudget <= 0) {
+			return Outcome.UNKNOWN;
+		}
+		--this.branchesBudget;
+
+		final DeltaRational belowBound = new DeltaRational(below, (strict ? Rational.ONE.neg() : Rational.ZERO));
+		final DeltaRational aboveBound = new DeltaRational(above, (strict ? Rational.ONE : Rational.ZERO));
+		checkpoint();
+		final Outcome left = (assertUpper(branchVariable, belowBound) ? search(maxPivots) : Outcome.UNSAT);
+		rollback();
+		if (left == Outcome.SAT) {
+			return left;
+		}
+		checkpoint();
+		final Outcome right = (assertLower(branchVariable, aboveBound) ? search(maxPivots) : Outcome.UNSAT);
+		rollback();
+		if (right == Outcome.SAT) {
+			return right;
+		}
+		return (left == Outcome.UNSAT && right == Outcome.UNSAT ? Outcome.UNSAT : Outcome.UNKNOWN);
+	}
+
+	/**
+	 * Runs the simplex over the rationals, with Bland's rule.
+	 *
+	 * @param maxPivots the maximum number of pivoting steps.
+	 * @return an {@link Outcome}.
+	 */
+	private Outcome simplex(int maxPivots) {
+		for (int pivots = 0; ; ++pivots) {
+			//the smallest violating basic variable
+			int xi = -1;
+			for (int b : this.rows.keySet()) {
+				if ((xi < 0 || b < xi) && violates(b)) {
+					xi = b;
+				}
+			}
+			if (xi < 0) {
+				return Outcome.SAT;
+			}
+			if (pivots >= maxPivots) {
+				return Outcome.UNKNOWN;
+			}
+
+			final DeltaRational vi = this.assignment.get(xi);
+			final DeltaRational li = this.lower.get(xi);
+			final boolean increase = (li != null && vi.compareTo(li) < 0);
+			int xj = -1;
+			for (Map.Entry<Integer, Rational> e : this.rows.get(xi).entrySet()) {
+				final int x = e.getKey();
+				if (xj >= 0 && x > xj) {
+					continue;
+				}
+				final boolean positive = (e.getValue().signum() > 0);
+				if (positive == increase ? canIncrease(x) : canDecrease(x)) {
+					xj = x;
+				}
+			}
+			if (xj < 0) {
+				return Outcome.UNSAT;
+			}
+			pivotAndUpdate(xi, xj, (increase ? li : this.upper.get(xi)));
+		}
+	}
+
+	private boolean violates(int x) {
+		final DeltaRational v = this.assignment.get(x);
+		final DeltaRational l = this.lower.get(x);
+		final DeltaRational u = this.upper.get(x);
+		return ((l != null && v.compareTo(l) < 0) || (u != null && v.compareTo(u) > 0));
+	}
+
+	private boolean canIncrease(int x) {
+		final DeltaRational u = this.upper.get(x);
+		return (u == null || this.assignment.get(x).compareTo(u) < 0);
+	}
+
+	private boolean canDecrease(int x) {
+		final DeltaRational l = this.lower.get(x);
+		return (l == null || this.assignment.get(x).compareTo(l) > 0);
+	}
+
+	/**
+	 * Sets the value of a nonbasic variable, and
+	 * updates the values of the basic variables.
+	 */
+	private void update(int xj, DeltaRational v) {
+		final DeltaRational theta = v.sub(this.assignment.get(xj));
+		for (int xi : this.columns.get(xj)) {
+			final Rational a = this.rows.get(xi).get(xj);
+			this.assignment.set(xi, this.assignment.get(xi).add(theta.mul(a)));
+		}
+		this.assignment.set(xj, v);
+	}
+
+	/**
+	 * Sets the value of a basic variable by changing the
+	 * value of a nonbasic variable, then swaps them.
+	 */
+	private void pivotAndUpdate(int xi, int xj, DeltaRational v) {
+		final Rational aij = this.rows.get(xi).get(xj);
+		final DeltaRational theta = v.sub(this.assignment.get(xi)).div(aij);
+		this.assignment.set(xi, v);
+		this.assignment.set(xj, this.assignment.get(xj).add(theta));
+		for (int xk : this.columns.get(xj)) {
+			if (xk != xi) {
+				final Rational akj = this.rows.get(xk).get(xj);
+				this.assignment.set(xk, this.assignment.get(xk).add(theta.mul(akj)));
+			}
+		}
+		pivot(xi, xj);
+	}
+
+	private void pivot(int xi, int xj) {
+		//solves the row of xi for xj
+		final HashMap<Integer, Rational> rowI = this.rows.remove(xi);
+		final Rational aij = rowI.remove(xj);
+		final HashMap<Integer, Rational> rowJ = new HashMap<>();
+		rowJ.put(xi, Rational.ONE.div(aij));
+		for (Map.Entry<Integer, Rational> e : rowI.entrySet()) {
+			rowJ.put(e.getKey(), e.getValue().neg().div(aij));
+		}
+		for (int x : rowI.keySet()) {
+			this.columns.get(x).remove(xi);
+		}
+		this.columns.get(xj).remove(xi);
+
+		//substitutes xj in the other rows
+		final ArrayList<Integer> containing = new ArrayList<>(this.columns.get(xj));
+		for (int xk : containing) {
+			final HashMap<Integer, Rational> rowK = this.rows.get(xk);
+			final Rational akj = rowK.remove(xj);
+			for (Map.Entry<Integer, Rational> e : rowJ.entrySet()) {
+				final int x = e.getKey();
+				addToRow(rowK, x, e.getValue().mul(akj));
+				if (rowK.containsKey(x)) {
+					this.columns.get(x).add(xk);
+				} else {
+					this.columns.get(x).remove(xk);
+				}
+			}
+		}
+		this.columns.get(xj).clear();
+
+		//installs the row of xj
+		this.rows.put(xj, rowJ);
+		for (int x : rowJ.keySet()) {
+			this.columns.get(x).add(xj);
+		}
+	}
+}
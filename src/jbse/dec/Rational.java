@@ -0,0 +1,161 @@
+package jbse.dec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * An immutable rational number with arbitrary precision,
+ * always kept in lowest terms with positive denominator.
+ *
+ * @author Pietro Braione
+ */
+final class Rational implements Comparable<Rational> {
+	static final Rational ZERO = new Rational(BigInteger.ZERO, BigInteger.ONE);
+	static final Rational ONE = new Rational(BigInteger.ONE, BigInteger.ONE);
+
+	private final BigInteger numerator;
+	private final BigInteger denominator;
+
+	private Rational(BigInteger numerator, BigInteger denominator) {
+		this.numerator = numerator;
+		this.denominator = denominator;
+	}
+
+	static Rational of(long value) {
+		return (value == 0 ? ZERO : value == 1 ? ONE : new Rational(BigInteger.valueOf(value), BigInteger.ONE));
+	}
+
+	static Rational of(BigInteger value) {
+		return new Rational(value, BigInteger.ONE);
+	}
+
+	/**
+	 * Converts a {@code double} to a {@link Rational}
+	 * without loss of precision.
+	 *
+	 * @param value a {@code double}.
+	 * @return a {@link Rational}, or {@code null} if
+	 *         {@code value} is not finite.
+	 */
+	static Rational of(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return null;
+		}
+		final BigDecimal d = new BigDecimal(value);
+		if (d.scale() <= 0) {
+			return of(d.toBigIntegerExact());
+		}
+		return make(d.unscaledValue(), BigInteger.TEN.pow(d.scale()));
+	}
+
+	private static Rational make(BigInteger numerator, BigInteger denominator) {
+		if (denominator.signum() == 0) {
+			throw new ArithmeticException("Division by zero.");
+		}
+		if (denominator.signum() < 0) {
+			numerator = numerator.negate();
+			denominator = denominator.negate();
+		}
+		final BigInteger gcd = numerator.gcd(denominator);
+		if (!gcd.equals(BigInteger.ONE) && gcd.signum() != 0) {
+			numerator = numerator.divide(gcd);
+			denominator = denominator.divide(gcd);
+		}
+		return new Rational(numerator, denominator);
+	}
+
+	BigInteger numerator() {
+		return this.numerator;
+	}
+
+	BigInteger denominator() {
+		return this.denominator;
+	}
+
+	int signum() {
+		return this.numerator.signum();
+	}
+
+	boolean isInteger() {
+		return this.denominator.equals(BigInteger.ONE);
+	}
+
+	Rational add(Rational other) {
+		if (this.denominator.equals(other.denominator)) {
+			return make(this.numerator.add(other.numerator), this.denominator);
+		}
+		return make(this.numerator.multiply(other.denominator).add(other.numerator.multiply(this.denominator)),
+		            this.denominator.multiply(other.denominator));
+	}
+
+	Rational sub(Rational other) {
+		return add(other.neg());
+	}
+
+	Rational mul(Rational other) {
+		return make(this.numerator.multiply(other.numerator), this.denominator.multiply(other.denominator));
+	}
+
+	Rational div(Rational other) {
+		return make(this.numerator.multiply(other.denominator), this.denominator.multiply(other.numerator));
+	}
+
+	Rational neg() {
+		return new Rational(this.numerator.negate(), this.denominator);
+	}
+
+	/**
+	 * Returns the greatest integer not greater than this number.
+	 *
+	 * @return a {@link Rational}.
+	 */
+	Rational floor() {
+		if (isInteger()) {
+			return this;
+		}
+		final BigInteger[] qr = this.numerator.divideAndRemainder(this.denominator);
+		return of(this.numerator.signum() < 0 ? qr[0].subtract(BigInteger.ONE) : qr[0]);
+	}
+
+	/**
+	 * Returns the smallest integer not smaller than this number.
+	 *
+	 * @return a {@link Rational}.
+	 */
+	Rational ceil() {
+		if (isInteger()) {
+			return this;
+		}
+		return floor().add(ONE);
+	}
+
+	@Override
+	public int compareTo(Rational other) {
+		if (this.denominator.equals(other.denominator)) {
+			return this.numerator.compareTo(other.numerator);
+		}
+		return this.numerator.multiply(other.denominator).compareTo(other.numerator.multiply(this.denominator));
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.numerator.hashCode() + this.denominator.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final Rational other = (Rational) obj;
+		return this.numerator.equals(other.numerator) && this.denominator.equals(other.denominator);
+	}
+
+	@Override
+	public String toString() {
+		return (isInteger() ? this.numerator.toString() : this.numerator + "/" + this.denominator);
+	}
+}
@@ -0,0 +1,282 @@
+package jbse.dec;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * An incremental reader of S-expressions from a character stream,
+ * as those produced by SMTLIB 2 solvers. It reads one token at a time
+ * directly from the stream, with no line buffering, so responses can
+ * span several lines and can be arbitrarily large. The text of the
+ * current atom is kept in a reused buffer.
+ *
+ * @author Pietro Braione
+ */
+final class SExpressionReader {
+	/** Token: end of stream. */
+	static final int EOF = -1;
+
+	/** Token: open parenthesis. */
+	static final int OPEN = 0;
+
+	/** Token: closed parenthesis. */
+	static final int CLOSE = 1;
+
+	/** Token: an atom (symbol, keyword, numeral, decimal or string literal). */
+	static final int ATOM = 2;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Reader in;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int pos = 0;
+	private int lim = 0;
+
+	/** The text of the current atom. */
+	private final StringBuilder atom = new StringBuilder();
+
+	/** The number of open parentheses not yet closed. */
+	private int depth = 0;
+
+	SExpressionReader(Reader in) {
+		this.in = in;
+	}
+
+	/**
+	 * Returns the number of open parentheses read
+	 * so far that were not yet closed.
+	 *
+	 * @return an {@code int}.
+	 */
+	int depth() {
+		return this.depth;
+	}
+
+	/**
+	 * Reads the next token.
+	 *
+	 * @return {@link #EOF}, {@link #OPEN}, {@link #CLOSE} or {@link #ATOM}.
+	 *         In the latter case, the text of the atom is returned by
+	 *         {@link #atom()}.
+	 * @throws IOException if reading from the stream fails.
+	 */
+	int next() throws IOException {
+		int c;
+		//skips whitespaces and comments
+		while (true) {
+			c = read();
+			if (c == ';') {
+				do {
+					c = read();
+				} while (c != '\n' && c != -1);
+			}
+			if (c == -1) {
+				return EOF;
+			}
+			if (!isWhitespace(c)) {
+				break;
+			}
+		}
+		if (c == '(') {
+			++this.depth;
+			return OPEN;
+		}
+		if (c == ')') {
+			--this.depth;
+			return CLOSE;
+		}
+		this.atom.setLength(0);
+		this.atom.append((char) c);
+		if (c == '"' || c == '|') {
+			//string literal or quoted symbol,
+			//"" is an escaped quote in string literals
+			final int delimiter = c;
+			while (true) {
+				c = read();
+				if (c == -1) {
+					return ATOM;
+				}
+				this.atom.append((char) c);
+				if (c == delimiter) {
+					if (delimiter == '"' && peek() == '"') {
+						this.atom.append((char) read());
+					} else {
+						return ATOM;
+					}
+				}
+			}
+		}
+		while (true) {
+			c = peek();
+			if (c == -1 || c == '(' || c == ')' || c == ';' || c == '"' || isWhitespace(c)) {
+				return ATOM;
+			}
+			this.atom.append((char) read());
+		}
+	}
+
+	/**
+	 * Returns the text of the last read atom.
+	 *
+	 * @return a {@link CharSequence}, valid until
+	 *         the next invocation of {@link #next()}.
+	 */
+	CharSequence atom() {
+		return this.atom;
+	}
+
+	/**
+	 * Checks whether the text of the last read atom
+	 * is equal to a given {@link String}.
+	 *
+	 * @param s a {@link String}.
+	 * @return {@code true} iff the last atom is {@code s}.
+	 */
+	boolean atomIs(String s) {
+		if (this.atom.length() != s.length()) {
+			return false;
+		}
+		for (int i = 0; i < s.length(); ++i) {
+			if (this.atom.charAt(i) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the last read atom as a number.
+	 *
+	 * @return a {@link Long} if the atom is a numeral that fits
+	 *         a {@code long}, a {@link Double} if it is a decimal
+	 *         or a bigger numeral, {@code null} otherwise.
+	 */
+	Number atomAsNumber() {
+		final int length = this.atom.length();
+		int i = 0;
+		final boolean negative = (length > 1 && this.atom.charAt(0) == '-');
+		if (negative) {
+			++i;
+		}
+		if (i == length) {
+			return null;
+		}
+		long value = 0;
+		boolean overflow = false;
+		for (; i < length; ++i) {
+			final char c = this.atom.charAt(i);
+			if (c == '.') {
+				break;
+			}
+			if (c < '0' || c > '9') {
+				return null;
+			}
+			final int digit = c - '0';
+			if (value > (Long.MAX_VALUE - digit) / 10) {
+				overflow = true;
+			} else {
+				value = value * 10 + digit;
+			}
+		}
+		if (i == length && !overflow) {
+			return (negative ? -value : value);
+		}
+		if (i < length) {
+			//decimal: checks that the fractional part is nonempty
+			//and made of digits
+			if (i == (negative ? 1 : 0) || i == length - 1) {
+				return null;
+			}
+			for (int j = i + 1; j < length; ++j) {
+				final char c = this.atom.charAt(j);
+				if (c < '0' || c > '9') {
+					return null;
+				}
+			}
+		}
+		//the syntax was checked, it will not throw
+		return Double.parseDouble(this.atom.toString());
+	}
+
+	/**
+	 * Reads tokens until the number of open parentheses not
+	 * yet closed is at most a given value, or the stream ends.
+	 *
+	 * @param target an {@code int}.
+	 * @return {@code false} iff the stream ended before.
+	 * @throws IOException if reading from the stream fails.
+	 */
+	boolean skipToDepth(int target) throws IOException {
+		while (this.depth > target) {
+			if (next() == EOF) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a whole S-expression.
+	 *
+	 * @return a {@link String}, the S-expression with its tokens
+	 *         separated by single spaces, or {@code null} if the
+	 *         stream ends before the first token.
+	 * @throws IOException if reading from the stream fails.
+	 */
+	String readExpression() throws IOException {
+		int token = next();
+		if (token == EOF) {
+			return null;
+		} else if (token == ATOM) {
+			return this.atom.toString();
+		} else if (token == CLOSE) {
+			return ")";
+		}
+		final int target = this.depth - 1;
+		final StringBuilder retVal = new StringBuilder("(");
+		while (this.depth > target) {
+			token = next();
+			if (token == EOF) {
+				break;
+			} else if (token == OPEN) {
+				retVal.append(retVal.charAt(retVal.length() - 1) == '(' ? "(" : " (");
+			} else if (token == CLOSE) {
+				retVal.append(')');
+			} else {
+				if (retVal.charAt(retVal.length() - 1) != '(') {
+					retVal.append(' ');
+				}
+				retVal.append(this.atom);
+			}
+		}
+		return retVal.toString();
+	}
+
+	private static boolean isWhitespace(int c) {
+		return (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+	}
+
+	private int read() throws IOException {
+		if (this.pos == this.lim && !fill()) {
+			return -1;
+		}
+		return this.buffer[this.pos++];
+	}
+
+	private int peek() throws IOException {
+		if (this.pos == this.lim && !fill()) {
+			return -1;
+		}
+		return this.buffer[this.pos];
+	}
+
+	private boolean fill() throws IOException {
+		final int n = this.in.read(this.buffer, 0, this.buffer.length);
+		if (n <= 0) {
+			return false;
+		}
+		this.pos = 0;
+		this.lim = n;
+		return true;
+	}
+}
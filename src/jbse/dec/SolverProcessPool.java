@@ -0,0 +1,133 @@
+package jbse.dec;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+/**
+ * A pool of the processes of the external solvers, that
+ * can be shared by many symbolic executions in the same JVM,
+ * possibly concurrent. A process is acquired when a
+ * {@link DecisionProcedureExternal} starts, and released when
+ * it quits, after the solver is reset, so the next
+ * symbolic execution that uses the same solver does not need
+ * to launch it again. This class is thread-safe.
+ *
+ * @author Pietro Braione
+ */
+public final class SolverProcessPool implements AutoCloseable {
+	/** The idle processes, by the command lines that launched them. */
+	private final HashMap<String, ArrayDeque<Process>> idle = new HashMap<>();
+
+	/** The number of launched processes. */
+	private int launched = 0;
+
+	/** The number of acquired idle processes. */
+	private int reused = 0;
+
+	/** Whether this pool is closed. */
+	private boolean closed = false;
+
+	/**
+	 * Acquires a solver process.
+	 *
+	 * @param commandLine a {@link String}, the command line that
+	 *        launches the solver.
+	 * @return an idle {@link Process} launched with {@code commandLine},
+	 *         or a freshly launched one if there is none.
+	 * @throws IOException if the solver cannot be launched.
+	 */
+	public Process acquire(String commandLine) throws IOException {
+		synchronized (this) {
+			final ArrayDeque<Process> processes = this.idle.get(commandLine);
+			while (processes != null && !processes.isEmpty()) {
+				final Process p = processes.removeFirst();
+				if (p.isAlive()) {
+					++this.reused;
+					return p;
+				}
+			}
+			++this.launched;
+		}
+		final ProcessBuilder pb = new ProcessBuilder(commandLine.split(" "));
+		pb.redirectErrorStream(true);
+		return pb.start();
+	}
+
+	/**
+	 * Launches solver processes in advance, so they 
+	 * are idle when they are first acquired.
+	 *
+	 * @param commandLine a {@link String}, the command line that
+	 *        launches the solver.
+	 * @param count the number of processes to launch.
+	 * @throws IOException if the solver cannot be launched.
+	 */
+	public void prestart(String commandLine, int count) throws IOException {
+		for (int i = 0; i < count; ++i) {
+			final ProcessBuilder pb = new ProcessBuilder(commandLine.split(" "));
+			pb.redirectErrorStream(true);
+			final Process p = pb.start();
+			synchronized (this) {
+				++this.launched;
+			}
+			release(commandLine, p);
+		}
+	}
+
+	/**
+	 * Releases a solver process. The caller must have reset
+	 * the solver, and must not use the process afterwards.
+	 *
+	 * @param commandLine a {@link String}, the command line
+	 *        that launched {@code process}.
+	 * @param process the released {@link Process}. If it is
+	 *        not alive, or this pool is closed, it is destroyed.
+	 */
+	public void release(String commandLine, Process process) {
+		synchronized (this) {
+			if (!this.closed && process.isAlive()) {
+				this.idle.computeIfAbsent(commandLine, k -> new ArrayDeque<>()).addLast(process);
+				return;
+			}
+		}
+		process.destroy();
+	}
+
+	/**
+	 * Returns the number of launched processes.
+	 *
+	 * @return a nonnegative {@code int}.
+	 */
+	public synchronized int getLaunched() {
+		return this.launched;
+	}
+
+	/**
+	 * Returns how many times an idle process was acquired.
+	 *
+	 * @return a nonnegative {@code int}.
+	 */
+	public synchronized int getReused() {
+		return this.reused;
+	}
+
+	/**
+	 * Closes this pool, destroying all the idle processes.
+	 * The processes released afterwards are destroyed.
+	 */
+	@Override
+	public void close() {
+		final HashMap<String, ArrayDeque<Process>> idle;
+		synchronized (this) {
+			this.closed = true;
+			idle = new HashMap<>(this.idle);
+			this.idle.clear();
+		}
+		for (ArrayDeque<Process> processes : idle.values()) {
+			for (Process p : processes) {
+				p.destroy();
+			}
+		}
+	}
+}
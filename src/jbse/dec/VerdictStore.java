@@ -0,0 +1,197 @@
+package jbse.dec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * A persistent store of the verdicts of the external decision
+ * procedures, that can be shared by subsequent runs. The verdicts
+ * are kept in memory, and appended to a text file with a line for
+ * each verdict, containing the digest of the query and the verdict.
+ * The digest of a query includes the fingerprint of the decision
+ * procedure that produced the verdict (see
+ * {@link DecisionProcedureExternal#getFingerprint()}), thus the
+ * verdicts of different configurations can be kept in the same file,
+ * and each configuration finds only its own ones. The first line of
+ * the file records its format, and a file with another format is
+ * never overwritten. A file should not be opened by two stores at
+ * the same time.
+ *
+ * @author Pietro Braione
+ */
+public final class VerdictStore implements Closeable {
+	/** The format of the file; it is the first line. */
+	private static final String FORMAT = "jbse-verdicts-2";
+
+	/** The length of a digest (see {@link #digest(String)}). */
+	private static final int DIGEST_LENGTH = 64;
+
+	/** The file. */
+	private final Path file;
+
+	/** The verdicts, indexed by the digests of the queries. */
+	private final HashMap<String, Boolean> verdicts = new HashMap<>();
+
+	/** Appends to {@code this.file}. */
+	private BufferedWriter out;
+
+	/** How many verdicts in {@code this.file} were discarded. */
+	private int discarded = 0;
+
+	/**
+	 * Constructor. Loads the verdicts in a file, or creates it.
+	 *
+	 * @param file the {@link Path} of the file.
+	 * @throws IOException if the file cannot be read or written,
+	 *         or it is not empty and has not the format of the
+	 *         verdict stores of this version.
+	 */
+	public VerdictStore(Path file) throws IOException {
+		this.file = file;
+		boolean exists = false;
+		try (final BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line = in.readLine();
+			if (line != null && !FORMAT.equals(line)) {
+				throw new IOException("The file " + file + " is not a verdict store, or has an obsolete format.");
+			}
+			exists = (line != null);
+			while ((line = in.readLine()) != null) {
+				final int space = line.indexOf(' ');
+				final String verdict = line.substring(space + 1);
+				if (space == DIGEST_LENGTH && ("0".equals(verdict) || "1".equals(verdict))) {
+					this.verdicts.put(line.substring(0, space), "1".equals(verdict));
+				} else {
+					//truncated line
+					++this.discarded;
+				}
+			}
+		} catch (NoSuchFileException e) {
+			//the file will be created
+		}
+		if (exists) {
+			final boolean terminated = endsWithNewline(file);
+			this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+			if (!terminated) {
+				//the last line was truncated, the next one must not be glued to it
+				this.out.newLine();
+			}
+		} else {
+			this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+			this.out.write(FORMAT);
+			this.out.newLine();
+		}
+	}
+
+	private static boolean endsWithNewline(Path file) throws IOException {
+		try (final SeekableByteChannel c = Files.newByteChannel(file)) {
+			if (c.size() == 0) {
+				return true;
+			}
+			final ByteBuffer last = ByteBuffer.allocate(1);
+			c.position(c.size() - 1);
+			c.read(last);
+			return (last.get(0) == '\n');
+		}
+	}
+
+	/**
+	 * Returns the file of this store.
+	 *
+	 * @return a {@link Path}.
+	 */
+	public Path getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Returns the number of stored verdicts.
+	 *
+	 * @return an {@code int}.
+	 */
+	public synchronized int size() {
+		return this.verdicts.size();
+	}
+
+	/**
+	 * Returns the number of verdicts in the file that
+	 * were discarded because truncated.
+	 *
+	 * @return an {@code int}.
+	 */
+	public int getDiscarded() {
+		return this.discarded;
+	}
+
+	/**
+	 * Returns the digest of a query.
+	 *
+	 * @param query a {@link String}, a canonical
+	 *        representation of the query.
+	 * @return a {@link String}.
+	 */
+	static String digest(String query) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder retVal = new StringBuilder(2 * digest.length);
+			for (byte b : digest) {
+				retVal.append(Character.forDigit((b >> 4) & 0xF, 16));
+				retVal.append(Character.forDigit(b & 0xF, 16));
+			}
+			return retVal.toString();
+		} catch (NoSuchAlgorithmException e) {
+			//this should never happen, SHA-256 is mandatory
+			throw new UnexpectedInternalException(e);
+		}
+	}
+
+	/**
+	 * Returns a stored verdict.
+	 *
+	 * @param digest a {@link String}, the digest of
+	 *        the query (see {@link #digest(String)}).
+	 * @return the stored verdict as a {@link Boolean}, or
+	 *         {@code null} if no verdict is stored for the query.
+	 */
+	synchronized Boolean get(String digest) {
+		return this.verdicts.get(digest);
+	}
+
+	/**
+	 * Stores a verdict.
+	 *
+	 * @param digest a {@link String}, the digest of
+	 *        the query (see {@link #digest(String)}).
+	 * @param verdict a {@code boolean}, the verdict.
+	 * @throws IOException if the file cannot be written.
+	 */
+	synchronized void put(String digest, boolean verdict) throws IOException {
+		if (this.out == null || this.verdicts.put(digest, verdict) != null) {
+			return;
+		}
+		this.out.write(digest);
+		this.out.write(verdict ? " 1" : " 0");
+		this.out.newLine();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.out != null) {
+			this.out.close();
+			this.out = null;
+		}
+	}
+}
@@ -0,0 +1,302 @@
+package jbse.jvm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import jbse.tree.StateTreeCheckpoint;
+
+/**
+ * A checkpoint of a {@link Runner}, i.e., the pending states
+ * of its {@link Engine} and its counters, as read from a
+ * checkpoint file. A checkpoint file is an append-only
+ * sequence of frames, each recording the changes since
+ * the previous one; a truncated or corrupted frame, e.g.,
+ * because the writing process was killed, and all the
+ * following frames are ignored.
+ *
+ * @author Pietro Braione
+ */
+public final class Checkpoint {
+	/** The magic number starting each frame. */
+	private static final int FRAME_MAGIC = 0x4A425345; //"JBSE"
+
+	/** The pending states. */
+	private final StateTreeCheckpoint frontier = new StateTreeCheckpoint();
+
+	/** The custom counters of the {@link Runner.Actions}. */
+	private final HashMap<String, Long> data = new HashMap<>();
+
+	/** The total number of traces. */
+	private long tracesTotal = 0;
+
+	/** The number of out-of-scope traces. */
+	private long tracesOutOfScope = 0;
+
+	/** The number of analyzed states. */
+	private long analyzedStates = 0;
+
+	/** The number of frames read. */
+	private long frames = 0;
+
+	/** The length of the valid prefix of the checkpoint file. */
+	private long validLength = 0;
+
+	private Checkpoint() { }
+
+	/**
+	 * Reads a checkpoint file.
+	 *
+	 * @param file the {@link Path} of the checkpoint file.
+	 * @return the {@link Checkpoint} resulting from all the
+	 *         valid frames in {@code file}.
+	 * @throws IOException if {@code file} cannot be read,
+	 *         or a valid frame cannot be interpreted.
+	 */
+	public static Checkpoint read(Path file) throws IOException {
+		final Checkpoint retVal = new Checkpoint();
+		try (final DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			while (true) {
+				final byte[] payload = readFrame(in);
+				if (payload == null) {
+					break;
+				}
+				retVal.apply(new DataInputStream(new ByteArrayInputStream(payload)));
+				retVal.validLength += 16 + payload.length;
+				++retVal.frames;
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Reads the payload of a frame.
+	 *
+	 * @param in a {@link DataInputStream}.
+	 * @return the payload as a {@code byte[]}, or {@code null} if
+	 *         {@code in} is at its end, or the frame is truncated
+	 *         or corrupted.
+	 * @throws IOException if reading fails.
+	 */
+	private static byte[] readFrame(DataInputStream in) throws IOException {
+		try {
+			if (in.readInt() != FRAME_MAGIC) {
+				return null;
+			}
+			final int length = in.readInt();
+			final long checksum = in.readLong();
+			if (length < 0) {
+				return null;
+			}
+			final byte[] retVal = new byte[length];
+			in.readFully(retVal);
+			final CRC32 crc = new CRC32();
+			crc.update(retVal);
+			return (crc.getValue() == checksum ? retVal : null);
+		} catch (EOFException e) {
+			return null;
+		}
+	}
+
+	private void apply(DataInputStream in) throws IOException {
+		this.tracesTotal = in.readLong();
+		this.tracesOutOfScope = in.readLong();
+		this.analyzedStates = in.readLong();
+		final int dataSize = in.readInt();
+		for (int i = 0; i < dataSize; ++i) {
+			final String key = in.readUTF();
+			this.data.put(key, in.readLong());
+		}
+		this.frontier.read(in);
+	}
+
+	/**
+	 * Returns the pending states.
+	 *
+	 * @return a {@link StateTreeCheckpoint}.
+	 */
+	public StateTreeCheckpoint getFrontier() {
+		return this.frontier;
+	}
+
+	/**
+	 * Returns the custom counters saved by the {@link Runner.Actions}.
+	 *
+	 * @return a {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}.
+	 */
+	public Map<String, Long> getData() {
+		return Collections.unmodifiableMap(this.data);
+	}
+
+	/**
+	 * Returns the total number of traces.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTracesTotal() {
+		return this.tracesTotal;
+	}
+
+	/**
+	 * Returns the number of out-of-scope traces.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTracesOutOfScope() {
+		return this.tracesOutOfScope;
+	}
+
+	/**
+	 * Returns the number of analyzed states.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getAnalyzedStates() {
+		return this.analyzedStates;
+	}
+
+	/**
+	 * Returns the number of valid frames.
+	 *
+	 * @return a {@code long}; if it is {@code 0}
+	 *         the checkpoint is empty.
+	 */
+	public long getFrames() {
+		return this.frames;
+	}
+
+	/**
+	 * Writes the frames of a checkpoint file. The frames
+	 * are assembled synchronously, but they are appended
+	 * to the file by a background thread.
+	 *
+	 * @author Pietro Braione
+	 */
+	static final class Writer {
+		/** The {@link FileChannel} of the checkpoint file. */
+		private final FileChannel channel;
+
+		/** The thread writing the frames. */
+		private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+			final Thread t = new Thread(r, "jbse-checkpoint");
+			t.setDaemon(true);
+			return t;
+		});
+
+		/** The buffer where the frames are assembled. */
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		/** The last frame submitted to {@code executor}, or {@code null}. */
+		private Future<?> lastWrite = null;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param file the {@link Path} of the checkpoint file.
+		 * @param continued the {@link Checkpoint} read from {@code file},
+		 *        if it must be continued, or {@code null} if {@code file}
+		 *        must be overwritten.
+		 * @throws IOException if {@code file} cannot be opened.
+		 */
+		Writer(Path file, Checkpoint continued) throws IOException {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			//drops the previous content or the invalid frames
+			this.channel.truncate(continued == null ? 0 : continued.validLength);
+			this.channel.position(this.channel.size());
+		}
+
+		/**
+		 * Writes a frame.
+		 *
+		 * @param tracesTotal the total number of traces.
+		 * @param tracesOutOfScope the number of out-of-scope traces.
+		 * @param data the custom counters of the {@link Runner.Actions}.
+		 * @param engine the {@link Engine} whose pending states must be
+		 *        written; its analyzed states are also written.
+		 * @throws IOException if the frame cannot be assembled, or the
+		 *         previous frame could not be written. In the latter case
+		 *         the checkpoint file is invalid from the failed frame on,
+		 *         and no further frame must be written.
+		 */
+		void write(long tracesTotal, long tracesOutOfScope, Map<String, Long> data, Engine engine)
+		throws IOException {
+			waitLastWrite();
+
+			//assembles the payload
+			this.buffer.reset();
+			final DataOutputStream out = new DataOutputStream(this.buffer);
+			out.writeLong(tracesTotal);
+			out.writeLong(tracesOutOfScope);
+			out.writeLong(engine.getAnalyzedStates());
+			out.writeInt(data.size());
+			for (Map.Entry<String, Long> e : data.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.writeLong(e.getValue());
+			}
+			engine.writeCheckpoint(out);
+			out.flush();
+			final byte[] payload = this.buffer.toByteArray();
+
+			//assembles the frame and submits it
+			final CRC32 crc = new CRC32();
+			crc.update(payload);
+			final ByteBuffer frame = ByteBuffer.allocate(16 + payload.length);
+			frame.putInt(FRAME_MAGIC).putInt(payload.length).putLong(crc.getValue()).put(payload);
+			frame.flip();
+			this.lastWrite = this.executor.submit(() -> {
+				while (frame.hasRemaining()) {
+					this.channel.write(frame);
+				}
+				this.channel.force(false);
+				return null;
+			});
+		}
+
+		/**
+		 * Waits for the last frame to be written and closes the file.
+		 *
+		 * @throws IOException if the last frame could not be written,
+		 *         or the file cannot be closed.
+		 */
+		void close() throws IOException {
+			try {
+				waitLastWrite();
+			} finally {
+				this.executor.shutdown();
+				this.channel.close();
+			}
+		}
+
+		private void waitLastWrite() throws IOException {
+			if (this.lastWrite == null) {
+				return;
+			}
+			try {
+				this.lastWrite.get();
+			} catch (ExecutionException e) {
+				throw (e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} finally {
+				this.lastWrite = null;
+			}
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package jbse.jvm;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Collection;
 
 import jbse.algo.Algorithm;
@@ -23,7 +25,10 @@ import jbse.mem.Clause;
 import jbse.mem.State;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.CoverageTracker;
+import jbse.tree.StateTree;
 import jbse.tree.StateTree.BranchPoint;
+import jbse.tree.StateTreeCheckpoint;
 
 /**
  * An {@code Engine} is a JVM able to symbolically execute the 
@@ -54,6 +59,9 @@ public class Engine implements AutoCloseable {
 	
 	/** The {@link VariableObserverManager}. */
 	private final VariableObserverManager vom;
+	
+	/** The {@link CoverageTracker}, or {@code null} if coverage is not tracked. */
+	private final CoverageTracker coverage;
 
 	//State of the execution
 	
@@ -105,10 +113,14 @@ public class Engine implements AutoCloseable {
 	 * Constructor. Used by the builder.
 	 * 
 	 * @param ctx an {@link ExecutionContext}.
+	 * @param vom a {@link VariableObserverManager}.
+	 * @param coverage a {@link CoverageTracker}, or {@code null}
+	 *        if coverage must not be tracked.
 	 */
-	Engine(ExecutionContext ctx, VariableObserverManager vom) {
+	Engine(ExecutionContext ctx, VariableObserverManager vom, CoverageTracker coverage) {
 		this.ctx = ctx;
 		this.vom = vom;
+		this.coverage = coverage;
 	}
 	
 	
@@ -233,6 +245,9 @@ public class Engine implements AutoCloseable {
 		//updates the information about the state before the step
 		this.preStepSourceRow = this.currentState.getSourceRow();
 		this.preStepStackSize = this.currentState.getStackSize();
+		if (this.coverage != null) {
+			this.coverage.beforeStep(this.currentState);
+		}
 		
 		//steps
 		Algorithm<?, ?, ?, ?, ?> algo, continuation = null;
@@ -266,6 +281,9 @@ public class Engine implements AutoCloseable {
 			retVal = null;
 			this.currentState.incSequenceNumber();
 		}
+		if (this.coverage != null) {
+			this.coverage.afterStep(this.currentState, retVal);
+		}
     	
 		//updates the counters for depth/count scope
         if (this.currentState.branchingDecision()) {
@@ -316,6 +334,17 @@ public class Engine implements AutoCloseable {
 		return this.analyzedStates;
 	}
 	
+	/**
+	 * Returns the coverage tracker.
+	 * 
+	 * @return the {@link CoverageTracker} updated by this 
+	 *         engine, or {@code null} if coverage is not 
+	 *         tracked.
+	 */
+	public CoverageTracker getCoverageTracker() {
+		return this.coverage;
+	}
+	
     /**
      * Returns the number of assumed object of a given class.
      * 
@@ -412,6 +441,9 @@ public class Engine implements AutoCloseable {
         }
 
 		this.vom.restoreObservedVariablesValues(bp, isLast);
+		if (this.coverage != null) {
+			this.coverage.afterBacktrack(this.currentState, bp, isLast);
+		}
 		
 		return bp;
 	}
@@ -505,12 +537,51 @@ public class Engine implements AutoCloseable {
 	}
 
 	/**
-	 * Cleans up the decision procedure after the usage of the engine.
+	 * Enables checkpointing of the pending states.
+	 */
+	void enableCheckpointing() {
+		this.ctx.stateTree.enableCheckpointing();
+	}
+	
+	/**
+	 * Writes a checkpoint record with the changes to the
+	 * pending states since the last record.
+	 * 
+	 * @param out the {@link DataOutput} where the record is written.
+	 * @throws IOException as in {@link StateTree#writeCheckpoint(DataOutput)}.
+	 */
+	void writeCheckpoint(DataOutput out) throws IOException {
+		this.ctx.stateTree.writeCheckpoint(out);
+	}
+	
+	/**
+	 * Restores the pending states from a checkpoint. It must
+	 * be invoked before the engine is stepped; after the
+	 * invocation the engine must backtrack.
+	 * 
+	 * @param frontier the {@link StateTreeCheckpoint} with the 
+	 *        pending states.
+	 * @param analyzedStates the number of analyzed states 
+	 *        in the checkpoint.
+	 * @param continued as in {@link StateTree#restore(StateTreeCheckpoint, jbse.val.Calculator, jbse.bc.ClassHierarchy, boolean)}.
+	 * @throws IOException if some state cannot be deserialized.
+	 */
+	void restoreCheckpoint(StateTreeCheckpoint frontier, long analyzedStates, boolean continued) 
+	throws IOException {
+		this.ctx.stateTree.restore(frontier, this.ctx.calc, this.currentState.getClassHierarchy(), continued);
+		this.analyzedStates = analyzedStates;
+		this.currentState.setStuckStop();
+	}
+
+	/**
+	 * Cleans up the decision procedure and the spilled states 
+	 * after the usage of the engine.
 	 * 
 	 * @throws DecisionException when clean-up of decision procedure fails.
 	 */
 	@Override
 	public void close() throws DecisionException {
+		this.ctx.stateTree.close();
 		this.ctx.decisionProcedure.close();
 	}
 }
\ No newline at end of file
@@ -21,23 +21,35 @@ import static jbse.bc.Signatures.JBSE_ANALYSIS_ISRESOLVED;
 import static jbse.bc.Signatures.JBSE_ANALYSIS_ISRUNBYJBSE;
 import static jbse.bc.Signatures.JBSE_ANALYSIS_SUCCEED;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static jbse.bc.Signatures.JBSE_ANALYSIS_ASSUMECLASSNOTINITIALIZED;
 
 import jbse.algo.ExecutionContext;
 import jbse.algo.NativeInvokerPure;
 import jbse.algo.exc.MetaUnsupportedException;
-import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassFileFactory;
 import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.dec.exc.DecisionException;
 import jbse.jvm.exc.CannotBuildEngineException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.rules.TriggerRulesRepo;
+import jbse.tree.CoverageTracker;
 import jbse.tree.DecisionAlternativeComparators;
+import jbse.tree.StateTree;
+import jbse.val.Calculator;
 
 /**
  * A Builder for {@link Engine}.
@@ -50,6 +62,92 @@ public class EngineBuilder {
 	 */
 	public EngineBuilder() { }
 	
+	/** Whether the {@link ExecutionContext}s of the built engines are reused. */
+	private boolean reuseContext = false;
+	
+	/** 
+	 * The {@link ExecutionContext} of the first built {@link Engine}, 
+	 * whose components are shared by the next built {@link Engine}s, 
+	 * or {@code null}. 
+	 */
+	private ExecutionContext warm = null;
+	
+	/** The parameters {@code this.warm} was built from. */
+	private ContextParameters warmParameters = null;
+	
+	/**
+	 * The parameters an {@link ExecutionContext} depends on, 
+	 * but for the initial state and the state tree. The ones 
+	 * that are mutable are copied.
+	 * 
+	 * @author Pietro Braione
+	 */
+	private static final class ContextParameters {
+		private final ArrayList<String> classpath = new ArrayList<>();
+		private final Calculator calc;
+		private final DecisionProcedureAlgorithms decisionProcedure;
+		private final Class<? extends ClassFileFactory> classFileFactory;
+		private final HashMap<String, Set<String>> expansionBackdoor = new HashMap<>();
+		private final TriggerRulesRepo triggerRules;
+		private final ArrayList<List<String>> metaOverridden = new ArrayList<>();
+		private final ArrayList<List<String>> uninterpreted = new ArrayList<>();
+		
+		ContextParameters(EngineParameters parameters) {
+			for (String path : parameters.getClasspath().classPath()) {
+				this.classpath.add(path);
+			}
+			this.calc = parameters.getCalculator();
+			this.decisionProcedure = parameters.getDecisionProcedure();
+			this.classFileFactory = parameters.getClassFileFactory();
+			for (Map.Entry<String, Set<String>> e : parameters.getExpansionBackdoor().entrySet()) {
+				this.expansionBackdoor.put(e.getKey(), new HashSet<>(e.getValue()));
+			}
+			this.triggerRules = parameters.getTriggerRulesRepo().clone();
+			for (String[] rule : parameters.getMetaOverridden()) {
+				this.metaOverridden.add(Arrays.asList(rule.clone()));
+			}
+			for (String[] rule : parameters.getUninterpreted()) {
+				this.uninterpreted.add(Arrays.asList(rule.clone()));
+			}
+		}
+		
+		boolean sameAs(ContextParameters other) {
+			return (this.classpath.equals(other.classpath) &&
+			        this.calc == other.calc &&
+			        this.decisionProcedure == other.decisionProcedure &&
+			        this.classFileFactory == other.classFileFactory &&
+			        this.expansionBackdoor.equals(other.expansionBackdoor) &&
+			        this.triggerRules.equals(other.triggerRules) &&
+			        this.metaOverridden.equals(other.metaOverridden) &&
+			        this.uninterpreted.equals(other.uninterpreted));
+		}
+	}
+	
+	/**
+	 * Sets whether the engines built by this builder must share 
+	 * the algorithms, the meta-level directives and the trigger 
+	 * rules of their {@link ExecutionContext}s, which are built 
+	 * only once. This speeds up the building of many short-lived 
+	 * engines, that differ only in their initial state (e.g., the 
+	 * engines that run the repOk methods). An engine shares the 
+	 * context of the previous one only if it is built with the 
+	 * same classpath, calculator, decision procedure, class file 
+	 * factory, expansion backdoor, trigger rules and meta-level 
+	 * directives, compared by value, so changing the parameters
+	 * between the builds is safe; otherwise its context is built
+	 * from scratch, and it is shared by the next engines. The 
+	 * engines must not be used at the same time. 
+	 * 
+	 * @param reuseContext a {@code boolean}, by default {@code false}.
+	 */
+	public void setReuseContext(boolean reuseContext) {
+		this.reuseContext = reuseContext;
+		if (!reuseContext) {
+			this.warm = null;
+			this.warmParameters = null;
+		}
+	}
+	
 	/**
 	 * Builds and configures an {@link Engine}.
 	 *  
@@ -83,13 +181,39 @@ public class EngineBuilder {
 		}
 
 		//creates the engine
-		final Engine engine = bootEngineArchitecture(parameters);
+		final ContextParameters contextParameters = (this.reuseContext ? new ContextParameters(parameters) : null);
+		final Engine engine;
+		if (this.warm != null && this.warmParameters.sameAs(contextParameters)) {
+			engine = bootEngineWarm(parameters);
+		} else {
+			engine = bootEngineArchitecture(parameters);
+			if (this.reuseContext) {
+				this.warmParameters = contextParameters;
+			}
+		}
 		engine.init();
 		return engine;
 	}
 	
-	private static Engine bootEngineArchitecture(EngineParameters parameters) 
+	private Engine bootEngineWarm(EngineParameters parameters) 
+	throws CannotBuildEngineException {
+		final CoverageTracker coverage = (parameters.getTrackCoverage() ? new CoverageTracker() : null);
+		final ExecutionContext ctx = new ExecutionContext(
+				this.warm,
+				parameters.getInitialState(),
+				parameters.getMethodSignature(),
+				parameters.getStateIdentificationMode().toInternal(), 
+				parameters.getBreadthMode().toInternal(),
+				StateTree.makeSearchStrategy(parameters.getSearchMode().toInternal(), 
+				                             parameters.getIterativeDeepeningIncrement(), 
+				                             parameters.getRandomPathSeed(), 
+				                             coverage));
+		return bootEngine(ctx, parameters, coverage);
+	}
+	
+	private Engine bootEngineArchitecture(EngineParameters parameters) 
 	throws CannotBuildEngineException {
+		final CoverageTracker coverage = (parameters.getTrackCoverage() ? new CoverageTracker() : null);
 		final ExecutionContext ctx = new ExecutionContext(
 				parameters.getInitialState(),
 				parameters.getClasspath(),
@@ -98,7 +222,11 @@ public class EngineBuilder {
 				parameters.getDecisionProcedure(),
 				parameters.getStateIdentificationMode().toInternal(), 
 				parameters.getBreadthMode().toInternal(),
-				ClassFileFactoryJavassist.class,          //default
+				StateTree.makeSearchStrategy(parameters.getSearchMode().toInternal(), 
+				                             parameters.getIterativeDeepeningIncrement(), 
+				                             parameters.getRandomPathSeed(), 
+				                             coverage),
+				parameters.getClassFileFactory(),
 				parameters.getExpansionBackdoor(), 
 				parameters.getTriggerRulesRepo(),
 				new DecisionAlternativeComparators(),     //default 
@@ -108,12 +236,31 @@ public class EngineBuilder {
 		//sets the meta-level directives
 		setMeta(ctx, parameters);
 		
+		//saves the context for reuse
+		if (this.reuseContext) {
+			this.warm = ctx;
+		}
+		
+		return bootEngine(ctx, parameters, coverage);
+	}
+	
+	private static Engine bootEngine(ExecutionContext ctx, EngineParameters parameters, CoverageTracker coverage) 
+	throws CannotBuildEngineException {
+		//enables spilling of states
+		if (parameters.getSpillThreshold() > 0) {
+			try {
+				ctx.stateTree.enableSpilling(parameters.getSpillThreshold(), parameters.getSpillDirectory());
+			} catch (IOException e) {
+				throw new CannotBuildEngineException(e);
+			}
+		}
+		
 		final VariableObserverManager vom = new VariableObserverManager(parameters.getMethodSignature().getClassName());
 
         //sets the observers
         setObservers(vom, parameters);
 
-		return new Engine(ctx, vom);
+		return new Engine(ctx, vom, coverage);
 	}
 	
 	private static void setMeta(ExecutionContext ctx, EngineParameters parameters) {
@@ -1,5 +1,7 @@
 package jbse.jvm;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -8,6 +10,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import jbse.bc.ClassFileFactory;
+import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms;
@@ -36,7 +40,8 @@ import jbse.val.Calculator;
  * functions, or for which there is a meta-level overriding implementation;</li>
  * <li>The signatures of the trigger instrumentation methods plus the 
  * reference resolution events that fire them;</li> 
- * <li>A {@link StateIdentificationMode} and a {@link BreadthMode};</li>
+ * <li>A {@link StateIdentificationMode}, a {@link BreadthMode} and
+ * a {@link SearchMode};</li>
  * <li>A set of {@link ExecutionObserver}s plus the
  * specification of the variables they observe (none by default).</li> 
  * </ul> 
@@ -139,11 +144,92 @@ public final class EngineParameters implements Cloneable {
 		}
 	}
 	
+	/**
+	 * Enumeration indicating which pending branch is resumed
+	 * when the current trace ends. Independently of the mode,
+	 * the current trace always continues into the branch 
+	 * created by its last step.
+	 * 
+	 * @author Pietro Braione
+	 */
+	public static enum SearchMode {
+		/** 
+		 * Resumes the most recently created branch
+		 * (depth-first exploration). 
+		 */
+		DEPTH_FIRST(StateTree.SearchMode.DEPTH_FIRST),
+		
+		/** 
+		 * Resumes the least recently created branch
+		 * (breadth-first exploration). 
+		 */
+		BREADTH_FIRST(StateTree.SearchMode.BREADTH_FIRST),
+		
+		/**
+		 * Resumes a branch chosen by a random walk
+		 * from the root, favoring shallow branches.
+		 */
+		RANDOM_PATH(StateTree.SearchMode.RANDOM_PATH),
+		
+		/** 
+		 * Resumes the branch with minimum depth. 
+		 */
+		SHORTEST_DEPTH_FIRST(StateTree.SearchMode.SHORTEST_DEPTH_FIRST),
+		
+		/**
+		 * Resumes branches depth-first among those
+		 * within a depth bound, increasing the bound 
+		 * when no such branch remains. 
+		 */
+		ITERATIVE_DEEPENING(StateTree.SearchMode.ITERATIVE_DEEPENING),
+		
+		/**
+		 * Resumes the branch closest to a control
+		 * flow edge not yet covered. It implies 
+		 * coverage tracking.
+		 */
+		COVERAGE_GUIDED(StateTree.SearchMode.COVERAGE_GUIDED);
+		
+		private final StateTree.SearchMode internal;
+		
+		private SearchMode(StateTree.SearchMode internal) {
+			this.internal = internal;
+		}
+		
+		public final StateTree.SearchMode toInternal() {
+			return this.internal;
+		}
+	}
+	
 	/** The state identification mode. */
 	private StateIdentificationMode stateIdMode = StateIdentificationMode.COMPACT;
 	
 	/** The breadth mode. */
 	private BreadthMode breadthMode = BreadthMode.MORE_THAN_ONE;
+	
+	/** The search mode. */
+	private SearchMode searchMode = SearchMode.DEPTH_FIRST;
+	
+	/** The depth bound increment for {@link SearchMode#ITERATIVE_DEEPENING}. */
+	private int iterativeDeepeningIncrement = 10;
+	
+	/** The random seed for {@link SearchMode#RANDOM_PATH}. */
+	private long randomPathSeed = 0L;
+	
+	/** Whether the engine must track branch coverage. */
+	private boolean trackCoverage = false;
+	
+	/** 
+	 * The ratio of the maximum heap size above which the pending 
+	 * states are spilled to disk ({@code 0} means never). 
+	 */
+	private double spillThreshold = 0.0d;
+	
+	/** 
+	 * The directory where the pending states are spilled, 
+	 * or {@code null} for the default temporary directory. 
+	 */
+	private Path spillDirectory = null;
 
 	/** 
 	 * The initial {@link State} of the symbolic execution, or
@@ -158,6 +244,12 @@ public final class EngineParameters implements Cloneable {
 	 */
 	private ArrayList<String> paths = new ArrayList<>();
 
+	/** 
+	 * The class of the {@link ClassFileFactory} that loads the 
+	 * classfiles; by default it is {@link ClassFileFactoryJavassist}. 
+	 */
+	private Class<? extends ClassFileFactory> classFileFactoryClass = ClassFileFactoryJavassist.class;
+
 	/** 
 	 * The {@link Calculator}; overridden by {@code initialState}'s 
 	 * calculator when {@code initialState != null}. 
@@ -261,6 +353,156 @@ public final class EngineParameters implements Cloneable {
 	public BreadthMode getBreadthMode() {
 		return this.breadthMode;
 	}
+	
+	/**
+	 * Sets the search mode, i.e., which pending branch
+	 * will be resumed when a trace ends.
+	 * 
+	 * @param searchMode a {@link SearchMode}.
+	 * @throws NullPointerException if {@code searchMode == null}.
+	 */
+	public void setSearchMode(SearchMode searchMode) {
+		if (searchMode == null) {
+			throw new NullPointerException();
+		}
+		this.searchMode = searchMode;
+	}
+	
+	/**
+	 * Gets the search mode.
+	 * 
+	 * @return the {@link SearchMode} set by the
+	 *         last call to {@link #setSearchMode(SearchMode)}.
+	 */
+	public SearchMode getSearchMode() {
+		return this.searchMode;
+	}
+	
+	/**
+	 * Sets the amount by which the depth bound is increased
+	 * when the search mode is {@link SearchMode#ITERATIVE_DEEPENING}.
+	 * It is also the initial bound. By default it is 10.
+	 * 
+	 * @param iterativeDeepeningIncrement a positive {@code int}.
+	 * @throws IllegalArgumentException if {@code iterativeDeepeningIncrement <= 0}.
+	 */
+	public void setIterativeDeepeningIncrement(int iterativeDeepeningIncrement) {
+		if (iterativeDeepeningIncrement <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.iterativeDeepeningIncrement = iterativeDeepeningIncrement;
+	}
+	
+	/**
+	 * Gets the depth bound increment for iterative deepening.
+	 * 
+	 * @return the {@code int} set by the last call to 
+	 *         {@link #setIterativeDeepeningIncrement(int)}.
+	 */
+	public int getIterativeDeepeningIncrement() {
+		return this.iterativeDeepeningIncrement;
+	}
+	
+	/**
+	 * Sets the seed for the random choices done when 
+	 * the search mode is {@link SearchMode#RANDOM_PATH}. 
+	 * By default it is 0.
+	 * 
+	 * @param randomPathSeed a {@code long}.
+	 */
+	public void setRandomPathSeed(long randomPathSeed) {
+		this.randomPathSeed = randomPathSeed;
+	}
+	
+	/**
+	 * Gets the seed for random path search.
+	 * 
+	 * @return the {@code long} set by the last call to 
+	 *         {@link #setRandomPathSeed(long)}.
+	 */
+	public long getRandomPathSeed() {
+		return this.randomPathSeed;
+	}
+	
+	/**
+	 * Sets whether the engine must track the control flow 
+	 * edges covered by the symbolic execution. Tracking is 
+	 * always performed when the search mode is 
+	 * {@link SearchMode#COVERAGE_GUIDED}. By default 
+	 * it is {@code false}.
+	 * 
+	 * @param trackCoverage a {@code boolean}.
+	 */
+	public void setTrackCoverage(boolean trackCoverage) {
+		this.trackCoverage = trackCoverage;
+	}
+	
+	/**
+	 * Gets whether the engine must track coverage.
+	 * 
+	 * @return {@code true} iff coverage must be tracked, 
+	 *         either because of a call to {@link #setTrackCoverage(boolean) setTrackCoverage(true)}
+	 *         or because the search mode is {@link SearchMode#COVERAGE_GUIDED}.
+	 */
+	public boolean getTrackCoverage() {
+		return this.trackCoverage || this.searchMode == SearchMode.COVERAGE_GUIDED;
+	}
+	
+	/**
+	 * Sets the heap usage threshold above which the pending 
+	 * states are spilled to a memory-mapped file, and rehydrated
+	 * when the engine backtracks to them. By default it is 
+	 * {@code 0}, i.e., states are never spilled.
+	 * 
+	 * @param spillThreshold a {@code double} in {@code [0, 1]}, 
+	 *        the ratio of the maximum heap size.
+	 * @throws IllegalArgumentException if {@code spillThreshold}
+	 *         is not in {@code [0, 1]}.
+	 */
+	public void setSpillThreshold(double spillThreshold) {
+		if (spillThreshold < 0 || spillThreshold > 1) {
+			throw new IllegalArgumentException();
+		}
+		this.spillThreshold = spillThreshold;
+	}
+	
+	/**
+	 * Gets the heap usage threshold for spilling states.
+	 * 
+	 * @return a {@code double}, {@code 0} if states 
+	 *         are never spilled.
+	 */
+	public double getSpillThreshold() {
+		return this.spillThreshold;
+	}
+	
+	/**
+	 * Sets the directory where the pending states are 
+	 * spilled. By default it is the system's temporary
+	 * directory.
+	 * 
+	 * @param spillDirectory a {@link String} containing 
+	 *        the pathname of a directory.
+	 * @throws NullPointerException if {@code spillDirectory == null}.
+	 * @throws java.nio.file.InvalidPathException if {@code spillDirectory} is not
+	 *         a valid path file name.
+	 */
+	public void setSpillDirectory(String spillDirectory) {
+		if (spillDirectory == null) {
+			throw new NullPointerException();
+		}
+		this.spillDirectory = Paths.get(spillDirectory);
+	}
+	
+	/**
+	 * Gets the directory where the pending states are spilled.
+	 * 
+	 * @return a {@link Path}, or {@code null} for the 
+	 *         system's temporary directory.
+	 */
+	public Path getSpillDirectory() {
+		return this.spillDirectory;
+	}
 
 	/** 
 	 * Adds an {@link ExecutionObserver} performing additional
@@ -386,6 +628,32 @@ public final class EngineParameters implements Cloneable {
 		}
 	}
 	private static final String[] ARRAY_OF_STRING = { };
+	
+	/**
+	 * Sets the class of the {@link ClassFileFactory} that loads 
+	 * the classfiles; the default is {@link ClassFileFactoryJavassist}.
+	 * 
+	 * @param classFileFactoryClass the {@link Class} of some subclass 
+	 *        of {@link ClassFileFactory}, with a public constructor with 
+	 *        parameters a {@code ClassFileStore} and a {@link Classpath}.
+	 * @throws NullPointerException if {@code classFileFactoryClass == null}.
+	 */
+	public void setClassFileFactory(Class<? extends ClassFileFactory> classFileFactoryClass) {
+		if (classFileFactoryClass == null) {
+			throw new NullPointerException();
+		}
+		this.classFileFactoryClass = classFileFactoryClass;
+	}
+	
+	/**
+	 * Returns the class of the {@link ClassFileFactory} that 
+	 * loads the classfiles.
+	 * 
+	 * @return the {@link Class} of some subclass of {@link ClassFileFactory}.
+	 */
+	public Class<? extends ClassFileFactory> getClassFileFactory() {
+		return this.classFileFactoryClass;
+	}
 	    
     /**
      * Returns the {@link TriggerRulesRepo} 
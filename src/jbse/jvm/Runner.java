@@ -1,5 +1,8 @@
 package jbse.jvm;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
 
 import jbse.algo.exc.CannotManageStateException;
@@ -12,6 +15,8 @@ import jbse.jvm.exc.FailureException;
 import jbse.mem.State;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.CoverageTracker;
+import jbse.tree.StateTree;
 import jbse.tree.StateTree.BranchPoint;
 
 /**
@@ -36,7 +41,8 @@ public class Runner {
 
 		/**
 		 * Invoked by a {@link Runner}'s {@link Runner#run run} method 
-		 * whenever it is at the root (initial state). 
+		 * whenever it is at the root (initial state). It is not
+		 * invoked when the execution is resumed from a checkpoint.
 		 * By default returns {@code false}.
 		 * 
 		 * @return {@code true} iff the {@link Runner} must stop
@@ -125,6 +131,49 @@ public class Runner {
 		 */
 		public void atTimeout() { }
 		
+		/**
+		 * Invoked by a {@link Runner}'s {@link Runner#run run} method 
+		 * at the end of a trace, whenever the coverage target is reached 
+		 * or no new coverage was obtained in the last traces, 
+		 * after which it stops running. By default does nothing.
+		 */
+		public void atCoverageGoal() { }
+		
+		/**
+		 * Invoked by a {@link Runner}'s {@link Runner#run run} method 
+		 * before a checkpoint is written, to save custom counters 
+		 * in the checkpoint. By default does nothing.
+		 * 
+		 * @param data a {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}
+		 *        where the counters can be put.
+		 */
+		public void atCheckpoint(Map<String, Long> data) { }
+		
+		/**
+		 * Invoked by a {@link Runner}'s {@link Runner#run run} method 
+		 * after the execution is resumed from a checkpoint, to restore 
+		 * the custom counters saved by {@link #atCheckpoint(Map)}. 
+		 * By default does nothing.
+		 * 
+		 * @param data a {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}
+		 *        with the counters in the checkpoint.
+		 */
+		public void atResume(Map<String, Long> data) { }
+		
+		/**
+		 * Invoked by a {@link Runner}'s {@link Runner#run run} method 
+		 * whenever a checkpoint cannot be read or written. If 
+		 * the checkpoint cannot be read the execution starts from 
+		 * scratch, if it cannot be written no further checkpoint
+		 * is written. By default returns {@code false}.
+		 * 
+		 * @param e the {@link IOException} thrown while reading 
+		 *        or writing the checkpoint.
+		 * @return {@code true} iff the {@link Runner} must stop
+		 *         {@link Runner#run run}ning.
+		 */
+		public boolean atCheckpointException(IOException e) { return false; }
+		
 		/**
 		 * Invoked by a {@link Runner}'s {@link Runner#run run} method after 
 		 * a step (note that this implies that a step is possible, i.e., {@link Engine.canStep()} 
@@ -373,6 +422,33 @@ public class Runner {
 
 	/** The count scope. */
 	private final int countScope;
+	
+	/** The coverage target ({@code 0} means none). */
+	private final double coverageTarget;
+	
+	/** The coverage plateau, in traces ({@code 0} means none). */
+	private final long coveragePlateau;
+	
+	/** The number of covered edges at the end of the last trace. */
+	private long coveredEdgesLast = 0;
+	
+	/** The value of {@code tracesTot} when coverage last increased. */
+	private long tracesAtLastCoverageIncrease = 0;
+	
+	/** The checkpoint file, or {@code null} if checkpoints are not written. */
+	private final Path checkpointFile;
+	
+	/** The number of traces between two checkpoints. */
+	private final long checkpointInterval;
+	
+	/** The checkpoint file to resume from, or {@code null} if the execution starts from scratch. */
+	private final Path resumeFile;
+	
+	/** The {@link Checkpoint.Writer} for {@code checkpointFile}, or {@code null}. */
+	private Checkpoint.Writer checkpointWriter = null;
+	
+	/** Whether the execution was resumed from {@code resumeFile}. */
+	private boolean resumed = false;
 		
 	/** The timeout. */
 	private long timeout;
@@ -406,6 +482,18 @@ public class Runner {
 	 *        mapping class names with their respective scopes ({@code <= 0} means unlimited).
 	 * @param depthScope the depth scope, an {@code int} ({@code <= 0} means unlimited).
 	 * @param countScope the count scope, an  {@code int}({@code <= 0} means unlimited).
+	 * @param coverageTarget the ratio of covered edges at which execution 
+	 *        stops, a {@code double} ({@code <= 0} means no target).
+	 * @param coveragePlateau the number of consecutive traces without new
+	 *        coverage after which execution stops, a {@code long} 
+	 *        ({@code <= 0} means no plateau).
+	 * @param checkpointFile the {@link Path} of the file where checkpoints
+	 *        are written, or {@code null} for no checkpoint.
+	 * @param checkpointInterval the number of traces between two 
+	 *        checkpoints, a {@code long} ({@code <= 0} means that only a 
+	 *        checkpoint at the end of the execution is written).
+	 * @param resumeFile the {@link Path} of the checkpoint file to resume
+	 *        from, or {@code null} if execution must start from scratch.
 	 */
 	Runner(Engine engine, 
 	       Actions actions, 
@@ -413,7 +501,12 @@ public class Runner {
 	       long timeout, 
 	       Map<String, Integer> heapScope, 
 	       int depthScope, 
-	       int countScope) {
+	       int countScope, 
+	       double coverageTarget, 
+	       long coveragePlateau, 
+	       Path checkpointFile, 
+	       long checkpointInterval, 
+	       Path resumeFile) {
 		this.engine = engine;
 		this.actions = actions;
 		this.actions.engine = engine;
@@ -422,18 +515,39 @@ public class Runner {
 		this.heapScope = heapScope;
 		this.depthScope = depthScope;
 		this.countScope = countScope;
+		this.coverageTarget = coverageTarget;
+		this.coveragePlateau = coveragePlateau;
+		this.checkpointFile = checkpointFile;
+		this.checkpointInterval = checkpointInterval;
+		this.resumeFile = resumeFile;
 		this.tracesOutOfScope = 0;
 		this.tracesTot = 0;
+		if (this.checkpointFile != null) {
+			this.engine.enableCheckpointing();
+		}
 	}
 
 	private boolean currentStateIsInRunSubregion() {
+		return isInSubregion(this.engine.getCurrentState().getIdentifier(), this.identifierSubregion);
+	}
+	
+	/**
+	 * Checks whether a state is in a subregion of the state space,
+	 * or on the path from the root to the subregion.
+	 * 
+	 * @param identifier the identifier of a state.
+	 * @param identifierSubregion the identifier of the branch state
+	 *        of the subregion, or {@code null} for the whole state space.
+	 * @return {@code true} iff the state with identifier {@code identifier}
+	 *         must be explored by a {@link Runner} whose run subregion
+	 *         is {@code identifierSubregion}.
+	 */
+	public static boolean isInSubregion(String identifier, String identifierSubregion) {
 		if (identifierSubregion == null) {
 			return true;
 		}
-		final String currentRegion = this.engine.getCurrentState().getIdentifier();
-		final boolean retVal = (currentRegion.startsWith(identifierSubregion) || 
-				identifierSubregion.startsWith(currentRegion));
-		return retVal;
+		return (StateTree.isIdentifierPrefix(identifierSubregion, identifier) || 
+				StateTree.isIdentifierPrefix(identifier, identifierSubregion));
 	}
 	
 	private boolean outOfScope() {
@@ -461,6 +575,20 @@ public class Runner {
 		return retVal;
 	}
 	
+	private boolean coverageGoalReached() {
+		final CoverageTracker coverage = this.engine.getCoverageTracker();
+		if (coverage == null) {
+			return false;
+		}
+		final long coveredEdges = coverage.getCoveredEdges();
+		if (coveredEdges > this.coveredEdgesLast) {
+			this.coveredEdgesLast = coveredEdges;
+			this.tracesAtLastCoverageIncrease = this.tracesTot;
+		}
+		return ((this.coverageTarget > 0 && coverage.getCoverageRatio() >= this.coverageTarget) ||
+				(this.coveragePlateau > 0 && this.tracesTot - this.tracesAtLastCoverageIncrease >= this.coveragePlateau));
+	}
+	
 	/**
 	 * Runs the method.
 	 * 
@@ -481,18 +609,101 @@ public class Runner {
 		this.startTime = System.currentTimeMillis();
 		
 		try {
+			if (startCheckpointing()) { return; }
 		    doRun();
 		} finally {
+			stopCheckpointing();
 		    this.stopTime = System.currentTimeMillis();
 		}
 	}
+	
+	/**
+	 * Resumes from the checkpoint file, if required, 
+	 * and opens the checkpoint file, if required.
+	 * 
+	 * @return {@code true} iff the {@link Runner} must stop.
+	 * @throws CannotBacktrackException as in {@link Engine#backtrack()}.
+	 * @throws DecisionBacktrackException as in {@link Engine#backtrack()}.
+	 */
+	private boolean startCheckpointing() throws CannotBacktrackException, DecisionBacktrackException {
+		Checkpoint checkpoint = null;
+		if (this.resumeFile != null) {
+			try {
+				checkpoint = Checkpoint.read(this.resumeFile);
+				this.engine.restoreCheckpoint(checkpoint.getFrontier(), checkpoint.getAnalyzedStates(), isCheckpointContinued());
+			} catch (IOException e) {
+				checkpoint = null;
+				if (this.actions.atCheckpointException(e)) { return true; }
+			}
+		}
+		
+		if (this.checkpointFile != null) {
+			try {
+				this.checkpointWriter = new Checkpoint.Writer(this.checkpointFile, (isCheckpointContinued() ? checkpoint : null));
+			} catch (IOException e) {
+				if (this.actions.atCheckpointException(e)) { return true; }
+			}
+		}
+		
+		if (checkpoint != null) {
+			this.resumed = true;
+			this.tracesTot = checkpoint.getTracesTotal();
+			this.tracesOutOfScope = checkpoint.getTracesOutOfScope();
+			this.actions.atResume(checkpoint.getData());
+			if (!this.engine.canBacktrack()) {
+				//the checkpointed execution was completed
+				this.actions.atEnd();
+				return true;
+			}
+			try {
+				this.engine.backtrack();
+			} catch (DecisionBacktrackException e) {
+				if (this.actions.atDecisionBacktrackException(e)) { return true; }
+			}
+		}
+		return false;
+	}
+	
+	private boolean isCheckpointContinued() {
+		return (this.resumeFile != null && this.resumeFile.equals(this.checkpointFile));
+	}
+	
+	/**
+	 * Writes a checkpoint.
+	 * 
+	 * @return {@code true} iff the {@link Runner} must stop.
+	 */
+	private boolean writeCheckpoint() {
+		final HashMap<String, Long> data = new HashMap<>();
+		this.actions.atCheckpoint(data);
+		try {
+			this.checkpointWriter.write(this.tracesTot, this.tracesOutOfScope, data, this.engine);
+		} catch (IOException e) {
+			//the file might be invalid from now on
+			stopCheckpointing();
+			return this.actions.atCheckpointException(e);
+		}
+		return false;
+	}
+	
+	private void stopCheckpointing() {
+		if (this.checkpointWriter != null) {
+			final Checkpoint.Writer w = this.checkpointWriter;
+			this.checkpointWriter = null;
+			try {
+				w.close();
+			} catch (IOException e) {
+				this.actions.atCheckpointException(e);
+			}
+		}
+	}
 		
     private void doRun() 
     throws CannotBacktrackException, CannotManageStateException, 
     ClasspathException, ThreadStackEmptyException, 
     ContradictionException, DecisionException, EngineStuckException, 
     FailureException  {
-		if (this.actions.atRoot()) { return; }
+		if (!this.resumed && this.actions.atRoot()) { return; }
 		
 		//performs the symbolic execution loop
 		while (true) {
@@ -568,6 +779,14 @@ public class Runner {
 				//is both stuck and out of the run subregion)
 				++this.tracesTot;
 				if (this.actions.atTraceEnd()) { return; }
+				if (coverageGoalReached()) {
+					this.actions.atCoverageGoal();
+					return;
+				}
+				if (this.checkpointWriter != null && 
+				    ((this.checkpointInterval > 0 && this.tracesTot % this.checkpointInterval == 0) || !this.engine.canBacktrack())) {
+					if (writeCheckpoint()) { return; }
+				}
 			}
 
 			//backtracks
@@ -19,6 +19,18 @@ public class RunnerBuilder {
 	/** The {@link Engine} underlying the built {@link Runner}. */
 	private Engine engine;
 
+	/**
+	 * Sets whether the engines of the {@link Runner}s built with 
+	 * the same parameters must share the components of their 
+	 * execution contexts (see 
+	 * {@link EngineBuilder#setReuseContext(boolean)}).
+	 * 
+	 * @param reuseContext a {@code boolean}, by default {@code false}.
+	 */
+	public void setReuseContext(boolean reuseContext) {
+		this.eb.setReuseContext(reuseContext);
+	}
+
 	/**
 	 * Builds a {@link Runner}.
 	 * 
@@ -48,7 +60,9 @@ public class RunnerBuilder {
 		this.engine = this.eb.build(parameters.getEngineParameters());
 		return new Runner(this.engine, parameters.getActions(), parameters.getIdentifierSubregion(), 
 				parameters.getTimeout(), parameters.getHeapScope(), parameters.getDepthScope(), 
-				parameters.getCountScope());
+				parameters.getCountScope(), parameters.getCoverageTarget(), 
+				parameters.getCoveragePlateau(), parameters.getCheckpointFile(), 
+				parameters.getCheckpointInterval(), parameters.getResumeFile());
 	}
 	
 	/**
@@ -1,14 +1,19 @@
 package jbse.jvm;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import jbse.bc.ClassFileFactory;
+import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.jvm.EngineParameters.BreadthMode;
+import jbse.jvm.EngineParameters.SearchMode;
 import jbse.jvm.EngineParameters.StateIdentificationMode;
 import jbse.jvm.Runner.Actions;
 import jbse.mem.State;
@@ -48,6 +53,21 @@ public final class RunnerParameters implements Cloneable {
 	/** The count scope. */
 	private int countScope = 0;
 	
+	/** The coverage target. */
+	private double coverageTarget = 0.0d;
+	
+	/** The coverage plateau. */
+	private long coveragePlateau = 0;
+	
+	/** The checkpoint file. */
+	private Path checkpointFile = null;
+	
+	/** The checkpoint interval, in traces. */
+	private long checkpointInterval = 1000;
+	
+	/** The checkpoint file to resume from. */
+	private Path resumeFile = null;
+	
 	/** The {@link Actions}. */
 	private Actions actions = new Actions();
 	
@@ -146,6 +166,75 @@ public final class RunnerParameters implements Cloneable {
 	public BreadthMode getBreadthMode() {
 		return this.engineParameters.getBreadthMode();
 	}
+	
+	/**
+	 * Sets the search mode, i.e., which pending branch
+	 * will be resumed when a trace ends.
+	 * 
+	 * @param searchMode a {@link SearchMode}.
+	 * @throws NullPointerException if {@code searchMode == null}.
+	 */
+	public void setSearchMode(SearchMode searchMode) {
+		this.engineParameters.setSearchMode(searchMode);
+	}
+	
+	/**
+	 * Gets the search mode.
+	 * 
+	 * @return the {@link SearchMode} set by the
+	 *         last call to {@link #setSearchMode(SearchMode)}.
+	 */
+	public SearchMode getSearchMode() {
+		return this.engineParameters.getSearchMode();
+	}
+	
+	/**
+	 * Sets the amount by which the depth bound is increased
+	 * when the search mode is {@link SearchMode#ITERATIVE_DEEPENING}.
+	 * 
+	 * @param iterativeDeepeningIncrement a positive {@code int}.
+	 * @throws IllegalArgumentException if {@code iterativeDeepeningIncrement <= 0}.
+	 */
+	public void setIterativeDeepeningIncrement(int iterativeDeepeningIncrement) {
+		this.engineParameters.setIterativeDeepeningIncrement(iterativeDeepeningIncrement);
+	}
+	
+	/**
+	 * Sets the seed for the random choices done when 
+	 * the search mode is {@link SearchMode#RANDOM_PATH}.
+	 * 
+	 * @param randomPathSeed a {@code long}.
+	 */
+	public void setRandomPathSeed(long randomPathSeed) {
+		this.engineParameters.setRandomPathSeed(randomPathSeed);
+	}
+	
+	/**
+	 * Sets the heap usage threshold above which the pending 
+	 * states are spilled to disk.
+	 * 
+	 * @param spillThreshold a {@code double} in {@code [0, 1]}, 
+	 *        the ratio of the maximum heap size, or {@code 0} 
+	 *        for never spilling states.
+	 * @throws IllegalArgumentException if {@code spillThreshold}
+	 *         is not in {@code [0, 1]}.
+	 */
+	public void setSpillThreshold(double spillThreshold) {
+		this.engineParameters.setSpillThreshold(spillThreshold);
+	}
+	
+	/**
+	 * Sets the directory where the pending states are spilled.
+	 * 
+	 * @param spillDirectory a {@link String} containing 
+	 *        the pathname of a directory.
+	 * @throws NullPointerException if {@code spillDirectory == null}.
+	 * @throws java.nio.file.InvalidPathException if {@code spillDirectory} is not
+	 *         a valid path file name.
+	 */
+	public void setSpillDirectory(String spillDirectory) {
+		this.engineParameters.setSpillDirectory(spillDirectory);
+	}
 
 	/**
 	 * Sets the initial state of the symbolic execution, and cancels the 
@@ -195,6 +284,28 @@ public final class RunnerParameters implements Cloneable {
 		return this.engineParameters.getClasspath();
 	}
 
+	/**
+	 * Sets the class of the {@link ClassFileFactory} that loads 
+	 * the classfiles; the default is {@link ClassFileFactoryJavassist}.
+	 * 
+	 * @param classFileFactoryClass the {@link Class} of some subclass 
+	 *        of {@link ClassFileFactory}.
+	 * @throws NullPointerException if {@code classFileFactoryClass == null}.
+	 */
+	public void setClassFileFactory(Class<? extends ClassFileFactory> classFileFactoryClass) {
+		this.engineParameters.setClassFileFactory(classFileFactoryClass);
+	}
+
+	/**
+	 * Returns the class of the {@link ClassFileFactory} that 
+	 * loads the classfiles.
+	 * 
+	 * @return the {@link Class} of some subclass of {@link ClassFileFactory}.
+	 */
+	public Class<? extends ClassFileFactory> getClassFileFactory() {
+		return this.engineParameters.getClassFileFactory();
+	}
+
 	/**
 	 * Sets the signature of the method which must be symbolically executed.
 	 * 
@@ -593,6 +704,159 @@ public final class RunnerParameters implements Cloneable {
 	    return this.countScope;
 	}
 	
+	/**
+	 * Sets a coverage target. When the ratio of the covered 
+	 * control flow edges over the edges of all the methods of 
+	 * the classes met so far reaches the target, execution stops. 
+	 * The classes that the symbolic execution did not meet yet 
+	 * do not count, thus the target should be set when the
+	 * analyzed methods are mostly in the class of the root method.
+	 * Setting a target enables coverage tracking.
+	 * 
+	 * @param coverageTarget a {@code double} in {@code (0, 1]}, 
+	 *        or {@code 0} for no target.
+	 * @throws IllegalArgumentException if {@code coverageTarget} 
+	 *         is not in {@code [0, 1]}.
+	 */
+	public void setCoverageTarget(double coverageTarget) {
+		if (coverageTarget < 0 || coverageTarget > 1) {
+			throw new IllegalArgumentException();
+		}
+		this.coverageTarget = coverageTarget;
+		if (coverageTarget > 0) {
+			this.engineParameters.setTrackCoverage(true);
+		}
+	}
+	
+	/**
+	 * Gets the coverage target.
+	 * 
+	 * @return a {@code double}, the coverage target or {@code 0}
+	 *         for no target.
+	 */
+	public double getCoverageTarget() {
+		return this.coverageTarget;
+	}
+	
+	/**
+	 * Sets a coverage plateau. When this number of consecutive
+	 * traces ends without covering any new control flow edge, 
+	 * execution stops. Setting a plateau enables coverage tracking.
+	 * 
+	 * @param coveragePlateau a {@code long}, the number of traces, 
+	 *        or {@code 0} for no plateau.
+	 */
+	public void setCoveragePlateau(long coveragePlateau) {
+		this.coveragePlateau = coveragePlateau;
+		if (coveragePlateau > 0) {
+			this.engineParameters.setTrackCoverage(true);
+		}
+	}
+	
+	/**
+	 * Gets the coverage plateau.
+	 * 
+	 * @return a {@code long}, the coverage plateau or {@code 0}
+	 *         for no plateau.
+	 */
+	public long getCoveragePlateau() {
+		return this.coveragePlateau;
+	}
+	
+	/**
+	 * Sets the file where checkpoints are periodically written, 
+	 * so that an interrupted execution can be resumed. Each checkpoint
+	 * is appended to the file, and only records the changes since the 
+	 * previous one. By default no checkpoint is written. 
+	 * 
+	 * @param checkpointFile a {@link String}, the pathname of the 
+	 *        checkpoint file. If it is the same file the execution
+	 *        is resumed from, it is continued, otherwise it is 
+	 *        overwritten.
+	 * @throws NullPointerException if {@code checkpointFile == null}.
+	 * @throws java.nio.file.InvalidPathException if {@code checkpointFile} 
+	 *         is not a valid path file name.
+	 */
+	public void setCheckpointFile(String checkpointFile) {
+		if (checkpointFile == null) {
+			throw new NullPointerException();
+		}
+		this.checkpointFile = Paths.get(checkpointFile).toAbsolutePath().normalize();
+	}
+	
+	/**
+	 * Gets the checkpoint file.
+	 * 
+	 * @return a {@link Path}, or {@code null} if no 
+	 *         checkpoint is written.
+	 */
+	public Path getCheckpointFile() {
+		return this.checkpointFile;
+	}
+	
+	/**
+	 * Sets the number of traces between two checkpoints. 
+	 * A checkpoint is also written when the execution ends.
+	 * By default it is 1000.
+	 * 
+	 * @param checkpointInterval a {@code long}, the number 
+	 *        of traces ({@code <= 0} means that only the final
+	 *        checkpoint is written).
+	 */
+	public void setCheckpointInterval(long checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+	
+	/**
+	 * Gets the number of traces between two checkpoints.
+	 * 
+	 * @return a {@code long}.
+	 */
+	public long getCheckpointInterval() {
+		return this.checkpointInterval;
+	}
+	
+	/**
+	 * Sets the checkpoint file the execution must be resumed 
+	 * from. The pending states and the counters in the checkpoint 
+	 * are restored, and the execution continues from the next 
+	 * pending state. The other parameters must be the same of
+	 * the execution that wrote the checkpoint. 
+	 * 
+	 * @param resumeFile a {@link String}, the pathname of the 
+	 *        checkpoint file.
+	 * @throws NullPointerException if {@code resumeFile == null}.
+	 * @throws java.nio.file.InvalidPathException if {@code resumeFile} 
+	 *         is not a valid path file name.
+	 */
+	public void setResumeFile(String resumeFile) {
+		if (resumeFile == null) {
+			throw new NullPointerException();
+		}
+		this.resumeFile = Paths.get(resumeFile).toAbsolutePath().normalize();
+	}
+	
+	/**
+	 * Gets the checkpoint file the execution must be resumed from.
+	 * 
+	 * @return a {@link Path}, or {@code null} if the execution
+	 *         starts from scratch.
+	 */
+	public Path getResumeFile() {
+		return this.resumeFile;
+	}
+	
+	/**
+	 * Instructs neither to write checkpoints nor to resume
+	 * from a checkpoint, cancelling any previous invocation of
+	 * the {@link #setCheckpointFile(String)} and {@link #setResumeFile(String)}
+	 * methods. This is the default behaviour.
+	 */
+	public void setCheckpointNone() {
+		this.checkpointFile = null;
+		this.resumeFile = null;
+	}
+	
 	/**
 	 * Sets the actions to be performed while running.
 	 * 
@@ -128,6 +128,14 @@ class VariableObserverManager {
 	void restoreObservedVariablesValues(BranchPoint bp, boolean delete) {
 		if (this.hasObservers()) {
 			this.values = this.savedValues.get(bp);
+			if (this.values == null) {
+				//the branch was restored from a checkpoint:
+				//reads the values from the current state
+				this.values = new LinkedList<>();
+				for (int i = 0; i < this.numObservers(); ++i) {
+					this.values.add(this.getObservedVariableValue(i));
+				}
+			}
 			if (delete) {
 				this.savedValues.remove(bp);
 			}
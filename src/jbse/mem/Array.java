@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -31,6 +32,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class Array extends Objekt {
+	private static final long serialVersionUID = -361116592542361276L;
+
 	/** 
 	 * The {@link String} identifier of the {@link Term} used to
 	 * represent an {@link Array}'s index.
@@ -84,7 +87,9 @@ public final class Array extends Objekt {
 	 * 
 	 * @author Pietro Braione
 	 */
-	public abstract class AccessOutcome {
+	public abstract class AccessOutcome implements Serializable {
+		private static final long serialVersionUID = 4162500099083508469L;
+
 		/** 
 		 * An {@link Expression} denoting the condition over 
 		 * the array index yielding this {@link AccessOutcome}. 
@@ -194,6 +199,8 @@ public final class Array extends Objekt {
 	 * @author Pietro Braione
 	 */
 	public class AccessOutcomeIn extends AccessOutcome implements Cloneable {
+		private static final long serialVersionUID = -1395588998894517345L;
+
 		/**
 		 * A {@link Value} denoting the value returned  
          * by the array access. It can be either a 
@@ -272,6 +279,8 @@ public final class Array extends Objekt {
 	 * @author Pietro Braione
 	 */
 	public class AccessOutcomeOut extends AccessOutcome { 
+	    private static final long serialVersionUID = 4136948046881860874L;
+
 	    /**
 	     * Constructor (outcome returned by a concrete get).
 	     */
@@ -1,12 +1,14 @@
 package jbse.mem;
 
+import java.io.Serializable;
+
 /**
  * A path condition's clause. 
  *
  * @author Pietro Braione
  *
  */
-public interface Clause extends Cloneable {
+public interface Clause extends Cloneable, Serializable {
 	Clause clone() throws CloneNotSupportedException;
 	void accept(ClauseVisitor v) throws Exception;
 }
\ No newline at end of file
@@ -11,6 +11,8 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public class ClauseAssumeAliases extends ClauseAssumeReferenceSymbolic {
+	private static final long serialVersionUID = 5684676669270197576L;
+
 	private final long heapPosition;
 	private final Objekt object;
 	
@@ -10,6 +10,8 @@ package jbse.mem;
  *
  */
 public class ClauseAssumeClassInitialized implements Clause {
+	private static final long serialVersionUID = 4450505321788449679L;
+
 	private final String className;
 	private final Klass k;
 		
@@ -9,6 +9,8 @@ package jbse.mem;
  *
  */
 public class ClauseAssumeClassNotInitialized implements Clause {
+	private static final long serialVersionUID = 7991593541442899893L;
+
 	private final String className;
 		
 	/**
@@ -11,6 +11,8 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public class ClauseAssumeNull extends ClauseAssumeReferenceSymbolic {
+	private static final long serialVersionUID = 1709594827478583697L;
+
 	/**
 	 * Constructor.
 	 * 
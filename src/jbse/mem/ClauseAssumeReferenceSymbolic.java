@@ -10,6 +10,8 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public abstract class ClauseAssumeReferenceSymbolic implements Clause {
+	private static final long serialVersionUID = -2874598763456263551L;
+
 	private final ReferenceSymbolic r;
 
 	/**
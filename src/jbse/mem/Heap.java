@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
 import java.util.SortedMap;
@@ -10,7 +11,9 @@ import jbse.common.exc.UnexpectedInternalException;
 /**
  * Class that offers the same services of the heap in the JVM's memory.
  */
-final class Heap implements Cloneable {
+final class Heap implements Cloneable, Serializable {
+	private static final long serialVersionUID = -5763017248658870512L;
+
     private SortedMap<Long, Objekt> objects; //TODO nonfinal to allow cloning
     private long nextIndex;
     
@@ -10,6 +10,8 @@ import jbse.val.MemoryPath;
  * Class that represent an instance of an object in the heap.
  */
 public class Instance extends Objekt {
+    private static final long serialVersionUID = 7037684699848386864L;
+
     /**
      * Constructor.
      * 
@@ -11,6 +11,8 @@ import jbse.val.MemoryPath;
  * in the heap.
  */
 public final class Instance_JAVA_CLASS extends Instance {
+    private static final long serialVersionUID = 6355460008455587063L;
+
     /** The java class it represents. Immutable. */
     private final String representedClass;
 
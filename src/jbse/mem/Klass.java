@@ -9,6 +9,8 @@ import jbse.val.MemoryPath;
  * method area, i.e., its static fields.
  */
 public final class Klass extends Objekt {
+    private static final long serialVersionUID = 8450249124873526600L;
+
     /**
      * Constructor.
      * 
@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
@@ -11,7 +12,9 @@ import jbse.val.Value;
  * Class that represent the JVM's operand stack.
  */
 //TODO manage stack maps and possibly raise unexpected internal error
-final class OperandStack implements Cloneable {
+final class OperandStack implements Cloneable, Serializable {
+	private static final long serialVersionUID = 8397180917254101989L;
+
     /** Not final because of clone(). */
     private ArrayDeque<Value> valueStack;
     
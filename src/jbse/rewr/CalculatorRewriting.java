@@ -2,6 +2,8 @@ package jbse.rewr;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.rewr.exc.NoResultException;
@@ -364,6 +366,17 @@ public class CalculatorRewriting extends Calculator {
     	this.rewriters.add(r);
     }
     
+    /**
+     * Returns the registered {@link Rewriter}s.
+     * 
+     * @return a {@link List}{@code <}{@link Rewriter}{@code >}, the
+     *         {@link Rewriter}s registered by {@link #addRewriter(Rewriter)},
+     *         in their registration order.
+     */
+    public List<Rewriter> getRewriters() {
+    	return Collections.unmodifiableList(this.rewriters);
+    }
+    
     /**
      * Applies a sequence of rewriters to a {@link Primitive}.
      * 
@@ -31,7 +31,7 @@ import jbse.val.exc.InvalidTypeException;
  * 
  * @author Pietro Braione
  */
-class Monomial implements Comparable<Monomial> {
+public class Monomial implements Comparable<Monomial> {
 	/** {@link CalculatorRewriting} for the {@link Primitive} it represents. */
 	private final CalculatorRewriting calc;
 	
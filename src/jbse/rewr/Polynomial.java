@@ -24,7 +24,7 @@ import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidOperatorException;
 import jbse.val.exc.InvalidTypeException;
 
-class Polynomial {
+public class Polynomial {
 	/** {@link CalculatorRewriting} for the {@link Primitive} it represents. */
 	private final CalculatorRewriting calc;
 	
@@ -285,4 +285,37 @@ public final class TriggerRulesRepo implements Cloneable {
         
         return o;
 	}
+	
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + this.rulesAliases.hashCode();
+		result = prime * result + this.rulesExpandsTo.hashCode();
+		result = prime * result + this.rulesNull.hashCode();
+		return result;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Two repositories are equal iff they contain the same 
+	 * rule objects, as a repository and its clones do.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		final TriggerRulesRepo other = (TriggerRulesRepo) obj;
+		return (this.rulesAliases.equals(other.rulesAliases) &&
+		        this.rulesExpandsTo.equals(other.rulesExpandsTo) &&
+		        this.rulesNull.equals(other.rulesNull));
+	}
 }
@@ -0,0 +1,461 @@
+package jbse.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ControlFlowGraph;
+import jbse.bc.Signature;
+import jbse.bc.exc.BadClassFileException;
+import jbse.bc.exc.MethodCodeNotFoundException;
+import jbse.bc.exc.MethodNotFoundException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.Frame;
+import jbse.mem.State;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.StateTree.BranchPoint;
+
+/**
+ * Keeps, for each method of the analyzed classes, a bitmap
+ * of the intraprocedural control flow edges covered by the
+ * symbolic execution so far. It is updated by the engine
+ * before and after each step and after each backtrack, without
+ * allocating memory unless a method is met for the first time
+ * or a branch is created. The methods of the JRE and of JBSE
+ * itself are not tracked. When a method of a class is met for
+ * the first time, all the methods of the class are tracked, so 
+ * that the coverage ratio does not ignore the methods of the 
+ * class that the symbolic execution did not reach (yet).
+ *
+ * @author Pietro Braione
+ */
+public final class CoverageTracker {
+	/** Value of {@link #distanceToUncovered(State)} when no uncovered edge is reachable. */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** The prefixes of the names of the classes whose methods are not tracked. */
+	private static final String[] UNTRACKED_PACKAGES = { "java/", "javax/", "sun/", "jdk/", "jbse/" };
+
+	/**
+	 * The coverage of a method.
+	 */
+	private static final class MethodCoverage {
+		final ControlFlowGraph cfg;
+		final long[] bitmap;
+		int covered = 0;
+
+		/**
+		 * For each program counter, the minimum number of edges
+		 * to traverse to reach an instruction with an uncovered
+		 * outgoing edge; it is {@code null} when stale.
+		 */
+		int[] distance = null;
+
+		MethodCoverage(ControlFlowGraph cfg) {
+			this.cfg = cfg;
+			this.bitmap = new long[(cfg.getNumEdges() + 63) >>> 6];
+		}
+
+		/**
+		 * Sets an edge as covered.
+		 *
+		 * @param edge an edge index, or {@code -1}.
+		 * @return {@code true} iff the edge was not covered before.
+		 */
+		boolean cover(int edge) {
+			if (edge < 0) {
+				return false;
+			}
+			final int word = edge >>> 6;
+			final long mask = 1L << (edge & 63);
+			if ((this.bitmap[word] & mask) != 0) {
+				return false;
+			}
+			this.bitmap[word] |= mask;
+			++this.covered;
+			this.distance = null;
+			return true;
+		}
+
+		boolean isCovered(int edge) {
+			return (this.bitmap[edge >>> 6] & (1L << (edge & 63))) != 0;
+		}
+
+		int distance(int pc) {
+			if (pc < 0 || pc >= this.cfg.getCodeLength()) {
+				return UNREACHABLE;
+			}
+			if (this.distance == null) {
+				calculateDistance();
+			}
+			return this.distance[pc];
+		}
+
+		/**
+		 * Calculates {@code this.distance} by a breadth-first
+		 * visit of the reverse control flow graph, starting
+		 * from all the instructions with an uncovered outgoing edge.
+		 */
+		private void calculateDistance() {
+			final int length = this.cfg.getCodeLength();
+			this.distance = new int[length];
+			Arrays.fill(this.distance, UNREACHABLE);
+			final int[] queue = new int[length];
+			int head = 0, tail = 0;
+			for (int pc = 0; pc < length; ++pc) {
+				for (int e = this.cfg.firstEdge(pc); e < this.cfg.firstEdge(pc + 1); ++e) {
+					if (!isCovered(e)) {
+						this.distance[pc] = 0;
+						queue[tail++] = pc;
+						break;
+					}
+				}
+			}
+			while (head < tail) {
+				final int pc = queue[head++];
+				for (int i = this.cfg.firstPredecessor(pc); i < this.cfg.firstPredecessor(pc + 1); ++i) {
+					final int pred = this.cfg.edgeSource(this.cfg.predecessorEdge(i));
+					if (this.distance[pred] == UNREACHABLE) {
+						this.distance[pred] = this.distance[pc] + 1;
+						queue[tail++] = pred;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The source of the edges taken by the states
+	 * of a branch when they are resumed.
+	 */
+	private static final class BranchOrigin {
+		final MethodCoverage method;
+		final int pc;
+		final int stackSize;
+
+		BranchOrigin(MethodCoverage method, int pc, int stackSize) {
+			this.method = method;
+			this.pc = pc;
+			this.stackSize = stackSize;
+		}
+	}
+
+	/** Placeholder for the untracked methods. */
+	private static final MethodCoverage UNTRACKED = new MethodCoverage(new ControlFlowGraph(new byte[0]));
+
+	/** Maps method signatures to their coverage. */
+	private final HashMap<Signature, MethodCoverage> methods = new HashMap<>();
+
+	/** The origins of the pending branches. */
+	private final IdentityHashMap<BranchPoint, BranchOrigin> origins = new IdentityHashMap<>();
+
+	/** Cache for the last lookup in {@code methods}: the key. */
+	private Signature lastSignature = null;
+
+	/** Cache for the last lookup in {@code methods}: the value. */
+	private MethodCoverage lastMethod = null;
+
+	/** The total number of edges in the tracked methods. */
+	private long totalEdges = 0;
+
+	/** The total number of covered edges in the tracked methods. */
+	private long coveredEdges = 0;
+
+	/** Incremented whenever {@link #distanceToUncovered(State)} may change. */
+	private long epoch = 0;
+
+	/** The method of the current frame before the step. */
+	private MethodCoverage preStepMethod = null;
+
+	/** The program counter before the step. */
+	private int preStepPC;
+
+	/** The stack size before the step. */
+	private int preStepStackSize;
+
+	/**
+	 * Returns the coverage of the method of a frame,
+	 * creating it if this is the first time the method
+	 * is met.
+	 *
+	 * @param s the {@link State} of {@code f}.
+	 * @param f a {@link Frame}.
+	 * @return a {@link MethodCoverage}, possibly {@link #UNTRACKED}.
+	 */
+	private MethodCoverage methodCoverage(State s, Frame f) {
+		final Signature sig = f.getCurrentMethodSignature();
+		if (sig == this.lastSignature) {
+			return this.lastMethod;
+		}
+		MethodCoverage retVal = this.methods.get(sig);
+		if (retVal == null) {
+			if (isTracked(sig.getClassName())) {
+				trackClass(s, sig.getClassName());
+				retVal = this.methods.get(sig);
+				if (retVal == null) {
+					//not among the declared methods, e.g., a constructor
+					retVal = track(sig, f.getCode());
+				}
+			} else {
+				retVal = UNTRACKED;
+				this.methods.put(sig, retVal);
+			}
+		}
+		this.lastSignature = sig;
+		this.lastMethod = retVal;
+		return retVal;
+	}
+
+	/**
+	 * Tracks all the methods with bytecode declared by a class.
+	 *
+	 * @param s a {@link State}.
+	 * @param className the name of the class.
+	 */
+	private void trackClass(State s, String className) {
+		final ClassFile cf;
+		try {
+			cf = s.getClassHierarchy().getClassFile(className);
+		} catch (BadClassFileException e) {
+			//the engine will complain by itself
+			return;
+		}
+		for (Signature sig : cf.getMethodSignatures()) {
+			if (this.methods.containsKey(sig)) {
+				continue;
+			}
+			try {
+				if (!cf.isMethodAbstract(sig) && !cf.isMethodNative(sig)) {
+					track(sig, cf.getMethodCodeBySignature(sig));
+				}
+			} catch (MethodNotFoundException | MethodCodeNotFoundException e) {
+				//no bytecode, nothing to cover
+			}
+		}
+	}
+
+	/**
+	 * Tracks a method.
+	 *
+	 * @param sig the {@link Signature} of the method.
+	 * @param code the bytecode of the method.
+	 * @return the {@link MethodCoverage} of the method,
+	 *         possibly {@link #UNTRACKED}.
+	 */
+	private MethodCoverage track(Signature sig, byte[] code) {
+		MethodCoverage retVal;
+		try {
+			retVal = new MethodCoverage(new ControlFlowGraph(code));
+		} catch (IllegalArgumentException e) {
+			//malformed bytecode, the engine will complain by itself
+			retVal = UNTRACKED;
+		}
+		this.totalEdges += retVal.cfg.getNumEdges();
+		this.methods.put(sig, retVal);
+		++this.epoch;
+		return retVal;
+	}
+
+	private static boolean isTracked(String className) {
+		for (String prefix : UNTRACKED_PACKAGES) {
+			if (className.startsWith(prefix)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void cover(MethodCoverage method, int edge) {
+		if (method != UNTRACKED && method.cover(edge)) {
+			++this.coveredEdges;
+			++this.epoch;
+		}
+	}
+
+	/**
+	 * To be invoked before a step.
+	 *
+	 * @param s the current {@link State}, not stuck.
+	 */
+	public void beforeStep(State s) {
+		try {
+			final Frame f = s.getCurrentFrame();
+			this.preStepMethod = methodCoverage(s, f);
+			this.preStepPC = f.getProgramCounter();
+			this.preStepStackSize = s.getStackSize();
+		} catch (ThreadStackEmptyException e) {
+			this.preStepMethod = null;
+		}
+	}
+
+	/**
+	 * To be invoked after a step, to record the
+	 * edge taken by the current state.
+	 *
+	 * @param s the current {@link State} after the step.
+	 * @param bp the {@link BranchPoint} created by the step,
+	 *        or {@code null} if the step did not create a branch.
+	 */
+	public void afterStep(State s, BranchPoint bp) {
+		if (this.preStepMethod == null || this.preStepMethod == UNTRACKED) {
+			return;
+		}
+		if (bp != null) {
+			this.origins.put(bp, new BranchOrigin(this.preStepMethod, this.preStepPC, this.preStepStackSize));
+		}
+		recordEdge(s, this.preStepMethod, this.preStepPC, this.preStepStackSize);
+	}
+
+	/**
+	 * To be invoked after a backtrack, to record the
+	 * edge taken by the state that is resumed.
+	 *
+	 * @param s the current {@link State} after the backtrack.
+	 * @param bp the {@link BranchPoint} of {@code s}.
+	 * @param lastInBranch {@code true} iff {@code s} is the
+	 *        last state of the branch.
+	 */
+	public void afterBacktrack(State s, BranchPoint bp, boolean lastInBranch) {
+		final BranchOrigin origin = (lastInBranch ? this.origins.remove(bp) : this.origins.get(bp));
+		if (origin != null) {
+			recordEdge(s, origin.method, origin.pc, origin.stackSize);
+		}
+	}
+
+	private void recordEdge(State s, MethodCoverage method, int pc, int stackSize) {
+		if (s.isStuck()) {
+			return;
+		}
+		final int stackSizePost = s.getStackSize();
+		try {
+			if (stackSizePost == stackSize) {
+				if (methodCoverage(s, s.getCurrentFrame()) == method) {
+					cover(method, method.cfg.edgeIndex(pc, s.getPC()));
+				}
+			} else if (stackSizePost > stackSize) {
+				//a method was invoked: the caller will continue
+				//at the next instruction when the callee returns
+				cover(method, method.cfg.fallthroughEdgeIndex(pc));
+			} //else, returned or unwound: the caller edge was recorded at invocation
+		} catch (ThreadStackEmptyException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+	}
+
+	/**
+	 * Returns the distance of a state from the uncovered edges.
+	 *
+	 * @param s a {@link State}.
+	 * @return the minimum number of edges that {@code s} must
+	 *         traverse in its current method, or in the method
+	 *         of a caller frame after it returns, to reach an
+	 *         instruction with an uncovered outgoing edge (each
+	 *         return counts as one edge). It is {@link #UNREACHABLE}
+	 *         if {@code s} is stuck or no uncovered edge is
+	 *         reachable.
+	 */
+	public int distanceToUncovered(State s) {
+		if (s.isStuck()) {
+			return UNREACHABLE;
+		}
+		final List<Frame> stack = s.getStack();
+		for (int i = stack.size() - 1; i >= 0; --i) {
+			final Frame f = stack.get(i);
+			final MethodCoverage method = this.methods.get(f.getCurrentMethodSignature());
+			if (method == null || method == UNTRACKED) {
+				continue;
+			}
+			final int pc = (i == stack.size() - 1 ? f.getProgramCounter() : f.getReturnProgramCounter());
+			final int d = method.distance(pc);
+			if (d != UNREACHABLE) {
+				return d + (stack.size() - 1 - i);
+			}
+		}
+		return UNREACHABLE;
+	}
+
+	/**
+	 * Returns a number that changes whenever the result of
+	 * {@link #distanceToUncovered(State)} may change, i.e.,
+	 * when an edge is covered or a method is tracked.
+	 *
+	 * @return a {@code long}.
+	 */
+	long getEpoch() {
+		return this.epoch;
+	}
+
+	/**
+	 * Returns the number of edges in the tracked methods, i.e.,
+	 * the methods of the classes met so far.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getTotalEdges() {
+		return this.totalEdges;
+	}
+
+	/**
+	 * Returns the number of edges covered so far.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getCoveredEdges() {
+		return this.coveredEdges;
+	}
+
+	/**
+	 * Returns the ratio of covered edges over the edges of
+	 * the tracked methods. Note that the methods of a class are 
+	 * tracked only after the symbolic execution meets the class,
+	 * thus the ratio may decrease.
+	 *
+	 * @return a {@code double} between {@code 0} and {@code 1}.
+	 */
+	public double getCoverageRatio() {
+		return (this.totalEdges == 0 ? 0.0d : ((double) this.coveredEdges) / this.totalEdges);
+	}
+
+	/**
+	 * Returns the signatures of the tracked methods.
+	 *
+	 * @return a {@link List}{@code <}{@link Signature}{@code >}.
+	 */
+	public List<Signature> getTrackedMethods() {
+		final ArrayList<Signature> retVal = new ArrayList<>();
+		for (HashMap.Entry<Signature, MethodCoverage> e : this.methods.entrySet()) {
+			if (e.getValue() != UNTRACKED) {
+				retVal.add(e.getKey());
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the number of covered edges of a method.
+	 *
+	 * @param sig the {@link Signature} of a method.
+	 * @return an {@code int}, {@code 0} if the method
+	 *         is not tracked.
+	 */
+	public int getCoveredEdges(Signature sig) {
+		final MethodCoverage method = this.methods.get(sig);
+		return (method == null ? 0 : method.covered);
+	}
+
+	/**
+	 * Returns the number of edges of a method.
+	 *
+	 * @param sig the {@link Signature} of a method.
+	 * @return an {@code int}, {@code 0} if the method
+	 *         is not tracked.
+	 */
+	public int getTotalEdges(Signature sig) {
+		final MethodCoverage method = this.methods.get(sig);
+		return (method == null ? 0 : method.cfg.getNumEdges());
+	}
+}
@@ -0,0 +1,40 @@
+package jbse.tree;
+
+import jbse.tree.StateTree.BranchInfo;
+
+/**
+ * Strategy for choosing, among the pending branches of a 
+ * {@link StateTree}, the one from which the next state 
+ * will be emitted. A branch is pending from when it is 
+ * created to when its last state is emitted. 
+ * 
+ * @author Pietro Braione
+ */
+public interface SearchStrategy {
+	/**
+	 * Notifies that a branch has been created and is
+	 * now pending.
+	 * 
+	 * @param branch the created {@link BranchInfo}.
+	 */
+	void pushed(BranchInfo branch);
+	
+	/**
+	 * Chooses the branch from which the next state
+	 * will be emitted. It is invoked only when there
+	 * is at least one pending branch with some state, 
+	 * and must not change the set of the pending branches.
+	 * 
+	 * @return a pending {@link BranchInfo} with 
+	 *         {@link BranchInfo#getPendingStates() getPendingStates()}{@code  > 0}.
+	 */
+	BranchInfo select();
+	
+	/**
+	 * Notifies that all the states of a branch have 
+	 * been emitted, and thus the branch is no longer pending.
+	 * 
+	 * @param branch a pending {@link BranchInfo}.
+	 */
+	void exhausted(BranchInfo branch);
+}
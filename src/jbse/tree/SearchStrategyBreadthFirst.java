@@ -0,0 +1,31 @@
+package jbse.tree;
+
+import java.util.LinkedHashSet;
+
+import jbse.tree.StateTree.BranchInfo;
+
+/**
+ * A {@link SearchStrategy} that chooses the least 
+ * recently created pending branch.
+ * 
+ * @author Pietro Braione
+ */
+final class SearchStrategyBreadthFirst implements SearchStrategy {
+	/** The pending branches in creation order. */
+	private final LinkedHashSet<BranchInfo> queue = new LinkedHashSet<>();
+	
+	@Override
+	public void pushed(BranchInfo branch) {
+		this.queue.add(branch);
+	}
+	
+	@Override
+	public BranchInfo select() {
+		return this.queue.iterator().next();
+	}
+	
+	@Override
+	public void exhausted(BranchInfo branch) {
+		this.queue.remove(branch);
+	}
+}
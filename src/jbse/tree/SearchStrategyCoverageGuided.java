@@ -0,0 +1,109 @@
+package jbse.tree;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import jbse.mem.State;
+
+import jbse.tree.StateTree.BranchInfo;
+
+/**
+ * A {@link SearchStrategy} that chooses the pending branch 
+ * whose next state is closest to an uncovered control flow
+ * edge, according to a {@link CoverageTracker}. Ties, and
+ * the case where no pending state may reach an uncovered
+ * edge, are resolved in favor of the most recently created 
+ * branch, i.e., depth-first. The branches are kept ranked,
+ * and only the branches whose next state changed are ranked
+ * again at each selection, unless the coverage changed.
+ * 
+ * @author Pietro Braione
+ */
+final class SearchStrategyCoverageGuided implements SearchStrategy {
+	/**
+	 * The rank of a pending branch.
+	 */
+	private static final class Rank {
+		final BranchInfo branch;
+		final long creation;
+		int distance;
+		
+		Rank(BranchInfo branch, long creation) {
+			this.branch = branch;
+			this.creation = creation;
+		}
+	}
+	
+	/** The {@link CoverageTracker} used to rank the branches. */
+	private final CoverageTracker coverage;
+	
+	/** The ranks of the pending branches. */
+	private final HashMap<BranchInfo, Rank> ranks = new HashMap<>();
+	
+	/** The ranked pending branches, closest first, then most recent first. */
+	private final TreeSet<Rank> ranked = new TreeSet<>(
+	    Comparator.comparingInt((Rank r) -> r.distance).thenComparing((r1, r2) -> Long.compare(r2.creation, r1.creation)));
+	
+	/** The pending branches that must be ranked (again). */
+	private final HashSet<Rank> unranked = new HashSet<>();
+	
+	/** The number of the created branches. */
+	private long created = 0;
+	
+	/** The epoch of {@code this.coverage} at the last ranking. */
+	private long epoch = -1;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param coverage the {@link CoverageTracker} updated by
+	 *        the engine.
+	 */
+	SearchStrategyCoverageGuided(CoverageTracker coverage) {
+		this.coverage = coverage;
+	}
+	
+	@Override
+	public void pushed(BranchInfo branch) {
+		final Rank r = new Rank(branch, this.created++);
+		this.ranks.put(branch, r);
+		this.unranked.add(r);
+	}
+	
+	@Override
+	public BranchInfo select() {
+		//distances change whenever coverage increases
+		if (this.coverage.getEpoch() != this.epoch) {
+			this.epoch = this.coverage.getEpoch();
+			this.unranked.addAll(this.ranked);
+			this.ranked.clear();
+		}
+		for (Iterator<Rank> it = this.unranked.iterator(); it.hasNext(); ) {
+			final Rank r = it.next();
+			if (r.branch.getPendingStates() == 0) {
+				continue;
+			}
+			//spilled states are not rehydrated just to rank them
+			final State first = r.branch.states.peekFirst();
+			r.distance = (first == null ? CoverageTracker.UNREACHABLE : this.coverage.distanceToUncovered(first));
+			this.ranked.add(r);
+			it.remove();
+		}
+		
+		//the next state of the selected branch is going to change
+		final Rank retVal = this.ranked.pollFirst();
+		this.unranked.add(retVal);
+		return retVal.branch;
+	}
+	
+	@Override
+	public void exhausted(BranchInfo branch) {
+		final Rank r = this.ranks.remove(branch);
+		if (!this.unranked.remove(r)) {
+			this.ranked.remove(r);
+		}
+	}
+}
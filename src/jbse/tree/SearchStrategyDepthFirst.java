@@ -0,0 +1,32 @@
+package jbse.tree;
+
+import java.util.ArrayDeque;
+
+import jbse.tree.StateTree.BranchInfo;
+
+/**
+ * A {@link SearchStrategy} that chooses the most 
+ * recently created pending branch.
+ * 
+ * @author Pietro Braione
+ */
+final class SearchStrategyDepthFirst implements SearchStrategy {
+	/** The pending branches, the most recent on top. */
+	private final ArrayDeque<BranchInfo> stack = new ArrayDeque<>();
+	
+	@Override
+	public void pushed(BranchInfo branch) {
+		this.stack.push(branch);
+	}
+	
+	@Override
+	public BranchInfo select() {
+		return this.stack.peek();
+	}
+	
+	@Override
+	public void exhausted(BranchInfo branch) {
+		//the exhausted branch is almost always on top
+		this.stack.removeFirstOccurrence(branch);
+	}
+}
@@ -0,0 +1,89 @@
+package jbse.tree;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+import jbse.tree.StateTree.BranchInfo;
+
+/**
+ * A {@link SearchStrategy} that chooses the pending branches
+ * in depth-first order, but only among those whose depth 
+ * is not above a bound. When all the pending branches are 
+ * deeper than the bound, the bound is increased by a fixed 
+ * amount as many times as necessary to include some of them. 
+ * The deeper branches are kept aside, not discarded, so 
+ * no part of the tree is explored twice.
+ * 
+ * @author Pietro Braione
+ */
+final class SearchStrategyIterativeDeepening implements SearchStrategy {
+	/** Orders by decreasing creation order. */
+	private static final Comparator<BranchInfo> MOST_RECENT_FIRST = 
+			Comparator.comparingLong(BranchInfo::getSequenceNumber).reversed();
+	
+	/** The amount by which the bound is increased. */
+	private final int depthIncrement;
+	
+	/** The current depth bound. */
+	private int depthBound;
+	
+	/** The pending branches not deeper than {@code depthBound}. */
+	private final TreeSet<BranchInfo> withinBound = new TreeSet<>(MOST_RECENT_FIRST);
+	
+	/** The pending branches deeper than {@code depthBound}. */
+	private final TreeSet<BranchInfo> aboveBound = 
+			new TreeSet<>(SearchStrategyShortestDepthFirst.BY_DEPTH_THEN_MOST_RECENT);
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param depthIncrement a positive {@code int}, the amount by which
+	 *        the depth bound is increased; it is also the initial bound.
+	 * @throws IllegalArgumentException if {@code depthIncrement <= 0}.
+	 */
+	SearchStrategyIterativeDeepening(int depthIncrement) {
+		if (depthIncrement <= 0) {
+			throw new IllegalArgumentException("The depth increment must be positive.");
+		}
+		this.depthIncrement = depthIncrement;
+		this.depthBound = depthIncrement;
+	}
+	
+	@Override
+	public void pushed(BranchInfo branch) {
+		if (branch.getDepth() <= this.depthBound) {
+			this.withinBound.add(branch);
+		} else {
+			this.aboveBound.add(branch);
+		}
+	}
+	
+	@Override
+	public BranchInfo select() {
+		if (this.withinBound.isEmpty()) {
+			deepen();
+		}
+		return this.withinBound.first();
+	}
+	
+	/**
+	 * Increases the bound so that at least one of the
+	 * pending branches is within it, and moves the 
+	 * branches that fall within the bound.
+	 */
+	private void deepen() {
+		final int minDepth = this.aboveBound.first().getDepth();
+		final int steps = (minDepth - this.depthBound + this.depthIncrement - 1) / this.depthIncrement;
+		this.depthBound += steps * this.depthIncrement;
+		while (!this.aboveBound.isEmpty() && this.aboveBound.first().getDepth() <= this.depthBound) {
+			this.withinBound.add(this.aboveBound.pollFirst());
+		}
+	}
+	
+	@Override
+	public void exhausted(BranchInfo branch) {
+		if (!this.withinBound.remove(branch)) {
+			this.aboveBound.remove(branch);
+		}
+	}
+}
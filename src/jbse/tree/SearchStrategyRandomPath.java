@@ -0,0 +1,148 @@
+package jbse.tree;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.tree.StateTree.BranchInfo;
+
+/**
+ * A {@link SearchStrategy} that chooses a pending branch by 
+ * walking the tree of branches from its root, and choosing at 
+ * each node with uniform probability either to stop (if the 
+ * branch at the node is pending) or to descend into one of 
+ * the subtrees containing some pending branch. The probability 
+ * of choosing a branch thus halves (roughly) at each level, 
+ * favoring the branches close to the root independently of 
+ * how many pending branches are below them. A pending branch 
+ * may have no states (e.g., a branch restored from a checkpoint
+ * whose states were all emitted); if the walk reaches a subtree
+ * with no states it steps back, and chooses again among the 
+ * other subtrees. 
+ * 
+ * @author Pietro Braione
+ */
+final class SearchStrategyRandomPath implements SearchStrategy {
+	/**
+	 * A node in the tree of branches. Only the nodes with 
+	 * some pending branch in their subtree are kept.
+	 */
+	private static final class Node {
+		final Node parent;
+		final BranchInfo branch;
+		final ArrayList<Node> children = new ArrayList<>();
+		boolean pending = false;
+		int pendingInSubtree = 0;
+		
+		Node(Node parent, BranchInfo branch) {
+			this.parent = parent;
+			this.branch = branch;
+		}
+	}
+	
+	/** The source of randomness. */
+	private final Random random;
+
+	/** Maps the branches with some pending branch in their subtree to their nodes. */
+	private final IdentityHashMap<BranchInfo, Node> nodes = new IdentityHashMap<>();
+	
+	/** The root node, or {@code null} if there are no pending branches. */
+	private Node root = null;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param randomSeed a {@code long}, the seed for the random choices.
+	 */
+	SearchStrategyRandomPath(long randomSeed) {
+		this.random = new Random(randomSeed);
+	}
+	
+	@Override
+	public void pushed(BranchInfo branch) {
+		final Node n = getOrCreateNode(branch);
+		n.pending = true;
+		for (Node m = n; m != null; m = m.parent) {
+			++m.pendingInSubtree;
+		}
+	}
+	
+	/**
+	 * Returns the node of a branch, creating it and 
+	 * linking it to its ancestors if it does not exist.
+	 * 
+	 * @param branch a {@link BranchInfo}.
+	 * @return its {@link Node}.
+	 */
+	private Node getOrCreateNode(BranchInfo branch) {
+		Node retVal = this.nodes.get(branch);
+		if (retVal == null) {
+			if (branch.getParent() == null) {
+				retVal = new Node(null, branch);
+				this.root = retVal;
+			} else {
+				final Node parent = getOrCreateNode(branch.getParent());
+				retVal = new Node(parent, branch);
+				parent.children.add(retVal);
+			}
+			this.nodes.put(branch, retVal);
+		}
+		return retVal;
+	}
+	
+	@Override
+	public BranchInfo select() {
+		//the nodes met whose subtree has no states, created lazily
+		HashSet<Node> deadEnds = null;
+		Node n = this.root;
+		while (n != null) {
+			final ArrayList<Node> children;
+			if (deadEnds == null) {
+				children = n.children;
+			} else {
+				children = new ArrayList<>();
+				for (Node child : n.children) {
+					if (!deadEnds.contains(child)) {
+						children.add(child);
+					}
+				}
+			}
+			final int choices = children.size() + (n.pending && n.branch.getPendingStates() > 0 ? 1 : 0);
+			if (choices == 0) {
+				//steps back
+				if (deadEnds == null) {
+					deadEnds = new HashSet<>();
+				}
+				deadEnds.add(n);
+				n = n.parent;
+				continue;
+			}
+			final int choice = this.random.nextInt(choices);
+			if (choice == children.size()) {
+				return n.branch;
+			}
+			n = children.get(choice);
+		}
+		throw new UnexpectedInternalException("Attempted to select a branch with no pending states.");
+	}
+	
+	@Override
+	public void exhausted(BranchInfo branch) {
+		final Node n = this.nodes.get(branch);
+		n.pending = false;
+		for (Node m = n; m != null; m = m.parent) {
+			--m.pendingInSubtree;
+			if (m.pendingInSubtree == 0) {
+				//prunes the node
+				this.nodes.remove(m.branch);
+				if (m.parent == null) {
+					this.root = null;
+				} else {
+					m.parent.children.remove(m);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package jbse.tree;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+import jbse.tree.StateTree.BranchInfo;
+
+/**
+ * A {@link SearchStrategy} that chooses the pending branch 
+ * with minimum depth, and among these the most recently 
+ * created one.
+ * 
+ * @author Pietro Braione
+ */
+final class SearchStrategyShortestDepthFirst implements SearchStrategy {
+	/** Orders by increasing depth, then by decreasing creation order. */
+	static final Comparator<BranchInfo> BY_DEPTH_THEN_MOST_RECENT = 
+			Comparator.comparingInt(BranchInfo::getDepth)
+			.thenComparing(Comparator.comparingLong(BranchInfo::getSequenceNumber).reversed());
+	
+	/** The pending branches. */
+	private final TreeSet<BranchInfo> pending = new TreeSet<>(BY_DEPTH_THEN_MOST_RECENT);
+	
+	@Override
+	public void pushed(BranchInfo branch) {
+		this.pending.add(branch);
+	}
+	
+	@Override
+	public BranchInfo select() {
+		return this.pending.first();
+	}
+	
+	@Override
+	public void exhausted(BranchInfo branch) {
+		this.pending.remove(branch);
+	}
+}
@@ -0,0 +1,150 @@
+package jbse.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import jbse.bc.ClassHierarchy;
+import jbse.mem.State;
+import jbse.val.Calculator;
+
+/**
+ * Converts {@link State}s to and from byte arrays. The 
+ * {@link Calculator} and the {@link ClassHierarchy} of the 
+ * states are not serialized, but replaced by tokens that
+ * are resolved to the ones of this serializer upon 
+ * deserialization. A serializer must not be used by
+ * more than one thread at a time.
+ *
+ * @author Pietro Braione
+ */
+public final class StateSerializer {
+	/**
+	 * The objects shared by all the states, that are
+	 * replaced by a token upon serialization.
+	 */
+	private enum SharedObject { CALCULATOR, CLASS_HIERARCHY }
+
+	/** The buffer where states are serialized. */
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+	/** The {@link Calculator} shared by all the states. */
+	private Calculator calc = null;
+
+	/** The {@link ClassHierarchy} shared by all the states. */
+	private ClassHierarchy classHierarchy = null;
+	
+	/**
+	 * Sets the objects shared by the states. If they are not
+	 * set, they are taken from the first serialized state.
+	 * 
+	 * @param calc a {@link Calculator}.
+	 * @param classHierarchy a {@link ClassHierarchy}.
+	 */
+	public void setSharedObjects(Calculator calc, ClassHierarchy classHierarchy) {
+		this.calc = calc;
+		this.classHierarchy = classHierarchy;
+	}
+
+	/**
+	 * Serializes a {@link State}.
+	 *
+	 * @param s the {@link State} to serialize.
+	 * @return a {@code byte[]}.
+	 * @throws IOException if {@code s} cannot be serialized.
+	 */
+	public byte[] serialize(State s) throws IOException {
+		if (this.calc == null) {
+			setSharedObjects(s.getCalculator(), s.getClassHierarchy());
+		}
+		this.buffer.reset();
+		try (final SerializerOutputStream out = new SerializerOutputStream(this.buffer)) {
+			out.writeObject(s);
+		}
+		return this.buffer.toByteArray();
+	}
+
+	/**
+	 * Deserializes a {@link State}.
+	 *
+	 * @param bytes a {@code byte[]} returned by {@link #serialize(State)}.
+	 * @return the deserialized {@link State}.
+	 * @throws IOException if {@code bytes} cannot be deserialized.
+	 */
+	public State deserialize(byte[] bytes) throws IOException {
+		try (final SerializerInputStream in = new SerializerInputStream(new ByteArrayInputStream(bytes))) {
+			return (State) in.readObject();
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Returns a stream that serializes {@link State}s, replacing 
+	 * the shared objects by tokens. Differently from {@link #serialize(State)},
+	 * all the objects written to the stream are serialized once,
+	 * and subsequent writes of the same object are serialized as
+	 * references to the first write (until the stream is reset).
+	 * The shared objects must be set before the stream is used.
+	 * 
+	 * @param out the underlying {@link OutputStream}.
+	 * @return an {@link ObjectOutputStream}.
+	 * @throws IOException if {@code out} cannot be written.
+	 */
+	public ObjectOutputStream newOutputStream(OutputStream out) throws IOException {
+		return new SerializerOutputStream(out);
+	}
+
+	/**
+	 * Returns a stream that deserializes what was written to a 
+	 * stream returned by {@link #newOutputStream(OutputStream)},
+	 * resolving the tokens to the shared objects of this serializer.
+	 * 
+	 * @param in the underlying {@link InputStream}.
+	 * @return an {@link ObjectInputStream}.
+	 * @throws IOException if {@code in} cannot be read.
+	 */
+	public ObjectInputStream newInputStream(InputStream in) throws IOException {
+		return new SerializerInputStream(in);
+	}
+
+	private final class SerializerOutputStream extends ObjectOutputStream {
+		SerializerOutputStream(OutputStream out) throws IOException {
+			super(out);
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) {
+			if (obj == StateSerializer.this.calc) {
+				return SharedObject.CALCULATOR;
+			} else if (obj == StateSerializer.this.classHierarchy) {
+				return SharedObject.CLASS_HIERARCHY;
+			} else {
+				return obj;
+			}
+		}
+	}
+
+	private final class SerializerInputStream extends ObjectInputStream {
+		SerializerInputStream(InputStream in) throws IOException {
+			super(in);
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) {
+			if (obj == SharedObject.CALCULATOR) {
+				return StateSerializer.this.calc;
+			} else if (obj == SharedObject.CLASS_HIERARCHY) {
+				return StateSerializer.this.classHierarchy;
+			} else {
+				return obj;
+			}
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package jbse.tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+import jbse.mem.State;
+
+/**
+ * A disk area where the pending {@link State}s of a
+ * {@link StateTree} are spilled when the JVM heap runs
+ * short. The states are serialized in a temporary file,
+ * that is memory-mapped in fixed-size segments; a segment
+ * is recycled as soon as all the states spilled in it have
+ * been rehydrated.
+ *
+ * @author Pietro Braione
+ */
+final class StateSpillArea {
+	/** The size in bytes of a segment. */
+	private static final int SEGMENT_SIZE = 1 << 26; //64 MiB
+
+	/**
+	 * A memory-mapped region of the spill file.
+	 */
+	private static final class Segment {
+		final long position;
+		final MappedByteBuffer buffer;
+		int liveStates = 0;
+
+		Segment(long position, MappedByteBuffer buffer) {
+			this.position = position;
+			this.buffer = buffer;
+		}
+	}
+
+	/**
+	 * The position of a spilled {@link State}.
+	 */
+	static final class Handle {
+		final Segment segment;
+		final int offset;
+		final int length;
+
+		Handle(Segment segment, int offset, int length) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/** The spill file. */
+	private final Path file;
+
+	/** The {@link FileChannel} of {@code file}. */
+	private final FileChannel channel;
+
+	/** The positions in {@code file} of the recycled segments. */
+	private final ArrayDeque<Long> freePositions = new ArrayDeque<>();
+
+	/** The {@link StateSerializer} for the spilled states. */
+	private final StateSerializer serializer;
+
+	/** The segment where the states are currently spilled. */
+	private Segment current = null;
+
+	/** The size of {@code file}. */
+	private long fileSize = 0;
+
+	/** The number of spilled states not yet rehydrated. */
+	private int spilledStates = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param directory the {@link Path} of the directory where the
+	 *        spill file is created, or {@code null} for the
+	 *        default temporary directory.
+	 * @param serializer the {@link StateSerializer} for the 
+	 *        spilled states.
+	 * @throws IOException if the spill file cannot be created.
+	 */
+	StateSpillArea(Path directory, StateSerializer serializer) throws IOException {
+		this.serializer = serializer;
+		this.file = (directory == null ? Files.createTempFile("jbse-spill", ".bin") : Files.createTempFile(directory, "jbse-spill", ".bin"));
+		this.file.toFile().deleteOnExit();
+		this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Spills a {@link State}.
+	 *
+	 * @param s the {@link State} to spill.
+	 * @return the {@link Handle} by which {@code s} can be rehydrated.
+	 * @throws IOException if {@code s} cannot be serialized or
+	 *         written to the spill file.
+	 */
+	Handle spill(State s) throws IOException {
+		return spill(this.serializer.serialize(s));
+	}
+
+	/**
+	 * Spills a serialized {@link State}.
+	 *
+	 * @param bytes the {@code byte[]} obtained by serializing
+	 *        a {@link State} with the {@link StateSerializer}
+	 *        of this spill area.
+	 * @return the {@link Handle} by which the state can be rehydrated.
+	 * @throws IOException if {@code bytes} cannot be written 
+	 *         to the spill file.
+	 */
+	Handle spill(byte[] bytes) throws IOException {
+		//copies into the current segment, or in a new one if it does not fit
+		if (this.current == null || this.current.buffer.remaining() < bytes.length) {
+			this.current = newSegment(Math.max(SEGMENT_SIZE, bytes.length));
+		}
+		final int offset = this.current.buffer.position();
+		this.current.buffer.put(bytes);
+		++this.current.liveStates;
+		++this.spilledStates;
+		return new Handle(this.current, offset, bytes.length);
+	}
+
+	/**
+	 * Rehydrates a spilled {@link State}. The state
+	 * cannot be rehydrated twice.
+	 *
+	 * @param h the {@link Handle} returned by {@link #spill(State)}.
+	 * @return the rehydrated {@link State}.
+	 * @throws IOException if the state cannot be read or deserialized.
+	 */
+	State rehydrate(Handle h) throws IOException {
+		final State retVal = this.serializer.deserialize(read(h));
+		--this.spilledStates;
+		if (--h.segment.liveStates == 0 && h.segment != this.current) {
+			recycle(h.segment);
+		}
+		return retVal;
+	}
+
+	/**
+	 * Reads a spilled {@link State} without rehydrating it.
+	 *
+	 * @param h the {@link Handle} returned by {@link #spill(State)}.
+	 * @return the {@code byte[]} of the serialized state.
+	 */
+	byte[] read(Handle h) {
+		final byte[] retVal = new byte[h.length];
+		final ByteBuffer b = h.segment.buffer.duplicate();
+		b.position(h.offset);
+		b.get(retVal);
+		return retVal;
+	}
+
+	/**
+	 * Returns the number of spilled states.
+	 *
+	 * @return an {@code int}, the number of states
+	 *         spilled and not yet rehydrated.
+	 */
+	int getSpilledStates() {
+		return this.spilledStates;
+	}
+
+	/**
+	 * Releases the spill file.
+	 *
+	 * @throws IOException if the spill file cannot be closed
+	 *         or deleted.
+	 */
+	void close() throws IOException {
+		this.current = null;
+		this.channel.close();
+		Files.deleteIfExists(this.file);
+	}
+
+	private Segment newSegment(int size) throws IOException {
+		if (this.current != null && this.current.liveStates == 0) {
+			recycle(this.current);
+		}
+		final long position;
+		if (size == SEGMENT_SIZE && !this.freePositions.isEmpty()) {
+			position = this.freePositions.removeFirst();
+		} else {
+			position = this.fileSize;
+			this.fileSize += size;
+		}
+		return new Segment(position, this.channel.map(FileChannel.MapMode.READ_WRITE, position, size));
+	}
+
+	private void recycle(Segment segment) {
+		//the mapping is released when the segment is garbage collected
+		if (segment.buffer.capacity() == SEGMENT_SIZE) {
+			this.freePositions.addLast(segment.position);
+		}
+	}
+}
@@ -1,9 +1,20 @@
 package jbse.tree;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.NoSuchElementException;
 
+import jbse.bc.ClassHierarchy;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.State;
+import jbse.tree.StateTreeCheckpoint.BranchRecord;
+import jbse.val.Calculator;
 
 /**
  * Class storing the {@link State}s in the symbolic execution
@@ -93,14 +104,87 @@ public class StateTree {
 	 */
 	public static class BranchPoint { }
 	
+	/**
+	 * Enumeration of the different strategies for choosing 
+	 * the pending branch from which the exploration resumes
+	 * after a backtrack. Note that, independently of the
+	 * search mode, the engine always continues the current 
+	 * trace into the branch it has just created; the search
+	 * mode only decides which pending branch is resumed 
+	 * when the current trace ends.
+	 * 
+	 * @author Pietro Braione
+	 */
+	public static enum SearchMode {
+		/** 
+		 * Resumes the most recently created pending branch
+		 * (classic depth-first exploration).
+		 */
+		DEPTH_FIRST,
+		
+		/** 
+		 * Resumes the least recently created pending branch. 
+		 */
+		BREADTH_FIRST,
+		
+		/**
+		 * Resumes a pending branch chosen by a random walk 
+		 * from the root of the tree, thus favoring 
+		 * the branches that are close to the root.
+		 */
+		RANDOM_PATH,
+		
+		/**
+		 * Resumes the pending branch with minimum depth, 
+		 * the most recently created one in case of ties.
+		 */
+		SHORTEST_DEPTH_FIRST,
+		
+		/**
+		 * Resumes the pending branches in depth-first 
+		 * order, but only if their depth is not above a
+		 * bound; the bound is increased whenever all the 
+		 * pending branches are deeper than it.
+		 */
+		ITERATIVE_DEEPENING,
+		
+		/**
+		 * Resumes the pending branch whose next state
+		 * is closest to a control flow edge not yet covered.
+		 */
+		COVERAGE_GUIDED;
+	}
+
 	/** 
-	 * Private class gathering information on a branch.
+	 * Class gathering information on a branch.
 	 * 
 	 * @author Pietro Braione
 	 */ 
-	private static class BranchInfo {
+	public static final class BranchInfo {
         /** A {@link BranchPoint}. */
-		BranchPoint branch;
+		final BranchPoint branch;
+		
+		/** 
+		 * The {@link BranchInfo} of the branch containing the 
+		 * state from which this branch was created, or 
+		 * {@code null} for the root branch.
+		 */
+		final BranchInfo parent;
+		
+		/** The depth of the branch in the tree (the root branch has depth 0). */
+		final int depth;
+		
+		/** The creation order of the branch. */
+		final long sequenceNumber;
+
+		/** 
+		 * The {@link State}s in the branch not yet emitted
+		 * and kept in memory; they precede the spilled ones.
+		 */
+		final LinkedList<State> states = new LinkedList<>();
+		
+		/** The {@link State}s in the branch not yet emitted and spilled to disk. */
+		final ArrayDeque<StateSpillArea.Handle> statesSpilled = new ArrayDeque<>();
 
         /** 
          * The total number of states in the branch identified by {@code branch}. 
@@ -114,14 +198,80 @@ public class StateTree {
          */
         int emittedStates;
         
+        /** 
+         * The value of {@code emittedStates} when the branch
+         * was last written to a checkpoint, or {@code -1} if 
+         * it was never written. 
+         */
+        int emittedStatesCheckpointed = -1;
+        
         /** 
          * Constructor for branch identification.
+         * 
+         * @param parent the parent {@link BranchInfo}, or {@code null}
+         *        for the root branch.
+         * @param sequenceNumber the creation order of the branch.
          */
-        BranchInfo() {
+        BranchInfo(BranchInfo parent, long sequenceNumber) {
+        	this(parent, (parent == null ? 0 : parent.depth + 1), sequenceNumber);
+        }
+        
+        /** 
+         * Constructor for branches restored from a checkpoint.
+         * 
+         * @param parent the parent {@link BranchInfo}, or {@code null}.
+         * @param depth the depth of the branch.
+         * @param sequenceNumber the creation order of the branch.
+         */
+        BranchInfo(BranchInfo parent, int depth, long sequenceNumber) {
             this.branch = new BranchPoint();
+            this.parent = parent;
+            this.depth = depth;
+            this.sequenceNumber = sequenceNumber;
             this.totalStates = 0;
             this.emittedStates = 0;
         }
+        
+        /**
+         * Returns the parent branch.
+         * 
+         * @return the {@link BranchInfo} of the branch containing 
+         *         the state from which this branch was created, 
+         *         or {@code null} if this is the root branch.
+         */
+        public BranchInfo getParent() {
+        	return this.parent;
+        }
+        
+        /**
+         * Returns the depth of the branch.
+         * 
+         * @return an {@code int}, the number of branches 
+         *         between this branch and the root branch.
+         */
+        public int getDepth() {
+        	return this.depth;
+        }
+        
+        /**
+         * Returns the creation order of the branch.
+         * 
+         * @return a {@code long}; a branch created after 
+         *         another one has a greater sequence number.
+         */
+        public long getSequenceNumber() {
+        	return this.sequenceNumber;
+        }
+        
+        /**
+         * Returns the number of pending states in the branch.
+         * 
+         * @return an {@code int}, the number of states in the 
+         *         branch not yet emitted.
+         */
+        public int getPendingStates() {
+        	return this.totalStates - this.emittedStates;
+        }
     }
 	
 	/** State identification mode. */
@@ -130,11 +280,59 @@ public class StateTree {
 	/** Breadth mode. */
 	private final BreadthMode breadthMode;
 
-	/** Buffer of the inserted {@link State}s. */
-	private final LinkedList<State> stateBuffer = new LinkedList<State>();
+	/** The {@link SearchStrategy} choosing the pending branch to be resumed. */
+	private final SearchStrategy searchStrategy;
+	
+	/** The last created {@link BranchInfo}, where the states are added. */
+	private BranchInfo branchLast;
+
+	/** The {@link BranchInfo} of the last emitted state. */
+	private BranchInfo branchCurrent = null;
+	
+	/** 
+	 * The {@link BranchInfo} from which the next state will be 
+	 * emitted, or {@code null} if it has not been chosen yet. 
+	 */
+	private BranchInfo branchNext = null;
+	
+	/** The number of {@link BranchInfo}s created so far. */
+	private long branchesCreated = 0;
+	
+	/** The number of inserted {@link State}s not yet emitted. */
+	private int pendingStates = 0;
 
-	/** Buffer of the inserted {@link BranchInfo}s. */
-	private final LinkedList<BranchInfo> branchList = new LinkedList<BranchInfo>();
+	/** The {@link StateSerializer} for spilling and checkpointing states. */
+	private final StateSerializer serializer = new StateSerializer();
+	
+	/** 
+	 * The {@link StateSpillArea} where the pending states are spilled, 
+	 * or {@code null} if spilling is not enabled.
+	 */
+	private StateSpillArea spillArea = null;
+	
+	/** 
+	 * The ratio of the maximum heap size above which the 
+	 * pending states are spilled.
+	 */
+	private double spillThreshold;
+	
+	/** The {@link BranchInfo}s with pending states in memory, when spilling is enabled. */
+	private final LinkedHashSet<BranchInfo> branchesInMemory = new LinkedHashSet<>();
+	
+	/** The number of states added since the last heap usage check. */
+	private int addedSinceLastSpillCheck = 0;
+	
+	/** The number of added states between two heap usage checks. */
+	private static final int SPILL_CHECK_INTERVAL = 64;
+	
+	/** Whether the branches must be tracked for checkpointing. */
+	private boolean checkpointing = false;
+	
+	/** The {@link BranchInfo}s created since the last checkpoint. */
+	private final LinkedHashSet<BranchInfo> branchesNotCheckpointed = new LinkedHashSet<>();
+	
+	/** The {@link BranchInfo}s with pending states written to a checkpoint. */
+	private final LinkedHashSet<BranchInfo> branchesCheckpointed = new LinkedHashSet<>();
 
 	/** 
 	 * Flag indicating whether the tree level has been increased 
@@ -149,14 +347,282 @@ public class StateTree {
 	private boolean nextIsInitialState = true;
 	
 	/**
-	 * Constructor.
+	 * Constructor. The tree will explore depth-first.
+	 * 
+	 * @param stateIdMode a {@link StateIdentificationMode}.
+	 * @param breadthMode a {@link BreadthMode}.
 	 */
     public StateTree(StateIdentificationMode stateIdMode, BreadthMode breadthMode) {
+    	this(stateIdMode, breadthMode, new SearchStrategyDepthFirst());
+    }
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param stateIdMode a {@link StateIdentificationMode}.
+	 * @param breadthMode a {@link BreadthMode}.
+	 * @param searchStrategy the {@link SearchStrategy} that will 
+	 *        choose the pending branch to be resumed at backtrack.
+	 *        It must be fresh, i.e., not used by another tree.
+	 */
+    public StateTree(StateIdentificationMode stateIdMode, BreadthMode breadthMode, SearchStrategy searchStrategy) {
     	this.stateIdMode = stateIdMode;
     	this.breadthMode = breadthMode;
-		this.branchList.addFirst(new BranchInfo());
+    	this.searchStrategy = searchStrategy;
+    	this.branchLast = newBranch();
+    }
+    
+    /**
+     * Creates a {@link SearchStrategy}.
+     * 
+     * @param searchMode a {@link SearchMode}.
+     * @param depthIncrement an {@code int}, the amount by which 
+     *        the depth bound is increased when {@code searchMode == }
+     *        {@link SearchMode#ITERATIVE_DEEPENING} (ignored otherwise).
+     * @param randomSeed a {@code long}, the seed of the random 
+     *        choices when {@code searchMode == }{@link SearchMode#RANDOM_PATH}
+     *        (ignored otherwise).
+     * @param coverage the {@link CoverageTracker} updated by the engine, 
+     *        used when {@code searchMode == }{@link SearchMode#COVERAGE_GUIDED}
+     *        (ignored otherwise).
+     * @return a fresh {@link SearchStrategy} implementing {@code searchMode}.
+     * @throws IllegalArgumentException if {@code depthIncrement <= 0}
+     *         and {@code searchMode == }{@link SearchMode#ITERATIVE_DEEPENING},
+     *         or {@code coverage == null} and {@code searchMode == }{@link SearchMode#COVERAGE_GUIDED}.
+     */
+    public static SearchStrategy makeSearchStrategy(SearchMode searchMode, int depthIncrement, long randomSeed, CoverageTracker coverage) {
+    	switch (searchMode) {
+    	case DEPTH_FIRST:
+    		return new SearchStrategyDepthFirst();
+    	case BREADTH_FIRST:
+    		return new SearchStrategyBreadthFirst();
+    	case RANDOM_PATH:
+    		return new SearchStrategyRandomPath(randomSeed);
+    	case SHORTEST_DEPTH_FIRST:
+    		return new SearchStrategyShortestDepthFirst();
+    	case ITERATIVE_DEEPENING:
+    		return new SearchStrategyIterativeDeepening(depthIncrement);
+    	case COVERAGE_GUIDED:
+    		if (coverage == null) {
+    			throw new IllegalArgumentException("Coverage-guided search needs a coverage tracker.");
+    		}
+    		return new SearchStrategyCoverageGuided(coverage);
+    	default:
+    		throw new UnexpectedInternalException("Unexpected search mode " + searchMode + ".");
+    	}
+    }
+    
+    /**
+     * Checks whether a state identifier is a prefix of another one,
+     * i.e., whether the second state is in the subtree rooted at
+     * the first one.
+     * 
+     * @param prefix a state identifier.
+     * @param identifier a state identifier.
+     * @return {@code true} iff {@code identifier} is {@code prefix}, or
+     *         extends it by one or more branches. Note that {@code ".1.1"}
+     *         is not a prefix of {@code ".1.12"}.
+     */
+    public static boolean isIdentifierPrefix(String prefix, String identifier) {
+    	if (!identifier.startsWith(prefix)) {
+    		return false;
+    	}
+    	return (identifier.length() == prefix.length() ||
+    			identifier.startsWith(IDENTIFIER_SEPARATOR_COMPACT, prefix.length()) ||
+    			identifier.startsWith(IDENTIFIER_SEPARATOR_LONG, prefix.length()));
+    }
+    
+    /**
+     * Enables spilling the pending states to disk. Whenever the 
+     * heap usage exceeds a threshold, all the pending states 
+     * that are not going to be emitted soon are serialized to a 
+     * memory-mapped temporary file, and rehydrated when they are 
+     * emitted. 
+     * 
+     * @param spillThreshold a {@code double} in {@code (0, 1]}, 
+     *        the ratio of the maximum heap size above which 
+     *        the states are spilled.
+     * @param spillDirectory the {@link Path} of the directory
+     *        where the spill file is created, or {@code null}
+     *        for the default temporary directory.
+     * @throws IOException if the spill file cannot be created.
+     * @throws IllegalArgumentException if {@code spillThreshold} 
+     *         is not in {@code (0, 1]}.
+     */
+    public void enableSpilling(double spillThreshold, Path spillDirectory) throws IOException {
+    	if (spillThreshold <= 0 || spillThreshold > 1) {
+    		throw new IllegalArgumentException();
+    	}
+    	if (this.spillArea == null) {
+    		this.spillArea = new StateSpillArea(spillDirectory, this.serializer);
+    	}
+    	this.spillThreshold = spillThreshold;
+    }
+    
+    /**
+     * Enables checkpointing. From now on the created branches
+     * are tracked, so that {@link #writeCheckpoint(DataOutput)}
+     * can record their pending states.
+     */
+    public void enableCheckpointing() {
+    	this.checkpointing = true;
+    }
+    
+    /**
+     * Writes a checkpoint record with the changes to the pending 
+     * states since the last record: the pending states of the 
+     * branches created since then, and the number of states 
+     * emitted from the branches already recorded. The first record
+     * contains all the pending states. It must be invoked between 
+     * two traces, when no state is being added to the tree. 
+     * Records can be read back in order by a {@link StateTreeCheckpoint}.
+     * 
+     * @param out the {@link DataOutput} where the record is written.
+     * @throws IOException if some state cannot be serialized or
+     *         writing fails; in this case the record must be 
+     *         discarded, and the next one will contain its changes.
+     * @throws IllegalStateException if checkpointing is not enabled.
+     */
+    public void writeCheckpoint(DataOutput out) throws IOException {
+    	if (!this.checkpointing) {
+    		throw new IllegalStateException("Checkpointing is not enabled.");
+    	}
+    	
+    	//new branches
+    	final ArrayList<BranchInfo> branchesNew = new ArrayList<>();
+    	for (BranchInfo b : this.branchesNotCheckpointed) {
+    		if (b.getPendingStates() > 0) {
+    			branchesNew.add(b);
+    		}
+    	}
+    	out.writeInt(branchesNew.size());
+    	for (BranchInfo b : branchesNew) {
+    		out.writeLong(b.sequenceNumber);
+    		out.writeInt(b.depth);
+    		out.writeInt(b.totalStates);
+    		out.writeInt(b.emittedStates);
+    		for (State s : b.states) {
+    			final byte[] bytes = this.serializer.serialize(s);
+    			out.writeInt(bytes.length);
+    			out.write(bytes);
+    		}
+    		for (StateSpillArea.Handle h : b.statesSpilled) {
+    			final byte[] bytes = this.spillArea.read(h);
+    			out.writeInt(bytes.length);
+    			out.write(bytes);
+    		}
+    	}
+    	
+    	//branches with states emitted since the last checkpoint
+    	final ArrayList<BranchInfo> branchesUpdated = new ArrayList<>();
+    	for (BranchInfo b : this.branchesCheckpointed) {
+    		if (b.emittedStates != b.emittedStatesCheckpointed) {
+    			branchesUpdated.add(b);
+    		}
+    	}
+    	out.writeInt(branchesUpdated.size());
+    	for (BranchInfo b : branchesUpdated) {
+    		out.writeLong(b.sequenceNumber);
+    		out.writeInt(b.emittedStates);
+    	}
+    	
+    	//the record was written, updates the bookkeeping
+    	for (BranchInfo b : branchesNew) {
+    		b.emittedStatesCheckpointed = b.emittedStates;
+    		this.branchesCheckpointed.add(b);
+    	}
+    	this.branchesNotCheckpointed.clear();
+    	for (BranchInfo b : branchesUpdated) {
+    		b.emittedStatesCheckpointed = b.emittedStates;
+    		if (b.getPendingStates() == 0) {
+    			this.branchesCheckpointed.remove(b);
+    		}
+    	}
+    }
+    
+    /**
+     * Restores the pending states from a checkpoint. It must be 
+     * invoked after the initial state has been emitted and 
+     * before any other state is added to the tree.
+     * 
+     * @param checkpoint a {@link StateTreeCheckpoint}.
+     * @param calc the {@link Calculator} of the restored states.
+     * @param classHierarchy the {@link ClassHierarchy} of the restored states.
+     * @param checkpointed {@code true} iff the restored branches are 
+     *        already recorded in the checkpoint where the next records 
+     *        will be written (i.e., if the checkpoint is being continued), 
+     *        {@code false} if they must be written in the next record.
+     * @throws IOException if some state cannot be deserialized.
+     * @throws IllegalStateException if the tree has pending states, or
+     *         the initial state was not emitted.
+     */
+    public void restore(StateTreeCheckpoint checkpoint, Calculator calc, ClassHierarchy classHierarchy, boolean checkpointed) 
+    throws IOException {
+    	if (this.nextIsInitialState || this.pendingStates > 0) {
+    		throw new IllegalStateException("Cannot restore a checkpoint in a nonempty state tree.");
+    	}
+    	this.serializer.setSharedObjects(calc, classHierarchy);
+    	
+    	//the restored branches are made siblings, under
+    	//a branch that is never pushed
+    	final BranchInfo root = new BranchInfo(null, 0, -1);
+    	final ArrayList<BranchInfo> branchesRestored = new ArrayList<>();
+    	for (BranchRecord r : checkpoint.branches()) {
+    		final BranchInfo b = new BranchInfo(root, r.depth, r.sequenceNumber);
+    		b.totalStates = r.totalStates;
+    		b.emittedStates = r.emittedStates;
+    		for (byte[] bytes : r.pendingStates()) {
+    			if (this.spillArea == null) {
+    				b.states.addLast(this.serializer.deserialize(bytes));
+    			} else {
+    				b.statesSpilled.addLast(this.spillArea.spill(bytes));
+    			}
+    		}
+    		branchesRestored.add(b);
+    	}
+    	
+    	//all the states were restored, updates the tree
+    	for (BranchInfo b : branchesRestored) {
+    		this.pendingStates += b.getPendingStates();
+    		this.branchesCreated = Math.max(this.branchesCreated, b.sequenceNumber + 1);
+    		if (this.checkpointing) {
+    			if (checkpointed) {
+    				b.emittedStatesCheckpointed = b.emittedStates;
+    				this.branchesCheckpointed.add(b);
+    			} else {
+    				this.branchesNotCheckpointed.add(b);
+    			}
+    		}
+    		this.searchStrategy.pushed(b);
+    	}
+    	this.branchNext = null;
+    }
+    
+    /**
+     * Returns the number of pending states spilled to disk.
+     * 
+     * @return an {@code int}.
+     */
+    public int getSpilledStates() {
+    	return (this.spillArea == null ? 0 : this.spillArea.getSpilledStates());
     }
     
+    /**
+     * Releases the resources used for spilling, if any.
+     * After this method is invoked the spilled states
+     * are lost.
+     */
+    public void close() {
+    	if (this.spillArea != null) {
+    		try {
+    			this.spillArea.close();
+    		} catch (IOException e) {
+    			//nothing to do, the file will be deleted on exit
+    		}
+    		this.spillArea = null;
+    	}
+    }
+
     /**
      * Returns the branch identification mode.
      * 
@@ -214,7 +680,7 @@ public class StateTree {
      *              to emit.
      */
     public boolean hasStates() {
-        return !this.stateBuffer.isEmpty();
+        return this.pendingStates > 0;
     }
     
     /**
@@ -225,7 +691,7 @@ public class StateTree {
      * @throws NoSuchElementException if {@link #hasStates()} {@code == false}.
      */
     public boolean nextIsLastInCurrentBranch() {
-        final BranchInfo b = this.branchList.getFirst();
+        final BranchInfo b = selectNext();
         return (b.emittedStates == b.totalStates - 1);
     }
     
@@ -236,18 +702,41 @@ public class StateTree {
      * @throws NoSuchElementException if {@link #hasStates()} {@code == false}.
      */
     public State nextState() {
-        final State s = this.stateBuffer.getFirst();
-        final BranchInfo b = this.branchList.getFirst();
+        final BranchInfo b = selectNext();
+        final State s = (b.states.isEmpty() ? rehydrate(b) : b.states.removeFirst());
+        if (this.spillArea != null && b.states.isEmpty()) {
+        	this.branchesInMemory.remove(b);
+        }
         ++b.emittedStates;
+        --this.pendingStates;
         if (this.stateIdMode == StateIdentificationMode.COMPACT && !this.nextIsInitialState) {
         	s.appendToIdentifier(IDENTIFIER_SEPARATOR_COMPACT + String.valueOf(b.emittedStates));
         } //else, the identifier has been already set by addState
         this.nextIsInitialState = false;
         s.resetSequenceNumber();
         if (b.emittedStates == b.totalStates) {
-            this.branchList.removeFirst();
+            this.searchStrategy.exhausted(b);
         }
-        return stateBuffer.removeFirst();
+        this.branchCurrent = b;
+        this.branchNext = null;
+        return s;
+    }
+    
+    /**
+     * Returns the branch from which the next state will be
+     * emitted, choosing it if necessary.
+     * 
+     * @return a {@link BranchInfo}.
+     * @throws NoSuchElementException if {@link #hasStates()} {@code == false}.
+     */
+    private BranchInfo selectNext() {
+    	if (this.pendingStates == 0) {
+    		throw new NoSuchElementException();
+    	}
+    	if (this.branchNext == null) {
+    		this.branchNext = this.searchStrategy.select();
+    	}
+    	return this.branchNext;
     }
     
     /**
@@ -309,10 +798,26 @@ public class StateTree {
      * will crash the engine.
      */
     private void addBranchPoint() {
-		this.branchList.addFirst(new BranchInfo());
+    	this.branchLast = newBranch();
+		this.branchNext = this.branchLast; //the current trace continues into the new branch
 		this.createdBranch = true;
     }
     
+    /**
+     * Creates a new branch as a child of the branch of the 
+     * last emitted state, and makes it pending.
+     * 
+     * @return the created {@link BranchInfo}.
+     */
+    private BranchInfo newBranch() {
+    	final BranchInfo retVal = new BranchInfo(this.branchCurrent, this.branchesCreated++);
+    	this.searchStrategy.pushed(retVal);
+    	if (this.checkpointing) {
+    		this.branchesNotCheckpointed.add(retVal);
+    	}
+    	return retVal;
+    }
+    
     /**
      * Checks whether a new level of the tree has been created 
      * since the last invocation of this method.
@@ -338,10 +843,10 @@ public class StateTree {
      *         or {@code null} in the case such state exists.  
      */
     public BranchPoint nextBranch() {
-        if (this.branchList.isEmpty()) {
+        if (this.pendingStates == 0) {
             return null;
         } else {
-            return this.branchList.getFirst().branch;
+            return selectNext().branch;
         }
     }    
 
@@ -352,7 +857,62 @@ public class StateTree {
      * @param s the {@link State} to be added.
      */
     private void add(State s) {
-    	this.stateBuffer.addFirst(s);
-        ++(this.branchList.getFirst().totalStates);
+    	this.branchLast.states.addFirst(s);
+        ++this.branchLast.totalStates;
+        ++this.pendingStates;
+        if (this.spillArea != null) {
+        	this.branchesInMemory.add(this.branchLast);
+        	if (++this.addedSinceLastSpillCheck == SPILL_CHECK_INTERVAL) {
+        		this.addedSinceLastSpillCheck = 0;
+        		possiblySpill();
+        	}
+        }
+    }
+    
+    /**
+     * Spills the pending states if the heap usage exceeds
+     * the threshold. The states of the branches where states
+     * are being added or emitted are kept in memory.
+     * 
+     * @throws UnexpectedInternalException if a state cannot 
+     *         be spilled; the state is kept in memory.
+     */
+    private void possiblySpill() {
+    	final Runtime rt = Runtime.getRuntime();
+    	final double heapUsage = ((double) (rt.totalMemory() - rt.freeMemory())) / rt.maxMemory();
+    	if (heapUsage < this.spillThreshold) {
+    		return;
+    	}
+    	for (Iterator<BranchInfo> it = this.branchesInMemory.iterator(); it.hasNext(); ) {
+    		final BranchInfo b = it.next();
+    		if (b == this.branchLast || b == this.branchCurrent || b == this.branchNext) {
+    			continue;
+    		}
+    		while (!b.states.isEmpty()) {
+    			final State s = b.states.getLast();
+    			try {
+    				b.statesSpilled.addFirst(this.spillArea.spill(s));
+    			} catch (IOException e) {
+    				throw new UnexpectedInternalException("Unable to spill a pending state.", e);
+    			}
+    			b.states.removeLast();
+    		}
+    		it.remove();
+    	}
+    }
+    
+    /**
+     * Rehydrates the first spilled state of a branch.
+     * 
+     * @param b a {@link BranchInfo} whose states in memory
+     *        have been all emitted.
+     * @return the rehydrated {@link State}.
+     */
+    private State rehydrate(BranchInfo b) {
+    	try {
+    		return this.spillArea.rehydrate(b.statesSpilled.removeFirst());
+    	} catch (IOException e) {
+    		throw new UnexpectedInternalException("Unable to rehydrate a spilled state.", e);
+    	}
     }
 }
@@ -0,0 +1,128 @@
+package jbse.tree;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * The pending branches of a {@link StateTree}, as rebuilt
+ * from the records written by {@link StateTree#writeCheckpoint(java.io.DataOutput)}.
+ * Records must be read in the same order they were written;
+ * each record updates the branches read so far.
+ *
+ * @author Pietro Braione
+ */
+public final class StateTreeCheckpoint {
+	/**
+	 * A pending branch.
+	 */
+	static final class BranchRecord {
+		final long sequenceNumber;
+		final int depth;
+		final int totalStates;
+
+		/** The number of emitted states when {@code states} were recorded. */
+		final int emittedStatesRecorded;
+
+		/**
+		 * The serialized states of the branch pending when the
+		 * branch was recorded, in emission order.
+		 */
+		final ArrayList<byte[]> states;
+
+		/** The number of emitted states at the last update. */
+		int emittedStates;
+
+		BranchRecord(long sequenceNumber, int depth, int totalStates, int emittedStates, ArrayList<byte[]> states) {
+			this.sequenceNumber = sequenceNumber;
+			this.depth = depth;
+			this.totalStates = totalStates;
+			this.emittedStatesRecorded = emittedStates;
+			this.states = states;
+			this.emittedStates = emittedStates;
+		}
+
+		/**
+		 * Returns the serialized pending states.
+		 *
+		 * @return a {@link Collection}{@code <byte[]>}, the
+		 *         serialized states not yet emitted at the last
+		 *         update, in emission order.
+		 */
+		Collection<byte[]> pendingStates() {
+			return this.states.subList(this.emittedStates - this.emittedStatesRecorded, this.states.size());
+		}
+	}
+
+	/** Maps the sequence numbers of the pending branches to their records. */
+	private final TreeMap<Long, BranchRecord> branches = new TreeMap<>();
+
+	/**
+	 * Reads a record and updates the pending branches.
+	 *
+	 * @param in a {@link DataInput}.
+	 * @throws IOException if reading fails, or the record
+	 *         is malformed.
+	 */
+	public void read(DataInput in) throws IOException {
+		//new branches
+		final int newBranches = in.readInt();
+		for (int i = 0; i < newBranches; ++i) {
+			final long sequenceNumber = in.readLong();
+			final int depth = in.readInt();
+			final int totalStates = in.readInt();
+			final int emittedStates = in.readInt();
+			if (emittedStates < 0 || emittedStates >= totalStates) {
+				throw new IOException("Malformed checkpoint: invalid state count for branch " + sequenceNumber + ".");
+			}
+			final ArrayList<byte[]> states = new ArrayList<>(totalStates - emittedStates);
+			for (int j = emittedStates; j < totalStates; ++j) {
+				final byte[] state = new byte[in.readInt()];
+				in.readFully(state);
+				states.add(state);
+			}
+			this.branches.put(sequenceNumber, new BranchRecord(sequenceNumber, depth, totalStates, emittedStates, states));
+		}
+
+		//updated branches
+		final int updatedBranches = in.readInt();
+		for (int i = 0; i < updatedBranches; ++i) {
+			final long sequenceNumber = in.readLong();
+			final int emittedStates = in.readInt();
+			final BranchRecord b = this.branches.get(sequenceNumber);
+			if (b == null || emittedStates < b.emittedStates || emittedStates > b.totalStates) {
+				throw new IOException("Malformed checkpoint: invalid update for branch " + sequenceNumber + ".");
+			}
+			if (emittedStates == b.totalStates) {
+				this.branches.remove(sequenceNumber);
+			} else {
+				b.emittedStates = emittedStates;
+			}
+		}
+	}
+
+	/**
+	 * Returns the pending branches.
+	 *
+	 * @return a {@link Collection}{@code <}{@link BranchRecord}{@code >},
+	 *         in creation order.
+	 */
+	Collection<BranchRecord> branches() {
+		return this.branches.values();
+	}
+
+	/**
+	 * Returns the number of pending states.
+	 *
+	 * @return an {@code int}.
+	 */
+	public int getPendingStates() {
+		int retVal = 0;
+		for (BranchRecord b : this.branches.values()) {
+			retVal += b.totalStates - b.emittedStates;
+		}
+		return retVal;
+	}
+}
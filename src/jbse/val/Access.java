@@ -1,5 +1,7 @@
 package jbse.val;
 
+import java.io.Serializable;
+
 /**
  * Class encapsulating a way to access a 
  * state's memory and yield a value.
@@ -7,6 +9,7 @@ package jbse.val;
  * @author Pietro Braione
  *
  */
-public abstract class Access {
+public abstract class Access implements Serializable {
+	private static final long serialVersionUID = -8621609700632788611L;
 
 }
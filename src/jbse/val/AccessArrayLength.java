@@ -7,6 +7,8 @@ package jbse.val;
  *
  */
 public final class AccessArrayLength extends AccessNonroot {
+    private static final long serialVersionUID = 6990347675695665360L;
+
     private static final AccessArrayLength INSTANCE = new AccessArrayLength();
     
     private AccessArrayLength() {
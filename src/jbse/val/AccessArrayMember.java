@@ -10,6 +10,8 @@ import jbse.common.exc.UnexpectedInternalException;
  *
  */
 public final class AccessArrayMember extends AccessNonroot {
+    private static final long serialVersionUID = 368006385143028318L;
+
     private final Primitive index;
     private final String toString;
     private final int hashCode;
@@ -7,6 +7,8 @@ package jbse.val;
  *
  */
 public final class AccessField extends AccessNonroot {
+    private static final long serialVersionUID = -6775817539017898664L;
+
     private final String fieldName;
     private final int hashCode;
 
@@ -7,6 +7,8 @@ package jbse.val;
  *
  */
 public final class AccessLocalVariable extends AccessRoot {
+    private static final long serialVersionUID = -3166554343159390710L;
+
     private final String variableName;
     private final String toString;
     private final int hashCode;
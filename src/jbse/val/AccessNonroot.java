@@ -9,5 +9,6 @@ package jbse.val;
  *
  */
 public abstract class AccessNonroot extends Access {
+    private static final long serialVersionUID = -6626306299418191425L;
 
 }
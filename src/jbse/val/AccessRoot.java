@@ -9,5 +9,6 @@ package jbse.val;
  *
  */
 public abstract class AccessRoot extends Access {
+    private static final long serialVersionUID = 386380093112579134L;
 
 }
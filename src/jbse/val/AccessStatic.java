@@ -7,6 +7,8 @@ package jbse.val;
  *
  */
 public final class AccessStatic extends AccessRoot {
+    private static final long serialVersionUID = 4463845653216645452L;
+
     private final String className;
     private final String toString;
     private final int hashCode;
@@ -14,6 +14,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * @author Pietro Braione
  */
 public final class Any extends Primitive {
+	private static final long serialVersionUID = -5767923872853389089L;
+
 	private Any(Calculator calc) throws InvalidTypeException {
 		super(Type.BOOLEAN, calc);
 	}
@@ -11,6 +11,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * @author Pietro Braione
  */
 public final class DefaultValue extends Value {
+    private static final long serialVersionUID = 2982400142093263909L;
+
     private static DefaultValue instance = new DefaultValue();
 	
 	private DefaultValue() { 
@@ -20,6 +22,15 @@ public final class DefaultValue extends Value {
     public static DefaultValue getInstance() {
         return instance;
     }
+    
+    /**
+     * Preserves the singleton property upon deserialization.
+     * 
+     * @return the only instance of {@link DefaultValue}.
+     */
+    private Object readResolve() {
+        return instance;
+    }
 	
 	@Override
 	public boolean equals(Object o) {
@@ -14,6 +14,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * Class that represent a unary or binary expression.
  */
 public final class Expression extends Primitive {
+	private static final long serialVersionUID = 758106639489557130L;
+
 	/** The operator. */
     private final Operator operator;
     
@@ -15,6 +15,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * @author Pietro Braione
  */
 public final class FunctionApplication extends Primitive {
+    private static final long serialVersionUID = -5852164449191053251L;
+
     //pure functions implemented in java.lang.StrictMath 
     //TODO move them elsewhere? should make an enum? (no special advantage in both)
     
@@ -1,5 +1,6 @@
 package jbse.val;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.stream.Stream;
@@ -11,7 +12,9 @@ import java.util.stream.Stream;
  * @author Pietro Braione
  *
  */
-public final class MemoryPath implements Iterable<Access> {
+public final class MemoryPath implements Iterable<Access>, Serializable {
+    private static final long serialVersionUID = -2330764808255161906L;
+
     private final Access[] accesses;
     private final String toString;
     private final int hashCode;
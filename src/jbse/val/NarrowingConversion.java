@@ -13,6 +13,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  *
  */
 public final class NarrowingConversion extends Primitive {
+	private static final long serialVersionUID = 1845921986940232124L;
+
 	private final Primitive arg;
 	private final String toString;
 	private final int hashCode;
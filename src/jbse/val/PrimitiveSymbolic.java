@@ -8,6 +8,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * Class that represent a symbolic value. 
  */
 public final class PrimitiveSymbolic extends Primitive implements Symbolic {
+	private static final long serialVersionUID = 5726007558683947026L;
+
 	/** The identifier of this symbol. */
     private final int id;
     
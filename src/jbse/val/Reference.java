@@ -7,6 +7,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * Class for references to heap objects (instances and arrays).
  */
 public abstract class Reference extends Value {
+	private static final long serialVersionUID = 6673980178913063770L;
+
 	protected Reference(char type) {
 		super(type);
 	}
@@ -20,6 +20,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class ReferenceArrayImmaterial extends Reference {
+	private static final long serialVersionUID = 1973323455069847669L;
+
 	/** The type of the array. */
 	private final String arrayType;
 	
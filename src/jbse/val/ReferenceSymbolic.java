@@ -8,6 +8,8 @@ import jbse.common.Type;
  * @author Pietro Braione
  */
 public final class ReferenceSymbolic extends Reference implements Symbolic {
+	private static final long serialVersionUID = -238844095962589663L;
+
 	/** An identifier for the value, in order to track lazy initialization. */
 	private final int id;
 	
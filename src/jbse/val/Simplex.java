@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class for concrete primitive values.
  */
 public final class Simplex extends Primitive implements Cloneable {	
+	private static final long serialVersionUID = -6041245003110261274L;
+
 	/** The primitive value this object represents. */
     private final Object value;
     
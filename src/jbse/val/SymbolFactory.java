@@ -1,10 +1,14 @@
 package jbse.val;
 
+import java.io.Serializable;
+
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.val.exc.InvalidTypeException;
 
-public final class SymbolFactory implements Cloneable {
+public final class SymbolFactory implements Cloneable, Serializable {
+    private static final long serialVersionUID = 5486832623615860494L;
+
     /** The {@link Calculator}. */
     private final Calculator calc;
 
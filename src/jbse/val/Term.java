@@ -25,6 +25,8 @@ import jbse.val.exc.ValueDoesNotSupportNativeException;
  * @author Pietro Braione
  */
 public final class Term extends Primitive {
+    private static final long serialVersionUID = 7717297330130686106L;
+
     /** The conventional value of the {@link Term}, a {@link String}. */
 	private final String value;
 	
@@ -6,6 +6,8 @@ import jbse.val.exc.InvalidTypeException;
 import jbse.val.exc.ValueDoesNotSupportNativeException;
 
 public final class WideningConversion extends Primitive {
+	private static final long serialVersionUID = -9172106014356008777L;
+
 	private final Primitive arg;
 	private final String toString;
 	private final int hashCode;
@@ -0,0 +1,117 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class JUnitTestSuiteWriterTest {
+	private static String testCase(int n, String input) {
+		return "    @Test\n" +
+		       "    public void test" + n + "() {\n" +
+		       "        //test case for state .1.1[" + n + "]\n" +
+		       "        int x = " + input + "; // {V" + n + "} == " + input + "\n" +
+		       "    }\n";
+	}
+
+	private static String read(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testShardByCount() throws IOException {
+		final Path dir = Files.createTempDirectory("suite");
+		final JUnitTestSuiteWriter w = new JUnitTestSuiteWriter(dir, 2, Long.MAX_VALUE, false);
+		for (int i = 0; i < 5; ++i) {
+			w.write(testCase(i, "" + i));
+		}
+		w.close();
+		assertNull(w.getError());
+		assertEquals(5, w.getTests());
+		assertEquals(3, w.getClasses());
+		final String first = read(dir.resolve("TestSuite_0.java"));
+		assertTrue(first.contains("public class TestSuite_0 {"));
+		assertTrue(first.contains("test0()") && first.contains("test1()") && !first.contains("test2()"));
+		assertTrue(first.endsWith("}\n"));
+		assertTrue(read(dir.resolve("TestSuite_2.java")).contains("test4()"));
+	}
+
+	@Test
+	public void testShardBySize() throws IOException {
+		final Path dir = Files.createTempDirectory("suite");
+		final long size = StateFormatterJUnitTestSuite.prologue("TestSuite_0").length() + testCase(0, "0").length();
+		final JUnitTestSuiteWriter w = new JUnitTestSuiteWriter(dir, 100, size, false);
+		w.write(testCase(0, "0"));
+		w.write(testCase(1, "1"));
+		w.close();
+		assertEquals(2, w.getClasses());
+	}
+
+	@Test
+	public void testDeduplicate() throws IOException {
+		//same code but for names and comments
+		final Path dir = Files.createTempDirectory("suite");
+		final JUnitTestSuiteWriter w = new JUnitTestSuiteWriter(dir, 100, Long.MAX_VALUE, true);
+		w.write(testCase(0, "3"));
+		w.write(testCase(1, "3"));
+		w.write(testCase(2, "4"));
+		w.close();
+		assertEquals(2, w.getTests());
+		assertEquals(1, w.getDuplicates());
+		final String suite = read(dir.resolve("TestSuite_0.java"));
+		assertTrue(suite.contains("test0()") && !suite.contains("test1()") && suite.contains("test2()"));
+	}
+
+	@Test
+	public void testCommentOnly() throws IOException {
+		//the placeholders of the test cases not generated are written, but not counted nor deduplicated
+		final Path dir = Files.createTempDirectory("suite");
+		final JUnitTestSuiteWriter w = new JUnitTestSuiteWriter(dir, 1, Long.MAX_VALUE, true);
+		final String panic = "    //Unable to generate test case 1 for state .1.2 (no numeric solution from the solver)\n";
+		w.write(testCase(0, "3"));
+		w.write(panic);
+		w.write(panic);
+		w.write(testCase(2, "4"));
+		w.close();
+		assertEquals(2, w.getTests());
+		assertEquals(0, w.getDuplicates());
+		assertEquals(2, w.getClasses());
+		final String first = read(dir.resolve("TestSuite_0.java"));
+		assertEquals(first.indexOf(panic), first.lastIndexOf(panic) - panic.length());
+		assertTrue(read(dir.resolve("TestSuite_1.java")).contains("test2()"));
+	}
+
+	@Test
+	public void testDeduplicateLiterals() throws IOException {
+		//comment delimiters in literals are code, the comments are not
+		final Path dir = Files.createTempDirectory("suite");
+		final JUnitTestSuiteWriter w = new JUnitTestSuiteWriter(dir, 100, Long.MAX_VALUE, true);
+		w.write(testCase(0, "\"a//b\".length()"));
+		w.write(testCase(1, "\"a//c\".length()"));
+		w.write(testCase(2, "\"a/*b\".length() /* first */"));
+		w.write(testCase(3, "\"a/*b\".length() /* second */"));
+		w.write(testCase(4, "'\\'' + \"//\" /* first */"));
+		w.write(testCase(5, "'\\'' + \"//\" /* second */"));
+		w.close();
+		assertEquals(4, w.getTests());
+		assertEquals(2, w.getDuplicates());
+		final String suite = read(dir.resolve("TestSuite_0.java"));
+		assertTrue(suite.contains("test0()") && suite.contains("test1()") && suite.contains("test2()"));
+		assertTrue(!suite.contains("test3()") && suite.contains("test4()") && !suite.contains("test5()"));
+	}
+
+	@Test
+	public void testNoOverwrite() throws IOException {
+		final Path dir = Files.createTempDirectory("suite");
+		Files.write(dir.resolve("TestSuite_0.java"), "existing".getBytes(StandardCharsets.UTF_8));
+		final JUnitTestSuiteWriter w = new JUnitTestSuiteWriter(dir, 100, Long.MAX_VALUE, true);
+		w.write(testCase(0, "0"));
+		w.close();
+		assertEquals("existing", read(dir.resolve("TestSuite_0.java")));
+		assertTrue(read(dir.resolve("TestSuite_1.java")).contains("public class TestSuite_1 {"));
+	}
+}
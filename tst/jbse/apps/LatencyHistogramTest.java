@@ -0,0 +1,46 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+	@Test
+	public void testEmpty() {
+		final LatencyHistogram h = new LatencyHistogram();
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getPercentile(50));
+	}
+
+	@Test
+	public void testExact() {
+		//small values are recorded exactly
+		final LatencyHistogram h = new LatencyHistogram();
+		for (long v = 1; v <= 10; ++v) {
+			h.record(v);
+		}
+		assertEquals(10, h.getCount());
+		assertEquals(55, h.getTotal());
+		assertEquals(10, h.getMax());
+		assertEquals(5, h.getPercentile(50));
+		assertEquals(9, h.getPercentile(90));
+		assertEquals(10, h.getPercentile(100));
+	}
+
+	@Test
+	public void testPrecision() {
+		//big values are recorded with a bounded relative error
+		final LatencyHistogram h = new LatencyHistogram();
+		for (long v = 1; v <= 1000; ++v) {
+			h.record(v * 1_000_000L);
+		}
+		h.record(-5);
+		assertEquals(1001, h.getCount());
+		assertEquals(1_000_000_000L, h.getMax());
+		final long p50 = h.getPercentile(50);
+		assertTrue(p50 >= 500_000_000L && p50 <= 500_000_000L * 104 / 100);
+		final long p99 = h.getPercentile(99);
+		assertTrue(p99 >= 990_000_000L && p99 <= 1_000_000_000L);
+		assertEquals(0, h.getPercentile(0));
+	}
+}
@@ -0,0 +1,78 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.tree.StateTree;
+import jbse.val.ReferenceConcrete;
+
+public class StateFormatterTextDiffTest {
+	private static final Signature TWO_LEVELS = new Signature("targets/Branches", "(II)I", "twoLevels");
+	private static final Signature NODE_VALUE = new Signature("targets/Node", "I", "value");
+
+	private static State newState() throws Exception {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		final State s = new State(new Classpath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/"),
+		                          ClassFileFactoryJavassist.class, new HashMap<>(), calc);
+		s.pushFrameSymbolic(TWO_LEVELS);
+		return s;
+	}
+
+	private static String format(StateFormatterTextDiff f, State s) {
+		f.cleanup();
+		f.formatState(s);
+		return f.emit();
+	}
+
+	@Test
+	public void testRenderChanges() throws Exception {
+		//the first state is rendered completely, the others only by their changes
+		final StateFormatterTextDiff f = new StateFormatterTextDiff(Collections.<String>emptyList());
+		final State s = newState();
+		assertTrue(format(f, s).contains("Heap: {"));
+
+		final String unchanged = format(f, s);
+		assertFalse(unchanged.contains("Heap"));
+		assertFalse(unchanged.contains("Stack"));
+
+		final ReferenceConcrete r = s.createInstance("targets/Node");
+		final String created = format(f, s);
+		assertTrue(created.contains("Heap (changed)"));
+		assertTrue(created.contains("Object[" + r.getHeapPosition() + "] (new)"));
+		assertFalse(format(f, s).contains("Heap"));
+
+		s.getObject(r).setFieldValue(NODE_VALUE, s.getCalculator().valInt(42));
+		final String modified = format(f, s);
+		assertTrue(modified.contains("Heap (changed)"));
+		assertTrue(modified.contains("Object[" + r.getHeapPosition() + "]: {"));
+		assertTrue(modified.contains("42"));
+		assertFalse(format(f, s).contains("Heap"));
+	}
+
+	@Test
+	public void testOtherTrace() throws Exception {
+		//a state whose identifier only starts with the previous one as a string is rendered completely
+		final StateFormatterTextDiff f = new StateFormatterTextDiff(Collections.<String>emptyList());
+		final State s = newState();
+		final State s1 = s.clone();
+		s1.appendToIdentifier(StateTree.IDENTIFIER_SEPARATOR_LONG + "1");
+		final State s11 = s1.clone();
+		s11.appendToIdentifier(StateTree.IDENTIFIER_SEPARATOR_LONG + "1");
+		final State s10 = s.clone();
+		s10.appendToIdentifier(StateTree.IDENTIFIER_SEPARATOR_LONG + "10");
+		assertTrue(format(f, s1).contains("Heap: {"));
+		assertFalse(format(f, s11).contains("Heap"));
+		assertTrue(format(f, s10).contains("Heap: {"));
+	}
+}
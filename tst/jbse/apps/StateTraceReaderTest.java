@@ -0,0 +1,100 @@
+package jbse.apps;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.tree.StateTree;
+import jbse.val.ReferenceConcrete;
+
+public class StateTraceReaderTest {
+	@Test(expected = IOException.class)
+	public void testNotATrace() throws IOException {
+		final Path file = Files.createTempFile("trace", ".bin");
+		Files.write(file, "not a trace".getBytes(StandardCharsets.UTF_8));
+		new StateTraceReader(file, null, null).close();
+	}
+
+	@Test
+	public void testEmptyTrace() throws IOException {
+		final Path file = Files.createTempFile("trace", ".bin");
+		final StateFormatterBinary f = new StateFormatterBinary(file, null, null);
+		f.formatPrologue();
+		f.formatEpilogue();
+		assertNull(f.getError());
+		assertEquals("", f.emit());
+		try (final StateTraceReader r = new StateTraceReader(file, null, null)) {
+			assertFalse(r.next());
+			assertFalse(r.next());
+			assertNull(r.getState());
+			assertNull(r.getInitialState());
+		}
+	}
+
+	@Test
+	public void testStates() throws Exception {
+		//the written states are read back
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		final State initial = new State(new Classpath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/"),
+		                                ClassFileFactoryJavassist.class, new HashMap<>(), calc);
+		initial.pushFrameSymbolic(new Signature("targets/Branches", "(II)I", "twoLevels"));
+		final State s1 = initial.clone();
+		s1.appendToIdentifier(StateTree.IDENTIFIER_SEPARATOR_LONG + "1");
+		final ReferenceConcrete r = s1.createInstance("targets/Node");
+		s1.getObject(r).setFieldValue(new Signature("targets/Node", "I", "value"), calc.valInt(42));
+		final State s2 = initial.clone();
+		s2.appendToIdentifier(StateTree.IDENTIFIER_SEPARATOR_LONG + "2");
+		assertEquals(s2.getHeap().size() + 1, s1.getHeap().size());
+
+		final Path file = Files.createTempFile("trace", ".bin");
+		final StateFormatterBinary f = new StateFormatterBinary(file, () -> initial, null);
+		f.formatPrologue();
+		f.formatState(s1);
+		f.formatState(s2);
+		f.formatEpilogue();
+		assertNull(f.getError());
+		try (final StateTraceReader reader = new StateTraceReader(file, calc, initial.getClassHierarchy())) {
+			assertTrue(reader.next());
+			assertEquals(initial.getIdentifier(), reader.getInitialState().getIdentifier());
+			assertEquals(1, reader.getInitialState().getStackSize());
+			final State t1 = reader.getState();
+			assertEquals(s1.getIdentifier(), t1.getIdentifier());
+			assertEquals(1, t1.getStackSize());
+			assertEquals(s1.getHeap().keySet(), t1.getHeap().keySet());
+			assertEquals(calc.valInt(42), t1.getObject(r).getFieldValue("value"));
+			assertSame(calc, t1.getCalculator());
+			assertNull(reader.getModel());
+			assertTrue(reader.next());
+			assertEquals(s2.getIdentifier(), reader.getState().getIdentifier());
+			assertEquals(s2.getHeap().keySet(), reader.getState().getHeap().keySet());
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	public void testTruncatedTrace() throws IOException {
+		//a trace that was not completely written is read up to its end
+		final Path file = Files.createTempFile("trace", ".bin");
+		final StateFormatterBinary f = new StateFormatterBinary(file, null, null);
+		f.close();
+		final byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, StateFormatterBinary.MAGIC.length));
+		try (final StateTraceReader r = new StateTraceReader(file, null, null)) {
+			assertFalse(r.next());
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.mem.State;
+import jbse.mem.exc.ContradictionException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.MemoryPath;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.exc.InvalidTypeException;
+
+public class InitialHeapCheckerTest {
+	private static final String NODE = "targets/Node";
+
+	private static State newState() throws InvalidClassFileFactoryClassException {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		return new State(new Classpath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/"),
+		                 ClassFileFactoryJavassist.class, new HashMap<>(), calc);
+	}
+
+	/**
+	 * Expands a symbolic reference to a fresh {@code Node}.
+	 *
+	 * @return the heap position of the {@code Node}.
+	 */
+	private static long expand(State s, ReferenceSymbolic r) throws InvalidTypeException, ContradictionException {
+		s.assumeExpands(r, NODE);
+		return s.getResolution(r);
+	}
+
+	private static ReferenceSymbolic root(State s) {
+		return (ReferenceSymbolic) s.createSymbol("L" + NODE + ";", MemoryPath.mkLocalVariable("this"));
+	}
+
+	private static ReferenceSymbolic next(State s, long pos) {
+		return (ReferenceSymbolic) s.getHeap().get(pos).getFieldValue("next");
+	}
+
+	@Test
+	public void testIsomorphic() throws Exception {
+		//the same shape, with different heap positions and symbols
+		final State s1 = newState();
+		final long pos1 = expand(s1, root(s1));
+		s1.assumeNull(next(s1, pos1));
+
+		final State s2 = newState();
+		expand(s2, (ReferenceSymbolic) s2.createSymbol("L" + NODE + ";", MemoryPath.mkLocalVariable("other")));
+		final long pos2 = expand(s2, root(s2));
+		s2.assumeNull(next(s2, pos2));
+
+		assertTrue(pos1 != pos2);
+		assertNotNull(InitialHeapChecker.canonical(s1, pos1));
+		assertEquals(InitialHeapChecker.canonical(s1, pos1), InitialHeapChecker.canonical(s2, pos2));
+	}
+
+	@Test
+	public void testDifferentShapes() throws Exception {
+		//next to null, or to the checked object itself
+		final State s1 = newState();
+		final long pos1 = expand(s1, root(s1));
+		s1.assumeNull(next(s1, pos1));
+
+		final State s2 = newState();
+		final long pos2 = expand(s2, root(s2));
+		s2.assumeAliases(next(s2, pos2), pos2, s2.getHeap().get(pos2));
+
+		assertNotNull(InitialHeapChecker.canonical(s2, pos2));
+		assertFalse(InitialHeapChecker.canonical(s1, pos1).equals(InitialHeapChecker.canonical(s2, pos2)));
+	}
+
+	@Test
+	public void testUnresolvedNotCached() throws Exception {
+		//the same reachable heap with an unresolved reference, 
+		//but the second can alias another object: they must 
+		//not share a verdict, thus none is cached
+		final State s1 = newState();
+		final long pos1 = expand(s1, root(s1));
+
+		final State s2 = newState();
+		final long pos2 = expand(s2, root(s2));
+		expand(s2, (ReferenceSymbolic) s2.createSymbol("L" + NODE + ";", MemoryPath.mkLocalVariable("other")));
+
+		assertNull(InitialHeapChecker.canonical(s1, pos1));
+		assertNull(InitialHeapChecker.canonical(s2, pos2));
+	}
+}
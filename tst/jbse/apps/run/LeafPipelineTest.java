@@ -0,0 +1,140 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import jbse.apps.run.RunParameters.DecisionProcedureType;
+import jbse.apps.run.RunParameters.StateFormatMode;
+import jbse.apps.run.RunParameters.StepShowMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+
+public class LeafPipelineTest {
+	private static String run(Path output, StateFormatMode stateFormatMode, StepShowMode stepShowMode, boolean doConcretization, int leafWorkers) 
+	throws IOException {
+		final RunParameters p = new RunParameters();
+		p.addClasspath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/");
+		p.setMethodSignature("targets/Branches", "(III)I", "threeLevels");
+		p.setDecisionProcedureType(DecisionProcedureType.ALL_SAT);
+		p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+		p.setStepShowMode(stepShowMode);
+		p.setStateFormatMode(stateFormatMode);
+		p.setDoConcretization(doConcretization);
+		p.setLeafWorkers(leafWorkers);
+		p.setLeafQueueSize(1);
+		p.setShowInfo(false);
+		p.setShowOnConsole(false);
+		p.setOutputFileName(output.toString());
+		assertEquals(0, new Run(p).run());
+		return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testRun() throws IOException {
+		//a run that processes the leaves on workers has the same output of a sequential one
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final Path output = dir.resolve("output.txt");
+		for (StateFormatMode stateFormatMode : new StateFormatMode[] { StateFormatMode.FULLTEXT, StateFormatMode.JUNIT_TEST }) {
+			for (StepShowMode stepShowMode : new StepShowMode[] { StepShowMode.LEAVES, StepShowMode.SUMMARIES }) {
+				final String expected = run(output, stateFormatMode, stepShowMode, false, 0);
+				assertTrue(expected.contains("ROOT|2|2|2"));
+				assertEquals(expected, run(output, stateFormatMode, stepShowMode, false, 3));
+			}
+		}
+		
+		//the leaves are also checked for concretizability
+		final String expected = run(output, StateFormatMode.FULLTEXT, StepShowMode.LEAVES, true, 0);
+		assertEquals(expected, run(output, StateFormatMode.FULLTEXT, StepShowMode.LEAVES, true, 3));
+		Files.delete(output);
+		Files.delete(dir);
+	}
+
+	@Test
+	public void testOrder() {
+		//completions run in submission order, whatever the processing time
+		final LeafPipeline<String> p = new LeafPipeline<>(Arrays.asList("a", "b", "c"), 4);
+		final ArrayList<Integer> completed = new ArrayList<>();
+		for (int i = 0; i < 50; ++i) {
+			final int leaf = i;
+			p.submit(context -> {
+				Thread.sleep((leaf * 7) % 5);
+				return () -> completed.add(leaf);
+			});
+		}
+		p.drain();
+		p.close();
+		for (int i = 0; i < 50; ++i) {
+			assertEquals(i, completed.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void testBackpressure() throws InterruptedException {
+		//the leaves submitted and not completed never exceed the capacity
+		final LeafPipeline<String> p = new LeafPipeline<>(Arrays.asList("a"), 2);
+		final CountDownLatch go = new CountDownLatch(1);
+		final int[] completed = { 0 };
+		final Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				//falls through
+			}
+			go.countDown();
+		});
+		releaser.start();
+		for (int i = 0; i < 10; ++i) {
+			p.submit(context -> {
+				go.await();
+				return () -> ++completed[0];
+			});
+			assertTrue(i + 1 - completed[0] <= 2);
+		}
+		p.drain();
+		p.close();
+		releaser.join();
+		assertEquals(10, completed[0]);
+		assertTrue(p.getStalls() > 0);
+	}
+
+	@Test
+	public void testContexts() {
+		//each worker thread always gets the same context
+		final LeafPipeline<String> p = new LeafPipeline<>(Arrays.asList("a", "b"), 8);
+		final ConcurrentHashMap<String, Thread> owners = new ConcurrentHashMap<>();
+		final List<Boolean> consistent = new ArrayList<>();
+		for (int i = 0; i < 40; ++i) {
+			p.submit(context -> {
+				final boolean same = (owners.putIfAbsent(context, Thread.currentThread()) == null ||
+				                      owners.get(context) == Thread.currentThread());
+				return () -> consistent.add(same);
+			});
+		}
+		p.drain();
+		p.close();
+		assertEquals(40, consistent.size());
+		assertFalse(consistent.contains(false));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailure() {
+		//a failure is rethrown when the failed leaf is completed
+		final LeafPipeline<String> p = new LeafPipeline<>(Arrays.asList("a"), 2);
+		try {
+			p.submit(context -> { throw new IllegalStateException(); });
+			p.drain();
+		} finally {
+			p.close();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.apps.run.RunParameters.DecisionProcedureType;
+import jbse.apps.run.RunParameters.StateFormatMode;
+import jbse.apps.run.RunParameters.StepShowMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+
+public class RunBatchTest {
+	private static RunParameters parameters() {
+		final RunParameters p = new RunParameters();
+		p.addClasspath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/");
+		p.setDecisionProcedureType(DecisionProcedureType.ALL_SAT);
+		p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+		p.setStepShowMode(StepShowMode.LEAVES);
+		p.setStateFormatMode(StateFormatMode.JUNIT_TEST);
+		p.setShowInfo(false);
+		p.setShowWarnings(false);
+		p.setShowOnConsole(false);
+		return p;
+	}
+
+	private static String run(Path output, String parametersSignature, String methodName) throws IOException {
+		final RunParameters p = parameters();
+		p.setMethodSignature("targets/Branches", parametersSignature, methodName);
+		p.setOutputFileName(output.toString());
+		assertEquals(0, new Run(p).run());
+		return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+	}
+
+	private static String read(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testTwoTargets() throws IOException {
+		//the concurrent runs of a batch emit the same results of separate runs
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final String expectedTwoLevels = run(dir.resolve("twoLevels.txt"), "(II)I", "twoLevels");
+		final String expectedThreeLevels = run(dir.resolve("threeLevels.txt"), "(III)I", "threeLevels");
+
+		final Path batch = dir.resolve("batch");
+		final RunParameters p = parameters();
+		p.addBatchTarget("targets/Branches", "(II)I", "twoLevels");
+		p.addBatchTarget("targets/Branches", "(III)I", "threeLevels");
+		p.setBatchThreads(2);
+		p.setBatchOutputDirectory(batch.toString());
+		assertEquals(0, new RunBatch(p).run());
+		assertEquals(expectedTwoLevels, read(batch.resolve("0-targets.Branches.twoLevels.txt")));
+		assertEquals(expectedThreeLevels, read(batch.resolve("1-targets.Branches.threeLevels.txt")));
+
+		final List<String> summary = Files.readAllLines(batch.resolve(RunBatch.SUMMARY_FILE), StandardCharsets.UTF_8);
+		assertEquals(2, summary.size());
+		assertTrue(summary.get(0).startsWith("0\t0\t"));
+		assertTrue(summary.get(0).endsWith("twoLevels"));
+		assertTrue(summary.get(1).startsWith("1\t0\t"));
+		assertTrue(summary.get(1).endsWith("threeLevels"));
+	}
+}
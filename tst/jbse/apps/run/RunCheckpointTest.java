@@ -0,0 +1,83 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+import jbse.apps.StateFormatterJUnitTestSuite;
+import jbse.apps.run.RunParameters.DecisionProcedureType;
+import jbse.apps.run.RunParameters.StateFormatMode;
+import jbse.apps.run.RunParameters.StepShowMode;
+import jbse.jvm.Checkpoint;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+
+public class RunCheckpointTest {
+	private static RunParameters parameters(Path output) {
+		final RunParameters p = new RunParameters();
+		p.addClasspath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/");
+		p.setMethodSignature("targets/Branches", "(III)I", "threeLevels");
+		p.setDecisionProcedureType(DecisionProcedureType.ALL_SAT);
+		p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+		p.setStepShowMode(StepShowMode.LEAVES);
+		p.setStateFormatMode(StateFormatMode.JUNIT_TEST);
+		p.setShowInfo(false);
+		p.setShowWarnings(false);
+		p.setShowOnConsole(false);
+		p.setOutputFileName(output.toString());
+		return p;
+	}
+
+	private static int count(String text, String s) {
+		int retVal = 0;
+		for (int i = text.indexOf(s); i >= 0; i = text.indexOf(s, i + s.length())) {
+			++retVal;
+		}
+		return retVal;
+	}
+
+	@Test
+	public void testResumeSameOutput() throws IOException {
+		//a run killed after its first checkpoint and resumed emits
+		//the same test suite of an uninterrupted run
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final Path uninterrupted = dir.resolve("uninterrupted.txt");
+		assertEquals(0, new Run(parameters(uninterrupted)).run());
+		final String expected = new String(Files.readAllBytes(uninterrupted), StandardCharsets.UTF_8);
+		assertEquals(1, count(expected, StateFormatterJUnitTestSuite.prologue(StateFormatterJUnitTestSuite.DEFAULT_CLASS_NAME)));
+		//no numeric solver, so the test cases are just numbered
+		assertEquals(8, count(expected, "test case "));
+
+		//the checkpointed run completes, then it is "killed" after the
+		//first frame of the checkpoint file, with all its output written
+		final Path output = dir.resolve("output.txt");
+		final Path checkpoint = dir.resolve("checkpoint");
+		final RunParameters pc = parameters(output);
+		pc.setCheckpointFile(checkpoint.toString());
+		pc.setCheckpointInterval(1);
+		assertEquals(0, new Run(pc).run());
+		assertEquals(expected, new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+		final int firstFrame;
+		try (final DataInputStream in = new DataInputStream(Files.newInputStream(checkpoint))) {
+			in.readInt();
+			firstFrame = 16 + in.readInt();
+		}
+		try (final FileChannel c = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+			c.truncate(firstFrame);
+		}
+		assertEquals(1, Checkpoint.read(checkpoint).getFrames());
+		assertEquals(1, Checkpoint.read(checkpoint).getTracesTotal());
+
+		final RunParameters pr = parameters(output);
+		pr.setResumeFile(checkpoint.toString());
+		assertEquals(0, new Run(pr).run());
+		assertEquals(expected, new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+	}
+}
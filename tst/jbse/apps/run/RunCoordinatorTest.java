@@ -0,0 +1,126 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import jbse.apps.run.RunParameters.DecisionProcedureType;
+import jbse.apps.run.RunParameters.StepShowMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+import jbse.tree.StateTree;
+
+public class RunCoordinatorTest {
+	/**
+	 * Supplies the parameters of the workers.
+	 */
+	public static final class Parameters implements Supplier<RunParameters> {
+		@Override
+		public RunParameters get() {
+			final RunParameters p = new RunParameters();
+			p.addClasspath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/");
+			p.setMethodSignature("targets/Branches", "(III)I", "unbalanced");
+			p.setDecisionProcedureType(DecisionProcedureType.ALL_SAT);
+			p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+			p.setStepShowMode(StepShowMode.LEAVES);
+			p.setShowInfo(false);
+			p.setShowWarnings(false);
+			p.setShowOnConsole(false);
+			return p;
+		}
+	}
+
+	private static void write(Path prefix, String body, String index) throws IOException {
+		Files.write(prefix.resolveSibling(prefix.getFileName() + RunWorker.SUFFIX_BODY), body.getBytes(StandardCharsets.UTF_8));
+		Files.write(prefix.resolveSibling(prefix.getFileName() + RunWorker.SUFFIX_INDEX), index.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testMergeHandedOffSubregion() throws IOException {
+		//the root subregion emits .1.1 and .1.3, and hands off .1.2 
+		//between them, whose subregion emits .1.2.1 and .1.2.2
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final Path root = dir.resolve("0"), sub = dir.resolve("1");
+		write(root, "a\nc\n", "0 .1.1\n2 .1.3\n");
+		write(sub, "b1\nb2\n", "0 .1.2.1\n3 .1.2.2\n");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		RunCoordinator.mergeBodies(Arrays.asList(root, sub), Arrays.asList(null, ".1.2"), new PrintStream[] { new PrintStream(bytes), null });
+		assertEquals("a\nb1\nb2\nc\n", bytes.toString());
+	}
+
+	@Test
+	public void testMergeLateLeaves() throws IOException {
+		//a subregion emits its states out of order, and some text before the first state
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final Path root = dir.resolve("0");
+		write(root, "r\nc\na\n", "2 .1.3\n4 .1.1\n");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		RunCoordinator.mergeBodies(Arrays.asList(root), Arrays.asList((String) null), new PrintStream[] { new PrintStream(bytes) });
+		assertEquals("r\na\nc\n", bytes.toString());
+	}
+
+	@Test
+	public void testCompareIdentifiers() {
+		assertTrue(RunCoordinator.compareIdentifiers(null, ".1") < 0);
+		assertTrue(RunCoordinator.compareIdentifiers(".1", ".1.1") < 0);
+		assertTrue(RunCoordinator.compareIdentifiers(".1.2", ".1.10") < 0);
+		assertTrue(RunCoordinator.compareIdentifiers(".1.2.5", ".1.3") < 0);
+		assertEquals(0, RunCoordinator.compareIdentifiers(".1.2", ".1.2"));
+	}
+
+	@Test
+	public void testSameOutputAsSequential() throws IOException {
+		//the first worker emits the shallow trace with the greatest identifier,
+		//and hands off the subregions beyond depth 2, with lesser identifiers
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final Path sequential = dir.resolve("sequential.txt");
+		final Path distributed = dir.resolve("distributed.txt");
+		final RunParameters ps = new Parameters().get();
+		ps.setOutputFileName(sequential.toString());
+		assertEquals(0, new Run(ps).run());
+
+		final RunParameters pd = new Parameters().get();
+		pd.setOutputFileName(distributed.toString());
+		pd.setWorkers(2);
+		pd.setWorkerParametersSupplier(Parameters.class.getName());
+		pd.setFrontierDepth(2);
+		pd.setSplitDelay(1, TimeUnit.HOURS);
+		assertEquals(0, new RunCoordinator(pd).run());
+
+		//same states, in identifier order
+		final List<String> expected = states(sequential);
+		final List<String> actual = states(distributed);
+		assertEquals(4, expected.size());
+		assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+		assertEquals(expected.size(), actual.size());
+		for (int i = 1; i < actual.size(); ++i) {
+			assertTrue(RunCoordinator.compareIdentifiers(identifier(actual.get(i - 1)), identifier(actual.get(i))) < 0);
+		}
+	}
+
+	private static List<String> states(Path output) throws IOException {
+		final String text = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+		final ArrayList<String> retVal = new ArrayList<>();
+		for (String state : text.split("\\n(?=" + Pattern.quote(StateTree.IDENTIFIER_DEFAULT_LONG) + ")")) {
+			retVal.add(state.trim());
+		}
+		return retVal;
+	}
+
+	private static String identifier(String state) {
+		return state.substring(0, state.indexOf('['));
+	}
+}
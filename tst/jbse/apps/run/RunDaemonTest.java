@@ -0,0 +1,162 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import jbse.apps.run.RunParameters.DecisionProcedureType;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+
+public class RunDaemonTest {
+	private static final String JOB_TWO_LEVELS = RunDaemon.CMD_JOB + " %s targets/Branches (II)I twoLevels\n";
+
+	private static Supplier<RunParameters> parameters(String classpath) {
+		return () -> {
+			final RunParameters p = new RunParameters();
+			p.addClasspath("tst/jbse/bc/testdata/rt.jar", classpath);
+			p.setDecisionProcedureType(DecisionProcedureType.ALL_SAT);
+			p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+			p.setShowInfo(false);
+			p.setShowWarnings(false);
+			return p;
+		};
+	}
+
+	/** Waits until a reply starts with {@code prefix}. */
+	private static String[] await(ByteArrayOutputStream bytes, String prefix) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + 60000;
+		while (System.currentTimeMillis() < deadline) {
+			final String[] replies = bytes.toString().split("\\R");
+			for (String reply : replies) {
+				if (reply.startsWith(prefix)) {
+					return replies;
+				}
+			}
+			Thread.sleep(10);
+		}
+		fail("No reply " + prefix);
+		return null; //to keep compiler happy
+	}
+
+	private static String[] serve(String commands) throws InterruptedException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final PrintStream channel = new PrintStream(bytes, true);
+		final RunDaemon daemon = new RunDaemon(RunParameters::new, channel);
+		daemon.serve(new BufferedReader(new StringReader(commands)));
+		return bytes.toString().split("\\R");
+	}
+
+	@Test
+	public void testMalformed() throws InterruptedException {
+		final String[] replies = serve("FOO bar\nQUIT\n");
+		assertEquals(2, replies.length);
+		assertEquals(RunDaemon.REPLY_READY, replies[0]);
+		assertTrue(replies[1].startsWith(RunDaemon.REPLY_ERROR + " " + RunDaemon.NO_ID + " "));
+	}
+
+	@Test
+	public void testMissingSettings() throws InterruptedException {
+		//a job whose settings file does not exist fails, and the daemon goes on
+		final String[] replies = serve("JOB j1 foo/Bar ()V baz /nonexistent/settings.jbse\n");
+		assertEquals(3, replies.length);
+		assertEquals(RunDaemon.REPLY_READY, replies[0]);
+		assertTrue(replies[1].startsWith(RunDaemon.REPLY_ERROR + " j1 "));
+		assertTrue(replies[2].startsWith(RunDaemon.REPLY_DONE + " j1 1 "));
+	}
+
+	@Test
+	public void testQuit() throws InterruptedException {
+		//the commands after QUIT are ignored
+		final String[] replies = serve("QUIT\nJOB j1 foo/Bar ()V baz /nonexistent/settings.jbse\n");
+		assertEquals(1, replies.length);
+		assertEquals(RunDaemon.REPLY_READY, replies[0]);
+	}
+
+	@Test
+	public void testJob() throws InterruptedException {
+		//a job sends its output, then is done
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final RunDaemon daemon = new RunDaemon(parameters("tst/jbse/apps/run/testdata/"), new PrintStream(bytes, true));
+		daemon.serve(new BufferedReader(new StringReader(String.format(JOB_TWO_LEVELS, "j1"))));
+		final String[] replies = bytes.toString().split("\\R");
+		assertEquals(RunDaemon.REPLY_READY, replies[0]);
+		assertTrue(replies.length > 2);
+		for (int i = 1; i < replies.length - 1; ++i) {
+			assertTrue(replies[i].startsWith(RunDaemon.REPLY_OUT + " j1 "));
+		}
+		assertTrue(replies[replies.length - 1].startsWith(RunDaemon.REPLY_DONE + " j1 0 "));
+	}
+
+	@Test
+	public void testOutputSink() throws IOException {
+		//the output sink receives the lines of the output while the run is in progress
+		final Path output = Files.createTempFile("jbse-test", ".txt");
+		final RunParameters pf = parameters("tst/jbse/apps/run/testdata/").get();
+		pf.setMethodSignature("targets/Branches", "(II)I", "twoLevels");
+		pf.setShowOnConsole(false);
+		pf.setOutputFileName(output.toString());
+		assertEquals(0, new Run(pf).run());
+		final List<String> expected = Files.readAllLines(output, Charset.defaultCharset());
+		Files.delete(output);
+
+		final ArrayList<String> lines = new ArrayList<>();
+		final boolean[] running = { false };
+		final RunParameters ps = parameters("tst/jbse/apps/run/testdata/").get();
+		ps.setMethodSignature("targets/Branches", "(II)I", "twoLevels");
+		ps.setShowOnConsole(false);
+		ps.setOutputSink(line -> {
+			assertTrue(running[0]);
+			lines.add(line);
+		});
+		running[0] = true;
+		assertEquals(0, new Run(ps).run());
+		running[0] = false;
+		assertTrue(expected.size() > 1);
+		assertEquals(expected, lines);
+	}
+
+	@Test
+	public void testInvalidation() throws InterruptedException, IOException {
+		//a job sees a classfile that did not exist when the previous job ran
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final RunDaemon daemon = new RunDaemon(parameters(dir.toString()), new PrintStream(bytes, true));
+		final PipedWriter commands = new PipedWriter();
+		final BufferedReader in = new BufferedReader(new PipedReader(commands));
+		final Thread server = new Thread(() -> {
+			try {
+				daemon.serve(in);
+			} catch (InterruptedException e) {
+				//exits
+			}
+		});
+		server.start();
+		commands.write(String.format(JOB_TWO_LEVELS, "j1"));
+		commands.flush();
+		final String[] before = await(bytes, RunDaemon.REPLY_DONE + " j1 ");
+		assertFalse(before[before.length - 1].startsWith(RunDaemon.REPLY_DONE + " j1 0 "));
+
+		Files.createDirectories(dir.resolve("targets"));
+		Files.copy(Paths.get("tst/jbse/apps/run/testdata/targets/Branches.class"), dir.resolve("targets/Branches.class"));
+		commands.write(String.format(JOB_TWO_LEVELS, "j2") + RunDaemon.CMD_QUIT + "\n");
+		commands.flush();
+		server.join(60000);
+		final String[] after = bytes.toString().split("\\R");
+		assertTrue(after[after.length - 1].startsWith(RunDaemon.REPLY_DONE + " j2 0 "));
+	}
+}
@@ -0,0 +1,62 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import jbse.apps.run.RunParameters.DecisionProcedureType;
+import jbse.apps.run.RunParameters.StateFormatMode;
+import jbse.apps.run.RunParameters.StepShowMode;
+import jbse.jvm.EngineParameters.StateIdentificationMode;
+
+public class RunGuidanceTest {
+	private static String run(Path output, boolean guided, boolean recorded) throws IOException {
+		final RunParameters p = new RunParameters();
+		p.addClasspath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/");
+		p.setMethodSignature("targets/Node", "()I", "sum");
+		if (guided) {
+			p.setGuided("targets/Node", "()I", "driver");
+			p.setGuidanceRecorded(recorded);
+		}
+		p.setDecisionProcedureType(DecisionProcedureType.ALL_SAT);
+		p.setStateIdentificationMode(StateIdentificationMode.REPLICABLE);
+		p.setStepShowMode(StepShowMode.LEAVES);
+		p.setStateFormatMode(StateFormatMode.FULLTEXT);
+		p.setShowInfo(false);
+		p.setShowWarnings(false);
+		p.setShowOnConsole(false);
+		p.setOutputFileName(output.toString());
+		assertEquals(0, new Run(p).run());
+		return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+	}
+
+	private static int count(String text, String s) {
+		int retVal = 0;
+		for (int i = text.indexOf(s); i >= 0; i = text.indexOf(s, i + s.length())) {
+			++retVal;
+		}
+		return retVal;
+	}
+
+	@Test
+	public void testRecordedSameDecisions() throws IOException {
+		//the recorded guidance takes the same decisions of the lock-step one
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final String unguided = run(dir.resolve("unguided.txt"), false, false);
+		final String lockStep = run(dir.resolve("lockstep.txt"), true, false);
+		final String recorded = run(dir.resolve("recorded.txt"), true, true);
+		assertEquals(10, count(unguided, "Leaf state"));
+		
+		//the guided run follows the concrete one: value > 0, next.value <= 0
+		assertEquals(1, count(lockStep, "Leaf state"));
+		assertTrue(lockStep.contains("{V0} > 0"));
+		assertTrue(lockStep.contains("{R1} == Object[1] (fresh)"));
+		assertTrue(lockStep.contains("{V1} <= 0"));
+		assertEquals(lockStep, recorded);
+	}
+}
@@ -0,0 +1,49 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RunWorkerTest {
+	@Test
+	public void testSplit() {
+		//a SPLIT is for the current subregion only
+		final RunWorker w = new RunWorker(RunParameters::new, new PrintStream(new ByteArrayOutputStream()));
+		w.readCommands(new BufferedReader(new StringReader("REGION 3 0 - /tmp/x\nSPLIT 2\n")));
+		assertFalse(w.isSplitRequested());
+		w.readCommands(new BufferedReader(new StringReader("SPLIT 3\n")));
+		assertTrue(w.isSplitRequested());
+	}
+
+	@Test
+	public void testRegion() throws IOException, InterruptedException {
+		//explores a subregion, and indexes the body of its output by the emitted states
+		final Path dir = Files.createTempDirectory("jbse-test");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final RunWorker w = new RunWorker(new RunCoordinatorTest.Parameters(), new PrintStream(bytes, true));
+		w.readCommands(new BufferedReader(new StringReader("REGION 0 2 - " + dir.resolve("0") + "\nQUIT\n")));
+		w.serve();
+		final String[] replies = bytes.toString().split("\\R");
+		assertEquals(3, replies.length);
+		assertEquals(new HashSet<>(Arrays.asList(RunWorker.REPLY_HAND_OFF + " 0 ROOT|1|1", RunWorker.REPLY_HAND_OFF + " 0 ROOT|1|2")),
+		             new HashSet<>(Arrays.asList(replies[0], replies[1])));
+		assertTrue(replies[2].startsWith(RunWorker.REPLY_DONE + " 0 0 "));
+		final List<String> index = Files.readAllLines(dir.resolve("0" + RunWorker.SUFFIX_INDEX), StandardCharsets.UTF_8);
+		assertEquals(1, index.size());
+		assertEquals("0 ROOT|2", index.get(0));
+		final String body = new String(Files.readAllBytes(dir.resolve("0" + RunWorker.SUFFIX_BODY)), StandardCharsets.UTF_8);
+		assertTrue(body.startsWith("ROOT|2["));
+	}
+}
@@ -0,0 +1,55 @@
+package targets;
+
+public class Branches {
+	public int twoLevels(int x, int y) {
+		if (x > 0) {
+			if (y > 0) {
+				return 1;
+			}
+			return 2;
+		} else {
+			if (y > x) {
+				return 3;
+			}
+			return 4;
+		}
+	}
+
+	public int threeLevels(int x, int y, int z) {
+		int retVal = 0;
+		if (x > 0) {
+			retVal += 1;
+		}
+		if (y > 0) {
+			retVal += 2;
+		}
+		if (z > 0) {
+			retVal += 4;
+		}
+		return retVal;
+	}
+
+	public int unbalanced(int x, int y, int z) {
+		if (x > 0) {
+			return 0;
+		}
+		if (y > 0) {
+			if (z > 0) {
+				return 1;
+			}
+			return 2;
+		}
+		return 3;
+	}
+
+	public int callsAbs(int x) {
+		if (abs(x) > 10) {
+			return 1;
+		}
+		return 0;
+	}
+
+	static int abs(int x) {
+		return (x < 0 ? -x : x);
+	}
+}
@@ -0,0 +1,29 @@
+package targets;
+
+public class Node {
+	Node next;
+	int value;
+
+	public boolean repOk() {
+		return (this.next != this);
+	}
+
+	public int sum() {
+		int retVal = 0;
+		if (this.value > 0) {
+			retVal += this.value;
+		}
+		if (this.next != null && this.next.value > 0) {
+			retVal += this.next.value;
+		}
+		return retVal;
+	}
+
+	public static int driver() {
+		final Node n = new Node();
+		n.value = 3;
+		n.next = new Node();
+		n.next.value = -1;
+		return n.sum();
+	}
+}
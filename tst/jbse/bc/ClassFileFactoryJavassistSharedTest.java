@@ -0,0 +1,99 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import jbse.bc.exc.BadClassFileException;
+import jbse.bc.exc.ClassFileNotFoundException;
+
+public class ClassFileFactoryJavassistSharedTest {
+	private static final String[] CLASSES = { 
+		"java/lang/Object", "java/lang/String", "java/util/HashMap", 
+		"java/util/LinkedList$ListItr", "targets/Node" 
+	};
+
+	/**
+	 * Copies the test classfiles in a new directory, so 
+	 * the shared cache of its classpath is new.
+	 */
+	private static Path newClasspathDir() throws Exception {
+		final Path dir = Files.createTempDirectory("jbse-test");
+		Files.createDirectories(dir.resolve("targets"));
+		Files.copy(Paths.get("tst/jbse/apps/run/testdata/targets/Node.class"), dir.resolve("targets/Node.class"));
+		return dir;
+	}
+
+	@Test
+	public void testCacheHit() throws Exception {
+		//a classfile is read once, and read again only after it is invalidated
+		final Path dir = newClasspathDir();
+		final Classpath cp = new Classpath(dir.toString());
+		assertEquals("targets/Node", new ClassFileFactoryJavassistShared(null, cp).newClassFile("targets/Node").getClassName());
+		Files.delete(dir.resolve("targets/Node.class"));
+		assertTrue(ClassFileFactoryJavassistShared.changed());
+		assertEquals("targets/Node", new ClassFileFactoryJavassistShared(null, cp).newClassFile("targets/Node").getClassName());
+		assertTrue(ClassFileFactoryJavassistShared.invalidateChanged() >= 1);
+		try {
+			new ClassFileFactoryJavassistShared(null, cp).newClassFile("targets/Node");
+			fail();
+		} catch (ClassFileNotFoundException e) {
+			//expected
+		}
+		Files.delete(dir.resolve("targets"));
+		Files.delete(dir);
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		//many factories reading the same classfiles at the same time 
+		//parse the same classes of an unshared factory
+		final Path dir = newClasspathDir();
+		final Classpath cp = new Classpath("tst/jbse/bc/testdata/rt.jar", dir.toString());
+		final ClassFileFactoryJavassist unshared = new ClassFileFactoryJavassist(null, cp);
+		final int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final ArrayList<Future<ArrayList<ClassFile>>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; ++i) {
+				futures.add(executor.submit(new Callable<ArrayList<ClassFile>>() {
+					@Override
+					public ArrayList<ClassFile> call() throws InterruptedException, BadClassFileException {
+						final ClassFileFactoryJavassistShared f = new ClassFileFactoryJavassistShared(null, cp);
+						start.await();
+						final ArrayList<ClassFile> retVal = new ArrayList<>();
+						for (String className : CLASSES) {
+							retVal.add(f.newClassFile(className));
+						}
+						return retVal;
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<ArrayList<ClassFile>> future : futures) {
+				final ArrayList<ClassFile> classFiles = future.get();
+				for (int i = 0; i < CLASSES.length; ++i) {
+					final ClassFile expected = unshared.newClassFile(CLASSES[i]);
+					final ClassFile actual = classFiles.get(i);
+					assertEquals(expected.getClassName(), actual.getClassName());
+					assertEquals(expected.getSuperClassName(), actual.getSuperClassName());
+					assertArrayEquals(expected.getFieldsNonStatic(), actual.getFieldsNonStatic());
+					assertArrayEquals(expected.getMethodSignatures(), actual.getMethodSignatures());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
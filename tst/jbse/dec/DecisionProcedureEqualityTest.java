@@ -2,6 +2,7 @@ package jbse.dec;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -193,4 +194,30 @@ public class DecisionProcedureEqualityTest {
 		this.dec.pushAssumption(new ClauseAssume((Expression) A.add(this.calc.valInt(-1).mul(B)).eq(this.calc.valInt(0))));
 		assertFalse(this.dec.isSat(this.hier, (Expression) A.add(this.calc.valInt(-1).mul(B)).ne(this.calc.valInt(0))));
 	}	
+	
+	@Test
+	public void popTest1() 
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//G == H, C == D, A == B then backtrack to G == H, C == D, E == F |- A != B, |-/- E != F, |-/- C != D
+		this.dec = new DecisionProcedureEquality(new DecisionProcedureAlwSat(), this.calc);
+		Term A = this.calc.valTerm(Type.INT, "A");
+		Term B = this.calc.valTerm(Type.INT, "B");
+		Term C = this.calc.valTerm(Type.INT, "C");
+		Term D = this.calc.valTerm(Type.INT, "D");
+		Term E = this.calc.valTerm(Type.INT, "E");
+		Term F = this.calc.valTerm(Type.INT, "F");
+		Term G = this.calc.valTerm(Type.INT, "G");
+		Term H = this.calc.valTerm(Type.INT, "H");
+		final ArrayList<Clause> assumptions = new ArrayList<>();
+		assumptions.add(new ClauseAssume((Expression) G.eq(H)));
+		assumptions.add(new ClauseAssume((Expression) C.eq(D)));
+		assumptions.add(new ClauseAssume((Expression) A.eq(B)));
+		this.dec.setAssumptions(assumptions);
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.ne(B)));
+		assumptions.set(2, new ClauseAssume((Expression) E.eq(F)));
+		this.dec.setAssumptions(assumptions);
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.ne(B)));
+		assertFalse(this.dec.isSat(this.hier, (Expression) E.ne(F)));
+		assertFalse(this.dec.isSat(this.hier, (Expression) C.ne(D)));
+	}	
 }
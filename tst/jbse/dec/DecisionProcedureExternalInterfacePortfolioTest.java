@@ -0,0 +1,177 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import jbse.bc.ClassHierarchy;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.mem.Objekt;
+import jbse.val.Primitive;
+import jbse.val.ReferenceSymbolic;
+
+public class DecisionProcedureExternalInterfacePortfolioTest {
+	/**
+	 * Answers all queries with a fixed answer, possibly
+	 * after hanging until it is killed.
+	 */
+	static class ExternalInterfaceFixed extends DecisionProcedureExternalInterface {
+		final boolean answer;
+		final boolean definitive;
+		final boolean hangs;
+		final CountDownLatch killed = new CountDownLatch(1);
+		int pushed = 0;
+
+		ExternalInterfaceFixed(boolean answer, boolean definitive, boolean hangs) {
+			this.answer = answer;
+			this.definitive = definitive;
+			this.hangs = hangs;
+		}
+
+		@Override
+		public boolean isWorking() { return true; }
+
+		@Override
+		public void sendClauseAssume(Primitive predicate) { }
+
+		@Override
+		public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o) { }
+
+		@Override
+		public void sendClauseAssumeExpands(ReferenceSymbolic r, String className) { }
+
+		@Override
+		public void sendClauseAssumeNull(ReferenceSymbolic r) { }
+
+		@Override
+		public void sendClauseAssumeClassInitialized(String className) { }
+
+		@Override
+		public void sendClauseAssumeClassNotInitialized(String className) { }
+
+		@Override
+		public void retractClause() { }
+
+		@Override
+		public boolean checkSat(ClassHierarchy hier, boolean positive) throws IOException {
+			if (this.hangs) {
+				try {
+					this.killed.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				throw new IOException("killed");
+			}
+			return this.answer;
+		}
+
+		@Override
+		public boolean isLastCheckSatDefinitive() { return this.definitive; }
+
+		@Override
+		public void pushAssumption(boolean positive) { ++this.pushed; }
+
+		@Override
+		public void popAssumption() { --this.pushed; }
+
+		@Override
+		public void clear() { this.pushed = 0; }
+
+		@Override
+		public void quit() { }
+
+		@Override
+		public void fail() { this.killed.countDown(); }
+	}
+
+	@Test
+	public void raceTest1() throws ExternalProtocolInterfaceException, IOException {
+		//the fast solver wins, the hanging one is let run and abandoned at quit
+		final ArrayList<ExternalInterfaceFixed> slow = new ArrayList<>();
+		final LinkedHashMap<String, DecisionProcedureExternalInterfacePortfolio.Factory> factories = new LinkedHashMap<>();
+		factories.put("slow", () -> { final ExternalInterfaceFixed f = new ExternalInterfaceFixed(true, true, true); slow.add(f); return f; });
+		factories.put("fast", () -> new ExternalInterfaceFixed(false, true, false));
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(factories);
+		portfolio.sendClauseAssume(null);
+		portfolio.pushAssumption(true);
+		portfolio.sendClauseAssume(null);
+		assertFalse(portfolio.checkSat(null, true));
+		portfolio.retractClause();
+		portfolio.sendClauseAssume(null);
+		assertFalse(portfolio.checkSat(null, true));
+		portfolio.retractClause();
+		portfolio.quit();
+		assertEquals(Long.valueOf(0), portfolio.getWins().get("slow"));
+		assertEquals(Long.valueOf(2), portfolio.getWins().get("fast"));
+		assertEquals(1, slow.size());
+		assertTrue(portfolio.isWorking());
+	}
+
+	@Test
+	public void raceTest2() throws ExternalProtocolInterfaceException, IOException {
+		//a nondefinitive answer does not win over a definitive one
+		final LinkedHashMap<String, DecisionProcedureExternalInterfacePortfolio.Factory> factories = new LinkedHashMap<>();
+		factories.put("unknown", () -> new ExternalInterfaceFixed(true, false, false));
+		factories.put("unsat", () -> new ExternalInterfaceFixed(false, true, false));
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(factories);
+		portfolio.sendClauseAssume(null);
+		assertFalse(portfolio.checkSat(null, true));
+		assertTrue(portfolio.isLastCheckSatDefinitive());
+		portfolio.retractClause();
+		portfolio.quit();
+		assertEquals(Long.valueOf(1), portfolio.getWins().get("unsat"));
+	}
+
+	@Test
+	public void raceTest3() throws ExternalProtocolInterfaceException, IOException, InterruptedException {
+		//the hanging solver is killed after the grace period and restarted
+		final ArrayList<ExternalInterfaceFixed> slow = new ArrayList<>();
+		final LinkedHashMap<String, DecisionProcedureExternalInterfacePortfolio.Factory> factories = new LinkedHashMap<>();
+		factories.put("slow", () -> { final ExternalInterfaceFixed f = new ExternalInterfaceFixed(false, true, slow.isEmpty()); slow.add(f); return f; });
+		factories.put("fast", () -> new ExternalInterfaceFixed(false, true, false));
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(factories);
+		portfolio.sendClauseAssume(null);
+		portfolio.pushAssumption(true);
+		portfolio.sendClauseAssume(null);
+		assertFalse(portfolio.checkSat(null, true));
+		Thread.sleep(DecisionProcedureExternalInterfacePortfolio.LAGGARD_GRACE + 100);
+		portfolio.retractClause();
+		final long deadline = System.currentTimeMillis() + 5000;
+		while ((slow.size() < 2 || slow.get(1).pushed < 1) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		portfolio.quit();
+		assertEquals(2, slow.size());
+		assertEquals(1, slow.get(1).pushed);
+		assertTrue(portfolio.isWorking());
+	}
+
+	@Test
+	public void raceTest4() throws ExternalProtocolInterfaceException, IOException {
+		//a nondefinitive answer is returned, but is not a win
+		final LinkedHashMap<String, DecisionProcedureExternalInterfacePortfolio.Factory> factories = new LinkedHashMap<>();
+		factories.put("unknown1", () -> new ExternalInterfaceFixed(true, false, false));
+		factories.put("unknown2", () -> new ExternalInterfaceFixed(true, false, false));
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(factories);
+		portfolio.sendClauseAssume(null);
+		assertTrue(portfolio.checkSat(null, true));
+		assertFalse(portfolio.isLastCheckSatDefinitive());
+		portfolio.retractClause();
+		portfolio.quit();
+		assertEquals(Long.valueOf(0), portfolio.getWins().get("unknown1"));
+		assertEquals(Long.valueOf(0), portfolio.getWins().get("unknown2"));
+	}
+
+	@Test(expected=ExternalProtocolInterfaceException.class)
+	public void protocolTest1() throws ExternalProtocolInterfaceException, IOException {
+		final LinkedHashMap<String, DecisionProcedureExternalInterfacePortfolio.Factory> factories = new LinkedHashMap<>();
+		factories.put("fast", () -> new ExternalInterfaceFixed(true, true, false));
+		final DecisionProcedureExternalInterfacePortfolio portfolio = new DecisionProcedureExternalInterfacePortfolio(factories);
+		portfolio.checkSat(null, true);
+	}
+}
@@ -0,0 +1,214 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.exc.ExternalProtocolInterfaceException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidOperatorException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRATest {
+	/** Answers success to everything and logs the commands (see the script). */
+	private static final String FAKE_SOLVER = "sh tst/jbse/dec/testdata/fakesolver.sh";
+
+	private final CalculatorRewriting calc;
+
+	public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRATest() {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterOperationOnSimplex());
+	}
+
+	private DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA launch(Path log, String unsupportedOption, boolean checkSatAssuming)
+	throws ExternalProtocolInterfaceException, IOException {
+		return new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(this.calc, FAKE_SOLVER + " " + log + " " + unsupportedOption, checkSatAssuming);
+	}
+
+	private static List<String> commands(Path log, String prefix) throws IOException {
+		final ArrayList<String> retVal = new ArrayList<>();
+		for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+			if (line.startsWith(prefix)) {
+				retVal.add(line);
+			}
+		}
+		return retVal;
+	}
+
+	@Test
+	public void timeoutTest1() throws ExternalProtocolInterfaceException, IOException {
+		//a solver that does not know the Z3 option receives only the CVC4 one after the first time
+		final Path log = Files.createTempFile("solver", ".log");
+		try {
+			final DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extIf = launch(log, ":timeout", false);
+			extIf.setTimeout(0);
+			extIf.setTimeout(100);
+			extIf.setTimeout(200);
+			extIf.setTimeout(200);
+			extIf.setTimeout(0);
+			extIf.quit();
+			final List<String> options = commands(log, "(set-option :t");
+			assertEquals(4, options.size());
+			assertEquals("(set-option :timeout 100)", options.get(0));
+			assertEquals("(set-option :tlimit-per 100)", options.get(1));
+			assertEquals("(set-option :tlimit-per 200)", options.get(2));
+			assertEquals("(set-option :tlimit-per 0)", options.get(3));
+		} finally {
+			Files.delete(log);
+		}
+	}
+
+	@Test
+	public void timeoutTest2() throws ExternalProtocolInterfaceException, IOException {
+		//a solver that knows the Z3 option receives only it, and no budget is not 0
+		final Path log = Files.createTempFile("solver", ".log");
+		try {
+			final DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extIf = launch(log, ":tlimit-per", false);
+			extIf.setTimeout(100);
+			extIf.setTimeout(0);
+			extIf.quit();
+			final List<String> options = commands(log, "(set-option :t");
+			assertEquals(2, options.size());
+			assertEquals("(set-option :timeout 100)", options.get(0));
+			assertEquals("(set-option :timeout 4294967295)", options.get(1));
+		} finally {
+			Files.delete(log);
+		}
+	}
+	
+	@Test
+	public void renderTest1() 
+	throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		//a clause sent again after a pop is rendered the same, and its 
+		//symbols are declared once, globally
+		final Path log = Files.createTempFile("solver", ".log");
+		try {
+			final DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extIf = launch(log, ":none", false);
+			final Term A = this.calc.valTerm(Type.INT, "A");
+			final Term B = this.calc.valTerm(Type.INT, "B");
+			final Primitive c = A.add(B).gt(this.calc.valInt(0));
+			extIf.sendClauseAssume(c);
+			assertTrue(extIf.checkSat(null, true));
+			extIf.pushAssumption(true);
+			extIf.popAssumption();
+			extIf.sendClauseAssume(c);
+			extIf.pushAssumption(false);
+			extIf.quit();
+			assertEquals(1, commands(log, "(set-option :global-declarations true)").size());
+			assertEquals(1, commands(log, "(declare-fun A ").size());
+			assertEquals(1, commands(log, "(declare-fun B ").size());
+			final List<String> asserts = commands(log, "(assert ");
+			assertEquals(3, asserts.size());
+			final String clause = asserts.get(0).substring("(assert ".length(), asserts.get(0).length() - 1);
+			assertEquals(asserts.get(0), asserts.get(1));
+			assertEquals("(assert (not " + clause + "))", asserts.get(2));
+		} finally {
+			Files.delete(log);
+		}
+	}
+	
+	@Test
+	public void checkSatAssumingTest1() 
+	throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		//the clauses are guarded by activation literals, which are 
+		//reused after a clear, and no assertion level is pushed
+		final Path log = Files.createTempFile("solver", ".log");
+		try {
+			final DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extIf = launch(log, ":none", true);
+			final Term A = this.calc.valTerm(Type.INT, "A");
+			final Primitive c0 = A.gt(this.calc.valInt(0));
+			final Primitive c1 = A.gt(this.calc.valInt(1));
+			extIf.sendClauseAssume(c0);
+			extIf.pushAssumption(true);
+			extIf.sendClauseAssume(c1);
+			assertTrue(extIf.checkSat(null, false));
+			extIf.retractClause();
+			extIf.popAssumption();
+			extIf.clear();
+			extIf.sendClauseAssume(c0);
+			extIf.pushAssumption(true);
+			extIf.sendClauseAssume(c1);
+			assertTrue(extIf.checkSat(null, true));
+			extIf.quit();
+			assertEquals(1, commands(log, "(push").size());
+			assertEquals(0, commands(log, "(pop").size());
+			assertEquals(3, commands(log, "(declare-fun act_").size());
+			final List<String> asserts = commands(log, "(assert ");
+			assertEquals(3, asserts.size());
+			assertTrue(asserts.get(0).startsWith("(assert (=> act_0 "));
+			assertTrue(asserts.get(1).startsWith("(assert (=> act_1 (not "));
+			assertTrue(asserts.get(2).startsWith("(assert (=> act_2 "));
+			final List<String> checks = commands(log, "(check-sat");
+			assertEquals(2, checks.size());
+			assertEquals("(check-sat-assuming (act_0 act_1))", checks.get(0));
+			assertEquals("(check-sat-assuming (act_0 act_2))", checks.get(1));
+		} finally {
+			Files.delete(log);
+		}
+	}
+	
+	@Test
+	public void checkSatAssumingTest2() 
+	throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException {
+		//too many guarded clauses are retracted at the next clear, 
+		//and the new activation literals have fresh names
+		final Path log = Files.createTempFile("solver", ".log");
+		try {
+			final DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extIf = launch(log, ":none", true);
+			final Term A = this.calc.valTerm(Type.INT, "A");
+			final int max = DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA.ACTIVATION_LITERALS_MAX;
+			for (int i = 0; i <= max; ++i) {
+				extIf.sendClauseAssume(A.gt(this.calc.valInt(i)));
+				assertTrue(extIf.checkSat(null, true));
+				extIf.retractClause();
+			}
+			extIf.clear();
+			extIf.sendClauseAssume(A.gt(this.calc.valInt(0)));
+			extIf.pushAssumption(true);
+			extIf.quit();
+			assertEquals(2, commands(log, "(push 1)").size());
+			assertEquals(1, commands(log, "(pop 1)").size());
+			assertEquals(max + 2, commands(log, "(declare-fun act_").size());
+			final List<String> asserts = commands(log, "(assert ");
+			assertTrue(asserts.get(asserts.size() - 1).startsWith("(assert (=> act_" + (max + 1) + " "));
+		} finally {
+			Files.delete(log);
+		}
+	}
+	
+	@Test(expected=UnexpectedInternalException.class)
+	public void renderTest2() 
+	throws ExternalProtocolInterfaceException, IOException, InvalidOperandException, InvalidTypeException, InvalidOperatorException {
+		//a memoized boolean term is still rejected as a numeric operand
+		final Path log = Files.createTempFile("solver", ".log");
+		try {
+			final DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extIf = launch(log, ":none", false);
+			final Term A = this.calc.valTerm(Type.INT, "A");
+			final Primitive c = A.add(this.calc.valInt(1)).gt(this.calc.valInt(0));
+			try {
+				extIf.sendClauseAssume(c);
+				extIf.pushAssumption(true);
+				extIf.sendClauseAssume(Expression.makeExpressionBinary(this.calc, c, Operator.EQ, c));
+			} finally {
+				extIf.quit();
+			}
+		} finally {
+			Files.delete(log);
+		}
+	}
+}
@@ -0,0 +1,395 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.Type;
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.InvalidInputException;
+import jbse.mem.ClauseAssume;
+import jbse.mem.Objekt;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureExternalTest {
+	final CalculatorRewriting calc;
+	final ClassHierarchy hier;
+	ExternalInterfaceRecording extIf;
+	DecisionProcedureExternal dec;
+
+	public DecisionProcedureExternalTest() throws InvalidClassFileFactoryClassException {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterOperationOnSimplex());
+		this.hier = new ClassHierarchy(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>());
+	}
+
+	/**
+	 * Records the assumptions it receives, and the
+	 * assumptions under which each query is checked;
+	 * all queries are sat, possibly not definitively.
+	 */
+	static class ExternalInterfaceRecording extends DecisionProcedureExternalInterface {
+		final ArrayList<Primitive> context = new ArrayList<>();
+		final ArrayList<ArrayList<Primitive>> queries = new ArrayList<>();
+		final ArrayList<Long> timeouts = new ArrayList<>();
+		Primitive current;
+		boolean definitive = true;
+
+		@Override
+		public boolean isWorking() { return true; }
+
+		@Override
+		public void sendClauseAssume(Primitive predicate) { this.current = predicate; }
+
+		@Override
+		public void sendClauseAssumeAliases(ReferenceSymbolic r, long heapPos, Objekt o) { this.current = null; }
+
+		@Override
+		public void sendClauseAssumeExpands(ReferenceSymbolic r, String className) { this.current = null; }
+
+		@Override
+		public void sendClauseAssumeNull(ReferenceSymbolic r) { this.current = null; }
+
+		@Override
+		public void sendClauseAssumeClassInitialized(String className) { this.current = null; }
+
+		@Override
+		public void sendClauseAssumeClassNotInitialized(String className) { this.current = null; }
+
+		@Override
+		public void retractClause() { this.current = null; }
+
+		@Override
+		public boolean checkSat(ClassHierarchy hier, boolean positive) throws IOException {
+			this.queries.add(new ArrayList<>(this.context));
+			return true;
+		}
+
+		@Override
+		public boolean isLastCheckSatDefinitive() { return this.definitive; }
+
+		@Override
+		public void setTimeout(long millis) { this.timeouts.add(millis); }
+
+		@Override
+		public void pushAssumption(boolean positive) { this.context.add(this.current); this.current = null; }
+
+		@Override
+		public void popAssumption() { this.context.remove(this.context.size() - 1); }
+
+		@Override
+		public void clear() { this.context.clear(); this.current = null; }
+
+		@Override
+		public void quit() { }
+
+		@Override
+		public void fail() { }
+	}
+
+	@Before
+	public void setUp() {
+		setUp("");
+	}
+
+	private void setUp(String configuration) {
+		this.extIf = new ExternalInterfaceRecording();
+		this.dec = new DecisionProcedureExternal(new DecisionProcedureAlwSat(), this.calc) {
+			{ this.extIf = DecisionProcedureExternalTest.this.extIf; }
+
+			@Override
+			protected String getConfiguration() { return configuration; }
+		};
+	}
+
+	@Test
+	public void sliceTest1()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > 0, B > 0, A < 5 |- A > 3 is checked under A > 0, A < 5 only
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		final Expression aPos = (Expression) A.gt(this.calc.valInt(0));
+		final Expression bPos = (Expression) B.gt(this.calc.valInt(0));
+		final Expression aSmall = (Expression) A.lt(this.calc.valInt(5));
+		this.dec.pushAssumption(new ClauseAssume(aPos));
+		this.dec.pushAssumption(new ClauseAssume(bPos));
+		this.dec.pushAssumption(new ClauseAssume(aSmall));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(1, this.extIf.queries.size());
+		assertEquals(2, this.extIf.queries.get(0).size());
+		assertTrue(this.extIf.queries.get(0).contains(aPos));
+		assertTrue(this.extIf.queries.get(0).contains(aSmall));
+	}
+
+	@Test
+	public void sliceTest2()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > B, B > C, D > 0 |- C > 0 is checked under A > B, B > C only
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		final Term C = this.calc.valTerm(Type.INT, "C");
+		final Term D = this.calc.valTerm(Type.INT, "D");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(B)));
+		this.dec.pushAssumption(new ClauseAssume((Expression) B.gt(C)));
+		this.dec.pushAssumption(new ClauseAssume((Expression) D.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) C.gt(this.calc.valInt(0))));
+		assertEquals(2, this.extIf.queries.get(0).size());
+
+		//D < 5 is checked under D > 0 only
+		assertTrue(this.dec.isSat(this.hier, (Expression) D.lt(this.calc.valInt(5))));
+		assertEquals(1, this.extIf.queries.get(1).size());
+	}
+
+	@Test
+	public void cacheTest1()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > 0, B > 0 |- A > 3 twice, the second one is not sent
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		this.dec.pushAssumption(new ClauseAssume((Expression) B.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+
+		//a new assumption on B does not invalidate the verdict
+		this.dec.pushAssumption(new ClauseAssume((Expression) B.lt(this.calc.valInt(7))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(1, this.extIf.queries.size());
+
+		//a new assumption on A does
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.lt(this.calc.valInt(7))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(2, this.extIf.queries.size());
+	}
+
+	@Test
+	public void unknownTest1()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//an unknown answer is assumed sat by default
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		this.extIf.definitive = false;
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(1, this.dec.getQueries());
+		assertEquals(1, this.dec.getUnknownAnswers());
+		assertEquals(0, this.dec.getTimeouts());
+	}
+
+	@Test
+	public void unknownTest2()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//an unknown answer is pruned, and the verdict is not cached
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		this.extIf.definitive = false;
+		this.dec.setUnknownAnswerPolicy(DecisionProcedureExternal.UnknownAnswerPolicy.PRUNE);
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(2, this.extIf.queries.size());
+	}
+
+	@Test
+	public void unknownTest3()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//an unknown answer is retried once with a larger budget
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		this.extIf.definitive = false;
+		this.dec.setUnknownAnswerPolicy(DecisionProcedureExternal.UnknownAnswerPolicy.RETRY);
+		this.dec.setQueryTimeout(100);
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(2, this.extIf.queries.size());
+		assertEquals(2, this.dec.getUnknownAnswers());
+		assertEquals(3, this.extIf.timeouts.size());
+		assertEquals(Long.valueOf(400), this.extIf.timeouts.get(1));
+		assertEquals(Long.valueOf(100), this.extIf.timeouts.get(2));
+	}
+
+	@Test
+	public void unknownTest4()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//with no budget an unknown answer is not retried
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		this.extIf.definitive = false;
+		this.dec.setUnknownAnswerPolicy(DecisionProcedureExternal.UnknownAnswerPolicy.RETRY);
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(1, this.extIf.queries.size());
+		assertEquals(1, this.dec.getUnknownAnswers());
+	}
+
+	@Test
+	public void timeoutTest1()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//a query that exceeds its budget is killed, answered sat, and the 
+		//external decision procedure is restarted
+		final CountDownLatch killed = new CountDownLatch(1);
+		final ExternalInterfaceRecording hanging = new ExternalInterfaceRecording() {
+			@Override
+			public boolean checkSat(ClassHierarchy hier, boolean positive) throws IOException {
+				try {
+					killed.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				throw new IOException("killed");
+			}
+
+			@Override
+			public void fail() { killed.countDown(); }
+		};
+		final ExternalInterfaceRecording restarted = new ExternalInterfaceRecording();
+		this.dec = new DecisionProcedureExternal(new DecisionProcedureAlwSat(), this.calc) {
+			{ this.extIf = hanging; }
+
+			@Override
+			protected boolean canRestartExternalInterface() { return true; }
+
+			@Override
+			protected DecisionProcedureExternalInterface restartExternalInterface() { return restarted; }
+		};
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		this.dec.setQueryTimeout(10);
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(3))));
+		assertEquals(1, this.dec.getTimeouts());
+		assertEquals(1, this.dec.getUnknownAnswers());
+
+		//the next query goes to the restarted one, under the assumption
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(4))));
+		assertEquals(1, restarted.queries.size());
+		assertEquals(1, restarted.queries.get(0).size());
+		assertEquals(1, this.dec.getTimeouts());
+	}
+
+	@Test
+	public void storeTest1()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException, IOException {
+		//a verdict saved by a run is reused by the next one, 
+		//unless the configuration changes
+		final Path file = Files.createTempFile("verdicts", ".txt");
+		try {
+			final Term A = this.calc.valTerm(Type.INT, "A");
+			final Expression aPos = (Expression) A.gt(this.calc.valInt(0));
+			final Expression aBig = (Expression) A.gt(this.calc.valInt(3));
+			VerdictStore store = new VerdictStore(file);
+			this.dec.setVerdictStore(store);
+			this.dec.pushAssumption(new ClauseAssume(aPos));
+			assertTrue(this.dec.isSat(this.hier, aBig));
+			assertEquals(1, this.extIf.queries.size());
+			store.close();
+
+			setUp();
+			store = new VerdictStore(file);
+			assertEquals(1, store.size());
+			this.dec.setVerdictStore(store);
+			this.dec.pushAssumption(new ClauseAssume(aPos));
+			assertTrue(this.dec.isSat(this.hier, aBig));
+			assertEquals(0, this.extIf.queries.size());
+			assertEquals(1, this.dec.getStoreHits());
+			store.close();
+
+			//another configuration does not find the verdict, 
+			//and does not drop it
+			setUp("another solver");
+			store = new VerdictStore(file);
+			this.dec.setVerdictStore(store);
+			this.dec.pushAssumption(new ClauseAssume(aPos));
+			assertTrue(this.dec.isSat(this.hier, aBig));
+			assertEquals(1, this.extIf.queries.size());
+			assertEquals(0, this.dec.getStoreHits());
+			store.close();
+			store = new VerdictStore(file);
+			assertEquals(2, store.size());
+			assertEquals(0, store.getDiscarded());
+			store.close();
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void storeTest2()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException, IOException {
+		//a truncated last line is discarded, and the next verdict is not glued to it
+		final Path file = Files.createTempFile("verdicts", ".txt");
+		try {
+			final Term A = this.calc.valTerm(Type.INT, "A");
+			VerdictStore store = new VerdictStore(file);
+			this.dec.setVerdictStore(store);
+			assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(0))));
+			store.close();
+			Files.write(file, "0123abcd".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+			setUp();
+			store = new VerdictStore(file);
+			assertEquals(1, store.size());
+			assertEquals(1, store.getDiscarded());
+			this.dec.setVerdictStore(store);
+			assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(1))));
+			store.close();
+			store = new VerdictStore(file);
+			assertEquals(2, store.size());
+			assertEquals(1, store.getDiscarded());
+			store.close();
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void storeTest3() throws IOException {
+		//a file that is not a verdict store is not overwritten
+		final Path file = Files.createTempFile("verdicts", ".txt");
+		try {
+			Files.write(file, "something else\n".getBytes(StandardCharsets.UTF_8));
+			try {
+				new VerdictStore(file).close();
+				fail();
+			} catch (IOException e) {
+				//expected
+			}
+			assertEquals("something else\n", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void storeTest4()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException, IOException {
+		//queries that differ only by the types of their values have different verdicts
+		final Path file = Files.createTempFile("verdicts", ".txt");
+		try {
+			final VerdictStore store = new VerdictStore(file);
+			this.dec.setVerdictStore(store);
+			assertTrue(this.dec.isSat(this.hier, (Expression) this.calc.valTerm(Type.INT, "A").gt(this.calc.valInt(0))));
+			assertTrue(this.dec.isSat(this.hier, (Expression) this.calc.valTerm(Type.LONG, "A").gt(this.calc.valLong(0))));
+			assertEquals(2, store.size());
+			assertEquals(2, this.extIf.queries.size());
+			store.close();
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
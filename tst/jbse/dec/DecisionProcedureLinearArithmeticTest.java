@@ -0,0 +1,193 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.Type;
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.InvalidInputException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.Objekt;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureLinearArithmeticTest {
+	final CalculatorRewriting calc;
+	final ClassHierarchy hier;
+	DecisionProcedureLinearArithmetic dec;
+
+	public DecisionProcedureLinearArithmeticTest() throws InvalidClassFileFactoryClassException {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterOperationOnSimplex());
+		this.hier = new ClassHierarchy(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>());
+	}
+
+	static class NoDecisionException extends DecisionException {
+		private static final long serialVersionUID = 1L;		
+	}
+
+	static class DecisionProcedureNoDecision implements DecisionProcedure {
+		protected DecisionProcedureNoDecision() { }
+
+		@Override
+		public void pushAssumption(Clause c) { }
+
+		@Override
+		public void clearAssumptions() { }
+
+		@Override
+		public Collection<Clause> getAssumptions() 
+		throws DecisionException { return null; }
+
+		@Override
+		public boolean isSat(ClassHierarchy hier, Expression exp) 
+		throws DecisionException { throw new NoDecisionException(); }
+
+		@Override
+		public boolean isSatNull(ClassHierarchy hier, ReferenceSymbolic r) 
+		throws DecisionException { throw new NoDecisionException(); }
+
+		@Override
+		public boolean isSatAliases(ClassHierarchy hier, ReferenceSymbolic r, long heapPos, Objekt o)
+		throws DecisionException { throw new NoDecisionException(); }
+
+		@Override
+		public boolean isSatExpands(ClassHierarchy hier, ReferenceSymbolic r, String className)
+		throws DecisionException { throw new NoDecisionException(); }
+
+		@Override
+		public boolean isSatInitialized(ClassHierarchy hier, String className)
+		throws DecisionException { throw new NoDecisionException(); }
+
+		@Override
+		public boolean isSatNotInitialized(ClassHierarchy hier, String className)
+		throws DecisionException { throw new NoDecisionException(); }
+	}
+
+	@Before
+	public void setUp() {
+		this.dec = new DecisionProcedureLinearArithmetic(new DecisionProcedureNoDecision(), this.calc);
+	}
+
+	@Test
+	public void simpleTest1() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//A > B, B > C |-/- C >= A
+		Term A = this.calc.valTerm(Type.INT, "A");
+		Term B = this.calc.valTerm(Type.INT, "B");
+		Term C = this.calc.valTerm(Type.INT, "C");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(B)));
+		this.dec.pushAssumption(new ClauseAssume((Expression) B.gt(C)));
+		assertFalse(this.dec.isSat(this.hier, (Expression) C.ge(A)));
+	}
+
+	@Test
+	public void simpleTest2() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//A + B <= 10, A >= 3 |- B <= 7 (without delegating)
+		Term A = this.calc.valTerm(Type.INT, "A");
+		Term B = this.calc.valTerm(Type.INT, "B");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.add(B).le(this.calc.valInt(10))));
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.ge(this.calc.valInt(3))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) B.le(this.calc.valInt(7))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) B.gt(this.calc.valInt(7))));
+	}
+
+	@Test
+	public void integerTest1() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//|-/- 2 * A == 1, with A integer
+		Term A = this.calc.valTerm(Type.INT, "A");
+		assertFalse(this.dec.isSat(this.hier, (Expression) this.calc.valInt(2).mul(A).eq(this.calc.valInt(1))));
+	}
+
+	@Test
+	public void integerTest2() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//2 * A >= 1, 2 * A <= 3 |- A == 1 (without delegating), |-/- A == 0
+		Term A = this.calc.valTerm(Type.INT, "A");
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.valInt(2).mul(A).ge(this.calc.valInt(1))));
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.valInt(2).mul(A).le(this.calc.valInt(3))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.eq(this.calc.valInt(1))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.eq(this.calc.valInt(0))));
+	}
+
+	@Test
+	public void disequalityTest1() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//A >= 0, A <= 1, A != 0 |-/- A != 1
+		Term A = this.calc.valTerm(Type.INT, "A");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.ge(this.calc.valInt(0))));
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.le(this.calc.valInt(1))));
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.ne(this.calc.valInt(0))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.ne(this.calc.valInt(1))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.eq(this.calc.valInt(1))));
+	}
+
+	@Test
+	public void realTest1() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//A > 0, A < 1 |- A > 0.5 (without delegating), |-/- A >= 1
+		Term A = this.calc.valTerm(Type.DOUBLE, "A");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.gt(this.calc.valDouble(0.0d))));
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.lt(this.calc.valDouble(1.0d))));
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valDouble(0.5d))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.ge(this.calc.valDouble(1.0d))));
+	}
+
+	@Test(expected=NoDecisionException.class)
+	public void nonlinearTest1() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//A * B > 0 |- A > 0 (delegates)
+		Term A = this.calc.valTerm(Type.INT, "A");
+		Term B = this.calc.valTerm(Type.INT, "B");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.mul(B).gt(this.calc.valInt(0))));
+		this.dec.isSat(this.hier, (Expression) A.gt(this.calc.valInt(0)));
+	}
+
+	@Test
+	public void nonlinearTest2() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//A * B > 0 |-/- A * B < 0
+		Term A = this.calc.valTerm(Type.INT, "A");
+		Term B = this.calc.valTerm(Type.INT, "B");
+		this.dec.pushAssumption(new ClauseAssume((Expression) A.mul(B).gt(this.calc.valInt(0))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.mul(B).lt(this.calc.valInt(0))));
+	}
+
+	@Test
+	public void popTest1() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//C > 0, A > B, B > C then backtrack to C > 0, A > B, B < C |- A < C
+		this.dec = new DecisionProcedureLinearArithmetic(new DecisionProcedureAlwSat(), this.calc);
+		Term A = this.calc.valTerm(Type.INT, "A");
+		Term B = this.calc.valTerm(Type.INT, "B");
+		Term C = this.calc.valTerm(Type.INT, "C");
+		final ArrayList<Clause> assumptions = new ArrayList<>();
+		assumptions.add(new ClauseAssume((Expression) C.gt(this.calc.valInt(0))));
+		assumptions.add(new ClauseAssume((Expression) A.gt(B)));
+		assumptions.add(new ClauseAssume((Expression) B.gt(C)));
+		this.dec.setAssumptions(assumptions);
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.lt(C)));
+		assumptions.set(2, new ClauseAssume((Expression) B.lt(C)));
+		this.dec.setAssumptions(assumptions);
+		assertTrue(this.dec.isSat(this.hier, (Expression) A.lt(C)));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.le(this.calc.valInt(-1)).and(B.ge(C))));
+	}
+}
@@ -2,6 +2,7 @@ package jbse.dec;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -437,4 +438,25 @@ public class DecisionProcedureSignAnalysisTest {
 		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.valDouble(-1.0d).mul(f).add(E.mul(F)).div(this.calc.valDouble(-1.0d).mul(E)).lt(this.calc.valInt(0))));
 		assertFalse(this.dec.isSat(this.hier, (Expression) f.sub(E.mul(F)).ge(this.calc.valInt(0))));
 	}
+	
+	@Test
+	public void popTest1() 
+	throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		//C > 0, A > 0, B > 0 then backtrack to C > 0, A > 0, B < 0 |-/- B > 0
+		this.dec = new DecisionProcedureSignAnalysis(new DecisionProcedureAlwSat(), this.calc);
+		Term A = this.calc.valTerm(Type.INT, "A");
+		Term B = this.calc.valTerm(Type.INT, "B");
+		Term C = this.calc.valTerm(Type.INT, "C");
+		final ArrayList<Clause> assumptions = new ArrayList<>();
+		assumptions.add(new ClauseAssume((Expression) C.gt(this.calc.valInt(0))));
+		assumptions.add(new ClauseAssume((Expression) A.gt(this.calc.valInt(0))));
+		assumptions.add(new ClauseAssume((Expression) B.gt(this.calc.valInt(0))));
+		this.dec.setAssumptions(assumptions);
+		assertFalse(this.dec.isSat(this.hier, (Expression) B.lt(this.calc.valInt(0))));
+		assumptions.set(2, new ClauseAssume((Expression) B.lt(this.calc.valInt(0))));
+		this.dec.setAssumptions(assumptions);
+		assertTrue(this.dec.isSat(this.hier, (Expression) B.lt(this.calc.valInt(0))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) B.gt(this.calc.valInt(0))));
+		assertFalse(this.dec.isSat(this.hier, (Expression) A.lt(this.calc.valInt(0))));
+	}
 }
\ No newline at end of file
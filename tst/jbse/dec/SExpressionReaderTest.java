@@ -0,0 +1,65 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class SExpressionReaderTest {
+	@Test
+	public void testAnswers() throws IOException {
+		final SExpressionReader r = new SExpressionReader(new StringReader("success\nsat\n(error \"line 1: \"\"x\"\" unknown\")\nunsat\n"));
+		assertEquals("success", r.readExpression());
+		assertEquals("sat", r.readExpression());
+		assertEquals("(error \"line 1: \"\"x\"\" unknown\")", r.readExpression());
+		assertEquals("unsat", r.readExpression());
+		assertNull(r.readExpression());
+	}
+
+	@Test
+	public void testMultiline() throws IOException {
+		final SExpressionReader r = new SExpressionReader(new StringReader("((X0 5)\n ; a comment\n (X1 (- 3))\n (X2 (/ 1.0 3.0)))\n"));
+		assertEquals("((X0 5) (X1 (- 3)) (X2 (/ 1.0 3.0)))", r.readExpression());
+		assertEquals(0, r.depth());
+	}
+
+	@Test
+	public void testTokens() throws IOException {
+		final SExpressionReader r = new SExpressionReader(new StringReader("((X0 5) (|a b| 2))"));
+		assertEquals(SExpressionReader.OPEN, r.next());
+		assertEquals(SExpressionReader.OPEN, r.next());
+		assertEquals(SExpressionReader.ATOM, r.next());
+		assertTrue(r.atomIs("X0"));
+		assertTrue(r.skipToDepth(1));
+		assertEquals(SExpressionReader.OPEN, r.next());
+		assertEquals(SExpressionReader.ATOM, r.next());
+		assertTrue(r.atomIs("|a b|"));
+		assertTrue(r.skipToDepth(0));
+		assertEquals(SExpressionReader.EOF, r.next());
+	}
+
+	@Test
+	public void testNumbers() throws IOException {
+		final SExpressionReader r = new SExpressionReader(new StringReader("42 -7 2.5 9223372036854775807 92233720368547758070 foo 1. .5 1.x"));
+		r.next();
+		assertEquals(Long.valueOf(42), r.atomAsNumber());
+		r.next();
+		assertEquals(Long.valueOf(-7), r.atomAsNumber());
+		r.next();
+		assertEquals(Double.valueOf(2.5), r.atomAsNumber());
+		r.next();
+		assertEquals(Long.valueOf(Long.MAX_VALUE), r.atomAsNumber());
+		r.next();
+		assertEquals(Double.valueOf(92233720368547758070.0), r.atomAsNumber());
+		r.next();
+		assertNull(r.atomAsNumber());
+		r.next();
+		assertNull(r.atomAsNumber());
+		r.next();
+		assertNull(r.atomAsNumber());
+		r.next();
+		assertNull(r.atomAsNumber());
+	}
+}
@@ -0,0 +1,52 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class SolverProcessPoolTest {
+	@Test
+	public void testReuse() throws IOException {
+		try (final SolverProcessPool pool = new SolverProcessPool()) {
+			final Process p = pool.acquire("cat");
+			pool.release("cat", p);
+			assertSame(p, pool.acquire("cat"));
+			final Process q = pool.acquire("cat");
+			assertTrue(p != q);
+			pool.release("cat", p);
+			pool.release("cat", q);
+			assertEquals(2, pool.getLaunched());
+			assertEquals(1, pool.getReused());
+		}
+	}
+	
+	@Test
+	public void testDeadNotReused() throws IOException, InterruptedException {
+		try (final SolverProcessPool pool = new SolverProcessPool()) {
+			final Process p = pool.acquire("cat");
+			p.destroy();
+			p.waitFor();
+			pool.release("cat", p);
+			final Process q = pool.acquire("cat");
+			assertTrue(p != q);
+			pool.release("cat", q);
+			assertEquals(0, pool.getReused());
+		}
+	}
+	
+	@Test
+	public void testClose() throws IOException, InterruptedException {
+		final SolverProcessPool pool = new SolverProcessPool();
+		final Process p = pool.acquire("cat");
+		final Process q = pool.acquire("cat");
+		pool.release("cat", p);
+		pool.close();
+		p.waitFor();
+		assertFalse(p.isAlive());
+		pool.release("cat", q);
+		q.waitFor();
+		assertFalse(q.isAlive());
+	}
+}
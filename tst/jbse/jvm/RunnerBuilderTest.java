@@ -0,0 +1,44 @@
+package jbse.jvm;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+
+public class RunnerBuilderTest {
+	private static RunnerParameters parameters() {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		final RunnerParameters p = new RunnerParameters();
+		p.addClasspath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/");
+		p.setMethodSignature("targets/Branches", "(I)I", "callsAbs");
+		p.setCalculator(calc);
+		p.setDecisionProcedure(new DecisionProcedureAlgorithms(new DecisionProcedureAlwSat(), calc));
+		return p;
+	}
+
+	private static long traces(RunnerBuilder rb, RunnerParameters p) throws Exception {
+		final Runner r = rb.build(p);
+		r.run();
+		return r.getTracesTotal();
+	}
+
+	@Test
+	public void testReuseContext() throws Exception {
+		//a context is reused only if the parameters did not change
+		final RunnerBuilder rb = new RunnerBuilder();
+		rb.setReuseContext(true);
+		final RunnerParameters p = parameters();
+		assertEquals(4, traces(rb, p));
+		assertEquals(4, traces(rb, p));
+
+		//with abs uninterpreted its branches are not explored
+		p.addUninterpreted("targets/Branches", "(I)I", "abs", "abs");
+		assertEquals(2, traces(rb, p));
+		assertEquals(2, traces(rb, p));
+	}
+}
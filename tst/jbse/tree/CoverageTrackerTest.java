@@ -0,0 +1,67 @@
+package jbse.tree;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+
+public class CoverageTrackerTest {
+	private static final String BRANCHES = "targets/Branches";
+	private static final Signature TWO_LEVELS = new Signature(BRANCHES, "(II)I", "twoLevels");
+	private static final Signature THREE_LEVELS = new Signature(BRANCHES, "(III)I", "threeLevels");
+	private static final Signature UNBALANCED = new Signature(BRANCHES, "(III)I", "unbalanced");
+
+	private static State newState(Signature root) throws Exception {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		final State s = new State(new Classpath("tst/jbse/bc/testdata/rt.jar", "tst/jbse/apps/run/testdata/"),
+		                          ClassFileFactoryJavassist.class, new HashMap<>(), calc);
+		s.pushFrameSymbolic(root);
+		return s;
+	}
+
+	@Test
+	public void testAllMethodsTracked() throws Exception {
+		//the methods of the class not met yet count in the ratio
+		final CoverageTracker coverage = new CoverageTracker();
+		final State s = newState(UNBALANCED);
+		coverage.beforeStep(s);
+		assertTrue(coverage.getTrackedMethods().contains(TWO_LEVELS));
+		assertTrue(coverage.getTrackedMethods().contains(THREE_LEVELS));
+		assertTrue(coverage.getTrackedMethods().contains(UNBALANCED));
+		final long total = coverage.getTotalEdges(TWO_LEVELS) + coverage.getTotalEdges(THREE_LEVELS) + coverage.getTotalEdges(UNBALANCED);
+		assertTrue(coverage.getTotalEdges(UNBALANCED) > 0);
+		assertTrue(coverage.getTotalEdges() >= total);
+		assertEquals(0.0d, coverage.getCoverageRatio(), 0.0d);
+	}
+
+	@Test
+	public void testCoverEdge() throws Exception {
+		//a step covers an edge, once
+		final CoverageTracker coverage = new CoverageTracker();
+		final State s = newState(UNBALANCED);
+		coverage.beforeStep(s);
+		final long epoch = coverage.getEpoch();
+		s.setProgramCounter(1);
+		coverage.afterStep(s, null);
+		assertEquals(1, coverage.getCoveredEdges());
+		assertEquals(1, coverage.getCoveredEdges(UNBALANCED));
+		assertTrue(coverage.getEpoch() != epoch);
+		assertEquals(1.0d / coverage.getTotalEdges(), coverage.getCoverageRatio(), 1e-9);
+		assertEquals(0, coverage.distanceToUncovered(s));
+
+		s.setProgramCounter(0);
+		coverage.beforeStep(s);
+		s.setProgramCounter(1);
+		coverage.afterStep(s, null);
+		assertEquals(1, coverage.getCoveredEdges());
+	}
+}
@@ -0,0 +1,172 @@
+package jbse.tree;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.tree.StateTree.BranchInfo;
+import jbse.tree.StateTree.BreadthMode;
+import jbse.tree.StateTree.SearchMode;
+import jbse.tree.StateTree.StateIdentificationMode;
+
+public class StateTreeTest {
+	/** A spill threshold that is always exceeded. */
+	private static final double ALWAYS_SPILL = 1e-9;
+
+	private static State newState() throws InvalidClassFileFactoryClassException {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		return new State(new Classpath(), ClassFileFactoryJavassist.class, new HashMap<>(), calc);
+	}
+
+	private static StateTree newTree() {
+		return new StateTree(StateIdentificationMode.REPLICABLE, BreadthMode.MORE_THAN_ONE);
+	}
+
+	private static StateTree newTree(SearchMode searchMode) {
+		return new StateTree(StateIdentificationMode.REPLICABLE, BreadthMode.MORE_THAN_ONE, 
+		                     StateTree.makeSearchStrategy(searchMode, 1, 42L, new CoverageTracker()));
+	}
+
+	private static List<String> explore(SearchMode searchMode, int depth) throws InvalidClassFileFactoryClassException {
+		final StateTree tree = newTree(searchMode);
+		tree.addInitialState(newState());
+		return explore(tree, depth, new int[1]);
+	}
+
+	private static int level(State s) {
+		return s.getIdentifier().split("\\" + StateTree.IDENTIFIER_SEPARATOR_LONG).length - 1;
+	}
+
+	/**
+	 * Emits all the states of a tree, adding to each emitted
+	 * state above some level two successors.
+	 *
+	 * @return the identifiers of the emitted states, in emission order.
+	 */
+	private static List<String> explore(StateTree tree, int depth, int[] maxSpilled) {
+		final ArrayList<String> retVal = new ArrayList<>();
+		while (tree.hasStates()) {
+			final State s = tree.nextState();
+			retVal.add(s.getIdentifier());
+			if (level(s) < depth) {
+				tree.possiblyAddBranchPoint(true, false, false, false);
+				tree.addState(s.clone(), 1, null);
+				tree.addState(s.clone(), 2, null);
+			}
+			maxSpilled[0] = Math.max(maxSpilled[0], tree.getSpilledStates());
+		}
+		return retVal;
+	}
+
+	private static List<String> sorted(List<String> l) {
+		final ArrayList<String> retVal = new ArrayList<>(l);
+		Collections.sort(retVal);
+		return retVal;
+	}
+
+	@Test
+	public void testSearchModesSameStates() throws InvalidClassFileFactoryClassException {
+		//all the search modes emit all the states, once
+		final List<String> expected = sorted(explore(SearchMode.DEPTH_FIRST, 6));
+		assertEquals(127, expected.size());
+		for (SearchMode searchMode : SearchMode.values()) {
+			assertEquals(expected, sorted(explore(searchMode, 6)));
+		}
+	}
+
+	@Test
+	public void testRandomPathReplicable() throws InvalidClassFileFactoryClassException {
+		//with the same seed the random path search emits the states in the same order
+		final List<String> first = explore(SearchMode.RANDOM_PATH, 6);
+		assertEquals(first, explore(SearchMode.RANDOM_PATH, 6));
+		assertFalse(first.equals(explore(SearchMode.DEPTH_FIRST, 6)));
+	}
+
+	@Test
+	public void testRandomPathNoStates() {
+		//the random walk steps back from a pending branch with no states
+		final SearchStrategyRandomPath strategy = new SearchStrategyRandomPath(42L);
+		final BranchInfo root = new BranchInfo(null, 0, -1);
+		final BranchInfo empty = new BranchInfo(root, 1, 0);
+		final BranchInfo emptyChild = new BranchInfo(empty, 2, 1);
+		final BranchInfo full = new BranchInfo(root, 1, 2);
+		full.totalStates = 1;
+		strategy.pushed(empty);
+		strategy.pushed(emptyChild);
+		strategy.pushed(full);
+		for (int i = 0; i < 100; ++i) {
+			assertSame(full, strategy.select());
+		}
+	}
+
+	@Test(expected=UnexpectedInternalException.class)
+	public void testRandomPathNoBranches() {
+		//the random walk fails if no pending branch has states
+		final SearchStrategyRandomPath strategy = new SearchStrategyRandomPath(42L);
+		final BranchInfo root = new BranchInfo(null, 0, -1);
+		strategy.pushed(new BranchInfo(root, 1, 0));
+		strategy.select();
+	}
+
+	@Test
+	public void testCoverageGuidedNoCoverage() throws InvalidClassFileFactoryClassException {
+		//with nothing to cover the coverage-guided search is depth-first
+		final List<String> expected = explore(SearchMode.DEPTH_FIRST, 6);
+		assertEquals(127, expected.size());
+		assertEquals(expected, explore(SearchMode.COVERAGE_GUIDED, 6));
+	}
+
+	@Test
+	public void testSpillSameOrder() throws InvalidClassFileFactoryClassException, IOException {
+		//spilling does not change the emitted states, nor their order
+		final int[] maxSpilled = new int[1];
+		final StateTree plain = newTree();
+		plain.addInitialState(newState());
+		final List<String> expected = explore(plain, 8, maxSpilled);
+		assertEquals(0, maxSpilled[0]);
+
+		final StateTree spilling = newTree();
+		spilling.enableSpilling(ALWAYS_SPILL, null);
+		try {
+			spilling.addInitialState(newState());
+			assertEquals(expected, explore(spilling, 8, maxSpilled));
+			assertTrue(maxSpilled[0] > 0);
+			assertEquals(0, spilling.getSpilledStates());
+		} finally {
+			spilling.close();
+		}
+	}
+
+	@Test(expected=UnexpectedInternalException.class)
+	public void testSpillFailure() throws InvalidClassFileFactoryClassException, IOException {
+		//a state that cannot be serialized (its calculator is not shared) is not silently kept
+		final StateTree tree = newTree();
+		tree.enableSpilling(ALWAYS_SPILL, null);
+		try {
+			final State root = newState();
+			tree.addInitialState(root);
+			tree.nextState();
+			tree.possiblyAddBranchPoint(true, false, false, false);
+			tree.addState(newState(), 1, null);
+			tree.addState(root.clone(), 2, null);
+			tree.addState(root.clone(), 3, null);
+			explore(tree, 8, new int[1]);
+		} finally {
+			tree.close();
+		}
+	}
+}